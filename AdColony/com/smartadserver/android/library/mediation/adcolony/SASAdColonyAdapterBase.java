@@ -1,12 +1,12 @@
 package com.smartadserver.android.library.mediation.adcolony;
 
-import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
 import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 
 import androidx.annotation.NonNull;
 
-import com.adcolony.sdk.AdColony;
 import com.adcolony.sdk.AdColonyAppOptions;
 import com.smartadserver.android.library.mediation.SASMediationAdapter;
 
@@ -17,16 +17,38 @@ import java.util.Map;
  */
 public class SASAdColonyAdapterBase {
 
+    // network name used to track ad requests
+    static final String NETWORK_NAME = "AdColony";
+
+    /**
+     * Declares AdColony zones up front, so that the AdColony SDK is configured with all of them at the first ad request
+     * instead of being reconfigured each time a new zone is requested
+     */
+    public static void registerZoneIDs(@NonNull String... zoneIDs) {
+        SASAdColonySessionManager.getSharedInstance().addZoneIDs(zoneIDs);
+    }
+
     /**
      * Common configuration code for all formats
+     *
+     * @return true if the AdColony SDK is configured for the requested zone
      */
-    void configureAdRequest(@NonNull Activity activity, @NonNull String serverParametersString, @NonNull Map<String, Object> clientParameters) {
+    boolean configureAdRequest(@NonNull Context context, @NonNull String serverParametersString, @NonNull Map<String, Object> clientParameters) {
 
         // extract AdColony specific parameters
-        String[] params = serverParametersString.split("/");
-        String appID = params[0];
-        String zoneID = params[1];
-
-        AdColony.configure(activity, appID, zoneID);
+        SASAdColonyServerParameters serverParameters = SASAdColonyServerParameters.parse(serverParametersString);
+        if (!serverParameters.isValid()) {
+            return false;
+        }
+        String appID = serverParameters.getAppID();
+        String zoneID = serverParameters.getZoneID();
+
+        Context applicationContext = context.getApplicationContext();
+        if (!(applicationContext instanceof Application)) {
+            return false;
+        }
+
+        // configure AdColony only if this zone is not registered yet
+        return SASAdColonySessionManager.getSharedInstance().configureIfNecessary((Application) applicationContext, appID, zoneID);
     }
 }
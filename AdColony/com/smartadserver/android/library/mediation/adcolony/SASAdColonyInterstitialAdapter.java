@@ -1,19 +1,21 @@
 package com.smartadserver.android.library.mediation.adcolony;
 
-import android.app.Activity;
 import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 
 
-import com.adcolony.sdk.AdColony;
 import com.adcolony.sdk.AdColonyInterstitial;
 import com.adcolony.sdk.AdColonyInterstitialListener;
 import com.adcolony.sdk.AdColonyZone;
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapter;
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 
 
 import java.util.Map;
@@ -26,10 +28,21 @@ public class SASAdColonyInterstitialAdapter extends SASAdColonyAdapterBase imple
     // tag for logging purposes
     static private final String TAG = SASAdColonyInterstitialAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     // AdColony interstitial instance
     @Nullable
     AdColonyInterstitial adColonyInterstitial;
 
+    // requested AdColony zone ID, and the listener of its ads
+    @Nullable
+    private String zoneID;
+
+    @Nullable
+    private AdColonyInterstitialListener adColonyListener;
+
     /**
      * Requests a mediated interstitial ad asynchronously
      *
@@ -37,32 +50,53 @@ public class SASAdColonyInterstitialAdapter extends SASAdColonyAdapterBase imple
      * @param serverParametersString      a String containing all needed parameters (as returned by Smart ad delivery)
      *                                    to make the mediation ad call
      * @param clientParameters            additional client-side parameters (user specific, like location)
-     * @param interstitialAdapterListener the {@link SASMediationInterstitialAdapterListener} provided to
+     * @param adapterListener             the {@link SASMediationInterstitialAdapterListener} provided to
      *                                    this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
      */
     @Override
     public void requestInterstitialAd(@NonNull Context context,
                                       @NonNull String serverParametersString,
                                       @NonNull Map<String, Object> clientParameters,
-                                      @NonNull final SASMediationInterstitialAdapterListener interstitialAdapterListener) {
+                                      @NonNull SASMediationInterstitialAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationInterstitialAdapterListener interstitialAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
 
-        if (!(context instanceof Activity)) {
-            interstitialAdapterListener.adRequestFailed("AdColony ad mediation requires that the Smart AdServer SASAdview " +
-                    " be created with an Activity as context parameter", false);
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, interstitialAdapterListener)) {
             return;
         }
 
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(interstitialAdapterListener);
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, interstitialAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
         // extract AdColony specific parameters
-        final String zoneID = serverParametersString.split("/")[1];
+        SASAdColonyServerParameters serverParameters = SASAdColonyServerParameters.parse(serverParametersString);
+        if (!serverParameters.isValid()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(interstitialAdapterListener, "The AdColony appID and/or zoneID is not correctly set");
+            return;
+        }
+        final String zoneID = serverParameters.getZoneID();
 
         // prepare ad request
-        configureAdRequest((Activity) context, serverParametersString, clientParameters);
+        if (!configureAdRequest(context, serverParametersString, clientParameters)) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(interstitialAdapterListener, "AdColony SDK could not be configured");
+            return;
+        }
 
         // instantiate adcolony listener
         AdColonyInterstitialListener listener = new AdColonyInterstitialListener() {
             @Override
             public void onRequestFilled(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onRequestFilled for interstitial");
+                SASAdapterLogger.d(TAG, "AdColony onRequestFilled for interstitial");
 
                 adColonyInterstitial = ad;
 
@@ -71,58 +105,61 @@ public class SASAdColonyInterstitialAdapter extends SASAdColonyAdapterBase imple
 
             @Override
             public void onRequestNotFilled(AdColonyZone zone) {
-                Log.d(TAG, "AdColony onRequestNotFilled for interstitial. Zone :" + zone);
+                SASAdapterLogger.d(TAG, "AdColony onRequestNotFilled for interstitial. Zone :%s", zone);
                 interstitialAdapterListener.adRequestFailed("Cannot load interstitial from AdColony!", true);
             }
 
             @Override
             public void onExpiring(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onExpiring for interstitial");
-
-                // If the interstitial is expiring, we need to get a new one.
-                // This can be problematic if the developer uses several appID for the same app since
-                // this value is static and defined only once during the 'requestAd' call.
-//                AdColony.requestInterstitial(ad.getZoneID(), this, null);
-                onDestroy();
-                adColonyInterstitial = null;
+                SASAdapterLogger.d(TAG, "AdColony onExpiring for interstitial");
+
+                // the ad is expiring, replace it in background: a fresh ad will be taken from the cache at show time
+                if (adColonyInterstitial == ad) {
+                    adColonyInterstitial = null;
+                }
+                ad.destroy();
+                SASAdColonyInterstitialCache.getSharedInstance().refresh(ad.getZoneID());
             }
 
             @Override
             public void onOpened(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onOpened for interstitial");
+                SASAdapterLogger.d(TAG, "AdColony onOpened for interstitial");
                 interstitialAdapterListener.onInterstitialShown();
             }
 
             @Override
             public void onClosed(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onClosed for interstitial");
+                SASAdapterLogger.d(TAG, "AdColony onClosed for interstitial");
                 interstitialAdapterListener.onAdClosed();
             }
 
             @Override
             public void onIAPEvent(AdColonyInterstitial ad, String product_id, int engagement_type) {
-                Log.d(TAG, "AdColony onIAPEvent for interstitial");
+                SASAdapterLogger.d(TAG, "AdColony onIAPEvent for interstitial");
             }
 
             @Override
             public void onLeftApplication(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onLeftApplication for interstitial");
+                SASAdapterLogger.d(TAG, "AdColony onLeftApplication for interstitial");
             }
 
             @Override
             public void onClicked(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onClicked for interstitial");
+                SASAdapterLogger.d(TAG, "AdColony onClicked for interstitial");
                 interstitialAdapterListener.onAdClicked();
             }
         };
 
-        // perform ad request
-        AdColony.requestInterstitial(zoneID, listener, null);
+        // perform ad request, served right away if a fresh ad of this zone is cached
+        this.zoneID = zoneID;
+        this.adColonyListener = listener;
+        SASAdColonyInterstitialCache.getSharedInstance().requestInterstitial(zoneID, listener);
     }
 
 
     @Override
     public void showInterstitial() throws Exception {
+        takeFreshAdIfNeeded();
         if (adColonyInterstitial != null) {
             adColonyInterstitial.show();
         } else {
@@ -130,9 +167,28 @@ public class SASAdColonyInterstitialAdapter extends SASAdColonyAdapterBase imple
         }
     }
 
+    /**
+     * Replaces the loaded ad by a fresh one from the cache if it expired
+     */
+    private void takeFreshAdIfNeeded() {
+        if (adColonyInterstitial != null && adColonyInterstitial.isExpired()) {
+            adColonyInterstitial.destroy();
+            adColonyInterstitial = null;
+        }
+        if (adColonyInterstitial == null && zoneID != null && adColonyListener != null) {
+            adColonyInterstitial = SASAdColonyInterstitialCache.getSharedInstance().takeReadyAd(zoneID, adColonyListener);
+        }
+    }
+
     @Override
     public void onDestroy() {
-        Log.d(TAG, "AdColony onDestroy() for interstitial");
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        SASAdapterLogger.d(TAG, "AdColony onDestroy() for interstitial");
+        if (zoneID != null && adColonyListener != null) {
+            SASAdColonyInterstitialCache.getSharedInstance().cancelRequest(zoneID, adColonyListener);
+        }
         if (adColonyInterstitial != null) {
             adColonyInterstitial.destroy();
             adColonyInterstitial = null;
@@ -0,0 +1,251 @@
+package com.smartadserver.android.library.mediation.adcolony;
+
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.adcolony.sdk.AdColony;
+import com.adcolony.sdk.AdColonyInterstitial;
+import com.adcolony.sdk.AdColonyInterstitialListener;
+import com.adcolony.sdk.AdColonyZone;
+
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Process-wide cache of ready AdColony interstitials (also used for rewarded videos), by zone.
+ * Ad requests are served from the cache when a fresh ad is ready, and expiring ads are re-requested in background,
+ * so that a fresh ad is available when the adapter has to show one. Background refreshes of a zone stop after
+ * {@link #MAX_UNUSED_REFRESH_COUNT} consecutive ads expired unused, until the zone is requested again.
+ * AdColony requests are decided under the cache lock but always made after releasing it, as AdColony callbacks take it.
+ */
+class SASAdColonyInterstitialCache {
+
+    static private final String TAG = SASAdColonyInterstitialCache.class.getSimpleName();
+
+    // maximum number of consecutive cached ads of a zone expiring unused before background refreshes stop
+    static final int MAX_UNUSED_REFRESH_COUNT = 3;
+
+    @Nullable
+    private static SASAdColonyInterstitialCache sharedInstance;
+
+    // cache of each zone, by zone ID
+    @NonNull
+    private final Map<String, ZoneCache> zoneCaches = new HashMap<>();
+
+    /**
+     * Cache of a single zone. Also acts as the AdColony listener of its background requests, and of its ready ad
+     * until it is handed over to an adapter.
+     */
+    private class ZoneCache extends AdColonyInterstitialListener {
+
+        @NonNull
+        private final String zoneID;
+
+        // fresh ad, not handed over to any adapter yet
+        @Nullable
+        private AdColonyInterstitial readyAd;
+
+        // whether an AdColony request is in flight for this zone
+        private boolean loading = false;
+
+        // number of consecutive cached ads expired without being requested
+        private int unusedRefreshCount = 0;
+
+        // adapter listeners waiting for an ad of this zone, in request order
+        @NonNull
+        private final Queue<AdColonyInterstitialListener> waitingListeners = new ArrayDeque<>();
+
+        ZoneCache(@NonNull String zoneID) {
+            this.zoneID = zoneID;
+        }
+
+        /**
+         * Returns whether an AdColony request must be made for this zone, which is then considered loading.
+         * Must be called under the cache lock, the request being made with {@link #load()} once it is released.
+         */
+        boolean reserveLoad() {
+            if (!loading && readyAd == null) {
+                loading = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Makes the AdColony request reserved with {@link #reserveLoad()}, must not be called under the cache lock
+         */
+        void load() {
+            SASAdapterLogger.d(TAG, "AdColony requesting interstitial for zone: %s", zoneID);
+            AdColony.requestInterstitial(zoneID, this, null);
+        }
+
+        @Override
+        public void onRequestFilled(AdColonyInterstitial ad) {
+            AdColonyInterstitialListener waitingListener;
+            boolean load = false;
+            synchronized (SASAdColonyInterstitialCache.this) {
+                loading = false;
+                waitingListener = waitingListeners.poll();
+                if (waitingListener == null) {
+                    // nobody is waiting anymore, keep the ad for the next request
+                    SASAdapterLogger.d(TAG, "AdColony interstitial cached for zone: %s", zoneID);
+                    readyAd = ad;
+                    return;
+                }
+                ad.setListener(waitingListener);
+
+                // other adapters are still waiting, request another ad for them
+                if (!waitingListeners.isEmpty()) {
+                    load = reserveLoad();
+                }
+            }
+            waitingListener.onRequestFilled(ad);
+            if (load) {
+                load();
+            }
+        }
+
+        @Override
+        public void onRequestNotFilled(AdColonyZone zone) {
+            AdColonyInterstitialListener[] listeners;
+            synchronized (SASAdColonyInterstitialCache.this) {
+                loading = false;
+                listeners = waitingListeners.toArray(new AdColonyInterstitialListener[0]);
+                waitingListeners.clear();
+            }
+            for (AdColonyInterstitialListener listener : listeners) {
+                listener.onRequestNotFilled(zone);
+            }
+        }
+
+        @Override
+        public void onExpiring(AdColonyInterstitial ad) {
+            // the cached ad is about to expire, replace it in background unless this zone is no longer requested
+            SASAdapterLogger.d(TAG, "AdColony cached interstitial expiring for zone: %s", zoneID);
+            boolean load = false;
+            synchronized (SASAdColonyInterstitialCache.this) {
+                if (readyAd == ad) {
+                    readyAd = null;
+                }
+                if (++unusedRefreshCount < MAX_UNUSED_REFRESH_COUNT) {
+                    load = reserveLoad();
+                } else {
+                    SASAdapterLogger.d(TAG, "AdColony background refresh stopped for unused zone: %s", zoneID);
+                }
+            }
+            ad.destroy();
+            if (load) {
+                load();
+            }
+        }
+    }
+
+    @NonNull
+    static synchronized SASAdColonyInterstitialCache getSharedInstance() {
+        if (sharedInstance == null) {
+            sharedInstance = new SASAdColonyInterstitialCache();
+        }
+        return sharedInstance;
+    }
+
+    @NonNull
+    private ZoneCache getZoneCache(@NonNull String zoneID) {
+        ZoneCache zoneCache = zoneCaches.get(zoneID);
+        if (zoneCache == null) {
+            zoneCache = new ZoneCache(zoneID);
+            zoneCaches.put(zoneID, zoneCache);
+        }
+        return zoneCache;
+    }
+
+    /**
+     * Requests an ad of the given zone. The listener is notified right away if a fresh ad is cached, otherwise
+     * once the AdColony request completes. The ad is handed over with the given listener set.
+     */
+    void requestInterstitial(@NonNull String zoneID, @NonNull AdColonyInterstitialListener listener) {
+        AdColonyInterstitial ad = takeReadyAd(zoneID, listener);
+        if (ad != null) {
+            SASAdapterLogger.d(TAG, "AdColony interstitial served from cache for zone: %s", zoneID);
+            listener.onRequestFilled(ad);
+            return;
+        }
+
+        ZoneCache zoneCache;
+        boolean load;
+        synchronized (this) {
+            zoneCache = getZoneCache(zoneID);
+            zoneCache.unusedRefreshCount = 0;
+            zoneCache.waitingListeners.add(listener);
+            load = zoneCache.reserveLoad();
+        }
+        if (load) {
+            zoneCache.load();
+        }
+    }
+
+    /**
+     * Returns the fresh cached ad of the given zone, now notifying the given listener, or null if there is none.
+     */
+    @Nullable
+    AdColonyInterstitial takeReadyAd(@NonNull String zoneID, @NonNull AdColonyInterstitialListener listener) {
+        ZoneCache zoneCache;
+        AdColonyInterstitial ad;
+        boolean expired;
+        boolean load = false;
+        synchronized (this) {
+            zoneCache = zoneCaches.get(zoneID);
+            if (zoneCache == null || zoneCache.readyAd == null) {
+                return null;
+            }
+
+            ad = zoneCache.readyAd;
+            zoneCache.readyAd = null;
+            zoneCache.unusedRefreshCount = 0;
+            expired = ad.isExpired();
+            if (expired) {
+                load = zoneCache.reserveLoad();
+            } else {
+                ad.setListener(listener);
+            }
+        }
+
+        if (expired) {
+            ad.destroy();
+            if (load) {
+                zoneCache.load();
+            }
+            return null;
+        }
+        return ad;
+    }
+
+    /**
+     * Requests a new ad of the given zone in background, unless one is already cached or loading
+     */
+    void refresh(@NonNull String zoneID) {
+        ZoneCache zoneCache;
+        boolean load;
+        synchronized (this) {
+            zoneCache = getZoneCache(zoneID);
+            load = zoneCache.reserveLoad();
+        }
+        if (load) {
+            zoneCache.load();
+        }
+    }
+
+    /**
+     * Stops notifying the given listener of a pending request. An ad loaded for it will be cached instead.
+     */
+    synchronized void cancelRequest(@NonNull String zoneID, @NonNull AdColonyInterstitialListener listener) {
+        ZoneCache zoneCache = zoneCaches.get(zoneID);
+        if (zoneCache != null) {
+            zoneCache.waitingListeners.remove(listener);
+        }
+    }
+}
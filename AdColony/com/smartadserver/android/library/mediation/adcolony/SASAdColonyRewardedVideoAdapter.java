@@ -1,11 +1,9 @@
 package com.smartadserver.android.library.mediation.adcolony;
 
-import android.app.Activity;
 import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 
 import com.adcolony.sdk.AdColony;
 import com.adcolony.sdk.AdColonyInterstitial;
@@ -15,6 +13,11 @@ import com.adcolony.sdk.AdColonyRewardListener;
 import com.adcolony.sdk.AdColonyZone;
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapter;
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 import com.smartadserver.android.library.model.SASReward;
 
 
@@ -29,10 +32,21 @@ public class SASAdColonyRewardedVideoAdapter extends SASAdColonyAdapterBase impl
     // tag for logging purposes
     static private final String TAG = SASAdColonyRewardedVideoAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     // AdColony interstitial instance
     @Nullable
     AdColonyInterstitial adColonyInterstitial;
 
+    // requested AdColony zone ID, and the listener of its ads
+    @Nullable
+    private String zoneID;
+
+    @Nullable
+    private AdColonyInterstitialListener adColonyListener;
+
 
     /**
      * Requests a mediated interstitial ad asynchronously
@@ -40,31 +54,53 @@ public class SASAdColonyRewardedVideoAdapter extends SASAdColonyAdapterBase impl
      * @param context                      The {@link Context} needed by the mediation SDK to make the ad request.
      * @param serverParametersString       a String containing all needed parameters (as returned by Smart ad delivery) to make the mediation ad call.
      * @param clientParameters             additional client-side parameters (user specific, like location).
-     * @param rewardedVideoAdapterListener the {@link SASMediationRewardedVideoAdapterListener} provided to this
+     * @param adapterListener              the {@link SASMediationRewardedVideoAdapterListener} provided to this
      *                                     {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify the Smart SDK of events
      */
     @Override
     public void requestRewardedVideoAd(@NonNull Context context,
                                        @NonNull String serverParametersString,
                                        @NonNull Map<String, Object> clientParameters,
-                                       @NonNull final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener) {
-        if (!(context instanceof Activity)) {
-            rewardedVideoAdapterListener.adRequestFailed("AdColony ad mediation requires that the Smart AdServer SASAdview " +
-                    " be created with an Activity as context parameter", false);
+                                       @NonNull SASMediationRewardedVideoAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, rewardedVideoAdapterListener)) {
             return;
         }
 
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(rewardedVideoAdapterListener);
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, rewardedVideoAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
         // extract AdColony specific parameters
-        final String zoneID = serverParametersString.split("/")[1];
+        SASAdColonyServerParameters serverParameters = SASAdColonyServerParameters.parse(serverParametersString);
+        if (!serverParameters.isValid()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(rewardedVideoAdapterListener, "The AdColony appID and/or zoneID is not correctly set");
+            return;
+        }
+        final String zoneID = serverParameters.getZoneID();
 
         // prepare ad request
-        configureAdRequest((Activity) context, serverParametersString, clientParameters);
+        if (!configureAdRequest(context, serverParametersString, clientParameters)) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(rewardedVideoAdapterListener, "AdColony SDK could not be configured");
+            return;
+        }
 
         // instantiate adcolony listener
         AdColonyInterstitialListener listener = new AdColonyInterstitialListener() {
             @Override
             public void onRequestFilled(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onRequestFilled for rewarded video");
+                SASAdapterLogger.d(TAG, "AdColony onRequestFilled for rewarded video");
 
                 adColonyInterstitial = ad;
                 rewardedVideoAdapterListener.onRewardedVideoLoaded();
@@ -72,47 +108,47 @@ public class SASAdColonyRewardedVideoAdapter extends SASAdColonyAdapterBase impl
 
             @Override
             public void onRequestNotFilled(AdColonyZone zone) {
-                Log.d(TAG, "AdColony onRequestNotFilled for rewarded video. Zone :" + zone);
+                SASAdapterLogger.d(TAG, "AdColony onRequestNotFilled for rewarded video. Zone :%s", zone);
                 rewardedVideoAdapterListener.adRequestFailed("Cannot load rewarded video from AdColony!", true);
             }
 
             @Override
             public void onExpiring(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onExpiring for rewarded video");
-
-                // If the interstitial is expiring, we need to get a new one.
-                // This can be problematic if the developer uses several appID for the same app since
-                // this value is static and defined only once during the 'requestAd' call.
-//                AdColony.requestInterstitial(ad.getZoneID(), this, null);
-                onDestroy();
-                adColonyInterstitial = null;
+                SASAdapterLogger.d(TAG, "AdColony onExpiring for rewarded video");
+
+                // the ad is expiring, replace it in background: a fresh ad will be taken from the cache at show time
+                if (adColonyInterstitial == ad) {
+                    adColonyInterstitial = null;
+                }
+                ad.destroy();
+                SASAdColonyInterstitialCache.getSharedInstance().refresh(ad.getZoneID());
             }
 
             @Override
             public void onOpened(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onOpened for rewarded video");
+                SASAdapterLogger.d(TAG, "AdColony onOpened for rewarded video");
                 rewardedVideoAdapterListener.onRewardedVideoShown();
             }
 
             @Override
             public void onClosed(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onClosed for rewarded video");
+                SASAdapterLogger.d(TAG, "AdColony onClosed for rewarded video");
                 rewardedVideoAdapterListener.onAdClosed();
             }
 
             @Override
             public void onIAPEvent(AdColonyInterstitial ad, String product_id, int engagement_type) {
-                Log.d(TAG, "AdColony onIAPEvent for rewarded video");
+                SASAdapterLogger.d(TAG, "AdColony onIAPEvent for rewarded video");
             }
 
             @Override
             public void onLeftApplication(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onLeftApplication for rewarded video");
+                SASAdapterLogger.d(TAG, "AdColony onLeftApplication for rewarded video");
             }
 
             @Override
             public void onClicked(AdColonyInterstitial ad) {
-                Log.d(TAG, "AdColony onClicked for rewarded video");
+                SASAdapterLogger.d(TAG, "AdColony onClicked for rewarded video");
                 rewardedVideoAdapterListener.onAdClicked();
             }
         };
@@ -122,20 +158,23 @@ public class SASAdColonyRewardedVideoAdapter extends SASAdColonyAdapterBase impl
             String currency = adColonyReward.getRewardName();
             int amount = adColonyReward.getRewardAmount();
 
-            Log.d(TAG, "AdColony onReward for rewarded video: label:" + currency + " amount:" + amount);
+            SASAdapterLogger.d(TAG, "AdColony onReward for rewarded video: label:%s amount:%s", currency, amount);
 
             if (amount > 0) {
                 rewardedVideoAdapterListener.onReward(new SASReward(currency, amount));
             }
         });
 
-        // perform ad request
-        AdColony.requestInterstitial(zoneID, listener, null);
+        // perform ad request, served right away if a fresh ad of this zone is cached
+        this.zoneID = zoneID;
+        this.adColonyListener = listener;
+        SASAdColonyInterstitialCache.getSharedInstance().requestInterstitial(zoneID, listener);
 
     }
 
     @Override
     public void showRewardedVideoAd() throws Exception {
+        takeFreshAdIfNeeded();
         if (adColonyInterstitial != null) {
             adColonyInterstitial.show();
         } else {
@@ -143,9 +182,28 @@ public class SASAdColonyRewardedVideoAdapter extends SASAdColonyAdapterBase impl
         }
     }
 
+    /**
+     * Replaces the loaded ad by a fresh one from the cache if it expired
+     */
+    private void takeFreshAdIfNeeded() {
+        if (adColonyInterstitial != null && adColonyInterstitial.isExpired()) {
+            adColonyInterstitial.destroy();
+            adColonyInterstitial = null;
+        }
+        if (adColonyInterstitial == null && zoneID != null && adColonyListener != null) {
+            adColonyInterstitial = SASAdColonyInterstitialCache.getSharedInstance().takeReadyAd(zoneID, adColonyListener);
+        }
+    }
+
     @Override
     public void onDestroy() {
-        Log.d(TAG, "AdColony onDestroy() for rewarded video");
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        SASAdapterLogger.d(TAG, "AdColony onDestroy() for rewarded video");
+        if (zoneID != null && adColonyListener != null) {
+            SASAdColonyInterstitialCache.getSharedInstance().cancelRequest(zoneID, adColonyListener);
+        }
         if (adColonyInterstitial != null) {
             adColonyInterstitial.destroy();
             adColonyInterstitial = null;
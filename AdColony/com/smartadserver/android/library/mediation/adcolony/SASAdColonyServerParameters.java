@@ -0,0 +1,61 @@
+package com.smartadserver.android.library.mediation.adcolony;
+
+import androidx.annotation.NonNull;
+
+import com.smartadserver.android.library.mediation.common.SASServerParametersCache;
+
+import java.util.List;
+
+/**
+ * Typed AdColony server parameters, parsed from the "appID/zoneID" String sent by Smart ad delivery
+ */
+class SASAdColonyServerParameters {
+
+    // parsed server parameters, by raw String
+    @NonNull
+    private static final SASServerParametersCache<SASAdColonyServerParameters> cache =
+            new SASServerParametersCache<>(16, new SASServerParametersCache.Parser<SASAdColonyServerParameters>() {
+                @NonNull
+                @Override
+                public SASAdColonyServerParameters parse(@NonNull String serverParametersString) {
+                    return new SASAdColonyServerParameters(serverParametersString);
+                }
+            });
+
+    @NonNull
+    private final String appID;
+
+    @NonNull
+    private final String zoneID;
+
+    private SASAdColonyServerParameters(@NonNull String serverParametersString) {
+        List<String> fields = SASServerParametersCache.split(serverParametersString, '/');
+        appID = fields.get(0);
+        zoneID = SASServerParametersCache.getField(fields, 1, "");
+    }
+
+    /**
+     * Returns the (cached) typed AdColony server parameters for the given raw String
+     */
+    @NonNull
+    static SASAdColonyServerParameters parse(@NonNull String serverParametersString) {
+        return cache.get(serverParametersString);
+    }
+
+    @NonNull
+    String getAppID() {
+        return appID;
+    }
+
+    @NonNull
+    String getZoneID() {
+        return zoneID;
+    }
+
+    /**
+     * Returns whether both app ID and zone ID are correctly set
+     */
+    boolean isValid() {
+        return appID.length() > 0 && zoneID.length() > 0;
+    }
+}
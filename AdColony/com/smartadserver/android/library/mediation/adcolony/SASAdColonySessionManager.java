@@ -0,0 +1,97 @@
+package com.smartadserver.android.library.mediation.adcolony;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.adcolony.sdk.AdColony;
+import com.adcolony.sdk.AdColonyAppOptions;
+
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Process-wide AdColony SDK session shared by all AdColony adapters.
+ * The AdColony SDK is configured once with every zone seen so far (including zones declared up front), reusing a
+ * single {@link AdColonyAppOptions} instance, and is only reconfigured when a request targets an unregistered zone.
+ */
+class SASAdColonySessionManager {
+
+    static private final String TAG = SASAdColonySessionManager.class.getSimpleName();
+
+    @Nullable
+    private static SASAdColonySessionManager sharedInstance;
+
+    // app options shared by all configurations
+    @NonNull
+    private final AdColonyAppOptions appOptions = new AdColonyAppOptions();
+
+    // app ID of the latest configuration
+    @Nullable
+    private String appID;
+
+    // all zones seen so far, in declaration order
+    @NonNull
+    private final Set<String> zoneIDs = new LinkedHashSet<>();
+
+    // zones the AdColony SDK is currently configured with
+    @NonNull
+    private final Set<String> configuredZoneIDs = new HashSet<>();
+
+    @NonNull
+    static synchronized SASAdColonySessionManager getSharedInstance() {
+        if (sharedInstance == null) {
+            sharedInstance = new SASAdColonySessionManager();
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Declares zones that will be part of the next AdColony configuration
+     */
+    synchronized void addZoneIDs(@NonNull String... zoneIDs) {
+        this.zoneIDs.addAll(Arrays.asList(zoneIDs));
+    }
+
+    /**
+     * Returns the {@link AdColonyAppOptions} instance used for all configurations
+     */
+    @NonNull
+    AdColonyAppOptions getAppOptions() {
+        return appOptions;
+    }
+
+    /**
+     * Configures the AdColony SDK with all known zones, unless it is already configured with the given app ID and zone.
+     *
+     * @param application the {@link Application} used to configure the AdColony SDK
+     * @param appID       the AdColony app ID
+     * @param zoneID      the AdColony zone ID about to be requested
+     * @return true if the AdColony SDK is configured for the given zone
+     */
+    synchronized boolean configureIfNecessary(@NonNull Application application, @NonNull String appID, @NonNull String zoneID) {
+        if (!appID.equals(this.appID)) {
+            this.appID = appID;
+            configuredZoneIDs.clear();
+        }
+
+        zoneIDs.add(zoneID);
+
+        if (configuredZoneIDs.containsAll(zoneIDs)) {
+            // zone already registered, no need to reconfigure
+            return true;
+        }
+
+        SASAdapterLogger.d(TAG, "AdColony configure with zones: %s", zoneIDs);
+        boolean configured = AdColony.configure(application, appOptions, appID, zoneIDs.toArray(new String[0]));
+        if (configured) {
+            configuredZoneIDs.addAll(zoneIDs);
+        }
+        return configured;
+    }
+}
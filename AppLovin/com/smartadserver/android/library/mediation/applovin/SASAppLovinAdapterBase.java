@@ -1,15 +1,20 @@
 package com.smartadserver.android.library.mediation.applovin;
 
 import android.content.Context;
-import android.content.SharedPreferences;
-import android.preference.PreferenceManager;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.applovin.sdk.AppLovinPrivacySettings;
 import com.applovin.sdk.AppLovinSdk;
-import com.smartadserver.android.library.mediation.SASMediationAdapter;
+import com.applovin.sdk.AppLovinSdkConfiguration;
+import com.smartadserver.android.library.mediation.common.SASAdapterInitCoordinator;
+import com.smartadserver.android.library.mediation.common.SASAdapterInitFuture;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASConsentManager;
+import com.smartadserver.android.library.mediation.common.SASConsentPropagator;
+import com.smartadserver.android.library.mediation.common.SASConsentSnapshot;
 
 import java.util.Map;
 
@@ -18,51 +23,92 @@ import java.util.Map;
  */
 public class SASAppLovinAdapterBase {
 
-    // static flag for AdMob SDK initialization
-    protected static boolean initAppLovinDone = false;
+    // network name used to register AppLovin SDK initialization and to track ad requests
+    static final String NETWORK_NAME = "AppLovin";
 
     // AppLovin SDK instance
     @Nullable
     static AppLovinSdk sdk;
 
+    // passes the user consent to AppLovin, only when it changes
+    @Nullable
+    private static SASConsentPropagator.ConsentHandler<Boolean> consentHandler;
+
     /**
      * Common AdMob ad request configuration for all formats
+     *
+     * @return the AppLovin SDK initialization error message if the ad request can not be performed, null otherwise
      */
-    protected void configureAdRequest(@NonNull Context context, @NonNull String serverParametersString, @NonNull Map<String, Object> clientParameters) {
+    @Nullable
+    protected String configureAdRequest(@NonNull final Context context, @NonNull String serverParametersString, @NonNull Map<String, Object> clientParameters) {
 
         // execute one time initialization code
-        if (!initAppLovinDone) {
-            AppLovinSdk.initializeSdk(context);
-            // init AppLovin instances
-            sdk = AppLovinSdk.getInstance(context.getApplicationContext());
-            initAppLovinDone = true;
+        SASAdapterInitFuture initFuture = SASAdapterInitCoordinator.initIfNecessary(NETWORK_NAME, new SASAdapterInitCoordinator.Initializer() {
+            @Override
+            public void initialize(@NonNull final SASAdapterInitFuture initFuture) {
+                AppLovinSdk.initializeSdk(context, new AppLovinSdk.SdkInitializationListener() {
+                    @Override
+                    public void onSdkInitialized(AppLovinSdkConfiguration appLovinSdkConfiguration) {
+                        initFuture.complete(null);
+                    }
+                });
+                // init AppLovin instances
+                sdk = AppLovinSdk.getInstance(context.getApplicationContext());
+
+                // AppLovin verbose logs follow the adapters log level
+                SASAdapterLogger.addLogLevelListener(new SASAdapterLogger.LogLevelListener() {
+                    @Override
+                    public void onLogLevelChanged(int logLevel) {
+                        sdk.getSettings().setVerboseLogging(logLevel <= Log.DEBUG);
+                    }
+                });
+
+                consentHandler = createConsentHandler(context.getApplicationContext());
+            }
+        });
+
+        // no AppLovin SDK instance if its initialization failed
+        AppLovinSdk sdk = SASAppLovinAdapterBase.sdk;
+        if (sdk == null) {
+            String errorMessage = initFuture.getErrorMessage();
+            return errorMessage != null ? errorMessage : "The AppLovin SDK could not be initialized";
         }
 
+        // AppLovin verbose logs follow the Smart SDK debug mode changes
+        SASAdapterLogger.refreshLogLevel();
 
         // GDPR consent
-        boolean userConsent = false;
-
-        // check if GDPR applies
-        final String GDPRApplies = (String)clientParameters.get(SASMediationAdapter.GDPR_APPLIES_KEY);
-        // check if GDPR does NOT apply
-        if ("false".equalsIgnoreCase(GDPRApplies)) {
-            userConsent = true;
-        } else {
-            // Due to the fact that AppLovin is not IAB compliant, it does not accept IAB Consent String, but only a
-            // binary consent status.
-            // Smart advises app developers to store the binary consent in the 'Smart_advertisingConsentStatus' key
-            // in NSUserDefault, therefore this adapter will retrieve it from this key.
-            // Adapt the code below if your app don't follow this convention.
-            SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(context);
-            final String smartConsentStatus = sharedPreferences.getString("Smart_advertisingConsentStatus", null);
-            userConsent = "1".equals(smartConsentStatus);
-        }
+        SASConsentSnapshot consentSnapshot = SASConsentManager.getSharedInstance().getConsentSnapshot(context, clientParameters);
 
-        // pass consent info to AppLovin
-        AppLovinPrivacySettings.setHasUserConsent(userConsent, context);
+        // pass consent info to AppLovin, if it changed
+        if (consentHandler != null) {
+            SASConsentPropagator.getSharedInstance().propagate(NETWORK_NAME, consentHandler, consentSnapshot);
+        }
 
         // apply mute param
         sdk.getSettings().setMuted(true);
 
+        return null;
+    }
+
+    /**
+     * Creates the handler passing the user consent to AppLovin
+     */
+    @NonNull
+    private static SASConsentPropagator.ConsentHandler<Boolean> createConsentHandler(@NonNull final Context appContext) {
+        return new SASConsentPropagator.ConsentHandler<Boolean>() {
+            @NonNull
+            @Override
+            public Boolean getNetworkConsent(@NonNull SASConsentSnapshot consentSnapshot) {
+                // user consent is implied if GDPR does NOT apply. Otherwise, due to the fact that AppLovin is not IAB compliant,
+                // it does not accept IAB Consent String, but only the binary consent status (see SASConsentManager).
+                return consentSnapshot.isGDPRNotApplicable() || consentSnapshot.hasUserConsent();
+            }
+
+            @Override
+            public void pushConsent(@NonNull Boolean userConsent) {
+                AppLovinPrivacySettings.setHasUserConsent(userConsent, appContext);
+            }
+        };
     }
 }
@@ -4,7 +4,6 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 
 import com.applovin.adview.AppLovinInterstitialAd;
 import com.applovin.adview.AppLovinInterstitialAdDialog;
@@ -17,6 +16,11 @@ import com.applovin.sdk.AppLovinAdVideoPlaybackListener;
 import com.applovin.sdk.AppLovinErrorCodes;
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapter;
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 
 
 import java.util.Map;
@@ -29,6 +33,10 @@ public class SASAppLovinInterstitialAdapter extends SASAppLovinAdapterBase imple
     // tag for logging purposes
     private static final String TAG = SASAppLovinInterstitialAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     // AppLovin needed Objects
     @Nullable
     AppLovinAd appLovinAd = null;
@@ -42,16 +50,40 @@ public class SASAppLovinInterstitialAdapter extends SASAppLovinAdapterBase imple
      * @param serverParametersString      a String containing all needed parameters (as returned by Smart ad delivery)
      *                                    to make the mediation ad call
      * @param clientParameters            additional client-side parameters (user specific, like location)
-     * @param interstitialAdapterListener the {@link SASMediationInterstitialAdapterListener} provided to
+     * @param adapterListener             the {@link SASMediationInterstitialAdapterListener} provided to
      *                                    this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
      */
     @Override
     public void requestInterstitialAd(@NonNull Context context,
                                       @NonNull String serverParametersString,
                                       @NonNull Map<String, Object> clientParameters,
-                                      @NonNull final SASMediationInterstitialAdapterListener interstitialAdapterListener) {
+                                      @NonNull SASMediationInterstitialAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationInterstitialAdapterListener interstitialAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, interstitialAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        final SASCancellationToken cancellationToken = SASCancellationToken.create(interstitialAdapterListener);
+        this.cancellationToken = cancellationToken;
 
-        configureAdRequest(context, serverParametersString, clientParameters);
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, interstitialAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        String initErrorMessage = configureAdRequest(context, serverParametersString, clientParameters);
+        if (initErrorMessage != null) {
+            interstitialAdapterListener.adRequestFailed(initErrorMessage, false);
+            return;
+        }
 
         interstitialAdDialog = AppLovinInterstitialAd.create(sdk, context);
 
@@ -59,7 +91,7 @@ public class SASAppLovinInterstitialAdapter extends SASAppLovinAdapterBase imple
         AppLovinAdClickListener adClickListener = new AppLovinAdClickListener() {
             @Override
             public void adClicked(AppLovinAd appLovinAd) {
-                Log.d(TAG, "AppLovin adClicked for Interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin adClicked for Interstitial");
                 interstitialAdapterListener.onAdClicked();
             }
         };
@@ -68,13 +100,13 @@ public class SASAppLovinInterstitialAdapter extends SASAppLovinAdapterBase imple
         AppLovinAdDisplayListener adDisplayListener = new AppLovinAdDisplayListener() {
             @Override
             public void adDisplayed(AppLovinAd appLovinAd) {
-                Log.d(TAG, "AppLovin adDisplayed for Interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin adDisplayed for Interstitial");
                 interstitialAdapterListener.onInterstitialShown();
             }
 
             @Override
             public void adHidden(AppLovinAd appLovinAd) {
-                Log.d(TAG, "AppLovin adHidden for Interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin adHidden for Interstitial");
                 interstitialAdapterListener.onAdClosed();
             }
         };
@@ -83,12 +115,12 @@ public class SASAppLovinInterstitialAdapter extends SASAppLovinAdapterBase imple
         AppLovinAdVideoPlaybackListener adVideoPlaybackListener = new AppLovinAdVideoPlaybackListener() {
             @Override
             public void videoPlaybackBegan(AppLovinAd appLovinAd) {
-                Log.d(TAG, "AppLovin videoPlaybackBegan for Interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin videoPlaybackBegan for Interstitial");
             }
 
             @Override
             public void videoPlaybackEnded(AppLovinAd appLovinAd, double percentage, boolean fullyWatched) {
-                Log.d(TAG, "AppLovin videoPlaybackEnded for Interstitial. Percentage:" + percentage + " completed:" + fullyWatched);
+                SASAdapterLogger.d(TAG, "AppLovin videoPlaybackEnded for Interstitial. Percentage:%s completed:%s", percentage, fullyWatched);
             }
         };
 
@@ -101,8 +133,12 @@ public class SASAppLovinInterstitialAdapter extends SASAppLovinAdapterBase imple
         SASAppLovinAdapterBase.sdk.getAdService().loadNextAd(AppLovinAdSize.INTERSTITIAL, new AppLovinAdLoadListener() {
             @Override
             public void adReceived(AppLovinAd ad) {
+                SASAdapterLogger.d(TAG, "AppLovin adReceived for interstitial");
+                if (cancellationToken.isCancelled()) {
+                    // abandoned ad request, do not keep the ad
+                    return;
+                }
                 appLovinAd = ad;
-                Log.d(TAG, "AppLovin adReceived for interstitial");
                 interstitialAdapterListener.onInterstitialLoaded();
 
             }
@@ -110,7 +146,7 @@ public class SASAppLovinInterstitialAdapter extends SASAppLovinAdapterBase imple
             @Override
             public void failedToReceiveAd(int errorCode) {
                 // Look at AppLovinErrorCodes.java for list of error codes
-                Log.d(TAG, "AppLovin failedToReceiveAd for interstitial (error:" + errorCode + ")");
+                SASAdapterLogger.d(TAG, "AppLovin failedToReceiveAd for interstitial (error:%s)", errorCode);
                 boolean isNoAd = errorCode == AppLovinErrorCodes.NO_FILL;
                 interstitialAdapterListener.adRequestFailed("errorCode:" + errorCode, isNoAd);
             }
@@ -128,6 +164,9 @@ public class SASAppLovinInterstitialAdapter extends SASAppLovinAdapterBase imple
 
     @Override
     public void onDestroy() {
-        // nothing to do
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        appLovinAd = null;
     }
 }
@@ -5,19 +5,21 @@ import android.graphics.Color;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 import android.view.View;
 
 import com.applovin.nativeAds.AppLovinNativeAd;
-import com.applovin.nativeAds.AppLovinNativeAdLoadListener;
 import com.applovin.sdk.AppLovinErrorCodes;
 import com.smartadserver.android.library.mediation.SASMediationNativeAdAdapter;
 import com.smartadserver.android.library.mediation.SASMediationNativeAdAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 import com.smartadserver.android.library.mediation.SASMediationNativeAdContent;
 import com.smartadserver.android.library.model.SASNativeVideoAdElement;
 
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,6 +30,25 @@ public class SASAppLovinNativeAdAdapter extends SASAppLovinAdapterBase implement
     // tag for logging purposes
     private static final String TAG = SASAppLovinNativeAdAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
+    // callback of the pending native ad request, if any
+    @Nullable
+    private SASAppLovinNativeAdPool.Callback poolCallback;
+
+    /**
+     * Configures the pool of AppLovin native ads shared by all native ad requests
+     *
+     * @param batchSize        the number of native ads fetched by each AppLovin request (3 by default)
+     * @param lowWaterMark     the number of unused native ads under which the pool is refilled in background (1 by default)
+     * @param adValidityMillis the time after which an unused native ad is discarded (30 minutes by default)
+     */
+    public static void configureNativeAdPool(int batchSize, int lowWaterMark, long adValidityMillis) {
+        SASAppLovinNativeAdPool.getSharedInstance().configure(batchSize, lowWaterMark, adValidityMillis);
+    }
+
     /**
      * Implementation of {@link SASMediationNativeAdContent} AppLovin to Smart native ad wrapper
      */
@@ -197,22 +218,46 @@ public class SASAppLovinNativeAdAdapter extends SASAppLovinAdapterBase implement
      * @param serverParametersString  a String containing all needed parameters (as returned by Smart ad delivery)
      *                                to make the mediation call
      * @param clientParameters        additional client-side parameters (user specific, like location)
-     * @param nativeAdAdapterListener the {@link SASMediationNativeAdAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter}
+     * @param adapterListener         the {@link SASMediationNativeAdAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter}
      */
     @Override
     public void requestNativeAd(@NonNull Context context,
                                 @NonNull String serverParametersString,
                                 @NonNull Map<String, Object> clientParameters,
-                                @NonNull final SASMediationNativeAdAdapterListener nativeAdAdapterListener) {
+                                @NonNull SASMediationNativeAdAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationNativeAdAdapterListener nativeAdAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, nativeAdAdapterListener)) {
+            return;
+        }
 
-        configureAdRequest(context, serverParametersString, clientParameters);
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(nativeAdAdapterListener);
 
-        sdk.getNativeAdService().loadNativeAds(1, new AppLovinNativeAdLoadListener() {
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, nativeAdAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
             @Override
-            public void onNativeAdsLoaded(final List list) {
-                Log.d(TAG, "Applovin onNativeAdsLoaded");
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        String initErrorMessage = configureAdRequest(context, serverParametersString, clientParameters);
+        if (initErrorMessage != null) {
+            nativeAdAdapterListener.adRequestFailed(initErrorMessage, false);
+            return;
+        }
+
+        poolCallback = new SASAppLovinNativeAdPool.Callback() {
+            @Override
+            public void onNativeAdAvailable(@NonNull AppLovinNativeAd nativeAd) {
+                SASAdapterLogger.d(TAG, "Applovin onNativeAdsLoaded");
+                poolCallback = null;
 
-                nativeAdAdapterListener.onNativeAdLoaded(new ApplovinNativeAdContent((AppLovinNativeAd) list.get(0)) {
+                nativeAdAdapterListener.onNativeAdLoaded(new ApplovinNativeAdContent(nativeAd) {
                     @Override
                     protected void onAdClicked() {
                         super.onAdClicked();
@@ -223,15 +268,26 @@ public class SASAppLovinNativeAdAdapter extends SASAppLovinAdapterBase implement
 
             @Override
             public void onNativeAdsFailedToLoad(final int errorCode) {
-                Log.d(TAG, "Applovin onNativeAdsFailedToLoad (error:" + errorCode + ")");
+                SASAdapterLogger.d(TAG, "Applovin onNativeAdsFailedToLoad (error:%s)", errorCode);
+                poolCallback = null;
                 boolean isNoAd = errorCode == AppLovinErrorCodes.NO_FILL;
                 nativeAdAdapterListener.adRequestFailed("errorCode:" + errorCode, isNoAd);
             }
-        });
+        };
+
+        // get a native ad from the pool, loaded in batch if the pool is empty
+        SASAppLovinNativeAdPool.getSharedInstance().request(sdk.getNativeAdService(), poolCallback);
     }
 
     @Override
     public void onDestroy() {
-        // nothing to do
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        // stop waiting for a native ad, it will be kept in the pool for the next request
+        if (poolCallback != null) {
+            SASAppLovinNativeAdPool.getSharedInstance().cancel(poolCallback);
+            poolCallback = null;
+        }
     }
 }
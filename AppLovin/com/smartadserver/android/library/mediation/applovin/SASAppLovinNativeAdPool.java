@@ -0,0 +1,195 @@
+package com.smartadserver.android.library.mediation.applovin;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.applovin.nativeAds.AppLovinNativeAd;
+import com.applovin.nativeAds.AppLovinNativeAdLoadListener;
+import com.applovin.nativeAds.AppLovinNativeAdService;
+import com.applovin.sdk.AppLovinErrorCodes;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Process-wide pool of unused AppLovin native ads.
+ * Native ads are fetched in batches, kept until they expire, and the pool is refilled in background as soon as it
+ * drops below its low-water mark, so that most native ad requests are served without any network round-trip.
+ */
+class SASAppLovinNativeAdPool {
+
+    static private final String TAG = SASAppLovinNativeAdPool.class.getSimpleName();
+
+    /**
+     * Callback notified of the outcome of a native ad request
+     */
+    interface Callback {
+
+        void onNativeAdAvailable(@NonNull AppLovinNativeAd nativeAd);
+
+        void onNativeAdsFailedToLoad(int errorCode);
+    }
+
+    // an unused native ad and its load time
+    private static class PooledNativeAd {
+
+        @NonNull
+        final AppLovinNativeAd nativeAd;
+
+        final long loadTime;
+
+        PooledNativeAd(@NonNull AppLovinNativeAd nativeAd, long loadTime) {
+            this.nativeAd = nativeAd;
+            this.loadTime = loadTime;
+        }
+    }
+
+    @Nullable
+    private static SASAppLovinNativeAdPool sharedInstance;
+
+    // pool configuration
+    private int batchSize = 3;
+    private int lowWaterMark = 1;
+    private long adValidityMillis = 30 * 60 * 1000;
+
+    // unused native ads, oldest first
+    @NonNull
+    private final Queue<PooledNativeAd> pooledNativeAds = new ArrayDeque<>();
+
+    // requests waiting for the batch being loaded
+    @NonNull
+    private final Queue<Callback> waitingCallbacks = new ArrayDeque<>();
+
+    private boolean loading = false;
+
+    @NonNull
+    static synchronized SASAppLovinNativeAdPool getSharedInstance() {
+        if (sharedInstance == null) {
+            sharedInstance = new SASAppLovinNativeAdPool();
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Sets the pool configuration
+     *
+     * @param batchSize        the number of native ads fetched by each AppLovin request
+     * @param lowWaterMark     the number of unused native ads under which the pool is refilled in background
+     * @param adValidityMillis the time after which an unused native ad is discarded
+     */
+    synchronized void configure(int batchSize, int lowWaterMark, long adValidityMillis) {
+        this.batchSize = Math.max(1, batchSize);
+        this.lowWaterMark = Math.max(0, lowWaterMark);
+        this.adValidityMillis = adValidityMillis;
+    }
+
+    /**
+     * Requests a native ad, served right away from the pool if an unused one is available
+     */
+    void request(@NonNull AppLovinNativeAdService nativeAdService, @NonNull Callback callback) {
+        AppLovinNativeAd nativeAd;
+        synchronized (this) {
+            evictExpiredNativeAds();
+            PooledNativeAd pooledNativeAd = pooledNativeAds.poll();
+            if (pooledNativeAd == null) {
+                waitingCallbacks.add(callback);
+                loadIfNecessary(nativeAdService);
+                return;
+            }
+            nativeAd = pooledNativeAd.nativeAd;
+
+            // refill in background before the pool runs dry
+            if (pooledNativeAds.size() < lowWaterMark) {
+                loadIfNecessary(nativeAdService);
+            }
+        }
+
+        SASAdapterLogger.d(TAG, "AppLovin native ad served from pool");
+        callback.onNativeAdAvailable(nativeAd);
+    }
+
+    /**
+     * Stops notifying the given callback of a pending request
+     */
+    synchronized void cancel(@NonNull Callback callback) {
+        waitingCallbacks.remove(callback);
+    }
+
+    private void evictExpiredNativeAds() {
+        long now = SystemClock.elapsedRealtime();
+        while (!pooledNativeAds.isEmpty() && now - pooledNativeAds.peek().loadTime > adValidityMillis) {
+            pooledNativeAds.poll();
+            SASAdapterLogger.d(TAG, "AppLovin pooled native ad expired");
+        }
+    }
+
+    private void loadIfNecessary(@NonNull AppLovinNativeAdService nativeAdService) {
+        if (loading) {
+            return;
+        }
+        loading = true;
+
+        SASAdapterLogger.d(TAG, "AppLovin loading a batch of %s native ads", batchSize);
+        nativeAdService.loadNativeAds(batchSize, new AppLovinNativeAdLoadListener() {
+            @Override
+            public void onNativeAdsLoaded(final List list) {
+                SASAdapterLogger.d(TAG, "AppLovin native ads batch loaded: %s ads", list.size());
+                onBatchLoaded(list);
+            }
+
+            @Override
+            public void onNativeAdsFailedToLoad(final int errorCode) {
+                SASAdapterLogger.d(TAG, "AppLovin native ads batch failed to load (error:%s)", errorCode);
+                onBatchFailed(errorCode);
+            }
+        });
+    }
+
+    private void onBatchLoaded(@NonNull List<?> nativeAds) {
+        Queue<Callback> servedCallbacks = new ArrayDeque<>();
+        Queue<AppLovinNativeAd> servedNativeAds = new ArrayDeque<>();
+        Callback[] unservedCallbacks;
+        synchronized (this) {
+            loading = false;
+            long now = SystemClock.elapsedRealtime();
+            for (Object nativeAd : nativeAds) {
+                Callback callback = waitingCallbacks.poll();
+                if (callback != null) {
+                    servedCallbacks.add(callback);
+                    servedNativeAds.add((AppLovinNativeAd) nativeAd);
+                } else {
+                    pooledNativeAds.add(new PooledNativeAd((AppLovinNativeAd) nativeAd, now));
+                }
+            }
+
+            // the batch was smaller than the number of waiting requests
+            unservedCallbacks = waitingCallbacks.toArray(new Callback[0]);
+            waitingCallbacks.clear();
+        }
+
+        while (!servedCallbacks.isEmpty()) {
+            //noinspection ConstantConditions
+            servedCallbacks.poll().onNativeAdAvailable(servedNativeAds.poll());
+        }
+        for (Callback callback : unservedCallbacks) {
+            callback.onNativeAdsFailedToLoad(AppLovinErrorCodes.NO_FILL);
+        }
+    }
+
+    private void onBatchFailed(int errorCode) {
+        Callback[] failedCallbacks;
+        synchronized (this) {
+            loading = false;
+            failedCallbacks = waitingCallbacks.toArray(new Callback[0]);
+            waitingCallbacks.clear();
+        }
+
+        for (Callback callback : failedCallbacks) {
+            callback.onNativeAdsFailedToLoad(errorCode);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 
 import com.applovin.adview.AppLovinIncentivizedInterstitial;
 import com.applovin.sdk.AppLovinAd;
@@ -16,6 +15,11 @@ import com.applovin.sdk.AppLovinAdVideoPlaybackListener;
 import com.applovin.sdk.AppLovinErrorCodes;
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapter;
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 import com.smartadserver.android.library.model.SASReward;
 
 
@@ -29,6 +33,10 @@ public class SASAppLovinRewardedVideoAdapter extends SASAppLovinAdapterBase impl
     // tag for logging purposes
     private static final String TAG = SASAppLovinRewardedVideoAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     @Nullable
     private AppLovinIncentivizedInterstitial incentivizedInterstitial;
 
@@ -51,15 +59,38 @@ public class SASAppLovinRewardedVideoAdapter extends SASAppLovinAdapterBase impl
      * @param context                      The {@link Context} needed by the mediation SDK to make the ad request.
      * @param serverParametersString       a String containing all needed parameters (as returned by Smart ad delivery) to make the mediation ad call.
      * @param clientParameters             additional client-side parameters (user specific, like location).
-     * @param rewardedVideoAdapterListener the {@link SASMediationRewardedVideoAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify the Smart SDK of events
+     * @param adapterListener              the {@link SASMediationRewardedVideoAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify the Smart SDK of events
      */
     @Override
     public void requestRewardedVideoAd(@NonNull Context context,
                                        @NonNull String serverParametersString,
                                        @NonNull Map<String, Object> clientParameters,
-                                       @NonNull final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener) {
+                                       @NonNull SASMediationRewardedVideoAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, rewardedVideoAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(rewardedVideoAdapterListener);
 
-        configureAdRequest(context, serverParametersString, clientParameters);
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, rewardedVideoAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        String initErrorMessage = configureAdRequest(context, serverParametersString, clientParameters);
+        if (initErrorMessage != null) {
+            rewardedVideoAdapterListener.adRequestFailed(initErrorMessage, false);
+            return;
+        }
 
         // need to store context object for later show()
         this.context = context;
@@ -72,35 +103,35 @@ public class SASAppLovinRewardedVideoAdapter extends SASAppLovinAdapterBase impl
 
             @Override
             public void adClicked(AppLovinAd appLovinAd) {
-                Log.d(TAG, "AppLovin adClicked for rewarded video");
+                SASAdapterLogger.d(TAG, "AppLovin adClicked for rewarded video");
                 rewardedVideoAdapterListener.onAdClicked();
             }
 
             @Override
             public void adDisplayed(AppLovinAd appLovinAd) {
-                Log.d(TAG, "AppLovin adDisplayed for rewarded video");
+                SASAdapterLogger.d(TAG, "AppLovin adDisplayed for rewarded video");
                 rewardedVideoAdapterListener.onRewardedVideoShown();
             }
 
             @Override
             public void adHidden(AppLovinAd appLovinAd) {
-                Log.d(TAG, "AppLovin adHidden for rewarded video");
+                SASAdapterLogger.d(TAG, "AppLovin adHidden for rewarded video");
                 rewardedVideoAdapterListener.onAdClosed();
             }
 
             @Override
             public void videoPlaybackBegan(AppLovinAd appLovinAd) {
-                Log.d(TAG, "AppLovin videoPlaybackBegan for rewarded video");
+                SASAdapterLogger.d(TAG, "AppLovin videoPlaybackBegan for rewarded video");
             }
 
             @Override
             public void videoPlaybackEnded(AppLovinAd appLovinAd, double percentage, boolean fullyWatched) {
-                Log.d(TAG, "AppLovin videoPlaybackEnded for rewarded video. Percentage:" + percentage + " completed:" + fullyWatched);
+                SASAdapterLogger.d(TAG, "AppLovin videoPlaybackEnded for rewarded video. Percentage:%s completed:%s", percentage, fullyWatched);
             }
 
             @Override
             public void userRewardVerified(AppLovinAd appLovinAd, Map map) {
-                Log.d(TAG, "AppLovin userRewardVerified for rewarded interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin userRewardVerified for rewarded interstitial");
 
                 String currencyName = (String) map.get("currency");
                 // For example, "5" or "5.00" if you've specified an amount in the UI.
@@ -118,17 +149,17 @@ public class SASAppLovinRewardedVideoAdapter extends SASAppLovinAdapterBase impl
 
             @Override
             public void userOverQuota(AppLovinAd appLovinAd, Map map) {
-                Log.d(TAG, "AppLovin userOverQuota for rewarded interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin userOverQuota for rewarded interstitial");
             }
 
             @Override
             public void userRewardRejected(AppLovinAd appLovinAd, Map map) {
-                Log.d(TAG, "AppLovin userRewardRejected for rewarded interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin userRewardRejected for rewarded interstitial");
             }
 
             @Override
             public void validationRequestFailed(AppLovinAd appLovinAd, int responseCode) {
-                Log.d(TAG, "AppLovin validationRequestFailed for rewarded interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin validationRequestFailed for rewarded interstitial");
                 if (responseCode == AppLovinErrorCodes.INCENTIVIZED_USER_CLOSED_VIDEO) {
                     // Your user exited the video prematurely. It's up to you if you'd still like to grant
                     // a reward in this case. Most developers choose not to. Note that this case can occur
@@ -146,7 +177,7 @@ public class SASAppLovinRewardedVideoAdapter extends SASAppLovinAdapterBase impl
 
             @Override
             public void userDeclinedToViewAd(AppLovinAd appLovinAd) {
-                Log.d(TAG, "AppLovin userDeclinedToViewAd for rewarded interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin userDeclinedToViewAd for rewarded interstitial");
                 rewardedVideoAdapterListener.onAdClosed();
             }
         };
@@ -155,14 +186,14 @@ public class SASAppLovinRewardedVideoAdapter extends SASAppLovinAdapterBase impl
         incentivizedInterstitial.preload(new AppLovinAdLoadListener() {
             @Override
             public void adReceived(AppLovinAd ad) {
-                Log.d(TAG, "AppLovin adReceived for rewarded interstitial");
+                SASAdapterLogger.d(TAG, "AppLovin adReceived for rewarded interstitial");
                 rewardedVideoAdapterListener.onRewardedVideoLoaded();
 
             }
 
             @Override
             public void failedToReceiveAd(int errorCode) {
-                Log.d(TAG, "AppLovin failedToReceiveAd for rewarded interstitial (error:" + errorCode + ")");
+                SASAdapterLogger.d(TAG, "AppLovin failedToReceiveAd for rewarded interstitial (error:%s)", errorCode);
                 boolean isNoAd = errorCode == AppLovinErrorCodes.NO_FILL;
                 rewardedVideoAdapterListener.adRequestFailed("errorCode:" + errorCode, isNoAd);
             }
@@ -182,6 +213,8 @@ public class SASAppLovinRewardedVideoAdapter extends SASAppLovinAdapterBase impl
 
     @Override
     public void onDestroy() {
-        // nothing to do
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
     }
 }
@@ -0,0 +1,162 @@
+package com.smartadserver.android.library.mediation.benchmark;
+
+import android.app.Activity;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapter;
+import com.smartadserver.android.library.mediation.adcolony.SASAdColonyInterstitialAdapter;
+import com.smartadserver.android.library.mediation.applovin.SASAppLovinInterstitialAdapter;
+import com.smartadserver.android.library.mediation.applovin.SASAppLovinNativeAdAdapter;
+import com.smartadserver.android.library.mediation.applovin.SASAppLovinRewardedVideoAdapter;
+import com.smartadserver.android.library.mediation.google.SASGoogleMobileAdsBannerAdapter;
+import com.smartadserver.android.library.mediation.google.SASGoogleMobileAdsInterstitialAdapter;
+import com.smartadserver.android.library.mediation.google.SASGoogleMobileAdsRewardedVideoAdapter;
+import com.smartadserver.android.library.mediation.inmobi.SASInMobiBannerAdapter;
+import com.smartadserver.android.library.mediation.inmobi.SASInMobiInterstitialAdapter;
+import com.smartadserver.android.library.mediation.ogury.SASOguryBannerAdapter;
+import com.smartadserver.android.library.mediation.ogury.SASOguryInterstitialAdapter;
+import com.smartadserver.android.library.mediation.tapjoy.SASTapjoyInterstitialAdapter;
+import com.smartadserver.android.library.mediation.vungle.SASVungleInterstitialAdapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request cost of each adapter request*Ad path (server parameters parsing, consent building,
+ * listener creation and SDK initialization checks), network SDKs being replaced by no-op stubs.
+ * Run with the GC profiler to get the allocation rate per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SASAdRequestBenchmark {
+
+    private Activity activity;
+
+    private Map<String, Object> clientParameters;
+
+    private SASBenchmarkAdapterListener listener;
+
+    @Setup
+    public void setup() {
+        activity = new Activity();
+        listener = new SASBenchmarkAdapterListener();
+
+        clientParameters = new HashMap<>();
+        clientParameters.put(SASMediationAdapter.GDPR_APPLIES_KEY, "true");
+        clientParameters.put(SASMediationAdapter.AD_VIEW_WIDTH_KEY, "320");
+        clientParameters.put(SASMediationAdapter.AD_VIEW_HEIGHT_KEY, "50");
+    }
+
+    @Benchmark
+    public SASMediationAdapter inMobiInterstitial() {
+        SASInMobiInterstitialAdapter adapter = new SASInMobiInterstitialAdapter();
+        adapter.requestInterstitialAd(activity, "4028cb8b2c3a0b45012c9c27d0a50a28/1471550843414", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter inMobiBanner() {
+        SASInMobiBannerAdapter adapter = new SASInMobiBannerAdapter();
+        adapter.requestBannerAd(activity, "4028cb8b2c3a0b45012c9c27d0a50a28/1447912324502", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter appLovinInterstitial() {
+        SASAppLovinInterstitialAdapter adapter = new SASAppLovinInterstitialAdapter();
+        adapter.requestInterstitialAd(activity, "", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter appLovinRewardedVideo() {
+        SASAppLovinRewardedVideoAdapter adapter = new SASAppLovinRewardedVideoAdapter();
+        adapter.requestRewardedVideoAd(activity, "", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter appLovinNativeAd() {
+        SASAppLovinNativeAdAdapter adapter = new SASAppLovinNativeAdAdapter();
+        adapter.requestNativeAd(activity, "", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter googleMobileAdsInterstitial() {
+        SASGoogleMobileAdsInterstitialAdapter adapter = new SASGoogleMobileAdsInterstitialAdapter();
+        adapter.requestInterstitialAd(activity, "ca-app-pub-3940256099942544~3347511713|ca-app-pub-3940256099942544/1033173712", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter googleMobileAdsRewardedVideo() {
+        SASGoogleMobileAdsRewardedVideoAdapter adapter = new SASGoogleMobileAdsRewardedVideoAdapter();
+        adapter.requestRewardedVideoAd(activity, "ca-app-pub-3940256099942544~3347511713|ca-app-pub-3940256099942544/5224354917", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter googleMobileAdsBanner() {
+        SASGoogleMobileAdsBannerAdapter adapter = new SASGoogleMobileAdsBannerAdapter();
+        adapter.requestBannerAd(activity, "ca-app-pub-3940256099942544~3347511713|ca-app-pub-3940256099942544/6300978111|0", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter vungleInterstitial() {
+        SASVungleInterstitialAdapter adapter = new SASVungleInterstitialAdapter();
+        adapter.requestInterstitialAd(activity, "5b2bc1fe2c5b4d6e0b4e0fb1/INTERSTITIAL-1234567", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter tapjoyInterstitial() {
+        SASTapjoyInterstitialAdapter adapter = new SASTapjoyInterstitialAdapter();
+        adapter.requestInterstitialAd(activity, "u6SfEbh_TA-WMiGqgQ3W8QECyiQIURFEeKm0zbOggubusy-o5ZfXp33sTXaD/video_unit", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter adColonyInterstitial() {
+        SASAdColonyInterstitialAdapter adapter = new SASAdColonyInterstitialAdapter();
+        adapter.requestInterstitialAd(activity, "app185a7e71e1714831a49ec7/vz1fd5a8b2bf6841a0a4b826", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter oguryInterstitial() {
+        SASOguryInterstitialAdapter adapter = new SASOguryInterstitialAdapter();
+        adapter.requestInterstitialAd(activity, "OGY-XXXXXXXXXXXX|269228_default", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+
+    @Benchmark
+    public SASMediationAdapter oguryBanner() {
+        SASOguryBannerAdapter adapter = new SASOguryBannerAdapter();
+        adapter.requestBannerAd(activity, "OGY-XXXXXXXXXXXX|269228_default|0", clientParameters, listener);
+        adapter.onDestroy();
+        return adapter;
+    }
+}
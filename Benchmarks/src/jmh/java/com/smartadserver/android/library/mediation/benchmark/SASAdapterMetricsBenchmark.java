@@ -0,0 +1,55 @@
+package com.smartadserver.android.library.mediation.benchmark;
+
+import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdFormat;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetricsSnapshot;
+import com.smartadserver.android.library.mediation.common.SASLatencyHistogram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead the ad request metrics add to each adapter request, including under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SASAdapterMetricsBenchmark {
+
+    private final SASBenchmarkAdapterListener listener = new SASBenchmarkAdapterListener();
+
+    private final SASLatencyHistogram histogram = new SASLatencyHistogram();
+
+    private long latency = 0;
+
+    @Benchmark
+    public void trackedRequest() {
+        SASMediationInterstitialAdapterListener trackedListener = SASAdapterMetrics.getSharedInstance().track("Benchmark", (SASMediationInterstitialAdapterListener) listener);
+        trackedListener.onInterstitialLoaded();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void trackedRequestContended() {
+        trackedRequest();
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        latency = (latency + 37) % 5000;
+        histogram.record(latency);
+    }
+
+    @Benchmark
+    public SASAdapterMetricsSnapshot snapshot() {
+        return SASAdapterMetrics.getSharedInstance().getSnapshot("Benchmark", SASAdFormat.INTERSTITIAL);
+    }
+}
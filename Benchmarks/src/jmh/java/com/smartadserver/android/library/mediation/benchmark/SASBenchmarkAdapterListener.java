@@ -0,0 +1,89 @@
+package com.smartadserver.android.library.mediation.benchmark;
+
+import android.view.View;
+
+import com.smartadserver.android.library.mediation.SASMediationBannerAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationNativeAdAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationNativeAdContent;
+import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener;
+import com.smartadserver.android.library.model.SASReward;
+
+/**
+ * Adapter listener for every ad format, only counting received events so that the JIT cannot drop them
+ */
+public class SASBenchmarkAdapterListener implements SASMediationBannerAdapterListener, SASMediationInterstitialAdapterListener,
+        SASMediationRewardedVideoAdapterListener, SASMediationNativeAdAdapterListener {
+
+    public int eventCount = 0;
+
+    @Override
+    public void adRequestFailed(String errorMessage, boolean isNoAd) {
+        eventCount++;
+    }
+
+    @Override
+    public void onAdClicked() {
+        eventCount++;
+    }
+
+    @Override
+    public void onAdFullScreen() {
+        eventCount++;
+    }
+
+    @Override
+    public void onAdClosed() {
+        eventCount++;
+    }
+
+    @Override
+    public void onAdLeftApplication() {
+        eventCount++;
+    }
+
+    @Override
+    public void onBannerLoaded(View bannerView) {
+        eventCount++;
+    }
+
+    @Override
+    public void onInterstitialLoaded() {
+        eventCount++;
+    }
+
+    @Override
+    public void onInterstitialShown() {
+        eventCount++;
+    }
+
+    @Override
+    public void onInterstitialFailedToShow(String errorMessage) {
+        eventCount++;
+    }
+
+    @Override
+    public void onRewardedVideoLoaded() {
+        eventCount++;
+    }
+
+    @Override
+    public void onRewardedVideoShown() {
+        eventCount++;
+    }
+
+    @Override
+    public void onRewardedVideoFailedToShow(String errorMessage) {
+        eventCount++;
+    }
+
+    @Override
+    public void onReward(SASReward reward) {
+        eventCount++;
+    }
+
+    @Override
+    public void onNativeAdLoaded(SASMediationNativeAdContent nativeAdContent) {
+        eventCount++;
+    }
+}
@@ -0,0 +1,47 @@
+package com.smartadserver.android.library.mediation.benchmark;
+
+import com.smartadserver.android.library.mediation.common.SASServerParametersCache;
+import com.smartadserver.android.library.mediation.google.SASGoogleMobileAdsServerParameters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the server parameters parsing strategies used by the adapters.
+ * The regex variant reproduces the former Google mobile ads parsing, which compiled a pattern on each call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SASServerParametersBenchmark {
+
+    public String googleServerParameters = "ca-app-pub-3940256099942544~3347511713|ca-app-pub-3940256099942544/6300978111|1";
+
+    @Benchmark
+    public String[] regexSplitPerCall() {
+        return Pattern.compile("\\|").split(googleServerParameters);
+    }
+
+    @Benchmark
+    public String[] stringSplit() {
+        return googleServerParameters.split("\\|");
+    }
+
+    @Benchmark
+    public List<String> indexSplit() {
+        return SASServerParametersCache.split(googleServerParameters, '|');
+    }
+
+    @Benchmark
+    public Object cachedTypedParse() {
+        return SASGoogleMobileAdsServerParameters.Companion.parse(googleServerParameters);
+    }
+}
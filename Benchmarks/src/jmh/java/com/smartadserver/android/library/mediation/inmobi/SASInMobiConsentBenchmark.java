@@ -0,0 +1,45 @@
+package com.smartadserver.android.library.mediation.inmobi;
+
+import android.app.Activity;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapter;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the InMobi consent JSON building done on each ad request.
+ * Lives in the InMobi adapter package to reach its protected helpers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SASInMobiConsentBenchmark {
+
+    private Activity activity;
+
+    private Map<String, Object> clientParameters;
+
+    @Setup
+    public void setup() {
+        activity = new Activity();
+        clientParameters = new HashMap<>();
+        clientParameters.put(SASMediationAdapter.GDPR_APPLIES_KEY, "true");
+        androidx.preference.PreferenceManager.putString("Smart_advertisingConsentStatus", "1");
+    }
+
+    @Benchmark
+    public JSONObject getJSONConsent() {
+        return SASInMobiAdapterBase.getJSONConsent(activity, clientParameters);
+    }
+}
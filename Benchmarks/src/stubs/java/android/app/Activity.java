@@ -0,0 +1,21 @@
+package android.app;
+
+import android.content.Context;
+
+public class Activity extends Context {
+
+    private static final Application application = new Application();
+
+    @Override
+    public Context getApplicationContext() {
+        return application;
+    }
+
+    public boolean isFinishing() {
+        return false;
+    }
+
+    public boolean isDestroyed() {
+        return false;
+    }
+}
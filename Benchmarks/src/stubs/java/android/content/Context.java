@@ -0,0 +1,18 @@
+package android.content;
+
+/**
+ * JVM stub of the Android Context
+ */
+public class Context {
+
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    public String getPackageName() {
+        return "com.smartadserver.benchmark";
+    }
+
+    public void registerComponentCallbacks(ComponentCallbacks callback) {
+    }
+}
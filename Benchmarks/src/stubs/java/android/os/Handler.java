@@ -0,0 +1,22 @@
+package android.os;
+
+/**
+ * JVM stub of the Android Handler: posted runnables run synchronously, delayed ones are dropped
+ */
+public class Handler {
+
+    public Handler(Looper looper) {
+    }
+
+    public boolean post(Runnable runnable) {
+        runnable.run();
+        return true;
+    }
+
+    public boolean postDelayed(Runnable runnable, long delayMillis) {
+        return true;
+    }
+
+    public void removeCallbacks(Runnable runnable) {
+    }
+}
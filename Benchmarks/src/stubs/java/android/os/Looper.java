@@ -0,0 +1,17 @@
+package android.os;
+
+/**
+ * JVM stub of the Android Looper: every thread is considered the main thread
+ */
+public class Looper {
+
+    private static final Looper mainLooper = new Looper();
+
+    public static Looper getMainLooper() {
+        return mainLooper;
+    }
+
+    public static Looper myLooper() {
+        return mainLooper;
+    }
+}
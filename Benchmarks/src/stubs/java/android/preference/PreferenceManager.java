@@ -0,0 +1,11 @@
+package android.preference;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+public class PreferenceManager {
+
+    public static SharedPreferences getDefaultSharedPreferences(Context context) {
+        return androidx.preference.PreferenceManager.getDefaultSharedPreferences(context);
+    }
+}
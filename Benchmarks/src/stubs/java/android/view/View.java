@@ -0,0 +1,59 @@
+package android.view;
+
+import android.content.Context;
+
+public class View {
+
+    public interface OnClickListener {
+        void onClick(View v);
+    }
+
+    private final Context context;
+
+    private ViewParent parent;
+
+    private ViewGroup.LayoutParams layoutParams;
+
+    public View(Context context) {
+        this.context = context;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public void setOnClickListener(OnClickListener listener) {
+    }
+
+    public void setClickable(boolean clickable) {
+    }
+
+    public void setBackgroundColor(int color) {
+    }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params) {
+        this.layoutParams = params;
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams() {
+        return layoutParams;
+    }
+
+    public final ViewParent getParent() {
+        return parent;
+    }
+
+    void setParent(ViewParent parent) {
+        this.parent = parent;
+    }
+
+    public boolean isAttachedToWindow() {
+        return parent != null;
+    }
+
+    protected void onAttachedToWindow() {
+    }
+
+    protected void onDetachedFromWindow() {
+    }
+}
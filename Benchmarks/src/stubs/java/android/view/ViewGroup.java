@@ -0,0 +1,31 @@
+package android.view;
+
+import android.content.Context;
+
+public class ViewGroup extends View implements ViewParent {
+
+    public static class LayoutParams {
+        public static final int MATCH_PARENT = -1;
+        public static final int WRAP_CONTENT = -2;
+
+        public int width;
+        public int height;
+
+        public LayoutParams(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    public ViewGroup(Context context) {
+        super(context);
+    }
+
+    public void addView(View child) {
+        child.setParent(this);
+    }
+
+    public void removeView(View view) {
+        view.setParent(null);
+    }
+}
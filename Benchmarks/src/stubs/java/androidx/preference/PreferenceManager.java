@@ -0,0 +1,51 @@
+package androidx.preference;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JVM stub of the preference manager, backed by an in-memory map
+ */
+public class PreferenceManager {
+
+    private static final Map<String, String> values = new ConcurrentHashMap<>();
+
+    private static final List<SharedPreferences.OnSharedPreferenceChangeListener> listeners = new ArrayList<>();
+
+    private static final SharedPreferences sharedPreferences = new SharedPreferences() {
+        @Override
+        public synchronized String getString(String key, String defValue) {
+            String value = values.get(key);
+            return value != null ? value : defValue;
+        }
+
+        @Override
+        public synchronized void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public synchronized void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+            listeners.remove(listener);
+        }
+    };
+
+    public static SharedPreferences getDefaultSharedPreferences(Context context) {
+        return sharedPreferences;
+    }
+
+    /**
+     * Benchmark helper: stores a value and notifies the registered listeners
+     */
+    public static void putString(String key, String value) {
+        values.put(key, value);
+        for (SharedPreferences.OnSharedPreferenceChangeListener listener : new ArrayList<>(listeners)) {
+            listener.onSharedPreferenceChanged(sharedPreferences, key);
+        }
+    }
+}
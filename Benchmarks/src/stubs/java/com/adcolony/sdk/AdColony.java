@@ -0,0 +1,18 @@
+package com.adcolony.sdk;
+
+import android.app.Application;
+
+public class AdColony {
+
+    public static boolean configure(Application application, AdColonyAppOptions options, String appId, String... zoneIds) {
+        return true;
+    }
+
+    public static boolean requestInterstitial(String zoneId, AdColonyInterstitialListener listener, AdColonyAdOptions adOptions) {
+        return true;
+    }
+
+    public static boolean setRewardListener(AdColonyRewardListener listener) {
+        return true;
+    }
+}
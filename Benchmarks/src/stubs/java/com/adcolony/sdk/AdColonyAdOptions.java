@@ -0,0 +1,4 @@
+package com.adcolony.sdk;
+
+public class AdColonyAdOptions {
+}
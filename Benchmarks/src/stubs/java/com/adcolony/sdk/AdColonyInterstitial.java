@@ -0,0 +1,37 @@
+package com.adcolony.sdk;
+
+public class AdColonyInterstitial {
+
+    private final String zoneID;
+
+    private AdColonyInterstitialListener listener;
+
+    AdColonyInterstitial(String zoneID, AdColonyInterstitialListener listener) {
+        this.zoneID = zoneID;
+        this.listener = listener;
+    }
+
+    public String getZoneID() {
+        return zoneID;
+    }
+
+    public AdColonyInterstitialListener getListener() {
+        return listener;
+    }
+
+    public void setListener(AdColonyInterstitialListener listener) {
+        this.listener = listener;
+    }
+
+    public boolean isExpired() {
+        return false;
+    }
+
+    public boolean show() {
+        return true;
+    }
+
+    public boolean destroy() {
+        return true;
+    }
+}
@@ -0,0 +1,12 @@
+package com.adcolony.sdk;
+
+public class AdColonyReward {
+
+    public String getRewardName() {
+        return "";
+    }
+
+    public int getRewardAmount() {
+        return 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.applovin.adview;
+
+import android.content.Context;
+
+import com.applovin.sdk.AppLovinAdClickListener;
+import com.applovin.sdk.AppLovinAdDisplayListener;
+import com.applovin.sdk.AppLovinAdLoadListener;
+import com.applovin.sdk.AppLovinAdRewardListener;
+import com.applovin.sdk.AppLovinAdVideoPlaybackListener;
+
+public class AppLovinIncentivizedInterstitial {
+
+    public static AppLovinIncentivizedInterstitial create(Context context) {
+        return new AppLovinIncentivizedInterstitial();
+    }
+
+    public void preload(AppLovinAdLoadListener listener) {
+    }
+
+    public boolean isAdReadyToDisplay() {
+        return false;
+    }
+
+    public void show(Context context, AppLovinAdRewardListener rewardListener, AppLovinAdVideoPlaybackListener videoPlaybackListener,
+                     AppLovinAdDisplayListener displayListener, AppLovinAdClickListener clickListener) {
+    }
+}
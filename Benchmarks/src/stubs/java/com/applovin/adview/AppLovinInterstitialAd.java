@@ -0,0 +1,37 @@
+package com.applovin.adview;
+
+import android.content.Context;
+
+import com.applovin.sdk.AppLovinAd;
+import com.applovin.sdk.AppLovinAdClickListener;
+import com.applovin.sdk.AppLovinAdDisplayListener;
+import com.applovin.sdk.AppLovinAdVideoPlaybackListener;
+import com.applovin.sdk.AppLovinSdk;
+
+public class AppLovinInterstitialAd {
+
+    public static AppLovinInterstitialAdDialog create(AppLovinSdk sdk, Context context) {
+        return new AppLovinInterstitialAdDialog() {
+            @Override
+            public void setAdClickListener(AppLovinAdClickListener listener) {
+            }
+
+            @Override
+            public void setAdDisplayListener(AppLovinAdDisplayListener listener) {
+            }
+
+            @Override
+            public void setAdVideoPlaybackListener(AppLovinAdVideoPlaybackListener listener) {
+            }
+
+            @Override
+            public boolean isAdReadyToDisplay() {
+                return false;
+            }
+
+            @Override
+            public void showAndRender(AppLovinAd ad) {
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.applovin.adview;
+
+import com.applovin.sdk.AppLovinAd;
+import com.applovin.sdk.AppLovinAdClickListener;
+import com.applovin.sdk.AppLovinAdDisplayListener;
+import com.applovin.sdk.AppLovinAdVideoPlaybackListener;
+
+public interface AppLovinInterstitialAdDialog {
+    void setAdClickListener(AppLovinAdClickListener listener);
+
+    void setAdDisplayListener(AppLovinAdDisplayListener listener);
+
+    void setAdVideoPlaybackListener(AppLovinAdVideoPlaybackListener listener);
+
+    boolean isAdReadyToDisplay();
+
+    void showAndRender(AppLovinAd ad);
+}
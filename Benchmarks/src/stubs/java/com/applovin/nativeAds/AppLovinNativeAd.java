@@ -0,0 +1,29 @@
+package com.applovin.nativeAds;
+
+import android.content.Context;
+
+public interface AppLovinNativeAd {
+    String getTitle();
+
+    String getDescriptionText();
+
+    String getIconUrl();
+
+    String getImageUrl();
+
+    float getStarRating();
+
+    String getCtaText();
+
+    String getVideoUrl();
+
+    String getVideoStartTrackingUrl();
+
+    String getVideoEndTrackingUrl(int percentViewed, boolean firstPlay);
+
+    String getImpressionTrackingUrl();
+
+    long getAdId();
+
+    void launchClickTarget(Context context);
+}
@@ -0,0 +1,9 @@
+package com.applovin.nativeAds;
+
+import java.util.List;
+
+public interface AppLovinNativeAdLoadListener {
+    void onNativeAdsLoaded(List nativeAds);
+
+    void onNativeAdsFailedToLoad(int errorCode);
+}
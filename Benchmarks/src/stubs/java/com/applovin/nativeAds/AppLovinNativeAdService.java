@@ -0,0 +1,7 @@
+package com.applovin.nativeAds;
+
+public class AppLovinNativeAdService {
+
+    public void loadNativeAds(int numberOfAdsToLoad, AppLovinNativeAdLoadListener listener) {
+    }
+}
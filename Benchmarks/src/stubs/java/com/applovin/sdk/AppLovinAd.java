@@ -0,0 +1,4 @@
+package com.applovin.sdk;
+
+public interface AppLovinAd {
+}
@@ -0,0 +1,5 @@
+package com.applovin.sdk;
+
+public interface AppLovinAdClickListener {
+    void adClicked(AppLovinAd ad);
+}
@@ -0,0 +1,7 @@
+package com.applovin.sdk;
+
+public interface AppLovinAdDisplayListener {
+    void adDisplayed(AppLovinAd ad);
+
+    void adHidden(AppLovinAd ad);
+}
@@ -0,0 +1,7 @@
+package com.applovin.sdk;
+
+public class AppLovinAdService {
+
+    public void loadNextAd(AppLovinAdSize adSize, AppLovinAdLoadListener listener) {
+    }
+}
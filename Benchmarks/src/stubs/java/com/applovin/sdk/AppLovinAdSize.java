@@ -0,0 +1,5 @@
+package com.applovin.sdk;
+
+public class AppLovinAdSize {
+    public static final AppLovinAdSize INTERSTITIAL = new AppLovinAdSize();
+}
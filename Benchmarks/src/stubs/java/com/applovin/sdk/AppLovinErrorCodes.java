@@ -0,0 +1,10 @@
+package com.applovin.sdk;
+
+public class AppLovinErrorCodes {
+    public static final int NO_FILL = 204;
+    public static final int FETCH_AD_TIMEOUT = -102;
+    public static final int INCENTIVIZED_NO_AD_PRELOADED = -300;
+    public static final int INCENTIVIZED_UNKNOWN_SERVER_ERROR = -400;
+    public static final int INCENTIVIZED_SERVER_TIMEOUT = -500;
+    public static final int INCENTIVIZED_USER_CLOSED_VIDEO = -600;
+}
@@ -0,0 +1,7 @@
+package com.applovin.sdk;
+
+public interface AppLovinPostbackListener {
+    void onPostbackSuccess(String url);
+
+    void onPostbackFailure(String url, int errorCode);
+}
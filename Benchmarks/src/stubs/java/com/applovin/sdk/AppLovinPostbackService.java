@@ -0,0 +1,7 @@
+package com.applovin.sdk;
+
+public class AppLovinPostbackService {
+
+    public void dispatchPostbackAsync(String url, AppLovinPostbackListener listener) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.applovin.sdk;
+
+import android.content.Context;
+
+public class AppLovinPrivacySettings {
+
+    public static void setHasUserConsent(boolean hasUserConsent, Context context) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.applovin.sdk;
+
+import android.content.Context;
+
+import com.applovin.nativeAds.AppLovinNativeAdService;
+
+public class AppLovinSdk {
+
+    public interface SdkInitializationListener {
+        void onSdkInitialized(AppLovinSdkConfiguration config);
+    }
+
+    private static final AppLovinSdk instance = new AppLovinSdk();
+
+    private final AppLovinSdkSettings settings = new AppLovinSdkSettings();
+
+    private final AppLovinAdService adService = new AppLovinAdService();
+
+    private final AppLovinNativeAdService nativeAdService = new AppLovinNativeAdService();
+
+    private final AppLovinPostbackService postbackService = new AppLovinPostbackService();
+
+    public static void initializeSdk(Context context) {
+    }
+
+    public static void initializeSdk(Context context, SdkInitializationListener listener) {
+        listener.onSdkInitialized(null);
+    }
+
+    public static AppLovinSdk getInstance(Context context) {
+        return instance;
+    }
+
+    public AppLovinSdkSettings getSettings() {
+        return settings;
+    }
+
+    public AppLovinAdService getAdService() {
+        return adService;
+    }
+
+    public AppLovinNativeAdService getNativeAdService() {
+        return nativeAdService;
+    }
+
+    public AppLovinPostbackService getPostbackService() {
+        return postbackService;
+    }
+}
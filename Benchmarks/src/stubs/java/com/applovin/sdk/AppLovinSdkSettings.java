@@ -0,0 +1,10 @@
+package com.applovin.sdk;
+
+public class AppLovinSdkSettings {
+
+    public void setMuted(boolean muted) {
+    }
+
+    public void setVerboseLogging(boolean verboseLogging) {
+    }
+}
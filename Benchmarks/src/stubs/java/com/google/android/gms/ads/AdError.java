@@ -0,0 +1,26 @@
+package com.google.android.gms.ads;
+
+public class AdError {
+
+    private final int code;
+
+    private final String message;
+
+    public AdError(int code, String message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "AdError{code=" + code + ", message=" + message + "}";
+    }
+}
@@ -0,0 +1,13 @@
+package com.google.android.gms.ads;
+
+public class AdRequest {
+    public static final int ERROR_CODE_INTERNAL_ERROR = 0;
+    public static final int ERROR_CODE_NO_FILL = 3;
+
+    public static class Builder {
+
+        public AdRequest build() {
+            return new AdRequest();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.google.android.gms.ads;
+
+public class AdSize {
+    public static final AdSize BANNER = new AdSize(320, 50);
+    public static final AdSize LARGE_BANNER = new AdSize(320, 100);
+    public static final AdSize MEDIUM_RECTANGLE = new AdSize(300, 250);
+    public static final AdSize LEADERBOARD = new AdSize(728, 90);
+
+    private final int width;
+
+    private final int height;
+
+    public AdSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AdSize && ((AdSize) o).width == width && ((AdSize) o).height == height;
+    }
+
+    @Override
+    public int hashCode() {
+        return width * 31 + height;
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height;
+    }
+}
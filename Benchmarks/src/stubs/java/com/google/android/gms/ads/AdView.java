@@ -0,0 +1,20 @@
+package com.google.android.gms.ads;
+
+import android.content.Context;
+
+public final class AdView extends BaseAdView {
+
+    private AdSize adSize;
+
+    public AdView(Context context) {
+        super(context);
+    }
+
+    public AdSize getAdSize() {
+        return adSize;
+    }
+
+    public void setAdSize(AdSize adSize) {
+        this.adSize = adSize;
+    }
+}
@@ -0,0 +1,37 @@
+package com.google.android.gms.ads;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+public abstract class BaseAdView extends ViewGroup {
+
+    private String adUnitId;
+
+    private AdListener adListener;
+
+    BaseAdView(Context context) {
+        super(context);
+    }
+
+    public String getAdUnitId() {
+        return adUnitId;
+    }
+
+    public void setAdUnitId(String adUnitId) {
+        this.adUnitId = adUnitId;
+    }
+
+    public AdListener getAdListener() {
+        return adListener;
+    }
+
+    public void setAdListener(AdListener adListener) {
+        this.adListener = adListener;
+    }
+
+    public void loadAd(AdRequest adRequest) {
+    }
+
+    public void destroy() {
+    }
+}
@@ -0,0 +1,13 @@
+package com.google.android.gms.ads;
+
+import android.content.Context;
+
+/**
+ * Stub only: gives {@link com.google.android.gms.ads.admanager.AdManagerAdView} access to the package private constructor of {@link BaseAdView}
+ */
+public abstract class BaseAdViewAccess extends BaseAdView {
+
+    protected BaseAdViewAccess(Context context) {
+        super(context);
+    }
+}
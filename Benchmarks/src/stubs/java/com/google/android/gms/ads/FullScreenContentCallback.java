@@ -0,0 +1,19 @@
+package com.google.android.gms.ads;
+
+public abstract class FullScreenContentCallback {
+
+    public void onAdClicked() {
+    }
+
+    public void onAdDismissedFullScreenContent() {
+    }
+
+    public void onAdFailedToShowFullScreenContent(AdError adError) {
+    }
+
+    public void onAdImpression() {
+    }
+
+    public void onAdShowedFullScreenContent() {
+    }
+}
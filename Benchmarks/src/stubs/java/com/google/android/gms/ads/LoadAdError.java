@@ -0,0 +1,8 @@
+package com.google.android.gms.ads;
+
+public class LoadAdError extends AdError {
+
+    public LoadAdError(int code, String message) {
+        super(code, message);
+    }
+}
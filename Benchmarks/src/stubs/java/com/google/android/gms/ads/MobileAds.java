@@ -0,0 +1,21 @@
+package com.google.android.gms.ads;
+
+import android.content.Context;
+
+import com.google.android.gms.ads.initialization.InitializationStatus;
+import com.google.android.gms.ads.initialization.OnInitializationCompleteListener;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class MobileAds {
+
+    public static void initialize(Context context, OnInitializationCompleteListener listener) {
+        listener.onInitializationComplete(new InitializationStatus() {
+            @Override
+            public Map<String, Object> getAdapterStatusMap() {
+                return Collections.emptyMap();
+            }
+        });
+    }
+}
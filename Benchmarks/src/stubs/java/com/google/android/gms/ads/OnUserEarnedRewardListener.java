@@ -0,0 +1,7 @@
+package com.google.android.gms.ads;
+
+import com.google.android.gms.ads.rewarded.RewardItem;
+
+public interface OnUserEarnedRewardListener {
+    void onUserEarnedReward(RewardItem rewardItem);
+}
@@ -0,0 +1,13 @@
+package com.google.android.gms.ads.admanager;
+
+import com.google.android.gms.ads.AdRequest;
+
+public class AdManagerAdRequest extends AdRequest {
+
+    public static class Builder {
+
+        public AdManagerAdRequest build() {
+            return new AdManagerAdRequest();
+        }
+    }
+}
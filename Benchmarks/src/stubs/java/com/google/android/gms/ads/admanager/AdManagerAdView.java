@@ -0,0 +1,23 @@
+package com.google.android.gms.ads.admanager;
+
+import android.content.Context;
+
+import com.google.android.gms.ads.AdSize;
+import com.google.android.gms.ads.BaseAdViewAccess;
+
+public final class AdManagerAdView extends BaseAdViewAccess {
+
+    private AdSize[] adSizes;
+
+    public AdManagerAdView(Context context) {
+        super(context);
+    }
+
+    public AdSize[] getAdSizes() {
+        return adSizes;
+    }
+
+    public void setAdSizes(AdSize... adSizes) {
+        this.adSizes = adSizes;
+    }
+}
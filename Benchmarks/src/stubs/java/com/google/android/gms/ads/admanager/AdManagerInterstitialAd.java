@@ -0,0 +1,6 @@
+package com.google.android.gms.ads.admanager;
+
+import com.google.android.gms.ads.interstitial.InterstitialAd;
+
+public abstract class AdManagerInterstitialAd extends InterstitialAd {
+}
@@ -0,0 +1,7 @@
+package com.google.android.gms.ads.initialization;
+
+import java.util.Map;
+
+public interface InitializationStatus {
+    Map<String, Object> getAdapterStatusMap();
+}
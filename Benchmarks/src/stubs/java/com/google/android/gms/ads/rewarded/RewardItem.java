@@ -0,0 +1,7 @@
+package com.google.android.gms.ads.rewarded;
+
+public interface RewardItem {
+    int getAmount();
+
+    String getType();
+}
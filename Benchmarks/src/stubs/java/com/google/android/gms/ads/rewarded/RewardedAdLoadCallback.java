@@ -0,0 +1,6 @@
+package com.google.android.gms.ads.rewarded;
+
+import com.google.android.gms.ads.AdLoadCallback;
+
+public abstract class RewardedAdLoadCallback extends AdLoadCallback<RewardedAd> {
+}
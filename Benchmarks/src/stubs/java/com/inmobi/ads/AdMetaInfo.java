@@ -0,0 +1,4 @@
+package com.inmobi.ads;
+
+public class AdMetaInfo {
+}
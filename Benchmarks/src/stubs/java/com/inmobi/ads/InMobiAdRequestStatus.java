@@ -0,0 +1,22 @@
+package com.inmobi.ads;
+
+public class InMobiAdRequestStatus {
+
+    public enum StatusCode {
+        NO_ERROR, NO_FILL, INTERNAL_ERROR, REQUEST_TIMED_OUT
+    }
+
+    private final StatusCode statusCode;
+
+    public InMobiAdRequestStatus(StatusCode statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public StatusCode getStatusCode() {
+        return statusCode;
+    }
+
+    public String getMessage() {
+        return statusCode.name();
+    }
+}
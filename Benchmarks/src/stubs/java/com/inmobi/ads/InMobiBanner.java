@@ -0,0 +1,37 @@
+package com.inmobi.ads;
+
+import android.content.Context;
+import android.widget.FrameLayout;
+
+import com.inmobi.ads.listeners.BannerAdEventListener;
+
+import java.util.Map;
+
+public class InMobiBanner extends FrameLayout {
+
+    public enum AnimationType {
+        ANIMATION_OFF, ROTATE_HORIZONTAL_AXIS, ANIMATION_ALPHA, ROTATE_VERTICAL_AXIS
+    }
+
+    public InMobiBanner(Context context, long placementId) {
+        super(context);
+    }
+
+    public void setAnimationType(AnimationType animationType) {
+    }
+
+    public void setListener(BannerAdEventListener listener) {
+    }
+
+    public void setEnableAutoRefresh(boolean enableAutoRefresh) {
+    }
+
+    public void setExtras(Map<String, String> extras) {
+    }
+
+    public void load() {
+    }
+
+    public void destroy() {
+    }
+}
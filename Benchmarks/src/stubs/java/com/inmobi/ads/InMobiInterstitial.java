@@ -0,0 +1,26 @@
+package com.inmobi.ads;
+
+import android.content.Context;
+
+import com.inmobi.ads.listeners.InterstitialAdEventListener;
+
+import java.util.Map;
+
+public class InMobiInterstitial {
+
+    public InMobiInterstitial(Context context, long placementId, InterstitialAdEventListener listener) {
+    }
+
+    public void setExtras(Map<String, String> extras) {
+    }
+
+    public void load() {
+    }
+
+    public boolean isReady() {
+        return false;
+    }
+
+    public void show() {
+    }
+}
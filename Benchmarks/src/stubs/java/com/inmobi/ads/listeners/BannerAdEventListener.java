@@ -0,0 +1,43 @@
+package com.inmobi.ads.listeners;
+
+import com.inmobi.ads.AdMetaInfo;
+import com.inmobi.ads.InMobiAdRequestStatus;
+import com.inmobi.ads.InMobiBanner;
+
+import java.util.Map;
+
+public abstract class BannerAdEventListener {
+
+    public void onAdLoadSucceeded(InMobiBanner ad, AdMetaInfo info) {
+    }
+
+    public void onAdLoadFailed(InMobiBanner ad, InMobiAdRequestStatus status) {
+    }
+
+    public void onAdFetchSuccessful(InMobiBanner ad, AdMetaInfo info) {
+    }
+
+    public void onAdFetchFailed(InMobiBanner ad, InMobiAdRequestStatus status) {
+    }
+
+    public void onAdDisplayed(InMobiBanner ad) {
+    }
+
+    public void onAdDismissed(InMobiBanner ad) {
+    }
+
+    public void onUserLeftApplication(InMobiBanner ad) {
+    }
+
+    public void onRewardsUnlocked(InMobiBanner ad, Map<Object, Object> rewards) {
+    }
+
+    public void onAdClicked(InMobiBanner ad, Map<Object, Object> params) {
+    }
+
+    public void onRequestPayloadCreated(byte[] payload) {
+    }
+
+    public void onRequestPayloadCreationFailed(InMobiAdRequestStatus status) {
+    }
+}
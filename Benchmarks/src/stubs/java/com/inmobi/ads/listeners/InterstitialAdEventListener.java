@@ -0,0 +1,49 @@
+package com.inmobi.ads.listeners;
+
+import com.inmobi.ads.AdMetaInfo;
+import com.inmobi.ads.InMobiAdRequestStatus;
+import com.inmobi.ads.InMobiInterstitial;
+
+import java.util.Map;
+
+public abstract class InterstitialAdEventListener {
+
+    public void onAdLoadSucceeded(InMobiInterstitial ad, AdMetaInfo info) {
+    }
+
+    public void onAdLoadFailed(InMobiInterstitial ad, InMobiAdRequestStatus status) {
+    }
+
+    public void onAdFetchSuccessful(InMobiInterstitial ad, AdMetaInfo info) {
+    }
+
+    public void onAdFetchFailed(InMobiInterstitial ad, InMobiAdRequestStatus status) {
+    }
+
+    public void onAdWillDisplay(InMobiInterstitial ad) {
+    }
+
+    public void onAdDisplayed(InMobiInterstitial ad, AdMetaInfo info) {
+    }
+
+    public void onAdDisplayFailed(InMobiInterstitial ad) {
+    }
+
+    public void onAdDismissed(InMobiInterstitial ad) {
+    }
+
+    public void onUserLeftApplication(InMobiInterstitial ad) {
+    }
+
+    public void onRewardsUnlocked(InMobiInterstitial ad, Map<Object, Object> rewards) {
+    }
+
+    public void onAdClicked(InMobiInterstitial ad, Map<Object, Object> params) {
+    }
+
+    public void onRequestPayloadCreated(byte[] payload) {
+    }
+
+    public void onRequestPayloadCreationFailed(InMobiAdRequestStatus status) {
+    }
+}
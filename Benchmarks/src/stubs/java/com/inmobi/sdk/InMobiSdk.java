@@ -0,0 +1,27 @@
+package com.inmobi.sdk;
+
+import android.content.Context;
+import android.location.Location;
+
+import org.json.JSONObject;
+
+public class InMobiSdk {
+    public static final String IM_GDPR_CONSENT_AVAILABLE = "gdpr_consent_available";
+
+    public enum LogLevel {
+        NONE, ERROR, DEBUG
+    }
+
+    public static void init(Context context, String accountId, JSONObject consentObject, SdkInitializationListener listener) {
+        listener.onInitializationComplete(null);
+    }
+
+    public static void setLogLevel(LogLevel logLevel) {
+    }
+
+    public static void updateGDPRConsent(JSONObject consentObject) {
+    }
+
+    public static void setLocation(Location location) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.inmobi.sdk;
+
+public interface SdkInitializationListener {
+    void onInitializationComplete(Error error);
+}
@@ -0,0 +1,15 @@
+package com.ogury.core;
+
+public class OguryError extends Exception {
+
+    private final int errorCode;
+
+    public OguryError(int errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    public int getErrorCode() {
+        return errorCode;
+    }
+}
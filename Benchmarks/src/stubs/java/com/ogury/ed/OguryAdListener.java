@@ -0,0 +1,15 @@
+package com.ogury.ed;
+
+import com.ogury.core.OguryError;
+
+public interface OguryAdListener {
+    void onAdLoaded();
+
+    void onAdDisplayed();
+
+    void onAdClicked();
+
+    void onAdClosed();
+
+    void onAdError(OguryError error);
+}
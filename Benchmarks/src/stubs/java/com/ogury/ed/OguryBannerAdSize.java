@@ -0,0 +1,5 @@
+package com.ogury.ed;
+
+public enum OguryBannerAdSize {
+    SMALL_BANNER_320x50, MPU_300x250
+}
@@ -0,0 +1,26 @@
+package com.ogury.ed;
+
+import android.content.Context;
+import android.widget.FrameLayout;
+
+public class OguryBannerAdView extends FrameLayout {
+
+    public OguryBannerAdView(Context context) {
+        super(context);
+    }
+
+    public void setListener(OguryBannerAdListener listener) {
+    }
+
+    public void setAdUnit(String adUnit) {
+    }
+
+    public void setAdSize(OguryBannerAdSize adSize) {
+    }
+
+    public void loadAd() {
+    }
+
+    public void destroy() {
+    }
+}
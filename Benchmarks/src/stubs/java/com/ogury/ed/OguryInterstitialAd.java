@@ -0,0 +1,22 @@
+package com.ogury.ed;
+
+import android.content.Context;
+
+public class OguryInterstitialAd {
+
+    public OguryInterstitialAd(Context context, String adUnitId) {
+    }
+
+    public void setListener(OguryInterstitialAdListener listener) {
+    }
+
+    public void load() {
+    }
+
+    public boolean isLoaded() {
+        return false;
+    }
+
+    public void show() {
+    }
+}
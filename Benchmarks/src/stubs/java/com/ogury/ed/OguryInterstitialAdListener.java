@@ -0,0 +1,4 @@
+package com.ogury.ed;
+
+public interface OguryInterstitialAdListener extends OguryAdListener {
+}
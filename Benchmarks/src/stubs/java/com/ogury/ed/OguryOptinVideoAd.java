@@ -0,0 +1,22 @@
+package com.ogury.ed;
+
+import android.content.Context;
+
+public class OguryOptinVideoAd {
+
+    public OguryOptinVideoAd(Context context, String adUnitId) {
+    }
+
+    public void setListener(OguryOptinVideoAdListener listener) {
+    }
+
+    public void load() {
+    }
+
+    public boolean isLoaded() {
+        return false;
+    }
+
+    public void show() {
+    }
+}
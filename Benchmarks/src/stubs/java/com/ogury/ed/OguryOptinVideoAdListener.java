@@ -0,0 +1,5 @@
+package com.ogury.ed;
+
+public interface OguryOptinVideoAdListener extends OguryAdListener {
+    void onAdRewarded(OguryReward reward);
+}
@@ -0,0 +1,21 @@
+package com.ogury.ed;
+
+public class OguryReward {
+
+    private final String name;
+
+    private final String value;
+
+    public OguryReward(String name, String value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ogury.ed;
+
+import android.app.Activity;
+import android.content.Context;
+
+public class OguryThumbnailAd {
+
+    public OguryThumbnailAd(Context context, String adUnitId) {
+    }
+
+    public void setListener(OguryThumbnailAdListener listener) {
+    }
+
+    public void load(int maxWidth, int maxHeight) {
+    }
+
+    public boolean isLoaded() {
+        return false;
+    }
+
+    public void show(Activity activity, int leftMargin, int topMargin) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.ogury.sdk;
+
+public class Ogury {
+
+    public static void start(OguryConfiguration configuration) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.ogury.sdk;
+
+import android.content.Context;
+
+public class OguryConfiguration {
+
+    public static class Builder {
+
+        public Builder(Context context, String assetKey) {
+        }
+
+        public OguryConfiguration build() {
+            return new OguryConfiguration();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.smartadserver.android.library.exception;
+
+public class SASAdDisplayException extends Exception {
+
+    public SASAdDisplayException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartadserver.android.library.mediation;
+
+public interface SASMediationAdapter {
+    String AD_VIEW_WIDTH_KEY = "adViewWidth";
+    String AD_VIEW_HEIGHT_KEY = "adViewHeight";
+    String GDPR_APPLIES_KEY = "gdprapplies";
+
+    void onDestroy();
+}
@@ -0,0 +1,14 @@
+package com.smartadserver.android.library.mediation;
+
+public interface SASMediationAdapterListener {
+
+    void adRequestFailed(String errorMessage, boolean isNoAd);
+
+    void onAdClicked();
+
+    void onAdFullScreen();
+
+    void onAdClosed();
+
+    void onAdLeftApplication();
+}
@@ -0,0 +1,15 @@
+package com.smartadserver.android.library.mediation;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+
+public interface SASMediationBannerAdapter extends SASMediationAdapter {
+
+    void requestBannerAd(@NonNull Context context,
+                         @NonNull String serverParametersString,
+                         @NonNull Map<String, Object> clientParameters,
+                         @NonNull SASMediationBannerAdapterListener bannerAdapterListener);
+}
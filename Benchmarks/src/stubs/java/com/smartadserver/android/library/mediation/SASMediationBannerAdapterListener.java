@@ -0,0 +1,8 @@
+package com.smartadserver.android.library.mediation;
+
+import android.view.View;
+
+public interface SASMediationBannerAdapterListener extends SASMediationAdapterListener {
+
+    void onBannerLoaded(View bannerView);
+}
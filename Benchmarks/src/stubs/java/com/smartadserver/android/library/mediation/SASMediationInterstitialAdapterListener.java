@@ -0,0 +1,10 @@
+package com.smartadserver.android.library.mediation;
+
+public interface SASMediationInterstitialAdapterListener extends SASMediationAdapterListener {
+
+    void onInterstitialLoaded();
+
+    void onInterstitialShown();
+
+    void onInterstitialFailedToShow(String errorMessage);
+}
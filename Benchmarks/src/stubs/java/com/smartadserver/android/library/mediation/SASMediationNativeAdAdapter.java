@@ -0,0 +1,15 @@
+package com.smartadserver.android.library.mediation;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+
+public interface SASMediationNativeAdAdapter extends SASMediationAdapter {
+
+    void requestNativeAd(@NonNull Context context,
+                         @NonNull String serverParametersString,
+                         @NonNull Map<String, Object> clientParameters,
+                         @NonNull SASMediationNativeAdAdapterListener nativeAdAdapterListener);
+}
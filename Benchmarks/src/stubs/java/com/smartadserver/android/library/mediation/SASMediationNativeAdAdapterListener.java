@@ -0,0 +1,6 @@
+package com.smartadserver.android.library.mediation;
+
+public interface SASMediationNativeAdAdapterListener extends SASMediationAdapterListener {
+
+    void onNativeAdLoaded(SASMediationNativeAdContent nativeAdContent);
+}
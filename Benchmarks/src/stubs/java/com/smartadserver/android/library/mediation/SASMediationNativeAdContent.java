@@ -0,0 +1,42 @@
+package com.smartadserver.android.library.mediation;
+
+import android.content.Context;
+import android.view.View;
+
+import com.smartadserver.android.library.model.SASNativeVideoAdElement;
+
+public interface SASMediationNativeAdContent {
+    String getTitle();
+
+    String getSubTitle();
+
+    String getBody();
+
+    String getIconUrl();
+
+    int getIconWidth();
+
+    int getIconHeight();
+
+    String getCoverImageUrl();
+
+    int getCoverImageWidth();
+
+    int getCoverImageHeight();
+
+    float getRating();
+
+    String getCallToAction();
+
+    String getSponsoredMessage();
+
+    SASNativeVideoAdElement getMediaElement();
+
+    View getMediaView(Context context);
+
+    void unregisterView(View v);
+
+    void registerView(View v, View[] clickableViews);
+
+    String getAdChoicesUrl();
+}
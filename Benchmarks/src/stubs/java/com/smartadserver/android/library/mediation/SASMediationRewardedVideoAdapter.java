@@ -0,0 +1,17 @@
+package com.smartadserver.android.library.mediation;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+
+public interface SASMediationRewardedVideoAdapter extends SASMediationAdapter {
+
+    void requestRewardedVideoAd(@NonNull Context context,
+                                @NonNull String serverParametersString,
+                                @NonNull Map<String, Object> clientParameters,
+                                @NonNull SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener);
+
+    void showRewardedVideoAd() throws Exception;
+}
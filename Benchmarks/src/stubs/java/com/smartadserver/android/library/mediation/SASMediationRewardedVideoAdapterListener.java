@@ -0,0 +1,14 @@
+package com.smartadserver.android.library.mediation;
+
+import com.smartadserver.android.library.model.SASReward;
+
+public interface SASMediationRewardedVideoAdapterListener extends SASMediationAdapterListener {
+
+    void onRewardedVideoLoaded();
+
+    void onRewardedVideoShown();
+
+    void onRewardedVideoFailedToShow(String errorMessage);
+
+    void onReward(SASReward reward);
+}
@@ -0,0 +1,22 @@
+package com.smartadserver.android.library.model;
+
+public class SASNativeVideoAdElement {
+    public static final int VIDEO_POSITION_CENTER = 0;
+    public static final String TRACKING_EVENT_NAME_START = "start";
+    public static final String TRACKING_EVENT_NAME_COMPLETE = "complete";
+
+    public void setVideoUrl(String videoUrl) {
+    }
+
+    public void setAutoplay(boolean autoplay) {
+    }
+
+    public void setBackgroundColor(int color) {
+    }
+
+    public void setVideoVerticalPosition(int position) {
+    }
+
+    public void setEventTrackingURLs(String eventName, String[] urls) {
+    }
+}
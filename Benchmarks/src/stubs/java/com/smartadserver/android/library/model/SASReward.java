@@ -0,0 +1,21 @@
+package com.smartadserver.android.library.model;
+
+public class SASReward {
+
+    private final String currency;
+
+    private final double amount;
+
+    public SASReward(String currency, double amount) {
+        this.currency = currency;
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+}
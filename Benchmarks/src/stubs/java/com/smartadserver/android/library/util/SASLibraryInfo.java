@@ -0,0 +1,14 @@
+package com.smartadserver.android.library.util;
+
+public class SASLibraryInfo {
+
+    private static final SASLibraryInfo sharedInstance = new SASLibraryInfo();
+
+    public static SASLibraryInfo getSharedInstance() {
+        return sharedInstance;
+    }
+
+    public String getVersion() {
+        return "7.25.1";
+    }
+}
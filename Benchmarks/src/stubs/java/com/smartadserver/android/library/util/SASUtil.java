@@ -0,0 +1,15 @@
+package com.smartadserver.android.library.util;
+
+import android.os.Handler;
+import android.os.Looper;
+
+public class SASUtil {
+
+    public static boolean debugModeEnabled = false;
+
+    private static final Handler mainLooperHandler = new Handler(Looper.getMainLooper());
+
+    public static Handler getMainLooperHandler() {
+        return mainLooperHandler;
+    }
+}
@@ -0,0 +1,16 @@
+package com.smartadserver.android.library.util.location;
+
+import android.location.Location;
+
+public class SASLocationManager {
+
+    private static final SASLocationManager sharedInstance = new SASLocationManager();
+
+    public static SASLocationManager getSharedInstance() {
+        return sharedInstance;
+    }
+
+    public Location getLocation() {
+        return null;
+    }
+}
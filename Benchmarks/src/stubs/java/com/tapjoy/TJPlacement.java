@@ -0,0 +1,31 @@
+package com.tapjoy;
+
+public class TJPlacement {
+
+    private final String name;
+
+    TJPlacement(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setVideoListener(TJPlacementVideoListener videoListener) {
+    }
+
+    public void requestContent() {
+    }
+
+    public boolean isContentReady() {
+        return false;
+    }
+
+    public boolean isContentAvailable() {
+        return false;
+    }
+
+    public void showContent() {
+    }
+}
@@ -0,0 +1,19 @@
+package com.tapjoy;
+
+public interface TJPlacementListener {
+    void onRequestSuccess(TJPlacement placement);
+
+    void onRequestFailure(TJPlacement placement, TJError error);
+
+    void onContentReady(TJPlacement placement);
+
+    void onContentShow(TJPlacement placement);
+
+    void onContentDismiss(TJPlacement placement);
+
+    void onPurchaseRequest(TJPlacement placement, TJActionRequest request, String productId);
+
+    void onRewardRequest(TJPlacement placement, TJActionRequest request, String itemId, int quantity);
+
+    void onClick(TJPlacement placement);
+}
@@ -0,0 +1,10 @@
+package com.tapjoy;
+
+import android.content.Context;
+
+public class TJPlacementManager {
+
+    public static TJPlacement createPlacement(Context context, String placementName, boolean mediation, TJPlacementListener listener) {
+        return new TJPlacement(placementName);
+    }
+}
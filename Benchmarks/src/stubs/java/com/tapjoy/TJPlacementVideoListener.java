@@ -0,0 +1,9 @@
+package com.tapjoy;
+
+public interface TJPlacementVideoListener {
+    void onVideoStart(TJPlacement placement);
+
+    void onVideoError(TJPlacement placement, String message);
+
+    void onVideoComplete(TJPlacement placement);
+}
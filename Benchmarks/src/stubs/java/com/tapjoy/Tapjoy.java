@@ -0,0 +1,23 @@
+package com.tapjoy;
+
+import android.content.Context;
+
+import java.util.Hashtable;
+
+public class Tapjoy {
+
+    private static volatile boolean connected = false;
+
+    public static boolean connect(Context context, String sdkKey, Hashtable<String, ?> connectFlags, TJConnectListener listener) {
+        connected = true;
+        listener.onConnectSuccess();
+        return true;
+    }
+
+    public static boolean isConnected() {
+        return connected;
+    }
+
+    public static void setDebugEnabled(boolean enable) {
+    }
+}
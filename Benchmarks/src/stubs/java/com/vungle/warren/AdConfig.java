@@ -0,0 +1,8 @@
+package com.vungle.warren;
+
+public class AdConfig {
+
+    public enum AdSize {
+        VUNGLE_MREC, VUNGLE_DEFAULT, BANNER, BANNER_SHORT, BANNER_LEADERBOARD
+    }
+}
@@ -0,0 +1,15 @@
+package com.vungle.warren;
+
+public class Banners {
+
+    public static void loadBanner(String placementId, AdConfig.AdSize adSize, LoadAdCallback callback) {
+    }
+
+    public static boolean canPlayAd(String placementId, AdConfig.AdSize adSize) {
+        return false;
+    }
+
+    public static VungleBanner getBanner(String placementId, AdConfig.AdSize adSize, PlayAdCallback playAdCallback) {
+        return null;
+    }
+}
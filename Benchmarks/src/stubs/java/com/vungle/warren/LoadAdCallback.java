@@ -0,0 +1,9 @@
+package com.vungle.warren;
+
+import com.vungle.warren.error.VungleException;
+
+public interface LoadAdCallback {
+    void onAdLoad(String id);
+
+    void onError(String id, VungleException exception);
+}
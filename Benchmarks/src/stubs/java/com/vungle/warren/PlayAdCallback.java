@@ -0,0 +1,23 @@
+package com.vungle.warren;
+
+import com.vungle.warren.error.VungleException;
+
+public interface PlayAdCallback {
+    void creativeId(String creativeId);
+
+    void onAdStart(String id);
+
+    void onAdEnd(String id, boolean completed, boolean isCTAClicked);
+
+    void onAdEnd(String id);
+
+    void onAdClick(String id);
+
+    void onAdRewarded(String id);
+
+    void onAdLeftApplication(String id);
+
+    void onError(String id, VungleException exception);
+
+    void onAdViewed(String id);
+}
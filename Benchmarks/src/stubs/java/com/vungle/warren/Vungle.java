@@ -0,0 +1,34 @@
+package com.vungle.warren;
+
+import android.content.Context;
+
+public class Vungle {
+
+    public enum Consent {
+        OPTED_IN, OPTED_OUT
+    }
+
+    private static volatile boolean initialized = false;
+
+    public static void init(String appId, Context context, InitCallback callback) {
+        initialized = true;
+        callback.onSuccess();
+    }
+
+    public static boolean isInitialized() {
+        return initialized;
+    }
+
+    public static void updateConsentStatus(Consent status, String consentMessageVersion) {
+    }
+
+    public static void loadAd(String id, LoadAdCallback callback) {
+    }
+
+    public static boolean canPlayAd(String id) {
+        return false;
+    }
+
+    public static void playAd(String id, AdConfig settings, PlayAdCallback listener) {
+    }
+}
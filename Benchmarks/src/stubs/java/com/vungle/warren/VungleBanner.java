@@ -0,0 +1,14 @@
+package com.vungle.warren;
+
+import android.content.Context;
+import android.widget.FrameLayout;
+
+public class VungleBanner extends FrameLayout {
+
+    public VungleBanner(Context context) {
+        super(context);
+    }
+
+    public void destroyAd() {
+    }
+}
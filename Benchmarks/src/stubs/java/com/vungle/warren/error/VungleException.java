@@ -0,0 +1,15 @@
+package com.vungle.warren.error;
+
+public class VungleException extends Exception {
+    public static final int NO_SERVE = 1;
+
+    private final int exceptionCode;
+
+    public VungleException(int exceptionCode) {
+        this.exceptionCode = exceptionCode;
+    }
+
+    public int getExceptionCode() {
+        return exceptionCode;
+    }
+}
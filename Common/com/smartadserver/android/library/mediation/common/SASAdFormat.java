@@ -0,0 +1,26 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Ad formats handled by the mediation adapters
+ */
+public enum SASAdFormat {
+    BANNER("banner"),
+    INTERSTITIAL("interstitial"),
+    REWARDED_VIDEO("rewarded video"),
+    NATIVE("native");
+
+    @NonNull
+    private final String label;
+
+    SASAdFormat(@NonNull String label) {
+        this.label = label;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return label;
+    }
+}
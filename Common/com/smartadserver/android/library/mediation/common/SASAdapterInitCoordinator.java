@@ -0,0 +1,95 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Coordinates the one time initialization of third party network SDKs.
+ * Each network registers its initialization code under its name: the code is run exactly once, whatever the number
+ * of concurrent ad requests, and its outcome is exposed as a {@link SASAdapterInitFuture} that later requests attach to.
+ * Each network initializer runs under its own lock, so that a slow or blocking SDK initialization never delays the ad
+ * requests of the other networks.
+ */
+public class SASAdapterInitCoordinator {
+
+    /**
+     * Network specific SDK initialization code
+     */
+    public interface Initializer {
+
+        /**
+         * Starts the network SDK initialization. Implementations must call {@link SASAdapterInitFuture#complete(String)}
+         * once the network SDK reports the initialization outcome.
+         *
+         * @param initFuture the future to complete when the initialization is done
+         */
+        void initialize(@NonNull SASAdapterInitFuture initFuture);
+    }
+
+    /**
+     * Initialization of a single network, its monitor being held while the initializer runs
+     */
+    private static class NetworkInit {
+
+        @NonNull
+        private final SASAdapterInitFuture initFuture;
+
+        // whether the initializer was run, guarded by this network init monitor
+        private boolean initializerRun = false;
+
+        NetworkInit(@NonNull String networkName) {
+            initFuture = new SASAdapterInitFuture(networkName);
+        }
+    }
+
+    // network initializations, by network name
+    @NonNull
+    private static final Map<String, NetworkInit> networkInits = new HashMap<>();
+
+    /**
+     * Runs the initializer of the given network if it was never run before, and returns the initialization future.
+     * The synchronous part of the initializer is guaranteed to have run when this method returns. If the initializer
+     * throws, the future is completed with an error.
+     *
+     * @param networkName the name of the network to initialize
+     * @param initializer the network SDK initialization code
+     */
+    @NonNull
+    public static SASAdapterInitFuture initIfNecessary(@NonNull String networkName, @NonNull Initializer initializer) {
+        NetworkInit networkInit;
+        synchronized (networkInits) {
+            networkInit = networkInits.get(networkName);
+            if (networkInit == null) {
+                networkInit = new NetworkInit(networkName);
+                networkInits.put(networkName, networkInit);
+            }
+        }
+
+        // only the concurrent requests of this network wait for the synchronous part of its initializer
+        synchronized (networkInit) {
+            if (!networkInit.initializerRun) {
+                networkInit.initializerRun = true;
+                try {
+                    initializer.initialize(networkInit.initFuture);
+                } catch (Exception e) {
+                    networkInit.initFuture.complete(networkName + " SDK initialization failed: " + e.getMessage());
+                }
+            }
+        }
+        return networkInit.initFuture;
+    }
+
+    /**
+     * Returns the initialization future of the given network, or null if its initialization was never started
+     */
+    @Nullable
+    public static SASAdapterInitFuture getInitFuture(@NonNull String networkName) {
+        synchronized (networkInits) {
+            NetworkInit networkInit = networkInits.get(networkName);
+            return networkInit != null ? networkInit.initFuture : null;
+        }
+    }
+}
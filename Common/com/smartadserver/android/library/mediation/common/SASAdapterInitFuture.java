@@ -0,0 +1,243 @@
+package com.smartadserver.android.library.mediation.common;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.util.SASUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Completion future of a third party network SDK initialization, as returned by the {@link SASAdapterInitCoordinator}.
+ * Ad requests attach to it to be notified once the network SDK is ready.
+ */
+public class SASAdapterInitFuture {
+
+    private static final String TAG = SASAdapterInitFuture.class.getSimpleName();
+
+    // default maximum time an ad load waits for the network SDK initialization before being performed anyway
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 3000;
+
+    /**
+     * Listener notified once the network SDK initialization is complete
+     */
+    public interface Listener {
+
+        /**
+         * Called when the network SDK initialization is complete
+         *
+         * @param errorMessage the initialization error message, or null if the initialization succeeded
+         */
+        void onInitializationComplete(@Nullable String errorMessage);
+    }
+
+    // name of the network this future belongs to
+    @NonNull
+    private final String networkName;
+
+    private boolean done = false;
+
+    @Nullable
+    private String errorMessage = null;
+
+    // listeners waiting for the initialization outcome
+    @NonNull
+    private final List<Listener> listeners = new ArrayList<>();
+
+    // queued ad loads statistics
+    private int queuedLoadCount = 0;
+    private int timedOutLoadCount = 0;
+    private long totalQueueWaitMillis = 0;
+    private long maxQueueWaitMillis = 0;
+
+    /**
+     * An ad load waiting for the network SDK initialization, also acting as its own wait timeout
+     */
+    private class PendingLoad implements Listener, Runnable {
+
+        @NonNull
+        private final Runnable loadRunnable;
+
+        private final long queuedTime = SystemClock.elapsedRealtime();
+
+        @NonNull
+        private final AtomicBoolean started = new AtomicBoolean(false);
+
+        PendingLoad(@NonNull Runnable loadRunnable) {
+            this.loadRunnable = loadRunnable;
+        }
+
+        @Override
+        public void onInitializationComplete(@Nullable String errorMessage) {
+            SASUtil.getMainLooperHandler().removeCallbacks(this);
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                start(false);
+            } else {
+                // ad loads are always performed on the main thread, the handler keeps them in order
+                SASUtil.getMainLooperHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        start(false);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void run() {
+            // wait timeout reached
+            synchronized (SASAdapterInitFuture.this) {
+                listeners.remove(this);
+            }
+            start(true);
+        }
+
+        private void start(boolean timedOut) {
+            if (started.compareAndSet(false, true)) {
+                long waitMillis = SystemClock.elapsedRealtime() - queuedTime;
+                recordQueueWait(waitMillis, timedOut);
+                if (SASAdapterLogger.isLoggable(Log.DEBUG)) {
+                    SASAdapterLogger.d(TAG, timedOut ? "%s ad load waited %sms for SDK initialization (timed out)" : "%s ad load waited %sms for SDK initialization", networkName, waitMillis);
+                }
+                loadRunnable.run();
+            }
+        }
+    }
+
+    SASAdapterInitFuture(@NonNull String networkName) {
+        this.networkName = networkName;
+    }
+
+    /**
+     * Returns the name of the network this future belongs to
+     */
+    @NonNull
+    public String getNetworkName() {
+        return networkName;
+    }
+
+    /**
+     * Returns whether the network SDK initialization is complete, successfully or not
+     */
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Returns whether the network SDK initialization is complete and successful
+     */
+    public synchronized boolean isSuccessful() {
+        return done && errorMessage == null;
+    }
+
+    /**
+     * Returns the initialization error message, if any
+     */
+    @Nullable
+    public synchronized String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Adds a listener that will be notified of the initialization outcome. If the initialization is already
+     * complete, the listener is notified immediately on the calling thread.
+     */
+    public void addListener(@NonNull Listener listener) {
+        String outcome;
+        synchronized (this) {
+            if (!done) {
+                listeners.add(listener);
+                return;
+            }
+            outcome = errorMessage;
+        }
+        listener.onInitializationComplete(outcome);
+    }
+
+    /**
+     * Runs the given ad load once the network SDK initialization is complete. If the initialization is already
+     * complete, the load is run immediately on the calling thread. Otherwise it is queued and run on the main thread,
+     * in queue order, as soon as the initialization completes, or after maxWaitMillis at most, in which case the
+     * load is performed anyway.
+     *
+     * @param loadRunnable  the ad load to perform
+     * @param maxWaitMillis the maximum time the ad load can wait for the initialization
+     */
+    public void runWhenInitialized(@NonNull Runnable loadRunnable, long maxWaitMillis) {
+        synchronized (this) {
+            if (!done) {
+                PendingLoad pendingLoad = new PendingLoad(loadRunnable);
+                listeners.add(pendingLoad);
+                queuedLoadCount++;
+                SASUtil.getMainLooperHandler().postDelayed(pendingLoad, maxWaitMillis);
+                return;
+            }
+        }
+        loadRunnable.run();
+    }
+
+    private synchronized void recordQueueWait(long waitMillis, boolean timedOut) {
+        totalQueueWaitMillis += waitMillis;
+        maxQueueWaitMillis = Math.max(maxQueueWaitMillis, waitMillis);
+        if (timedOut) {
+            timedOutLoadCount++;
+        }
+    }
+
+    /**
+     * Returns the number of ad loads that had to wait for the network SDK initialization
+     */
+    public synchronized int getQueuedLoadCount() {
+        return queuedLoadCount;
+    }
+
+    /**
+     * Returns the number of queued ad loads performed without waiting for the end of the initialization
+     */
+    public synchronized int getTimedOutLoadCount() {
+        return timedOutLoadCount;
+    }
+
+    /**
+     * Returns the cumulated time queued ad loads waited for the network SDK initialization, in milliseconds
+     */
+    public synchronized long getTotalQueueWaitMillis() {
+        return totalQueueWaitMillis;
+    }
+
+    /**
+     * Returns the longest time a queued ad load waited for the network SDK initialization, in milliseconds
+     */
+    public synchronized long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+
+    /**
+     * Completes this future and notifies all pending listeners, in the order they were added.
+     * Only the first call has an effect.
+     *
+     * @param errorMessage the initialization error message, or null if the initialization succeeded
+     */
+    public void complete(@Nullable String errorMessage) {
+        List<Listener> pendingListeners;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            this.errorMessage = errorMessage;
+            pendingListeners = new ArrayList<>(listeners);
+            listeners.clear();
+        }
+
+        for (Listener listener : pendingListeners) {
+            listener.onInitializationComplete(errorMessage);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.smartadserver.android.library.mediation.common;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.util.SASUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Logger shared by all mediation adapters, with a configurable log level also applied to the network SDKs verbosity.
+ * Messages are only formatted if their level is enabled, so that disabled logs allocate nothing: pass the variable
+ * parts as arguments of a format string instead of concatenating them. Primitive arguments are still boxed by the
+ * caller, so calls with such arguments on ad request paths are guarded by {@link #isLoggable(int)}.
+ */
+public class SASAdapterLogger {
+
+    // log level disabling all logs
+    public static final int LOG_LEVEL_NONE = Log.ASSERT + 1;
+
+    /**
+     * Listener notified when the log level changes, typically to set a network SDK verbosity
+     */
+    public interface LogLevelListener {
+
+        /**
+         * Called with the current log level when registered, then each time it changes
+         *
+         * @param logLevel the new log level, one of the {@link Log} priorities or {@link #LOG_LEVEL_NONE}
+         */
+        void onLogLevelChanged(int logLevel);
+    }
+
+    // explicitly set log level, null to follow the Smart SDK debug mode
+    @Nullable
+    private static volatile Integer logLevel = null;
+
+    @NonNull
+    private static final List<LogLevelListener> listeners = new ArrayList<>();
+
+    // log level the listeners were last notified of, guarded by the listeners lock, -1 if never notified
+    private static int notifiedLogLevel = -1;
+
+    /**
+     * Sets the log level of the adapters and of the network SDKs.
+     *
+     * @param logLevel one of the {@link Log} priorities, {@link #LOG_LEVEL_NONE} to disable all logs, or null to log
+     *                 debug messages only when the Smart SDK debug mode is enabled (default)
+     */
+    public static void setLogLevel(@Nullable Integer logLevel) {
+        SASAdapterLogger.logLevel = logLevel;
+        refreshLogLevel();
+    }
+
+    /**
+     * Notifies the listeners if the current log level changed since they were last notified. To be called on each ad
+     * request by adapters with a log level listener, as the default log level follows the Smart SDK debug mode, which
+     * can be changed at any time without notice.
+     */
+    public static void refreshLogLevel() {
+        int currentLogLevel = getLogLevel();
+        List<LogLevelListener> listenersToNotify;
+        synchronized (listeners) {
+            if (currentLogLevel == notifiedLogLevel) {
+                return;
+            }
+            notifiedLogLevel = currentLogLevel;
+            listenersToNotify = new ArrayList<>(listeners);
+        }
+
+        for (LogLevelListener listener : listenersToNotify) {
+            listener.onLogLevelChanged(currentLogLevel);
+        }
+    }
+
+    /**
+     * Returns the current log level
+     */
+    public static int getLogLevel() {
+        Integer level = logLevel;
+        if (level != null) {
+            return level;
+        }
+        return SASUtil.debugModeEnabled ? Log.DEBUG : Log.WARN;
+    }
+
+    /**
+     * Registers a listener, immediately notified of the current log level
+     */
+    public static void addLogLevelListener(@NonNull LogLevelListener listener) {
+        synchronized (listeners) {
+            listeners.add(listener);
+        }
+        listener.onLogLevelChanged(getLogLevel());
+    }
+
+    /**
+     * Returns whether messages of the given level are logged
+     */
+    public static boolean isLoggable(int level) {
+        return level >= getLogLevel();
+    }
+
+    public static void d(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, message);
+        }
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg) {
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, format(format, arg));
+        }
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, format(format, arg1, arg2));
+        }
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object arg3) {
+        if (isLoggable(Log.DEBUG)) {
+            Log.d(tag, format(format, arg1, arg2, arg3));
+        }
+    }
+
+    @NonNull
+    private static String format(@NonNull String format, @Nullable Object... args) {
+        return String.format(Locale.US, format, args);
+    }
+}
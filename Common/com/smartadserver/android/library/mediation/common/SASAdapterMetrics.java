@@ -0,0 +1,215 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+
+import com.smartadserver.android.library.mediation.SASMediationBannerAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationNativeAdAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the ad request metrics of all mediation adapters: request latency histograms, fill, no fill and timeout
+ * counts, per network and ad format.
+ * Adapters wrap the listener of each ad request with one of the track methods, the request latency being measured
+ * from this call to the first terminal callback. Metrics can be exported with {@link #getSnapshots()}.
+ */
+public class SASAdapterMetrics {
+
+    /**
+     * Metrics of a network for an ad format
+     */
+    static class FormatMetrics {
+
+        @NonNull
+        final SASLatencyHistogram latencyHistogram = new SASLatencyHistogram();
+
+        // time spent by ad requests waiting for a free load slot of the network, see SASLoadScheduler
+        @NonNull
+        final SASLatencyHistogram queueWaitHistogram = new SASLatencyHistogram();
+
+        @NonNull
+        final AtomicLong requestCount = new AtomicLong();
+
+        @NonNull
+        final AtomicLong fillCount = new AtomicLong();
+
+        @NonNull
+        final AtomicLong noFillCount = new AtomicLong();
+
+        @NonNull
+        final AtomicLong errorCount = new AtomicLong();
+
+        // ad requests failed fast without being performed, for instance by the circuit breaker
+        @NonNull
+        final AtomicLong rejectedCount = new AtomicLong();
+
+        // ad requests cancelled by their adapter before any terminal callback
+        @NonNull
+        final AtomicLong cancelledCount = new AtomicLong();
+
+        // ad requests that failed because of their load timeout, also counted as errors
+        @NonNull
+        final AtomicLong timeoutCount = new AtomicLong();
+
+        // ad requests that loaded an ad after their load timeout
+        @NonNull
+        final AtomicLong lateFillCount = new AtomicLong();
+
+        void reset() {
+            latencyHistogram.reset();
+            queueWaitHistogram.reset();
+            requestCount.set(0);
+            fillCount.set(0);
+            noFillCount.set(0);
+            errorCount.set(0);
+            rejectedCount.set(0);
+            timeoutCount.set(0);
+            cancelledCount.set(0);
+            lateFillCount.set(0);
+        }
+    }
+
+    @NonNull
+    private static final SASAdapterMetrics sharedInstance = new SASAdapterMetrics();
+
+    // metrics by network name, then by ad format ordinal
+    @NonNull
+    private final Map<String, FormatMetrics[]> networkMetrics = new ConcurrentHashMap<>();
+
+    @NonNull
+    public static SASAdapterMetrics getSharedInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * Starts tracking a banner ad request
+     *
+     * @param networkName the name of the network performing the request
+     * @param listener    the adapter listener of the request
+     * @return the listener the adapter must notify instead of the given one
+     */
+    @NonNull
+    public SASMediationBannerAdapterListener track(@NonNull String networkName, @NonNull SASMediationBannerAdapterListener listener) {
+        return startRequest(networkName, SASAdFormat.BANNER).wrap(listener);
+    }
+
+    /**
+     * Starts tracking an interstitial ad request
+     *
+     * @param networkName the name of the network performing the request
+     * @param listener    the adapter listener of the request
+     * @return the listener the adapter must notify instead of the given one
+     */
+    @NonNull
+    public SASMediationInterstitialAdapterListener track(@NonNull String networkName, @NonNull SASMediationInterstitialAdapterListener listener) {
+        return startRequest(networkName, SASAdFormat.INTERSTITIAL).wrap(listener);
+    }
+
+    /**
+     * Starts tracking a rewarded video ad request
+     *
+     * @param networkName the name of the network performing the request
+     * @param listener    the adapter listener of the request
+     * @return the listener the adapter must notify instead of the given one
+     */
+    @NonNull
+    public SASMediationRewardedVideoAdapterListener track(@NonNull String networkName, @NonNull SASMediationRewardedVideoAdapterListener listener) {
+        return startRequest(networkName, SASAdFormat.REWARDED_VIDEO).wrap(listener);
+    }
+
+    /**
+     * Starts tracking a native ad request
+     *
+     * @param networkName the name of the network performing the request
+     * @param listener    the adapter listener of the request
+     * @return the listener the adapter must notify instead of the given one
+     */
+    @NonNull
+    public SASMediationNativeAdAdapterListener track(@NonNull String networkName, @NonNull SASMediationNativeAdAdapterListener listener) {
+        return startRequest(networkName, SASAdFormat.NATIVE).wrap(listener);
+    }
+
+    /**
+     * Starts tracking an ad request, and returns its tracker
+     */
+    @NonNull
+    public SASAdapterRequestTracker startRequest(@NonNull String networkName, @NonNull SASAdFormat adFormat) {
+        FormatMetrics formatMetrics = getFormatMetrics(networkName, adFormat);
+        formatMetrics.requestCount.incrementAndGet();
+        return new SASAdapterRequestTracker(networkName, adFormat, formatMetrics);
+    }
+
+    @NonNull
+    private FormatMetrics getFormatMetrics(@NonNull String networkName, @NonNull SASAdFormat adFormat) {
+        FormatMetrics[] formatMetrics = networkMetrics.get(networkName);
+        if (formatMetrics == null) {
+            FormatMetrics[] newFormatMetrics = new FormatMetrics[SASAdFormat.values().length];
+            for (int i = 0; i < newFormatMetrics.length; i++) {
+                newFormatMetrics[i] = new FormatMetrics();
+            }
+            formatMetrics = networkMetrics.putIfAbsent(networkName, newFormatMetrics);
+            if (formatMetrics == null) {
+                formatMetrics = newFormatMetrics;
+            }
+        }
+        return formatMetrics[adFormat.ordinal()];
+    }
+
+    /**
+     * Returns a snapshot of the metrics of each network and ad format with at least one ad request
+     */
+    @NonNull
+    public List<SASAdapterMetricsSnapshot> getSnapshots() {
+        List<SASAdapterMetricsSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, FormatMetrics[]> entry : networkMetrics.entrySet()) {
+            for (SASAdFormat adFormat : SASAdFormat.values()) {
+                FormatMetrics formatMetrics = entry.getValue()[adFormat.ordinal()];
+                if (formatMetrics.requestCount.get() > 0) {
+                    snapshots.add(new SASAdapterMetricsSnapshot(entry.getKey(), adFormat, formatMetrics.requestCount.get(),
+                            formatMetrics.fillCount.get(), formatMetrics.noFillCount.get(), formatMetrics.errorCount.get(),
+                            formatMetrics.rejectedCount.get(), formatMetrics.timeoutCount.get(), formatMetrics.lateFillCount.get(),
+                            formatMetrics.cancelledCount.get(), formatMetrics.latencyHistogram, formatMetrics.queueWaitHistogram));
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns a snapshot of the metrics of the given network and ad format
+     */
+    @NonNull
+    public SASAdapterMetricsSnapshot getSnapshot(@NonNull String networkName, @NonNull SASAdFormat adFormat) {
+        FormatMetrics formatMetrics = getFormatMetrics(networkName, adFormat);
+        return new SASAdapterMetricsSnapshot(networkName, adFormat, formatMetrics.requestCount.get(),
+                formatMetrics.fillCount.get(), formatMetrics.noFillCount.get(), formatMetrics.errorCount.get(),
+                formatMetrics.rejectedCount.get(), formatMetrics.timeoutCount.get(), formatMetrics.lateFillCount.get(),
+                formatMetrics.cancelledCount.get(), formatMetrics.latencyHistogram, formatMetrics.queueWaitHistogram);
+    }
+
+    /**
+     * Returns the given percentile of the ad request latency of the given network and ad format, 0 if none recorded
+     *
+     * @param percentile the percentile, between 0 and 100
+     */
+    public long getLatencyPercentileMillis(@NonNull String networkName, @NonNull SASAdFormat adFormat, double percentile) {
+        return getFormatMetrics(networkName, adFormat).latencyHistogram.getPercentileMillis(percentile);
+    }
+
+    /**
+     * Clears all metrics, for instance once exported
+     */
+    public void reset() {
+        for (FormatMetrics[] formatMetrics : networkMetrics.values()) {
+            for (FormatMetrics metrics : formatMetrics) {
+                metrics.reset();
+            }
+        }
+    }
+}
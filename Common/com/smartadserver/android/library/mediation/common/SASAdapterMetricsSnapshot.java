@@ -0,0 +1,185 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Immutable snapshot of the ad request metrics of a network for an ad format, as returned by
+ * {@link SASAdapterMetrics#getSnapshots()}. Latencies are measured from the adapter request call to its first
+ * terminal callback (ad loaded or request failed).
+ */
+public class SASAdapterMetricsSnapshot {
+
+    @NonNull
+    private final String networkName;
+
+    @NonNull
+    private final SASAdFormat adFormat;
+
+    private final long requestCount;
+    private final long fillCount;
+    private final long noFillCount;
+    private final long errorCount;
+    private final long rejectedCount;
+    private final long timeoutCount;
+    private final long lateFillCount;
+    private final long cancelledCount;
+
+    private final long p50LatencyMillis;
+    private final long p90LatencyMillis;
+    private final long p99LatencyMillis;
+    private final long maxLatencyMillis;
+
+    private final long queuedCount;
+    private final long p90QueueWaitMillis;
+    private final long maxQueueWaitMillis;
+
+    SASAdapterMetricsSnapshot(@NonNull String networkName, @NonNull SASAdFormat adFormat, long requestCount,
+                              long fillCount, long noFillCount, long errorCount, long rejectedCount,
+                              long timeoutCount, long lateFillCount, long cancelledCount,
+                              @NonNull SASLatencyHistogram latencyHistogram, @NonNull SASLatencyHistogram queueWaitHistogram) {
+        this.networkName = networkName;
+        this.adFormat = adFormat;
+        this.requestCount = requestCount;
+        this.fillCount = fillCount;
+        this.noFillCount = noFillCount;
+        this.errorCount = errorCount;
+        this.rejectedCount = rejectedCount;
+        this.timeoutCount = timeoutCount;
+        this.lateFillCount = lateFillCount;
+        this.cancelledCount = cancelledCount;
+        long[] latencyPercentiles = latencyHistogram.getPercentilesMillis(50, 90, 99);
+        this.p50LatencyMillis = latencyPercentiles[0];
+        this.p90LatencyMillis = latencyPercentiles[1];
+        this.p99LatencyMillis = latencyPercentiles[2];
+        this.maxLatencyMillis = latencyHistogram.getMaxMillis();
+        this.queuedCount = queueWaitHistogram.getCount();
+        this.p90QueueWaitMillis = queueWaitHistogram.getPercentileMillis(90);
+        this.maxQueueWaitMillis = queueWaitHistogram.getMaxMillis();
+    }
+
+    @NonNull
+    public String getNetworkName() {
+        return networkName;
+    }
+
+    @NonNull
+    public SASAdFormat getAdFormat() {
+        return adFormat;
+    }
+
+    /**
+     * Returns the number of ad requests made to the network
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of ad requests that loaded an ad
+     */
+    public long getFillCount() {
+        return fillCount;
+    }
+
+    /**
+     * Returns the number of ad requests that failed because the network had no ad
+     */
+    public long getNoFillCount() {
+        return noFillCount;
+    }
+
+    /**
+     * Returns the number of ad requests that failed for another reason than a no fill
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the number of ad requests that failed fast without being sent to the network, see {@link SASCircuitBreaker}
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Returns the number of ad requests that failed because of their load timeout, included in the error count,
+     * see {@link SASAdapterTimeouts}
+     */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * Returns the number of timed out ad requests that loaded an ad afterwards, not included in the fill count
+     */
+    public long getLateFillCount() {
+        return lateFillCount;
+    }
+
+    /**
+     * Returns the number of ad requests cancelled by their adapter before any outcome, see {@link SASCancellationToken}
+     */
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    /**
+     * Returns the number of ad requests without outcome yet
+     */
+    public long getPendingCount() {
+        return Math.max(0, requestCount - fillCount - noFillCount - errorCount - rejectedCount - cancelledCount);
+    }
+
+    /**
+     * Returns the ratio of completed ad requests that loaded an ad, between 0 and 1
+     */
+    public double getFillRate() {
+        long completedCount = fillCount + noFillCount + errorCount;
+        return completedCount > 0 ? (double) fillCount / completedCount : 0;
+    }
+
+    public long getP50LatencyMillis() {
+        return p50LatencyMillis;
+    }
+
+    public long getP90LatencyMillis() {
+        return p90LatencyMillis;
+    }
+
+    public long getP99LatencyMillis() {
+        return p99LatencyMillis;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    /**
+     * Returns the number of ad requests scheduled by {@link SASLoadScheduler}, whether they waited for a load slot or not
+     */
+    public long getQueuedCount() {
+        return queuedCount;
+    }
+
+    /**
+     * Returns the 90th percentile of the time scheduled ad requests waited for a load slot, included in their latency
+     */
+    public long getP90QueueWaitMillis() {
+        return p90QueueWaitMillis;
+    }
+
+    public long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return networkName + " " + adFormat + ": " + requestCount + " requests, " + fillCount + " fills, "
+                + noFillCount + " no fills, " + errorCount + " errors, " + rejectedCount + " rejected, " + timeoutCount
+                + " timeouts (" + lateFillCount + " late fills), " + cancelledCount + " cancelled, latency p50="
+                + p50LatencyMillis + "ms p90=" + p90LatencyMillis + "ms p99=" + p99LatencyMillis + "ms max="
+                + maxLatencyMillis + "ms, queue wait p90=" + p90QueueWaitMillis + "ms max=" + maxQueueWaitMillis + "ms";
+    }
+}
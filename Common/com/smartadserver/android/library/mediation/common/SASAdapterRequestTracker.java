@@ -0,0 +1,534 @@
+package com.smartadserver.android.library.mediation.common;
+
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationBannerAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationNativeAdAdapterListener;
+import com.smartadserver.android.library.mediation.SASMediationNativeAdContent;
+import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener;
+import com.smartadserver.android.library.model.SASReward;
+import com.smartadserver.android.library.util.SASUtil;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks a single ad request, from the adapter request call to its first terminal callback (ad loaded or request
+ * failed), as created by {@link SASAdapterMetrics}. Only the first terminal callback is recorded and forwarded to the
+ * adapter listener, later ones are ignored.
+ */
+public class SASAdapterRequestTracker {
+
+    private static final String TAG = SASAdapterRequestTracker.class.getSimpleName();
+
+    /**
+     * Listener notified of the outcome of the ad request, once its first terminal callback is recorded
+     */
+    interface OutcomeListener {
+
+        void onRequestOutcome(boolean adLoaded, boolean isNoFill);
+
+        // the ad request ends without telling whether the network can load an ad (rejection, cancellation...)
+        void onRequestAbandoned();
+    }
+
+    @NonNull
+    private final String networkName;
+
+    @NonNull
+    private final SASAdFormat adFormat;
+
+    @NonNull
+    private final SASAdapterMetrics.FormatMetrics formatMetrics;
+
+    private final long startTime = SystemClock.elapsedRealtime();
+
+    @NonNull
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+
+    @Nullable
+    private volatile OutcomeListener outcomeListener;
+
+    // pending load timeout, posted on the main thread
+    @Nullable
+    private volatile Runnable timeoutRunnable;
+
+    private volatile boolean timedOut = false;
+
+    @Nullable
+    private volatile SASCancellationToken cancellationToken;
+
+    // run once the ad request has its terminal callback, whatever it is
+    @NonNull
+    private final AtomicReference<Runnable> finishListener = new AtomicReference<>();
+
+    SASAdapterRequestTracker(@NonNull String networkName, @NonNull SASAdFormat adFormat, @NonNull SASAdapterMetrics.FormatMetrics formatMetrics) {
+        this.networkName = networkName;
+        this.adFormat = adFormat;
+        this.formatMetrics = formatMetrics;
+    }
+
+    @NonNull
+    public String getNetworkName() {
+        return networkName;
+    }
+
+    @NonNull
+    public SASAdFormat getAdFormat() {
+        return adFormat;
+    }
+
+    /**
+     * Returns the time elapsed since the start of the ad request, in milliseconds
+     */
+    public long getElapsedMillis() {
+        return SystemClock.elapsedRealtime() - startTime;
+    }
+
+    void setOutcomeListener(@Nullable OutcomeListener outcomeListener) {
+        this.outcomeListener = outcomeListener;
+    }
+
+    void setCancellationToken(@Nullable SASCancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Sets the runnable to run once the ad request has its terminal callback (including rejections, timeouts and
+     * cancellations), run right away if it already had it
+     */
+    void setFinishListener(@Nullable Runnable finishListener) {
+        this.finishListener.set(finishListener);
+        if (finished.get()) {
+            notifyFinished();
+        }
+    }
+
+    private void notifyFinished() {
+        Runnable listener = finishListener.getAndSet(null);
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Records the time the ad request waited for a free load slot of its network, see {@link SASLoadScheduler}
+     */
+    void recordQueueWait(long queueWaitMillis) {
+        formatMetrics.queueWaitHistogram.record(queueWaitMillis);
+    }
+
+    /**
+     * Returns whether the ad request was cancelled by its adapter, in which case no callback is forwarded anymore
+     */
+    public boolean isCancelled() {
+        SASCancellationToken token = cancellationToken;
+        return token != null && token.isCancelled();
+    }
+
+    /**
+     * Returns whether the ad request failed because of its load timeout
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Returns whether the ad request already had its terminal callback
+     */
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+    /**
+     * Records that the ad request loaded an ad.
+     *
+     * @return true if this is the first terminal callback of the request, in which case it must be forwarded
+     */
+    public boolean onAdLoaded() {
+        if (!finished.compareAndSet(false, true)) {
+            if (timedOut) {
+                // late fill, counted to tune the load timeouts
+                formatMetrics.lateFillCount.incrementAndGet();
+                if (SASAdapterLogger.isLoggable(Log.DEBUG)) {
+                    SASAdapterLogger.d(TAG, "%s %s ad loaded %sms after the request start, once timed out", networkName, adFormat, getElapsedMillis());
+                }
+            }
+            return false;
+        }
+        notifyFinished();
+        cancelTimeout();
+        long latencyMillis = getElapsedMillis();
+        formatMetrics.latencyHistogram.record(latencyMillis);
+        formatMetrics.fillCount.incrementAndGet();
+        if (SASAdapterLogger.isLoggable(Log.DEBUG)) {
+            SASAdapterLogger.d(TAG, "%s %s ad loaded in %sms", networkName, adFormat, latencyMillis);
+        }
+        notifyOutcome(true, false);
+        return true;
+    }
+
+    /**
+     * Records that the ad request failed.
+     *
+     * @return true if this is the first terminal callback of the request, in which case it must be forwarded
+     */
+    public boolean onAdRequestFailed(boolean isNoFill) {
+        if (!finished.compareAndSet(false, true)) {
+            return false;
+        }
+        notifyFinished();
+        cancelTimeout();
+        long latencyMillis = getElapsedMillis();
+        formatMetrics.latencyHistogram.record(latencyMillis);
+        if (isNoFill) {
+            formatMetrics.noFillCount.incrementAndGet();
+        } else {
+            formatMetrics.errorCount.incrementAndGet();
+        }
+        if (SASAdapterLogger.isLoggable(Log.DEBUG)) {
+            SASAdapterLogger.d(TAG, isNoFill ? "%s %s ad request failed in %sms (no fill)" : "%s %s ad request failed in %sms", networkName, adFormat, latencyMillis);
+        }
+        notifyOutcome(false, isNoFill);
+        return true;
+    }
+
+    /**
+     * Records that the ad request was not performed, its latency being left out of the histogram.
+     *
+     * @return true if this is the first terminal callback of the request, in which case it must be forwarded
+     */
+    boolean onAdRequestRejected() {
+        if (!finished.compareAndSet(false, true)) {
+            return false;
+        }
+        notifyFinished();
+        cancelTimeout();
+        formatMetrics.rejectedCount.incrementAndGet();
+        abandonOutcome();
+        return true;
+    }
+
+    /**
+     * Records that the ad request timed out, as an error.
+     *
+     * @return true if this is the first terminal callback of the request, in which case it must be forwarded
+     */
+    boolean onAdRequestTimedOut() {
+        if (!finished.compareAndSet(false, true)) {
+            return false;
+        }
+        notifyFinished();
+        timedOut = true;
+        timeoutRunnable = null;
+        long latencyMillis = getElapsedMillis();
+        formatMetrics.latencyHistogram.record(latencyMillis);
+        formatMetrics.errorCount.incrementAndGet();
+        formatMetrics.timeoutCount.incrementAndGet();
+        if (SASAdapterLogger.isLoggable(Log.DEBUG)) {
+            SASAdapterLogger.d(TAG, "%s %s ad request timed out after %sms", networkName, adFormat, latencyMillis);
+        }
+        notifyOutcome(false, false);
+        return true;
+    }
+
+    /**
+     * Records that the ad request was cancelled, if it was still pending
+     */
+    public void onAdRequestCancelled() {
+        onAdRequestCancelled(false);
+    }
+
+    /**
+     * Records that the ad request was cancelled, if it was still pending.
+     *
+     * @param recordElapsedTime whether to record the time elapsed so far in the latency histogram, as a lower bound of
+     *                          the latency of the ad request, for instance when a concurrent request won the race
+     *                          against it, so that the latency history of slow ad requests is not left out
+     */
+    public void onAdRequestCancelled(boolean recordElapsedTime) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        notifyFinished();
+        cancelTimeout();
+        if (recordElapsedTime) {
+            formatMetrics.latencyHistogram.record(getElapsedMillis());
+        }
+        formatMetrics.cancelledCount.incrementAndGet();
+        abandonOutcome();
+        if (SASAdapterLogger.isLoggable(Log.DEBUG)) {
+            SASAdapterLogger.d(TAG, "%s %s ad request cancelled after %sms", networkName, adFormat, getElapsedMillis());
+        }
+    }
+
+    private void scheduleTimeout(long timeoutMillis, @NonNull Runnable runnable) {
+        timeoutRunnable = runnable;
+        SASUtil.getMainLooperHandler().postDelayed(runnable, timeoutMillis);
+        if (finished.get()) {
+            // finished while scheduling
+            cancelTimeout();
+        }
+    }
+
+    private void cancelTimeout() {
+        Runnable runnable = timeoutRunnable;
+        if (runnable != null) {
+            timeoutRunnable = null;
+            SASUtil.getMainLooperHandler().removeCallbacks(runnable);
+        }
+    }
+
+    /**
+     * Detaches the outcome listener, notifying it that the ad request has no outcome for it, unless already notified
+     */
+    void abandonOutcome() {
+        OutcomeListener listener = outcomeListener;
+        outcomeListener = null;
+        if (listener != null) {
+            listener.onRequestAbandoned();
+        }
+    }
+
+    private void notifyOutcome(boolean adLoaded, boolean isNoFill) {
+        OutcomeListener listener = outcomeListener;
+        outcomeListener = null;
+        if (listener != null) {
+            listener.onRequestOutcome(adLoaded, isNoFill);
+        }
+    }
+
+    /**
+     * Returns the tracker of the given listener if it was returned by {@link SASAdapterMetrics}, null otherwise
+     */
+    @Nullable
+    static SASAdapterRequestTracker getTracker(@NonNull SASMediationAdapterListener listener) {
+        return listener instanceof TrackedAdapterListener ? ((TrackedAdapterListener<?>) listener).tracker : null;
+    }
+
+    /**
+     * Starts the load timeout of the ad request of the given listener, if it was returned by {@link SASAdapterMetrics}
+     */
+    static void startTimeout(@NonNull SASMediationAdapterListener listener, long timeoutMillis,
+                             @Nullable SASAdapterTimeouts.TimeoutListener timeoutListener) {
+        if (listener instanceof TrackedAdapterListener) {
+            ((TrackedAdapterListener<?>) listener).startTimeout(timeoutMillis, timeoutListener);
+        }
+    }
+
+    /**
+     * Fails the ad request of the given listener with a no fill, without recording its latency
+     */
+    static void rejectRequest(@NonNull SASMediationAdapterListener listener, @NonNull String errorMessage) {
+        if (listener instanceof TrackedAdapterListener) {
+            ((TrackedAdapterListener<?>) listener).reject(errorMessage);
+        } else {
+            listener.adRequestFailed(errorMessage, true);
+        }
+    }
+
+    /**
+     * Returns a listener forwarding all calls to the given one, terminal callbacks being recorded by this tracker
+     */
+    @NonNull
+    public SASMediationBannerAdapterListener wrap(@NonNull SASMediationBannerAdapterListener listener) {
+        return new TrackedBannerAdapterListener(this, listener);
+    }
+
+    /**
+     * Returns a listener forwarding all calls to the given one, terminal callbacks being recorded by this tracker
+     */
+    @NonNull
+    public SASMediationInterstitialAdapterListener wrap(@NonNull SASMediationInterstitialAdapterListener listener) {
+        return new TrackedInterstitialAdapterListener(this, listener);
+    }
+
+    /**
+     * Returns a listener forwarding all calls to the given one, terminal callbacks being recorded by this tracker
+     */
+    @NonNull
+    public SASMediationRewardedVideoAdapterListener wrap(@NonNull SASMediationRewardedVideoAdapterListener listener) {
+        return new TrackedRewardedVideoAdapterListener(this, listener);
+    }
+
+    /**
+     * Returns a listener forwarding all calls to the given one, terminal callbacks being recorded by this tracker
+     */
+    @NonNull
+    public SASMediationNativeAdAdapterListener wrap(@NonNull SASMediationNativeAdAdapterListener listener) {
+        return new TrackedNativeAdAdapterListener(this, listener);
+    }
+
+    /**
+     * Adapter listener forwarding all calls to the wrapped listener, terminal callbacks only if first
+     */
+    private static class TrackedAdapterListener<T extends SASMediationAdapterListener> implements SASMediationAdapterListener {
+
+        @NonNull
+        final SASAdapterRequestTracker tracker;
+
+        @NonNull
+        final T listener;
+
+        TrackedAdapterListener(@NonNull SASAdapterRequestTracker tracker, @NonNull T listener) {
+            this.tracker = tracker;
+            this.listener = listener;
+        }
+
+        @Override
+        public void adRequestFailed(String errorMessage, boolean isNoAd) {
+            if (tracker.onAdRequestFailed(isNoAd)) {
+                listener.adRequestFailed(errorMessage, isNoAd);
+            }
+        }
+
+        void reject(@NonNull String errorMessage) {
+            if (tracker.onAdRequestRejected()) {
+                listener.adRequestFailed(errorMessage, true);
+            }
+        }
+
+        void startTimeout(final long timeoutMillis, @Nullable final SASAdapterTimeouts.TimeoutListener timeoutListener) {
+            if (tracker.isFinished()) {
+                return;
+            }
+            tracker.scheduleTimeout(timeoutMillis, new Runnable() {
+                @Override
+                public void run() {
+                    if (tracker.onAdRequestTimedOut()) {
+                        listener.adRequestFailed(tracker.getNetworkName() + " ad request timed out after " + timeoutMillis + "ms", false);
+                        if (timeoutListener != null) {
+                            timeoutListener.onTimeout();
+                        }
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onAdClicked() {
+            if (!tracker.isCancelled()) {
+                listener.onAdClicked();
+            }
+        }
+
+        @Override
+        public void onAdFullScreen() {
+            if (!tracker.isCancelled()) {
+                listener.onAdFullScreen();
+            }
+        }
+
+        @Override
+        public void onAdClosed() {
+            if (!tracker.isCancelled()) {
+                listener.onAdClosed();
+            }
+        }
+
+        @Override
+        public void onAdLeftApplication() {
+            if (!tracker.isCancelled()) {
+                listener.onAdLeftApplication();
+            }
+        }
+    }
+
+    private static class TrackedBannerAdapterListener extends TrackedAdapterListener<SASMediationBannerAdapterListener> implements SASMediationBannerAdapterListener {
+
+        TrackedBannerAdapterListener(@NonNull SASAdapterRequestTracker tracker, @NonNull SASMediationBannerAdapterListener listener) {
+            super(tracker, listener);
+        }
+
+        @Override
+        public void onBannerLoaded(View bannerView) {
+            if (tracker.onAdLoaded()) {
+                listener.onBannerLoaded(bannerView);
+            }
+        }
+    }
+
+    private static class TrackedInterstitialAdapterListener extends TrackedAdapterListener<SASMediationInterstitialAdapterListener> implements SASMediationInterstitialAdapterListener {
+
+        TrackedInterstitialAdapterListener(@NonNull SASAdapterRequestTracker tracker, @NonNull SASMediationInterstitialAdapterListener listener) {
+            super(tracker, listener);
+        }
+
+        @Override
+        public void onInterstitialLoaded() {
+            if (tracker.onAdLoaded()) {
+                listener.onInterstitialLoaded();
+            }
+        }
+
+        @Override
+        public void onInterstitialShown() {
+            if (!tracker.isCancelled()) {
+                listener.onInterstitialShown();
+            }
+        }
+
+        @Override
+        public void onInterstitialFailedToShow(String errorMessage) {
+            if (!tracker.isCancelled()) {
+                listener.onInterstitialFailedToShow(errorMessage);
+            }
+        }
+    }
+
+    private static class TrackedRewardedVideoAdapterListener extends TrackedAdapterListener<SASMediationRewardedVideoAdapterListener> implements SASMediationRewardedVideoAdapterListener {
+
+        TrackedRewardedVideoAdapterListener(@NonNull SASAdapterRequestTracker tracker, @NonNull SASMediationRewardedVideoAdapterListener listener) {
+            super(tracker, listener);
+        }
+
+        @Override
+        public void onRewardedVideoLoaded() {
+            if (tracker.onAdLoaded()) {
+                listener.onRewardedVideoLoaded();
+            }
+        }
+
+        @Override
+        public void onRewardedVideoShown() {
+            if (!tracker.isCancelled()) {
+                listener.onRewardedVideoShown();
+            }
+        }
+
+        @Override
+        public void onRewardedVideoFailedToShow(String errorMessage) {
+            if (!tracker.isCancelled()) {
+                listener.onRewardedVideoFailedToShow(errorMessage);
+            }
+        }
+
+        @Override
+        public void onReward(SASReward reward) {
+            if (!tracker.isCancelled()) {
+                listener.onReward(reward);
+            }
+        }
+    }
+
+    private static class TrackedNativeAdAdapterListener extends TrackedAdapterListener<SASMediationNativeAdAdapterListener> implements SASMediationNativeAdAdapterListener {
+
+        TrackedNativeAdAdapterListener(@NonNull SASAdapterRequestTracker tracker, @NonNull SASMediationNativeAdAdapterListener listener) {
+            super(tracker, listener);
+        }
+
+        @Override
+        public void onNativeAdLoaded(SASMediationNativeAdContent nativeAdContent) {
+            if (tracker.onAdLoaded()) {
+                listener.onNativeAdLoaded(nativeAdContent);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapterListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per network ad request load timeouts. When an ad request has no terminal callback within the timeout of its network,
+ * it fails with an error, later callbacks are ignored (late fills being counted in {@link SASAdapterMetrics}) and the
+ * adapter is notified so that it can tear down the pending network SDK objects.
+ * Timeouts are disabled by default, so that ad requests only fail on the network SDK callbacks unless a timeout is set
+ * for their network, or for all networks with {@link #setDefaultTimeout(long)}.
+ */
+public class SASAdapterTimeouts {
+
+    // default load timeout of all networks, disabled
+    public static final long DEFAULT_TIMEOUT_MILLIS = 0;
+
+    /**
+     * Listener notified when an ad request timed out, after its adapter listener
+     */
+    public interface TimeoutListener {
+
+        /**
+         * Called on the main thread when the ad request timed out, typically to destroy the pending network SDK objects
+         */
+        void onTimeout();
+    }
+
+    @NonNull
+    private static final SASAdapterTimeouts sharedInstance = new SASAdapterTimeouts();
+
+    // timeouts by network name, networks without timeout use the default one
+    @NonNull
+    private final Map<String, Long> timeouts = new ConcurrentHashMap<>();
+
+    private volatile long defaultTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    @NonNull
+    public static SASAdapterTimeouts getSharedInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * Sets the load timeout of the given network
+     *
+     * @param networkName   the name of the network
+     * @param timeoutMillis the load timeout in milliseconds, 0 to disable it
+     */
+    public void setTimeout(@NonNull String networkName, long timeoutMillis) {
+        timeouts.put(networkName, Math.max(0, timeoutMillis));
+    }
+
+    /**
+     * Sets the load timeout of the networks without specific timeout, 0 to disable it
+     */
+    public void setDefaultTimeout(long timeoutMillis) {
+        defaultTimeoutMillis = Math.max(0, timeoutMillis);
+    }
+
+    /**
+     * Returns the load timeout of the given network in milliseconds, 0 if disabled
+     */
+    public long getTimeout(@NonNull String networkName) {
+        Long timeoutMillis = timeouts.get(networkName);
+        return timeoutMillis != null ? timeoutMillis : defaultTimeoutMillis;
+    }
+
+    /**
+     * Starts the load timeout of an ad request, provided that its listener was returned by {@link SASAdapterMetrics}.
+     * The timeout is cancelled by the first terminal callback of the request.
+     *
+     * @param networkName     the name of the network performing the ad request
+     * @param listener        the adapter listener of the ad request
+     * @param timeoutListener the {@link TimeoutListener} to notify if the ad request times out
+     */
+    public void start(@NonNull String networkName, @NonNull SASMediationAdapterListener listener, @Nullable TimeoutListener timeoutListener) {
+        long timeoutMillis = getTimeout(networkName);
+        if (timeoutMillis > 0) {
+            SASAdapterRequestTracker.startTimeout(listener, timeoutMillis, timeoutListener);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.smartadserver.android.library.mediation.common;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of network banner views, so that the views of destroyed banner adapters can be reused by the next
+ * ad requests of the same network, placement and size instead of inflating new ones. Views are only reused once
+ * detached from their parent, and with the {@link Context} they were created with. Pooled views are destroyed when
+ * evicted, least recently pooled first, when the application is low on memory, or when their {@link Activity} is
+ * destroyed, so that the pool never keeps a finished Activity alive.
+ * Must be used from the main thread.
+ */
+public class SASBannerViewPool {
+
+    // tag for logging purposes
+    private static final String TAG = SASBannerViewPool.class.getSimpleName();
+
+    // default maximum number of pooled views, all networks included
+    public static final int DEFAULT_MAX_POOLED_VIEWS = 4;
+
+    // maximum number of pooled views of the same network, placement and size
+    private static final int MAX_POOLED_VIEWS_PER_KEY = 2;
+
+    /**
+     * Destroys a banner view evicted from the pool
+     */
+    public interface ViewDestroyer<V extends View> {
+
+        void destroy(@NonNull V view);
+    }
+
+    /**
+     * A pooled view and how to destroy it
+     */
+    private static class PooledView<V extends View> {
+
+        @NonNull
+        final String key;
+
+        @NonNull
+        final V view;
+
+        @NonNull
+        final ViewDestroyer<V> destroyer;
+
+        PooledView(@NonNull String key, @NonNull V view, @NonNull ViewDestroyer<V> destroyer) {
+            this.key = key;
+            this.view = view;
+            this.destroyer = destroyer;
+        }
+
+        void destroy() {
+            destroyer.destroy(view);
+        }
+    }
+
+    @NonNull
+    private static final SASBannerViewPool sharedInstance = new SASBannerViewPool();
+
+    // pooled views, least recently pooled first
+    @NonNull
+    private final LinkedList<PooledView<?>> pooledViews = new LinkedList<>();
+
+    private int maxPooledViews = DEFAULT_MAX_POOLED_VIEWS;
+
+    // pool hits and misses by network name
+    @NonNull
+    private final ConcurrentHashMap<String, AtomicLong> hitCounts = new ConcurrentHashMap<>();
+    @NonNull
+    private final ConcurrentHashMap<String, AtomicLong> missCounts = new ConcurrentHashMap<>();
+
+    private boolean callbacksRegistered = false;
+
+    @NonNull
+    public static SASBannerViewPool getSharedInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * Sets the maximum number of pooled views, all networks included, 0 to disable the pool
+     */
+    public void setMaxPooledViews(int maxPooledViews) {
+        List<PooledView<?>> evictedViews;
+        synchronized (this) {
+            this.maxPooledViews = Math.max(0, maxPooledViews);
+            evictedViews = evict(this.maxPooledViews);
+        }
+        destroy(evictedViews);
+    }
+
+    /**
+     * Returns a pooled view of the given network, placement and size, created with the given context, if any
+     *
+     * @param networkName the name of the network of the view
+     * @param context     the {@link Context} of the ad request
+     * @param key         the placement and size of the view
+     * @param viewClass   the class of the view
+     * @return a detached view to load the next ad in, or null if none, in which case a new view must be created
+     */
+    @Nullable
+    public <V extends View> V acquire(@NonNull String networkName, @NonNull Context context, @NonNull String key, @NonNull Class<V> viewClass) {
+        V view = null;
+        synchronized (this) {
+            String poolKey = networkName + ":" + key;
+            Iterator<PooledView<?>> iterator = pooledViews.descendingIterator();
+            while (iterator.hasNext()) {
+                PooledView<?> pooledView = iterator.next();
+                if (pooledView.key.equals(poolKey) && viewClass.isInstance(pooledView.view)
+                        && pooledView.view.getContext() == context && pooledView.view.getParent() == null) {
+                    iterator.remove();
+                    view = viewClass.cast(pooledView.view);
+                    break;
+                }
+            }
+        }
+        getCount(view != null ? hitCounts : missCounts, networkName).incrementAndGet();
+        if (SASAdapterLogger.isLoggable(Log.DEBUG)) {
+            SASAdapterLogger.d(TAG, "%s banner view pool %s, hit rate %s", networkName + " " + key, view != null ? "hit" : "miss", getHitRate(networkName));
+        }
+        return view;
+    }
+
+    /**
+     * Pools the view of a destroyed banner adapter, for the next ad requests of the same network, placement and size.
+     * The view must not be loading an ad anymore.
+     *
+     * @param networkName the name of the network of the view
+     * @param key         the placement and size of the view
+     * @param view        the view to pool
+     * @param destroyer   the {@link ViewDestroyer} destroying the view once evicted
+     */
+    public <V extends View> void release(@NonNull String networkName, @NonNull String key, @NonNull V view, @NonNull ViewDestroyer<V> destroyer) {
+        registerCallbacksIfNecessary(view.getContext());
+
+        PooledView<V> releasedView = new PooledView<>(networkName + ":" + key, view, destroyer);
+        List<PooledView<?>> evictedViews = new ArrayList<>();
+        synchronized (this) {
+            if (maxPooledViews == 0 || isActivityFinished(view.getContext())) {
+                evictedViews.add(releasedView);
+            } else {
+                // keep the most recently pooled views of this key
+                int keyCount = 0;
+                Iterator<PooledView<?>> iterator = pooledViews.descendingIterator();
+                while (iterator.hasNext()) {
+                    PooledView<?> pooledView = iterator.next();
+                    if (pooledView.key.equals(releasedView.key) && ++keyCount >= MAX_POOLED_VIEWS_PER_KEY) {
+                        iterator.remove();
+                        evictedViews.add(pooledView);
+                    }
+                }
+                pooledViews.addLast(releasedView);
+                evictedViews.addAll(evict(maxPooledViews));
+            }
+        }
+        destroy(evictedViews);
+    }
+
+    /**
+     * Destroys all pooled views
+     */
+    public void clear() {
+        List<PooledView<?>> evictedViews;
+        synchronized (this) {
+            evictedViews = evict(0);
+        }
+        if (!evictedViews.isEmpty()) {
+            SASAdapterLogger.d(TAG, "Banner view pool cleared, %s views destroyed", evictedViews.size());
+        }
+        destroy(evictedViews);
+    }
+
+    /**
+     * Returns the number of ad requests of the given network which reused a pooled view
+     */
+    public long getHitCount(@NonNull String networkName) {
+        return getCount(hitCounts, networkName).get();
+    }
+
+    /**
+     * Returns the number of ad requests of the given network which found no view to reuse
+     */
+    public long getMissCount(@NonNull String networkName) {
+        return getCount(missCounts, networkName).get();
+    }
+
+    /**
+     * Returns the ratio of ad requests of the given network which reused a pooled view, between 0 and 1
+     */
+    public double getHitRate(@NonNull String networkName) {
+        long hitCount = getHitCount(networkName);
+        long requestCount = hitCount + getMissCount(networkName);
+        return requestCount > 0 ? (double) hitCount / requestCount : 0;
+    }
+
+    // removes the least recently pooled views over the given maximum, to be destroyed outside of the lock
+    @NonNull
+    private List<PooledView<?>> evict(int maxPooledViews) {
+        List<PooledView<?>> evictedViews = new ArrayList<>();
+        while (pooledViews.size() > maxPooledViews) {
+            evictedViews.add(pooledViews.removeFirst());
+        }
+        return evictedViews;
+    }
+
+    private void destroy(@NonNull List<PooledView<?>> evictedViews) {
+        for (PooledView<?> evictedView : evictedViews) {
+            evictedView.destroy();
+        }
+    }
+
+    // destroys the pooled views of the given activity, which can not be reused anymore
+    private void clear(@NonNull Activity activity) {
+        List<PooledView<?>> evictedViews = new ArrayList<>();
+        synchronized (this) {
+            Iterator<PooledView<?>> iterator = pooledViews.iterator();
+            while (iterator.hasNext()) {
+                PooledView<?> pooledView = iterator.next();
+                if (pooledView.view.getContext() == activity) {
+                    iterator.remove();
+                    evictedViews.add(pooledView);
+                }
+            }
+        }
+        destroy(evictedViews);
+    }
+
+    private static boolean isActivityFinished(@NonNull Context context) {
+        return context instanceof Activity && (((Activity) context).isFinishing() || ((Activity) context).isDestroyed());
+    }
+
+    @NonNull
+    private static AtomicLong getCount(@NonNull ConcurrentHashMap<String, AtomicLong> counts, @NonNull String networkName) {
+        AtomicLong count = counts.get(networkName);
+        if (count == null) {
+            AtomicLong newCount = new AtomicLong();
+            count = counts.putIfAbsent(networkName, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        return count;
+    }
+
+    // empties the pool when the application is low on memory or goes to the background, and releases the views of
+    // destroyed activities
+    private synchronized void registerCallbacksIfNecessary(@NonNull Context context) {
+        if (callbacksRegistered) {
+            return;
+        }
+        callbacksRegistered = true;
+        Context applicationContext = context.getApplicationContext();
+        applicationContext.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                    clear();
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                clear();
+            }
+        });
+
+        if (applicationContext instanceof Application) {
+            ((Application) applicationContext).registerActivityLifecycleCallbacks(new Application.ActivityLifecycleCallbacks() {
+                @Override
+                public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+                }
+
+                @Override
+                public void onActivityStarted(@NonNull Activity activity) {
+                }
+
+                @Override
+                public void onActivityResumed(@NonNull Activity activity) {
+                }
+
+                @Override
+                public void onActivityPaused(@NonNull Activity activity) {
+                }
+
+                @Override
+                public void onActivityStopped(@NonNull Activity activity) {
+                }
+
+                @Override
+                public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+                }
+
+                @Override
+                public void onActivityDestroyed(@NonNull Activity activity) {
+                    clear(activity);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapterListener;
+
+/**
+ * Cancellation token of an ad request, cancelled by the adapter {@code onDestroy()}.
+ * Adapters check it in their network SDK callbacks so that an abandoned ad request neither keeps nor creates SDK
+ * objects. When bound to a listener returned by {@link SASAdapterMetrics}, that listener also stops forwarding any
+ * callback once the token is cancelled, and the request is counted as cancelled if it was still pending.
+ */
+public class SASCancellationToken {
+
+    private volatile boolean cancelled = false;
+
+    // tracker of the ad request, if its listener is tracked
+    @Nullable
+    private final SASAdapterRequestTracker tracker;
+
+    private SASCancellationToken(@Nullable SASAdapterRequestTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    /**
+     * Creates the cancellation token of the ad request notifying the given listener
+     *
+     * @param listener the adapter listener of the ad request, as returned by {@link SASAdapterMetrics}
+     */
+    @NonNull
+    public static SASCancellationToken create(@NonNull SASMediationAdapterListener listener) {
+        SASCancellationToken cancellationToken = new SASCancellationToken(SASAdapterRequestTracker.getTracker(listener));
+        if (cancellationToken.tracker != null) {
+            cancellationToken.tracker.setCancellationToken(cancellationToken);
+        }
+        return cancellationToken;
+    }
+
+    /**
+     * Returns whether the ad request was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancels the ad request, later callbacks of its listener being ignored
+     */
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        if (tracker != null) {
+            tracker.onAdRequestCancelled();
+        }
+    }
+}
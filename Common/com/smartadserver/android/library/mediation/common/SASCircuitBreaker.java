@@ -0,0 +1,372 @@
+package com.smartadserver.android.library.mediation.common;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapterListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per placement circuit breaker, failing ad requests fast when a network placement keeps returning no fill or errors.
+ * After {@link SASCircuitBreakerPolicy#getFailureThreshold()} consecutive failures, the circuit opens: ad requests
+ * fail immediately with a no fill, instead of waiting for the network SDK. Once the cooldown is elapsed, a single
+ * probe request is let through: the circuit closes if it loads an ad, otherwise it opens again for twice as long.
+ * A cancelled or rejected probe opens the circuit again for the same cooldown. Only network failures are counted,
+ * see {@link #failMisconfiguredRequest(SASMediationAdapterListener, String)}.
+ * Placements are identified by the network name and the server parameters of the ad requests. The circuit breaker
+ * is disabled unless a policy is set, see {@link #setPolicy(String, SASCircuitBreakerPolicy)}.
+ */
+public class SASCircuitBreaker {
+
+    private static final String TAG = SASCircuitBreaker.class.getSimpleName();
+
+    /**
+     * Circuit states
+     */
+    public enum State {
+        // ad requests are performed
+        CLOSED,
+        // ad requests fail fast until the cooldown is elapsed
+        OPEN,
+        // a probe request is in progress, other ad requests fail fast
+        HALF_OPEN
+    }
+
+    /**
+     * Immutable snapshot of the circuit of a placement, as returned by {@link #getSnapshots()}
+     */
+    public static class CircuitSnapshot {
+
+        @NonNull
+        private final String networkName;
+
+        @NonNull
+        private final String placementKey;
+
+        @NonNull
+        private final State state;
+
+        private final int consecutiveFailureCount;
+
+        private final int consecutiveOpenCount;
+
+        private final long remainingCooldownMillis;
+
+        private final long rejectedRequestCount;
+
+        CircuitSnapshot(@NonNull String networkName, @NonNull String placementKey, @NonNull State state, int consecutiveFailureCount,
+                        int consecutiveOpenCount, long remainingCooldownMillis, long rejectedRequestCount) {
+            this.networkName = networkName;
+            this.placementKey = placementKey;
+            this.state = state;
+            this.consecutiveFailureCount = consecutiveFailureCount;
+            this.consecutiveOpenCount = consecutiveOpenCount;
+            this.remainingCooldownMillis = remainingCooldownMillis;
+            this.rejectedRequestCount = rejectedRequestCount;
+        }
+
+        @NonNull
+        public String getNetworkName() {
+            return networkName;
+        }
+
+        /**
+         * Returns the server parameters identifying the placement
+         */
+        @NonNull
+        public String getPlacementKey() {
+            return placementKey;
+        }
+
+        @NonNull
+        public State getState() {
+            return state;
+        }
+
+        public int getConsecutiveFailureCount() {
+            return consecutiveFailureCount;
+        }
+
+        /**
+         * Returns the number of times the circuit opened since it was last closed
+         */
+        public int getConsecutiveOpenCount() {
+            return consecutiveOpenCount;
+        }
+
+        /**
+         * Returns the time before the next probe request, 0 if the circuit is not open
+         */
+        public long getRemainingCooldownMillis() {
+            return remainingCooldownMillis;
+        }
+
+        /**
+         * Returns the number of ad requests that failed fast since the circuit was created
+         */
+        public long getRejectedRequestCount() {
+            return rejectedRequestCount;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return networkName + " " + placementKey + ": " + state + ", " + consecutiveFailureCount + " consecutive failures, "
+                    + rejectedRequestCount + " rejected requests" + (state == State.OPEN ? ", probe in " + remainingCooldownMillis + "ms" : "");
+        }
+    }
+
+    /**
+     * Circuit of a placement, notified of the outcome of the ad requests it let through
+     */
+    private static class Circuit implements SASAdapterRequestTracker.OutcomeListener {
+
+        @NonNull
+        private final String networkName;
+
+        @NonNull
+        private final String placementKey;
+
+        @NonNull
+        private State state = State.CLOSED;
+
+        private int consecutiveFailureCount = 0;
+
+        private int consecutiveOpenCount = 0;
+
+        // elapsed realtime at which an open circuit lets a probe request through
+        private long openUntil = 0;
+
+        // elapsed realtime at which the current probe request started
+        private long probeStartTime = 0;
+
+        private long rejectedRequestCount = 0;
+
+        Circuit(@NonNull String networkName, @NonNull String placementKey) {
+            this.networkName = networkName;
+            this.placementKey = placementKey;
+        }
+
+        /**
+         * Returns whether an ad request can be performed, or null if it must fail fast with the returned message
+         */
+        @Nullable
+        synchronized String checkRequest(@NonNull SASCircuitBreakerPolicy policy) {
+            long now = SystemClock.elapsedRealtime();
+            switch (state) {
+                case OPEN:
+                    if (now < openUntil) {
+                        rejectedRequestCount++;
+                        return networkName + " placement failing, ad request skipped for " + (openUntil - now) + "ms";
+                    }
+                    // cooldown elapsed, this request is the probe
+                    state = State.HALF_OPEN;
+                    probeStartTime = now;
+                    SASAdapterLogger.d(TAG, "%s circuit half open, probing placement: %s", networkName, placementKey);
+                    return null;
+                case HALF_OPEN:
+                    if (now - probeStartTime < policy.getMaxCooldownMillis()) {
+                        rejectedRequestCount++;
+                        return networkName + " placement failing, probe request in progress";
+                    }
+                    // the probe never completed, let another one through
+                    probeStartTime = now;
+                    return null;
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public synchronized void onRequestOutcome(boolean adLoaded, boolean isNoFill) {
+            if (adLoaded) {
+                if (state != State.CLOSED) {
+                    SASAdapterLogger.d(TAG, "%s circuit closed for placement: %s", networkName, placementKey);
+                }
+                state = State.CLOSED;
+                consecutiveFailureCount = 0;
+                consecutiveOpenCount = 0;
+                return;
+            }
+
+            consecutiveFailureCount++;
+            SASCircuitBreakerPolicy policy = getSharedInstance().getPolicy(networkName);
+            boolean probeFailed = state == State.HALF_OPEN;
+            if (probeFailed || (state == State.CLOSED && policy.isEnabled() && consecutiveFailureCount >= policy.getFailureThreshold())) {
+                long cooldownMillis = policy.getCooldownMillis(consecutiveOpenCount);
+                state = State.OPEN;
+                openUntil = SystemClock.elapsedRealtime() + cooldownMillis;
+                consecutiveOpenCount++;
+                SASAdapterLogger.d(TAG, "%s circuit open for %sms for placement: %s", networkName, cooldownMillis, placementKey);
+            }
+        }
+
+        @Override
+        public synchronized void onRequestAbandoned() {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            // the probe tells nothing about the placement, wait for the current cooldown before the next one
+            long cooldownMillis = getSharedInstance().getPolicy(networkName).getCooldownMillis(Math.max(0, consecutiveOpenCount - 1));
+            state = State.OPEN;
+            openUntil = SystemClock.elapsedRealtime() + cooldownMillis;
+            SASAdapterLogger.d(TAG, "%s circuit open for %sms for placement, probe abandoned: %s", networkName, cooldownMillis, placementKey);
+        }
+
+        @NonNull
+        synchronized CircuitSnapshot getSnapshot() {
+            long remainingCooldownMillis = state == State.OPEN ? Math.max(0, openUntil - SystemClock.elapsedRealtime()) : 0;
+            return new CircuitSnapshot(networkName, placementKey, state, consecutiveFailureCount, consecutiveOpenCount,
+                    remainingCooldownMillis, rejectedRequestCount);
+        }
+    }
+
+    @NonNull
+    private static final SASCircuitBreaker sharedInstance = new SASCircuitBreaker();
+
+    // policies by network name, networks without policy use the default one
+    @NonNull
+    private final Map<String, SASCircuitBreakerPolicy> policies = new ConcurrentHashMap<>();
+
+    @NonNull
+    private volatile SASCircuitBreakerPolicy defaultPolicy = SASCircuitBreakerPolicy.DISABLED;
+
+    // circuits by network name and placement key
+    @NonNull
+    private final Map<String, Map<String, Circuit>> circuits = new ConcurrentHashMap<>();
+
+    @NonNull
+    public static SASCircuitBreaker getSharedInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * Sets the policy of the given network
+     */
+    public void setPolicy(@NonNull String networkName, @NonNull SASCircuitBreakerPolicy policy) {
+        policies.put(networkName, policy);
+    }
+
+    /**
+     * Sets the policy of the networks without specific policy, {@link SASCircuitBreakerPolicy#DISABLED} by default
+     */
+    public void setDefaultPolicy(@NonNull SASCircuitBreakerPolicy policy) {
+        defaultPolicy = policy;
+    }
+
+    /**
+     * Returns the policy of the given network
+     */
+    @NonNull
+    public SASCircuitBreakerPolicy getPolicy(@NonNull String networkName) {
+        SASCircuitBreakerPolicy policy = policies.get(networkName);
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    /**
+     * Checks whether an ad request can be performed for the given placement. If not, the ad request fails immediately
+     * with a no fill on the given listener. Otherwise, the outcome of the ad request is recorded, provided that the
+     * listener was returned by {@link SASAdapterMetrics}.
+     *
+     * @param networkName  the name of the network performing the ad request
+     * @param placementKey the server parameters of the ad request, identifying the placement
+     * @param listener     the adapter listener of the ad request
+     * @return true if the ad request failed fast and must not be performed
+     */
+    public boolean rejectRequest(@NonNull String networkName, @NonNull String placementKey, @NonNull SASMediationAdapterListener listener) {
+        SASCircuitBreakerPolicy policy = getPolicy(networkName);
+        Circuit circuit = getCircuit(networkName, placementKey, policy.isEnabled());
+        if (circuit == null) {
+            return false;
+        }
+
+        String rejectionMessage = circuit.checkRequest(policy);
+        if (rejectionMessage != null) {
+            SASAdapterLogger.d(TAG, rejectionMessage);
+            SASAdapterRequestTracker.rejectRequest(listener, rejectionMessage);
+            return true;
+        }
+
+        SASAdapterRequestTracker tracker = SASAdapterRequestTracker.getTracker(listener);
+        if (tracker != null) {
+            tracker.setOutcomeListener(circuit);
+        }
+        return false;
+    }
+
+    /**
+     * Fails the ad request of the given listener because of an adapter configuration error (invalid server
+     * parameters, unsupported context...), which is not counted as a failure of the placement.
+     *
+     * @param listener     the adapter listener of the ad request
+     * @param errorMessage the error message of the failure
+     */
+    public void failMisconfiguredRequest(@NonNull SASMediationAdapterListener listener, @NonNull String errorMessage) {
+        SASAdapterRequestTracker tracker = SASAdapterRequestTracker.getTracker(listener);
+        if (tracker != null) {
+            tracker.abandonOutcome();
+        }
+        listener.adRequestFailed(errorMessage, false);
+    }
+
+    @Nullable
+    private Circuit getCircuit(@NonNull String networkName, @NonNull String placementKey, boolean create) {
+        Map<String, Circuit> networkCircuits = circuits.get(networkName);
+        if (networkCircuits == null) {
+            if (!create) {
+                return null;
+            }
+            Map<String, Circuit> newNetworkCircuits = new ConcurrentHashMap<>();
+            networkCircuits = circuits.putIfAbsent(networkName, newNetworkCircuits);
+            if (networkCircuits == null) {
+                networkCircuits = newNetworkCircuits;
+            }
+        }
+
+        Circuit circuit = networkCircuits.get(placementKey);
+        if (circuit == null && create) {
+            Circuit newCircuit = new Circuit(networkName, placementKey);
+            circuit = networkCircuits.putIfAbsent(placementKey, newCircuit);
+            if (circuit == null) {
+                circuit = newCircuit;
+            }
+        }
+        return circuit;
+    }
+
+    /**
+     * Returns the state of the given placement circuit
+     */
+    @NonNull
+    public State getState(@NonNull String networkName, @NonNull String placementKey) {
+        Circuit circuit = getCircuit(networkName, placementKey, false);
+        return circuit != null ? circuit.getSnapshot().getState() : State.CLOSED;
+    }
+
+    /**
+     * Returns a snapshot of all placement circuits
+     */
+    @NonNull
+    public List<CircuitSnapshot> getSnapshots() {
+        List<CircuitSnapshot> snapshots = new ArrayList<>();
+        for (Map<String, Circuit> networkCircuits : circuits.values()) {
+            for (Circuit circuit : networkCircuits.values()) {
+                snapshots.add(circuit.getSnapshot());
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Closes all circuits, for instance when the network connectivity is back
+     */
+    public void reset() {
+        circuits.clear();
+    }
+}
@@ -0,0 +1,69 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Circuit breaker policy of a network, see {@link SASCircuitBreaker}.
+ */
+public class SASCircuitBreakerPolicy {
+
+    /**
+     * Default policy: the circuit opens after 3 consecutive failures, for 30 seconds, doubled at each consecutive
+     * opening up to 15 minutes
+     */
+    @NonNull
+    public static final SASCircuitBreakerPolicy DEFAULT = new SASCircuitBreakerPolicy(3, 30 * 1000, 15 * 60 * 1000);
+
+    /**
+     * Policy never opening the circuit
+     */
+    @NonNull
+    public static final SASCircuitBreakerPolicy DISABLED = new SASCircuitBreakerPolicy(0, 0, 0);
+
+    private final int failureThreshold;
+
+    private final long initialCooldownMillis;
+
+    private final long maxCooldownMillis;
+
+    /**
+     * @param failureThreshold      the number of consecutive no fills or errors opening the circuit, 0 to disable it
+     * @param initialCooldownMillis the time the circuit stays open the first time, doubled at each consecutive opening
+     * @param maxCooldownMillis     the maximum time the circuit stays open
+     */
+    public SASCircuitBreakerPolicy(int failureThreshold, long initialCooldownMillis, long maxCooldownMillis) {
+        this.failureThreshold = Math.max(0, failureThreshold);
+        this.initialCooldownMillis = Math.max(0, initialCooldownMillis);
+        this.maxCooldownMillis = Math.max(this.initialCooldownMillis, maxCooldownMillis);
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getInitialCooldownMillis() {
+        return initialCooldownMillis;
+    }
+
+    public long getMaxCooldownMillis() {
+        return maxCooldownMillis;
+    }
+
+    /**
+     * Returns whether this policy can open the circuit
+     */
+    public boolean isEnabled() {
+        return failureThreshold > 0;
+    }
+
+    /**
+     * Returns the time the circuit stays open after the given number of consecutive openings (starting at 0)
+     */
+    long getCooldownMillis(int consecutiveOpenCount) {
+        long cooldown = initialCooldownMillis;
+        for (int i = 0; i < consecutiveOpenCount && cooldown < maxCooldownMillis; i++) {
+            cooldown *= 2;
+        }
+        return Math.min(cooldown, maxCooldownMillis);
+    }
+}
@@ -0,0 +1,209 @@
+package com.smartadserver.android.library.mediation.common;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.preference.PreferenceManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process wide cache of the user consent, shared by all adapters.
+ * <p>
+ * Most mediated networks are not IAB compliant and do not accept the IAB Consent String, but only a binary consent status.
+ * Smart advises app developers to store the binary consent in the 'Smart_advertisingConsentStatus' key of the default
+ * {@link SharedPreferences}, therefore the adapters retrieve it from this key.
+ * Adapt the code below if your app don't follow this convention.
+ * <p>
+ * The consent status is loaded once in background, then kept up to date by a preferences change listener, so that
+ * ad requests read it without any disk access nor lock. Call {@link #preload(Context)} at app startup to make sure
+ * it is loaded before the first ad request.
+ */
+public class SASConsentManager {
+
+    private static final String TAG = SASConsentManager.class.getSimpleName();
+
+    // key of the binary consent status in the default shared preferences
+    public static final String CONSENT_STATUS_KEY = "Smart_advertisingConsentStatus";
+
+    // GDPR applies values, used as snapshots index
+    private static final int GDPR_APPLIES_UNKNOWN = 0;
+    private static final int GDPR_APPLIES_TRUE = 1;
+    private static final int GDPR_APPLIES_FALSE = 2;
+
+    /**
+     * Listener notified when the user updates the consent status stored by the app
+     */
+    public interface Listener {
+
+        /**
+         * Called on the thread that stored the new consent status (usually the main thread)
+         */
+        void onConsentStatusChanged();
+    }
+
+    @NonNull
+    private static final SASConsentManager sharedInstance = new SASConsentManager();
+
+    // listeners notified of consent status changes
+    @NonNull
+    private final List<Listener> listeners = new ArrayList<>();
+
+    // snapshots of the current consent status, by GDPR applies value. Replaced as a whole, never modified.
+    @Nullable
+    private volatile SASConsentSnapshot[] snapshots = null;
+
+    private boolean loadStarted = false;
+
+    // strong reference on the change listener, as shared preferences only keep weak references on their listeners
+    @NonNull
+    private final SharedPreferences.OnSharedPreferenceChangeListener preferenceChangeListener = new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+            if (CONSENT_STATUS_KEY.equals(key)) {
+                String consentStatus = sharedPreferences.getString(CONSENT_STATUS_KEY, null);
+                SASAdapterLogger.d(TAG, "Consent status changed: %s", consentStatus);
+                updateConsentStatus(consentStatus);
+            }
+        }
+    };
+
+    /**
+     * Returns the shared instance of the consent manager
+     */
+    @NonNull
+    public static SASConsentManager getSharedInstance() {
+        return sharedInstance;
+    }
+
+    private SASConsentManager() {
+    }
+
+    /**
+     * Starts loading the consent status in background, and listening to its changes. Does nothing if already started.
+     */
+    public void preload(@NonNull Context context) {
+        synchronized (this) {
+            if (loadStarted) {
+                return;
+            }
+            loadStarted = true;
+        }
+
+        final Context appContext = context.getApplicationContext();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loadConsentStatus(appContext);
+            }
+        }, "SASConsentManager").start();
+    }
+
+    /**
+     * Returns the consent snapshot for an ad request, combining the current consent status with the GDPR applies
+     * client parameter. Only reads the shared preferences (synchronously) if the background load is not done yet.
+     *
+     * @param context          the context of the ad request
+     * @param clientParameters the client parameters of the ad request
+     */
+    @NonNull
+    public SASConsentSnapshot getConsentSnapshot(@NonNull Context context, @NonNull Map<String, Object> clientParameters) {
+        SASConsentSnapshot[] currentSnapshots = snapshots;
+        if (currentSnapshots == null) {
+            // read synchronously, a background load would only duplicate the read
+            synchronized (this) {
+                loadStarted = true;
+            }
+            currentSnapshots = loadConsentStatus(context.getApplicationContext());
+        }
+
+        Object GDPRApplies = clientParameters.get(SASMediationAdapter.GDPR_APPLIES_KEY);
+        if ("true".equalsIgnoreCase(String.valueOf(GDPRApplies))) {
+            return currentSnapshots[GDPR_APPLIES_TRUE];
+        } else if ("false".equalsIgnoreCase(String.valueOf(GDPRApplies))) {
+            return currentSnapshots[GDPR_APPLIES_FALSE];
+        }
+        return currentSnapshots[GDPR_APPLIES_UNKNOWN];
+    }
+
+    /**
+     * Returns the consent snapshot for the given GDPR applies value, or null if the consent status is not loaded yet
+     */
+    @Nullable
+    SASConsentSnapshot getConsentSnapshot(@Nullable Boolean GDPRApplies) {
+        SASConsentSnapshot[] currentSnapshots = snapshots;
+        if (currentSnapshots == null) {
+            return null;
+        }
+        if (GDPRApplies == null) {
+            return currentSnapshots[GDPR_APPLIES_UNKNOWN];
+        }
+        return currentSnapshots[GDPRApplies ? GDPR_APPLIES_TRUE : GDPR_APPLIES_FALSE];
+    }
+
+    /**
+     * Adds a listener notified when the user updates the consent status
+     */
+    public void addListener(@NonNull Listener listener) {
+        synchronized (listeners) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Removes a listener previously added with {@link #addListener(Listener)}
+     */
+    public void removeListener(@NonNull Listener listener) {
+        synchronized (listeners) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Reads the consent status from the shared preferences and registers the change listener, if not done yet
+     */
+    @NonNull
+    private SASConsentSnapshot[] loadConsentStatus(@NonNull Context appContext) {
+        SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(appContext);
+        synchronized (this) {
+            if (snapshots == null) {
+                sharedPreferences.registerOnSharedPreferenceChangeListener(preferenceChangeListener);
+                snapshots = createSnapshots(sharedPreferences.getString(CONSENT_STATUS_KEY, null));
+            }
+            //noinspection ConstantConditions
+            return snapshots;
+        }
+    }
+
+    /**
+     * Publishes the snapshots of a new consent status, then notifies the listeners
+     */
+    private void updateConsentStatus(@Nullable String consentStatus) {
+        synchronized (this) {
+            snapshots = createSnapshots(consentStatus);
+        }
+
+        List<Listener> listenersCopy;
+        synchronized (listeners) {
+            listenersCopy = new ArrayList<>(listeners);
+        }
+        for (Listener listener : listenersCopy) {
+            listener.onConsentStatusChanged();
+        }
+    }
+
+    @NonNull
+    private static SASConsentSnapshot[] createSnapshots(@Nullable String consentStatus) {
+        SASConsentSnapshot[] snapshots = new SASConsentSnapshot[3];
+        snapshots[GDPR_APPLIES_UNKNOWN] = new SASConsentSnapshot(null, consentStatus);
+        snapshots[GDPR_APPLIES_TRUE] = new SASConsentSnapshot(true, consentStatus);
+        snapshots[GDPR_APPLIES_FALSE] = new SASConsentSnapshot(false, consentStatus);
+        return snapshots;
+    }
+}
@@ -0,0 +1,160 @@
+package com.smartadserver.android.library.mediation.common;
+
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Propagates the user consent to the network SDKs, calling each network consent API only when the consent it
+ * expects actually changes, instead of on every ad request.
+ * When the user updates the consent status, the new consent is pushed to all registered networks at once.
+ * Each network consent is computed and pushed under the lock of that network, so that concurrent updates reach the
+ * network SDK in the order they were computed, and no network SDK is called under the registry lock.
+ */
+public class SASConsentPropagator {
+
+    private static final String TAG = SASConsentPropagator.class.getSimpleName();
+
+    /**
+     * Network specific consent handling
+     *
+     * @param <T> the type of the consent expected by the network consent API. Must implement equals.
+     */
+    public interface ConsentHandler<T> {
+
+        /**
+         * Returns the consent to pass to the network for the given snapshot, or null if nothing must be passed
+         */
+        @Nullable
+        T getNetworkConsent(@NonNull SASConsentSnapshot consentSnapshot);
+
+        /**
+         * Passes the given consent to the network SDK
+         */
+        void pushConsent(@NonNull T networkConsent);
+    }
+
+    /**
+     * Consent state of a registered network, its monitor being held while computing and pushing its consent
+     */
+    private static class NetworkConsentState<T> {
+
+        @NonNull
+        private final ConsentHandler<T> handler;
+
+        // GDPR applies value of the latest ad request, as the batch push has no client parameters
+        @Nullable
+        private Boolean lastGDPRApplies = null;
+
+        // latest consent passed to the network SDK
+        @Nullable
+        private T lastPushedConsent = null;
+
+        NetworkConsentState(@NonNull ConsentHandler<T> handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * Returns the consent to push for the given snapshot, or null if it did not change since the last push
+         */
+        @Nullable
+        T update(@NonNull SASConsentSnapshot consentSnapshot) {
+            lastGDPRApplies = consentSnapshot.getGDPRApplies();
+            T networkConsent = handler.getNetworkConsent(consentSnapshot);
+            if (networkConsent == null || networkConsent.equals(lastPushedConsent)) {
+                return null;
+            }
+            lastPushedConsent = networkConsent;
+            return networkConsent;
+        }
+    }
+
+    @NonNull
+    private static final SASConsentPropagator sharedInstance = new SASConsentPropagator();
+
+    // registered networks consent state, by network name
+    @NonNull
+    private final Map<String, NetworkConsentState<?>> networkConsentStates = new LinkedHashMap<>();
+
+    /**
+     * Returns the shared instance of the consent propagator
+     */
+    @NonNull
+    public static SASConsentPropagator getSharedInstance() {
+        return sharedInstance;
+    }
+
+    private SASConsentPropagator() {
+        SASConsentManager.getSharedInstance().addListener(new SASConsentManager.Listener() {
+            @Override
+            public void onConsentStatusChanged() {
+                pushToAllNetworks();
+            }
+        });
+    }
+
+    /**
+     * Passes the consent of an ad request to the given network SDK, if it differs from the latest one passed.
+     * The network is registered with the given handler on first call, and will then receive consent updates.
+     *
+     * @param networkName     the name of the network
+     * @param handler         the network consent handler, only used on first call
+     * @param consentSnapshot the consent snapshot of the ad request
+     */
+    public <T> void propagate(@NonNull String networkName, @NonNull ConsentHandler<T> handler, @NonNull SASConsentSnapshot consentSnapshot) {
+        NetworkConsentState<T> networkConsentState;
+        synchronized (networkConsentStates) {
+            // a network is always registered with handlers of the same consent type
+            @SuppressWarnings("unchecked")
+            NetworkConsentState<T> registeredState = (NetworkConsentState<T>) networkConsentStates.get(networkName);
+            networkConsentState = registeredState;
+            if (networkConsentState == null) {
+                networkConsentState = new NetworkConsentState<>(handler);
+                networkConsentStates.put(networkName, networkConsentState);
+            }
+        }
+
+        synchronized (networkConsentState) {
+            // the consent status may have changed since the snapshot of the ad request was taken, push the latest one
+            SASConsentSnapshot latestConsentSnapshot = SASConsentManager.getSharedInstance().getConsentSnapshot(consentSnapshot.getGDPRApplies());
+            T networkConsent = networkConsentState.update(latestConsentSnapshot != null ? latestConsentSnapshot : consentSnapshot);
+            if (networkConsent != null) {
+                SASAdapterLogger.d(TAG, "Passing consent to %s: %s", networkName, networkConsent);
+                networkConsentState.handler.pushConsent(networkConsent);
+            }
+        }
+    }
+
+    /**
+     * Pushes the current consent status to all registered networks whose consent changed
+     */
+    private void pushToAllNetworks() {
+        List<Map.Entry<String, NetworkConsentState<?>>> entries;
+        synchronized (networkConsentStates) {
+            entries = new ArrayList<>(networkConsentStates.entrySet());
+        }
+        for (Map.Entry<String, NetworkConsentState<?>> entry : entries) {
+            pushIfChanged(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private <T> void pushIfChanged(@NonNull String networkName, @NonNull NetworkConsentState<T> networkConsentState) {
+        synchronized (networkConsentState) {
+            SASConsentSnapshot consentSnapshot = SASConsentManager.getSharedInstance().getConsentSnapshot(networkConsentState.lastGDPRApplies);
+            if (consentSnapshot == null) {
+                return;
+            }
+
+            T networkConsent = networkConsentState.update(consentSnapshot);
+            if (networkConsent != null) {
+                SASAdapterLogger.d(TAG, "Passing updated consent to %s: %s", networkName, networkConsent);
+                networkConsentState.handler.pushConsent(networkConsent);
+            }
+        }
+    }
+}
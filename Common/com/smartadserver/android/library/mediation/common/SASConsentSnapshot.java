@@ -0,0 +1,78 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Immutable view of the user consent at a given time, combining the GDPR applies client parameter sent by the
+ * Smart SDK with the binary consent status stored by the app, as returned by the {@link SASConsentManager}.
+ */
+public class SASConsentSnapshot {
+
+    // whether GDPR applies, null if unknown
+    @Nullable
+    private final Boolean GDPRApplies;
+
+    // raw binary consent status ("1" or "0"), null if not available
+    @Nullable
+    private final String consentStatus;
+
+    SASConsentSnapshot(@Nullable Boolean GDPRApplies, @Nullable String consentStatus) {
+        this.GDPRApplies = GDPRApplies;
+        this.consentStatus = consentStatus;
+    }
+
+    /**
+     * Returns whether GDPR applies, or null if unknown
+     */
+    @Nullable
+    public Boolean getGDPRApplies() {
+        return GDPRApplies;
+    }
+
+    /**
+     * Returns true only if the Smart SDK explicitly determined that GDPR does not apply
+     */
+    public boolean isGDPRNotApplicable() {
+        return Boolean.FALSE.equals(GDPRApplies);
+    }
+
+    /**
+     * Returns the raw binary consent status stored by the app ("1" or "0"), or null if not available
+     */
+    @Nullable
+    public String getConsentStatus() {
+        return consentStatus;
+    }
+
+    /**
+     * Returns whether the user explicitly gave consent
+     */
+    public boolean hasUserConsent() {
+        return "1".equals(consentStatus);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SASConsentSnapshot)) {
+            return false;
+        }
+        SASConsentSnapshot that = (SASConsentSnapshot) o;
+        return (GDPRApplies == null ? that.GDPRApplies == null : GDPRApplies.equals(that.GDPRApplies))
+                && (consentStatus == null ? that.consentStatus == null : consentStatus.equals(that.consentStatus));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (GDPRApplies != null ? GDPRApplies.hashCode() : 0) + (consentStatus != null ? consentStatus.hashCode() : 0);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SASConsentSnapshot{GDPRApplies=" + GDPRApplies + ", consentStatus=" + consentStatus + "}";
+    }
+}
@@ -0,0 +1,151 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram, in milliseconds, with a bounded relative error.
+ * Values below 16ms have their own bucket, larger values are grouped in 8 buckets per power of two (12.5% precision),
+ * so that recording a value only costs a few atomic increments and the memory footprint is fixed.
+ */
+public class SASLatencyHistogram {
+
+    // values below this limit have their own bucket
+    private static final int LINEAR_BUCKET_COUNT = 16;
+
+    // number of buckets per power of two, above the linear buckets
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    // highest power of two with its own buckets (about 4.6 hours), larger values are recorded in the last bucket
+    private static final int MAX_EXPONENT = 24;
+
+    private static final int MIN_EXPONENT = 4;
+
+    private static final int BUCKET_COUNT = LINEAR_BUCKET_COUNT + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalMillis = new AtomicLong();
+
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    /**
+     * Records a latency value
+     */
+    public void record(long latencyMillis) {
+        long value = Math.max(0, latencyMillis);
+        buckets.incrementAndGet(getBucketIndex(value));
+        count.incrementAndGet();
+        totalMillis.addAndGet(value);
+
+        long currentMax = maxMillis.get();
+        while (value > currentMax && !maxMillis.compareAndSet(currentMax, value)) {
+            currentMax = maxMillis.get();
+        }
+    }
+
+    /**
+     * Returns the number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values, or 0 if none was recorded
+     */
+    public long getMeanMillis() {
+        long currentCount = count.get();
+        return currentCount > 0 ? totalMillis.get() / currentCount : 0;
+    }
+
+    /**
+     * Returns the largest recorded value
+     */
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    /**
+     * Returns the given percentile of the recorded values, as the upper bound of the bucket containing it, or 0 if
+     * none was recorded. Values recorded concurrently may or may not be taken into account.
+     *
+     * @param percentile the percentile, between 0 and 100
+     */
+    public long getPercentileMillis(double percentile) {
+        return getPercentilesMillis(percentile)[0];
+    }
+
+    /**
+     * Returns the given percentiles of the recorded values, computed from a single pass over the buckets
+     *
+     * @param percentiles the percentiles, between 0 and 100, in ascending order
+     * @see #getPercentileMillis(double)
+     */
+    @NonNull
+    public long[] getPercentilesMillis(@NonNull double... percentiles) {
+        long[] results = new long[percentiles.length];
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return results;
+        }
+
+        long max = maxMillis.get();
+        int bucketIndex = 0;
+        long cumulated = counts[0];
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentiles[p])) / 100 * total));
+            while (cumulated < rank && bucketIndex < BUCKET_COUNT - 1) {
+                bucketIndex++;
+                cumulated += counts[bucketIndex];
+            }
+            // the bucket upper bound can exceed the largest value when few values were recorded
+            results[p] = Math.min(getBucketUpperBound(bucketIndex), max);
+        }
+        return results;
+    }
+
+    /**
+     * Clears all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalMillis.set(0);
+        maxMillis.set(0);
+    }
+
+    private static int getBucketIndex(long value) {
+        if (value < LINEAR_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return LINEAR_BUCKET_COUNT + (exponent - MIN_EXPONENT) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long getBucketUpperBound(int index) {
+        if (index < LINEAR_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKET_COUNT) / SUB_BUCKET_COUNT + MIN_EXPONENT;
+        int subBucket = (index - LINEAR_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long bucketWidth = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((long) (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS)) + bucketWidth - 1;
+    }
+}
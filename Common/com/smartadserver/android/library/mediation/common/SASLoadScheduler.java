@@ -0,0 +1,333 @@
+package com.smartadserver.android.library.mediation.common;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapterListener;
+import com.smartadserver.android.library.util.SASUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the number of network SDK loads in flight per network. Loads over the limit wait for a free slot, the
+ * queued loads of higher priority formats starting first: rewarded video, interstitial, native, then banner, then
+ * background loads (preloads) of any format.
+ * A load holds its slot until the first terminal callback of its ad request (including timeouts and cancellations),
+ * or until a background load notifies its end. The time spent waiting for a slot by ad requests is recorded in
+ * {@link SASAdapterMetrics}.
+ */
+public class SASLoadScheduler {
+
+    // tag for logging purposes
+    private static final String TAG = SASLoadScheduler.class.getSimpleName();
+
+    // no limit of loads in flight
+    public static final int UNLIMITED = 0;
+
+    // priority of the background loads, after all ad requests
+    private static final int BACKGROUND_PRIORITY = -1;
+
+    /**
+     * Network SDK load not tied to an ad request (preload...), holding its load slot until it runs the given runnable
+     */
+    public interface BackgroundLoad {
+
+        void start(@NonNull Runnable onFinished);
+    }
+
+    /**
+     * Load waiting for a free slot, of an ad request or in the background
+     */
+    private static class QueuedLoad implements Comparable<QueuedLoad> {
+
+        @Nullable
+        final SASAdapterRequestTracker tracker;
+
+        @Nullable
+        final Runnable load;
+
+        @Nullable
+        final BackgroundLoad backgroundLoad;
+
+        @NonNull
+        final SASAdFormat adFormat;
+
+        final int priority;
+
+        final long sequenceNumber;
+
+        final long queueTime = SystemClock.elapsedRealtime();
+
+        QueuedLoad(@NonNull SASAdapterRequestTracker tracker, @NonNull Runnable load, long sequenceNumber) {
+            this.tracker = tracker;
+            this.load = load;
+            this.backgroundLoad = null;
+            this.adFormat = tracker.getAdFormat();
+            this.priority = getPriority(adFormat);
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        QueuedLoad(@NonNull SASAdFormat adFormat, @NonNull BackgroundLoad backgroundLoad, long sequenceNumber) {
+            this.tracker = null;
+            this.load = null;
+            this.backgroundLoad = backgroundLoad;
+            this.adFormat = adFormat;
+            this.priority = BACKGROUND_PRIORITY;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        // whether the ad request of this load already had its outcome, background loads never do
+        boolean isFinished() {
+            return tracker != null && tracker.isFinished();
+        }
+
+        @Override
+        public int compareTo(@NonNull QueuedLoad other) {
+            // higher priority first, then first in first out
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            return Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
+
+    /**
+     * Loads in flight and queued loads of a network
+     */
+    private static class NetworkLoads {
+
+        int inFlightCount;
+
+        @NonNull
+        final PriorityQueue<QueuedLoad> queuedLoads = new PriorityQueue<>();
+    }
+
+    @NonNull
+    private static final SASLoadScheduler sharedInstance = new SASLoadScheduler();
+
+    // maximum loads in flight by network name, networks without specific maximum use the default one
+    @NonNull
+    private final Map<String, Integer> maxConcurrentLoads = new ConcurrentHashMap<>();
+
+    private volatile int defaultMaxConcurrentLoads = UNLIMITED;
+
+    // loads by network name
+    @NonNull
+    private final Map<String, NetworkLoads> networkLoads = new HashMap<>();
+
+    private long sequenceNumber;
+
+    @NonNull
+    public static SASLoadScheduler getSharedInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * Sets the maximum number of loads in flight of the given network
+     *
+     * @param networkName        the name of the network
+     * @param maxConcurrentLoads the maximum number of loads in flight, {@link #UNLIMITED} for no limit
+     */
+    public void setMaxConcurrentLoads(@NonNull String networkName, int maxConcurrentLoads) {
+        this.maxConcurrentLoads.put(networkName, Math.max(UNLIMITED, maxConcurrentLoads));
+        dispatch(networkName);
+    }
+
+    /**
+     * Sets the maximum number of loads in flight of the networks without specific maximum, unlimited by default
+     */
+    public void setDefaultMaxConcurrentLoads(int maxConcurrentLoads) {
+        defaultMaxConcurrentLoads = Math.max(UNLIMITED, maxConcurrentLoads);
+        String[] networkNames;
+        synchronized (this) {
+            networkNames = networkLoads.keySet().toArray(new String[0]);
+        }
+        for (String networkName : networkNames) {
+            dispatch(networkName);
+        }
+    }
+
+    /**
+     * Returns the maximum number of loads in flight of the given network, {@link #UNLIMITED} if not limited
+     */
+    public int getMaxConcurrentLoads(@NonNull String networkName) {
+        Integer max = maxConcurrentLoads.get(networkName);
+        return max != null ? max : defaultMaxConcurrentLoads;
+    }
+
+    /**
+     * Runs the given network SDK load right away if the network has a free load slot, otherwise once one is freed,
+     * on the main thread. Loads of ad requests finished meanwhile (timed out or cancelled) are dropped.
+     *
+     * @param networkName the name of the network performing the load
+     * @param listener    the adapter listener of the ad request, as returned by {@link SASAdapterMetrics}, loads of
+     *                    other listeners are not limited
+     * @param load        the network SDK load call
+     */
+    public void schedule(@NonNull String networkName, @NonNull SASMediationAdapterListener listener, @NonNull Runnable load) {
+        SASAdapterRequestTracker tracker = SASAdapterRequestTracker.getTracker(listener);
+        if (tracker == null) {
+            load.run();
+            return;
+        }
+
+        QueuedLoad queuedLoad;
+        synchronized (this) {
+            if (tracker.isFinished()) {
+                return;
+            }
+            queuedLoad = new QueuedLoad(tracker, load, sequenceNumber++);
+        }
+
+        if (enqueue(networkName, queuedLoad)) {
+            start(networkName, queuedLoad);
+        } else {
+            // leave the queue if the ad request finishes while waiting
+            tracker.setFinishListener(createDequeueRunnable(networkName));
+        }
+    }
+
+    /**
+     * Runs the given network SDK background load (preload...) once the network has a free load slot and no queued
+     * ad request load, on the main thread if it had to wait.
+     *
+     * @param networkName the name of the network performing the load
+     * @param adFormat    the format of the loaded ad
+     * @param load        the network SDK load call, freeing its slot once finished
+     */
+    public void scheduleBackground(@NonNull String networkName, @NonNull SASAdFormat adFormat, @NonNull BackgroundLoad load) {
+        QueuedLoad queuedLoad;
+        synchronized (this) {
+            queuedLoad = new QueuedLoad(adFormat, load, sequenceNumber++);
+        }
+        if (enqueue(networkName, queuedLoad)) {
+            start(networkName, queuedLoad);
+        }
+    }
+
+    // takes a free slot for the given load, or queues it, returns true if the load must be started right away
+    private synchronized boolean enqueue(@NonNull String networkName, @NonNull QueuedLoad queuedLoad) {
+        NetworkLoads loads = getNetworkLoads(networkName);
+        if (loads.queuedLoads.isEmpty() && hasFreeSlot(networkName, loads)) {
+            loads.inFlightCount++;
+            return true;
+        }
+        loads.queuedLoads.add(queuedLoad);
+        SASAdapterLogger.d(TAG, "%s %s load queued behind %s loads in flight", networkName, queuedLoad.adFormat, loads.inFlightCount);
+        return false;
+    }
+
+    private void start(@NonNull final String networkName, @NonNull QueuedLoad queuedLoad) {
+        // free the slot once the ad request has its outcome, or once the background load is finished
+        final AtomicBoolean released = new AtomicBoolean(false);
+        Runnable releaseRunnable = new Runnable() {
+            @Override
+            public void run() {
+                if (!released.compareAndSet(false, true)) {
+                    return;
+                }
+                synchronized (SASLoadScheduler.this) {
+                    getNetworkLoads(networkName).inFlightCount--;
+                }
+                dispatch(networkName);
+            }
+        };
+
+        SASAdapterRequestTracker tracker = queuedLoad.tracker;
+        if (tracker == null) {
+            //noinspection ConstantConditions
+            queuedLoad.backgroundLoad.start(releaseRunnable);
+            return;
+        }
+        tracker.recordQueueWait(SystemClock.elapsedRealtime() - queuedLoad.queueTime);
+        tracker.setFinishListener(releaseRunnable);
+        if (!tracker.isFinished()) {
+            //noinspection ConstantConditions
+            queuedLoad.load.run();
+        }
+    }
+
+    @NonNull
+    private Runnable createDequeueRunnable(@NonNull final String networkName) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                synchronized (SASLoadScheduler.this) {
+                    purgeFinishedLoads(getNetworkLoads(networkName));
+                }
+            }
+        };
+    }
+
+    // starts the queued loads of the given network while it has free slots
+    private void dispatch(@NonNull final String networkName) {
+        while (true) {
+            final QueuedLoad queuedLoad;
+            synchronized (this) {
+                NetworkLoads loads = getNetworkLoads(networkName);
+                purgeFinishedLoads(loads);
+                if (loads.queuedLoads.isEmpty() || !hasFreeSlot(networkName, loads)) {
+                    return;
+                }
+                queuedLoad = loads.queuedLoads.poll();
+                loads.inFlightCount++;
+            }
+            SASAdapterLogger.d(TAG, "%s %s load started after %sms in queue", networkName, queuedLoad.adFormat,
+                    SystemClock.elapsedRealtime() - queuedLoad.queueTime);
+            // the freed slot may be released from a network SDK thread, SDK loads are started from the main thread
+            SASUtil.getMainLooperHandler().post(new Runnable() {
+                @Override
+                public void run() {
+                    start(networkName, queuedLoad);
+                }
+            });
+        }
+    }
+
+    private void purgeFinishedLoads(@NonNull NetworkLoads loads) {
+        QueuedLoad[] queuedLoads = loads.queuedLoads.toArray(new QueuedLoad[0]);
+        for (QueuedLoad queuedLoad : queuedLoads) {
+            if (queuedLoad.isFinished()) {
+                loads.queuedLoads.remove(queuedLoad);
+            }
+        }
+    }
+
+    private boolean hasFreeSlot(@NonNull String networkName, @NonNull NetworkLoads loads) {
+        int max = getMaxConcurrentLoads(networkName);
+        return max == UNLIMITED || loads.inFlightCount < max;
+    }
+
+    @NonNull
+    private NetworkLoads getNetworkLoads(@NonNull String networkName) {
+        NetworkLoads loads = networkLoads.get(networkName);
+        if (loads == null) {
+            loads = new NetworkLoads();
+            networkLoads.put(networkName, loads);
+        }
+        return loads;
+    }
+
+    // scheduling priority of the given ad format, the higher the sooner
+    private static int getPriority(@Nullable SASAdFormat adFormat) {
+        if (adFormat == null) {
+            return 0;
+        }
+        switch (adFormat) {
+            case REWARDED_VIDEO:
+                return 3;
+            case INTERSTITIAL:
+                return 2;
+            case NATIVE:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+}
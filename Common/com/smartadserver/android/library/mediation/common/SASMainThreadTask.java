@@ -0,0 +1,199 @@
+package com.smartadserver.android.library.mediation.common;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.util.SASUtil;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completion handle of a task that must run on the main thread, like network SDK show calls.
+ * The task is run inline when already on the main thread, otherwise it is posted to the main looper and the calling
+ * thread is not blocked. If the task has not started within its timeout, it is cancelled and reported as failed.
+ * The listener is always notified on the main thread.
+ */
+public class SASMainThreadTask {
+
+    private static final String TAG = SASMainThreadTask.class.getSimpleName();
+
+    // default time a task can wait for the main thread before being cancelled
+    public static final long DEFAULT_TIMEOUT_MILLIS = 2000;
+
+    /**
+     * Work to perform on the main thread
+     */
+    public interface Task {
+
+        /**
+         * Performs the work, any thrown exception is reported as a failure
+         */
+        void run() throws Exception;
+    }
+
+    /**
+     * Listener notified once the task is complete
+     */
+    public interface Listener {
+
+        /**
+         * Called on the main thread when the task is complete, or was cancelled
+         *
+         * @param errorMessage the failure message, or null if the task succeeded
+         */
+        void onTaskComplete(@Nullable String errorMessage);
+    }
+
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_RUNNING = 1;
+    private static final int STATE_DONE = 2;
+
+    // single daemon thread enforcing the timeouts, even when the main thread is busy
+    @Nullable
+    private static ScheduledExecutorService timeoutExecutor;
+
+    @NonNull
+    private final Task task;
+
+    @Nullable
+    private final Listener listener;
+
+    @NonNull
+    private final AtomicInteger state = new AtomicInteger(STATE_PENDING);
+
+    @Nullable
+    private volatile String errorMessage = null;
+
+    @Nullable
+    private volatile ScheduledFuture<?> timeoutFuture;
+
+    private SASMainThreadTask(@NonNull Task task, @Nullable Listener listener) {
+        this.task = task;
+        this.listener = listener;
+    }
+
+    /**
+     * Runs the given task on the main thread, inline if already on it.
+     *
+     * @param task          the task to run
+     * @param timeoutMillis the maximum time the task can wait for the main thread before being cancelled
+     * @param listener      the listener notified of the task outcome, if any
+     * @return the completion handle of the task
+     */
+    @NonNull
+    public static SASMainThreadTask execute(@NonNull Task task, final long timeoutMillis, @Nullable Listener listener) {
+        final SASMainThreadTask mainThreadTask = new SASMainThreadTask(task, listener);
+
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            mainThreadTask.runTask();
+        } else {
+            mainThreadTask.timeoutFuture = getTimeoutExecutor().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    mainThreadTask.cancel("Main thread task timed out after " + timeoutMillis + "ms");
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+            SASUtil.getMainLooperHandler().post(new Runnable() {
+                @Override
+                public void run() {
+                    mainThreadTask.runTask();
+                }
+            });
+        }
+
+        return mainThreadTask;
+    }
+
+    @NonNull
+    private static synchronized ScheduledExecutorService getTimeoutExecutor() {
+        if (timeoutExecutor == null) {
+            timeoutExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, TAG);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return timeoutExecutor;
+    }
+
+    private void runTask() {
+        if (!state.compareAndSet(STATE_PENDING, STATE_RUNNING)) {
+            // cancelled or timed out
+            return;
+        }
+
+        ScheduledFuture<?> timeout = timeoutFuture;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+
+        String failure = null;
+        try {
+            task.run();
+        } catch (Exception e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        finish(failure);
+    }
+
+    /**
+     * Cancels the task if it has not started yet, reporting the given failure message.
+     *
+     * @return true if the task was cancelled, false if it already started or completed
+     */
+    public boolean cancel(@NonNull String failureMessage) {
+        if (!state.compareAndSet(STATE_PENDING, STATE_RUNNING)) {
+            return false;
+        }
+        SASAdapterLogger.d(TAG, "Main thread task cancelled: %s", failureMessage);
+        finish(failureMessage);
+        return true;
+    }
+
+    private void finish(@Nullable final String failureMessage) {
+        errorMessage = failureMessage;
+        state.set(STATE_DONE);
+
+        final Listener listener = this.listener;
+        if (listener == null) {
+            return;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            listener.onTaskComplete(failureMessage);
+        } else {
+            // cancelled from a background thread, typically by the timeout: show callbacks are expected on the main thread
+            SASUtil.getMainLooperHandler().post(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onTaskComplete(failureMessage);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns whether the task is complete, successfully or not
+     */
+    public boolean isDone() {
+        return state.get() == STATE_DONE;
+    }
+
+    /**
+     * Returns the task failure message, or null if it succeeded or is not complete yet
+     */
+    @Nullable
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,142 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapterListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces concurrent ad requests of the same network placement, for network SDKs which can not share a loaded ad
+ * between adapters. The first request performs the network SDK load, the concurrent ones wait for its outcome:
+ * they fail with a no fill if it loads an ad, since that ad is served to the first request only, and with a no fill
+ * reporting the shared error if it fails. The waiting requests thus get their outcome as soon as the shared load
+ * completes, without performing a load of their own, but not before. If the first request is abandoned, the waiting
+ * ones fail with a no fill too. Such no fills are counted as rejected ad requests in {@link SASAdapterMetrics}, and not
+ * as failures of the placement by {@link SASCircuitBreaker}, the outcome of the shared load being only recorded once,
+ * for the request performing it.
+ */
+public class SASRequestCoalescer {
+
+    // tag for logging purposes
+    private static final String TAG = SASRequestCoalescer.class.getSimpleName();
+
+    /**
+     * Network SDK load shared by concurrent ad requests, its outcome being notified by the request performing it
+     */
+    public final class Load {
+
+        @NonNull
+        private final String key;
+
+        // listeners of the ad requests waiting for this load
+        @NonNull
+        private final List<SASMediationAdapterListener> waitingListeners = new ArrayList<>();
+
+        private Load(@NonNull String key) {
+            this.key = key;
+        }
+
+        /**
+         * To be called when the shared load loaded an ad
+         */
+        public void onAdLoaded() {
+            for (SASMediationAdapterListener listener : finish()) {
+                SASAdapterRequestTracker.rejectRequest(listener, "Ad loaded for a concurrent request of the same placement (" + key + ")");
+            }
+        }
+
+        /**
+         * To be called when the shared load failed
+         */
+        public void onAdRequestFailed(@NonNull String errorMessage, boolean isNoAd) {
+            for (SASMediationAdapterListener listener : finish()) {
+                SASAdapterRequestTracker.rejectRequest(listener, "Concurrent ad request of the same placement failed (" + key + "): " + errorMessage);
+            }
+        }
+
+        /**
+         * To be called when the request performing the shared load is abandoned (destroyed or timed out)
+         */
+        public void onAbandoned() {
+            for (SASMediationAdapterListener listener : finish()) {
+                SASAdapterRequestTracker.rejectRequest(listener, "Concurrent ad request of the same placement abandoned (" + key + ")");
+            }
+        }
+
+        // returns the listeners to notify, none if the load already finished
+        @NonNull
+        private List<SASMediationAdapterListener> finish() {
+            synchronized (SASRequestCoalescer.this) {
+                if (loads.get(key) != this) {
+                    return new ArrayList<>();
+                }
+                loads.remove(key);
+                if (!waitingListeners.isEmpty()) {
+                    SASAdapterLogger.d(TAG, "Shared load of %s finished for %s waiting requests", key, waitingListeners.size());
+                }
+                return new ArrayList<>(waitingListeners);
+            }
+        }
+    }
+
+    @NonNull
+    private static final SASRequestCoalescer sharedInstance = new SASRequestCoalescer();
+
+    // in flight loads, by network and placement
+    @NonNull
+    private final Map<String, Load> loads = new HashMap<>();
+
+    private boolean enabled = true;
+
+    @NonNull
+    public static SASRequestCoalescer getSharedInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * Enables or disables the coalescing of concurrent ad requests, enabled by default
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Joins the in flight load of the given network placement, if any.
+     *
+     * @param networkName  the name of the network performing the ad request
+     * @param placementKey the placement of the ad request, typically its server parameters String
+     * @param listener     the adapter listener of the ad request, notified of the outcome of the shared load if any
+     * @return the {@link Load} the caller must perform and notify the outcome of, or null if the ad request
+     * waits for the outcome of a concurrent one
+     */
+    @Nullable
+    public synchronized Load join(@NonNull String networkName, @NonNull String placementKey, @NonNull SASMediationAdapterListener listener) {
+        String key = networkName + ":" + placementKey;
+        Load load = loads.get(key);
+        if (load == null || !enabled) {
+            load = new Load(key);
+            if (enabled) {
+                loads.put(key, load);
+            }
+            return load;
+        }
+        SASAdapterLogger.d(TAG, "Ad request coalesced with the in flight load of %s", key);
+        load.waitingListeners.add(listener);
+        return null;
+    }
+
+    /**
+     * Stops waiting for the in flight load of the given network placement, for instance when the ad request is destroyed
+     */
+    public synchronized void leave(@NonNull String networkName, @NonNull String placementKey, @NonNull SASMediationAdapterListener listener) {
+        Load load = loads.get(networkName + ":" + placementKey);
+        if (load != null) {
+            load.waitingListeners.remove(listener);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.smartadserver.android.library.mediation.common;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small LRU cache of typed server parameters, keyed by the raw server parameters String sent by Smart ad delivery,
+ * so that each distinct String is parsed only once.
+ *
+ * @param <T> the network specific server parameters type
+ */
+public class SASServerParametersCache<T> {
+
+    /**
+     * Network specific server parameters parser
+     */
+    public interface Parser<T> {
+
+        /**
+         * Parses the given raw server parameters String. Must not throw on malformed input.
+         */
+        @NonNull
+        T parse(@NonNull String serverParametersString);
+    }
+
+    @NonNull
+    private final Parser<T> parser;
+
+    @NonNull
+    private final LinkedHashMap<String, T> entries;
+
+    /**
+     * Creates a cache holding at most maxEntries parsed server parameters
+     */
+    public SASServerParametersCache(final int maxEntries, @NonNull Parser<T> parser) {
+        this.parser = parser;
+        this.entries = new LinkedHashMap<String, T>(maxEntries, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the typed server parameters for the given raw String, parsing it if not cached yet
+     */
+    @NonNull
+    public T get(@NonNull String serverParametersString) {
+        synchronized (entries) {
+            T serverParameters = entries.get(serverParametersString);
+            if (serverParameters != null) {
+                return serverParameters;
+            }
+        }
+
+        // parse outside the lock, a concurrent parse of the same String is harmless
+        T serverParameters = parser.parse(serverParametersString);
+        synchronized (entries) {
+            entries.put(serverParametersString, serverParameters);
+        }
+        return serverParameters;
+    }
+
+    /**
+     * Splits the given String around the given separator in a single index based pass, without any regex.
+     * Unlike {@link String#split(String)}, trailing empty fields are kept.
+     */
+    @NonNull
+    public static List<String> split(@NonNull String value, char separator) {
+        List<String> fields = new ArrayList<>(4);
+        int start = 0;
+        int index;
+        while ((index = value.indexOf(separator, start)) >= 0) {
+            fields.add(value.substring(start, index));
+            start = index + 1;
+        }
+        fields.add(value.substring(start));
+        return fields;
+    }
+
+    /**
+     * Returns the field at the given index, or the default value if there is no such field
+     */
+    @NonNull
+    public static String getField(@NonNull List<String> fields, int index, @NonNull String defaultValue) {
+        return index < fields.size() ? fields.get(index) : defaultValue;
+    }
+
+    /**
+     * Returns the field at the given index as an int, or the default value if there is no such field or if it is not a number
+     */
+    public static int getIntField(@NonNull List<String> fields, int index, int defaultValue) {
+        try {
+            return index < fields.size() ? Integer.parseInt(fields.get(index).trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.smartadserver.android.library.mediation.google
 
 import android.content.Context
-import android.util.Log
 import com.google.android.gms.ads.MobileAds
+import com.smartadserver.android.library.mediation.common.SASAdapterInitCoordinator
+import com.smartadserver.android.library.mediation.common.SASAdapterInitFuture
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
 
 /**
  * Mediation adapter base class that will handle initialization and GDPR for all Google Mobile ads adapters
@@ -12,44 +14,63 @@ open class SASGoogleMobileAdsAdapterBase {
         NOT_INITIALIZED, ADMOB, AD_MANAGER
     }
 
+    // Google mobile ads SDK initialization future, ad loads wait for it (AdMob only)
+    private var initFuture: SASAdapterInitFuture? = null
+
     /**
      * Init method for Google Mobile Ads to decide from which canal (Google AdMob or Ad Manager) ads should be requested
      */
     protected fun initGoogleMobileAds(context: Context, serverParametersString: String): GoogleMobileAds {
         // reason behind the '|' separator is because Google mobile ads placement already use '/'
         val appID = getAppID(serverParametersString)
-        if (GMA_AD_MANAGER_KEY != appID) { // check if the template corresponds to Google AdMob or Ad Manager
-            if (GoogleMobileAds.NOT_INITIALIZED == GoogleMobileAdsInitStatus) {
-                // appID = "ca-app-pub-3940256099942544~3347511713"; // USE FOR TESTING ONLY (AdMob sample ID)
+        return if (GMA_AD_MANAGER_KEY != appID) { // check if the template corresponds to Google AdMob or Ad Manager
+            // appID = "ca-app-pub-3940256099942544~3347511713"; // USE FOR TESTING ONLY (AdMob sample ID)
+            initFuture = SASAdapterInitCoordinator.initIfNecessary(NETWORK_NAME) { future ->
                 MobileAds.initialize(context) { initializationStatus ->
-                    Log.d(TAG, "Google mobile ads onInitializationComplete : " +
-                            initializationStatus.toString())
+                    SASAdapterLogger.d(TAG, "Google mobile ads onInitializationComplete : %s", initializationStatus)
+                    future.complete(null)
                 }
             }
-            GoogleMobileAdsInitStatus = GoogleMobileAds.ADMOB
+            GoogleMobileAds.ADMOB
         } else {
-            GoogleMobileAdsInitStatus = GoogleMobileAds.AD_MANAGER
+            initFuture = null
+            GoogleMobileAds.AD_MANAGER
         }
-        return GoogleMobileAdsInitStatus
+    }
+
+    /**
+     * Performs the given ad load once the Google mobile ads SDK is initialized (or after a bounded wait)
+     */
+    protected fun loadWhenInitialized(load: () -> Unit) {
+        initFuture?.runWhenInitialized(Runnable(load), SASAdapterInitFuture.DEFAULT_MAX_WAIT_MILLIS) ?: load()
     }
 
     /**
      * Utility method to get AppID from serverParametersString
      */
-    protected fun getAppID(serverParametersString: String) = serverParametersString.split("\\|".toRegex())[0]
+    protected fun getAppID(serverParametersString: String) =
+            SASGoogleMobileAdsServerParameters.parse(serverParametersString).appID
 
     /**
      * Utility method to get AppUnitID from serverParametersString
      */
     protected fun getAdUnitID(serverParametersString: String) =
-            serverParametersString.split("\\|".toRegex()).getOrElse(1){""}
+            SASGoogleMobileAdsServerParameters.parse(serverParametersString).adUnitID
 
 
     companion object {
         private val TAG = SASGoogleMobileAdsAdapterBase::class.java.simpleName
         private const val GMA_AD_MANAGER_KEY = "admanager"
 
-        // static flag for Google mobile ads SDK initialization
-        private var GoogleMobileAdsInitStatus = GoogleMobileAds.NOT_INITIALIZED
+        // network name used to register Google mobile ads SDK initialization and to track ad requests
+        internal const val NETWORK_NAME = "GoogleMobileAds"
+
+        /**
+         * Number of ads kept preloaded for each interstitial and rewarded ad unit, once a first ad of this ad unit
+         * has been shown. Set to 0 to disable preloading.
+         */
+        @JvmStatic
+        @Volatile
+        var preloadedAdsPerAdUnit = 1
     }
 }
\ No newline at end of file
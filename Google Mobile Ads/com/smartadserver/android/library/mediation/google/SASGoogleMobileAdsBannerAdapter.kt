@@ -1,13 +1,19 @@
 package com.smartadserver.android.library.mediation.google
 
 import android.content.Context
-import android.util.Log
 import android.view.View
 import com.google.android.gms.ads.*
 import com.google.android.gms.ads.admanager.AdManagerAdRequest
 import com.google.android.gms.ads.admanager.AdManagerAdView
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapter
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapterListener
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts
+import com.smartadserver.android.library.mediation.common.SASBannerViewPool
+import com.smartadserver.android.library.mediation.common.SASCancellationToken
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker
+import com.smartadserver.android.library.mediation.common.SASLoadScheduler
 
 /**
  * Mediation adapter class for Google mobile ads banner format
@@ -16,6 +22,13 @@ class SASGoogleMobileAdsBannerAdapter : SASGoogleMobileAdsAdapterBase(), SASMedi
     // Google mobile ads banner view instance
     var adView: View? = null
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    private var cancellationToken: SASCancellationToken? = null
+
+    // banner view pool key (ad unit and size), and whether the banner view is loading an ad
+    private var poolKey: String? = null
+    private var loading = false
+
     /**
      * Requests a mediated banner ad asynchronously
      *
@@ -23,45 +36,83 @@ class SASGoogleMobileAdsBannerAdapter : SASGoogleMobileAdsAdapterBase(), SASMedi
      * @param serverParametersString a String containing all needed parameters (as returned by Smart ad delivery)
      * to make the mediation ad call
      * @param clientParameters       additional client-side parameters (user specific, like location)
-     * @param bannerAdapterListener  the [SASMediationBannerAdapterListener] provided to
+     * @param adapterListener        the [SASMediationBannerAdapterListener] provided to
      * this [com.smartadserver.android.library.mediation.SASMediationAdapter] to notify Smart SDK of events occurring
      */
     override fun requestBannerAd(context: Context,
                                  serverParametersString: String,
                                  clientParameters: Map<String, Any>,
-                                 bannerAdapterListener: SASMediationBannerAdapterListener) {
+                                 adapterListener: SASMediationBannerAdapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        val bannerAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener)
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, bannerAdapterListener)) {
+            return
+        }
+
+        // token of this ad request, cancelled on destroy
+        val cancellationToken = SASCancellationToken.create(bannerAdapterListener).also { this.cancellationToken = it }
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, bannerAdapterListener) { onDestroy() }
+
         val adUnitID = getAdUnitID(serverParametersString)
+        if (adUnitID.isEmpty()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(bannerAdapterListener, "The Google mobile ads adUnitID is not correctly set")
+            return
+        }
         val gma = initGoogleMobileAds(context, serverParametersString)
         val adSize = getAdSize(serverParametersString)
+        val poolKey = "$adUnitID/$adSize".also { this.poolKey = it }
         if (GoogleMobileAds.ADMOB == gma) {
             // create google ad request
             val adRequest = AdRequest.Builder().build()
 
-            // Create Google AdView and configure it.
-            val adMobView = AdView(context)
-            adMobView.adUnitId = adUnitID
-            adMobView.setAdSize(adSize)
+            // Create Google AdView and configure it, unless a detached one of the same ad unit and size can be reused
+            val adMobView = SASBannerViewPool.getSharedInstance().acquire(NETWORK_NAME, context, poolKey, AdView::class.java)
+                ?: AdView(context).apply {
+                    adUnitId = adUnitID
+                    setAdSize(adSize)
+                }
             val adListener = createAdListener(bannerAdapterListener, adMobView)
 
             // set listener on banner
             adMobView.adListener = adListener
 
-            // perform ad request
-            adMobView.loadAd(adRequest)
+            // perform ad request once Google mobile ads SDK is initialized and has a free load slot, unless abandoned meanwhile
+            loadWhenInitialized {
+                SASLoadScheduler.getSharedInstance().schedule(NETWORK_NAME, bannerAdapterListener) {
+                    if (!cancellationToken.isCancelled) {
+                        loading = true
+                        adMobView.loadAd(adRequest)
+                    }
+                }
+            }
             adView = adMobView
         } else if (GoogleMobileAds.AD_MANAGER == gma) {
             // create google publisher ad request
             val publisherAdRequest = AdManagerAdRequest.Builder().build()
-            val adManagerView = AdManagerAdView(context)
-            adManagerView.adUnitId = adUnitID
-            adManagerView.setAdSizes(adSize)
+            val adManagerView = SASBannerViewPool.getSharedInstance().acquire(NETWORK_NAME, context, poolKey, AdManagerAdView::class.java)
+                ?: AdManagerAdView(context).apply {
+                    adUnitId = adUnitID
+                    setAdSizes(adSize)
+                }
             val adListener = createAdListener(bannerAdapterListener, adManagerView)
 
             // set listener on banner
             adManagerView.adListener = adListener
 
-            // perform ad request
-            adManagerView.loadAd(publisherAdRequest)
+            // perform ad request once Google mobile ads SDK is initialized and has a free load slot, unless abandoned meanwhile
+            loadWhenInitialized {
+                SASLoadScheduler.getSharedInstance().schedule(NETWORK_NAME, bannerAdapterListener) {
+                    if (!cancellationToken.isCancelled) {
+                        loading = true
+                        adManagerView.loadAd(publisherAdRequest)
+                    }
+                }
+            }
             adView = adManagerView
         }
     }
@@ -70,31 +121,33 @@ class SASGoogleMobileAdsBannerAdapter : SASGoogleMobileAdsAdapterBase(), SASMedi
         // create Google banner listener that will intercept ad mob banner events and call appropriate SASMediationBannerAdapterListener counterpart methods
         return object : AdListener() {
             override fun onAdClosed() {
-                Log.d(TAG, "Google mobile ads onAdClosed for banner")
+                SASAdapterLogger.d(TAG, "Google mobile ads onAdClosed for banner")
                 bannerAdapterListener.onAdClosed()
             }
 
             override fun onAdFailedToLoad(loadAdError: LoadAdError) {
-                Log.d(TAG, "Google mobile ads onAdFailedToLoad for banner (error : $loadAdError)")
+                SASAdapterLogger.d(TAG, "Google mobile ads onAdFailedToLoad for banner (error : %s)", loadAdError)
+                loading = false
                 val isNoAd = loadAdError.code == AdRequest.ERROR_CODE_NO_FILL
                 bannerAdapterListener.adRequestFailed("Google mobile ads banner ad loading error : $loadAdError", isNoAd)
             }
 
             override fun onAdClicked() {
-                Log.d(TAG, "Google mobile ads onAdClicked for banner")
+                SASAdapterLogger.d(TAG, "Google mobile ads onAdClicked for banner")
             }
 
             override fun onAdImpression() {
-                Log.d(TAG, "Google mobile ads onAdImpression for banner")
+                SASAdapterLogger.d(TAG, "Google mobile ads onAdImpression for banner")
             }
 
             override fun onAdOpened() {
-                Log.d(TAG, "Google mobile ads onAdOpened for banner")
+                SASAdapterLogger.d(TAG, "Google mobile ads onAdOpened for banner")
                 bannerAdapterListener.onAdClicked()
             }
 
             override fun onAdLoaded() {
-                Log.d(TAG, "Google mobile ads onAdLoaded for banner")
+                SASAdapterLogger.d(TAG, "Google mobile ads onAdLoaded for banner")
+                loading = false
                 bannerAdapterListener.onBannerLoaded(adView)
             }
         }
@@ -103,16 +156,26 @@ class SASGoogleMobileAdsBannerAdapter : SASGoogleMobileAdsAdapterBase(), SASMedi
     /**
      * Utility method to get Banner Size from serverParametersString
      */
-    private fun getAdSize(serverParametersString: String)= when (serverParametersString.split("|").getOrElse(2){"0"}) {
-            "1" -> AdSize.MEDIUM_RECTANGLE
-            "2" -> AdSize.LEADERBOARD
-            "3" -> AdSize.LARGE_BANNER
+    private fun getAdSize(serverParametersString: String)= when (SASGoogleMobileAdsServerParameters.parse(serverParametersString).adSizeIndex) {
+            1 -> AdSize.MEDIUM_RECTANGLE
+            2 -> AdSize.LEADERBOARD
+            3 -> AdSize.LARGE_BANNER
             else -> AdSize.BANNER
         }
 
     override fun onDestroy() {
-        Log.d(TAG, "Google mobile ads onDestroy for banner")
-        (adView as? AdView)?.destroy() ?: (adView as? AdManagerAdView)?.destroy()
+        SASAdapterLogger.d(TAG, "Google mobile ads onDestroy for banner")
+        cancellationToken?.cancel()
+        val bannerView = adView as? BaseAdView ?: return
+        val poolKey = poolKey
+        if (poolKey != null && !loading) {
+            // keep the banner view for the next ad request of the same ad unit and size, it is destroyed once evicted
+            bannerView.adListener = object : AdListener() {}
+            SASBannerViewPool.getSharedInstance().release(NETWORK_NAME, poolKey, bannerView) { it.destroy() }
+        } else {
+            bannerView.destroy()
+        }
+        adView = null
     }
 
     companion object {
@@ -2,7 +2,6 @@ package com.smartadserver.android.library.mediation.google
 
 import android.app.Activity
 import android.content.Context
-import android.util.Log
 import com.google.android.gms.ads.AdError
 import com.google.android.gms.ads.AdRequest
 import com.google.android.gms.ads.FullScreenContentCallback
@@ -13,6 +12,13 @@ import com.google.android.gms.ads.interstitial.InterstitialAd
 import com.google.android.gms.ads.interstitial.InterstitialAdLoadCallback
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapter
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener
+import com.smartadserver.android.library.mediation.common.SASAdFormat
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts
+import com.smartadserver.android.library.mediation.common.SASCancellationToken
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker
+import com.smartadserver.android.library.mediation.common.SASLoadScheduler
 import com.smartadserver.android.library.util.SASUtil
 import java.lang.ref.WeakReference
 
@@ -26,6 +32,14 @@ class SASGoogleMobileAdsInterstitialAdapter : SASGoogleMobileAdsAdapterBase(), S
     // WeakReference on Activity at loading time for future display
     private lateinit var activityWeakReference: WeakReference<Activity>
 
+    // requested ad unit and Google mobile ads flavor, and the callback of its pending request if any
+    private var adUnitID: String? = null
+    private var isAdManager = false
+    private var loadCallback: SASGoogleMobileAdsPreloadCache.Callback<InterstitialAd>? = null
+
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    private var cancellationToken: SASCancellationToken? = null
+
     /**
      * Requests a mediated interstitial ad asynchronously
      *
@@ -33,77 +47,108 @@ class SASGoogleMobileAdsInterstitialAdapter : SASGoogleMobileAdsAdapterBase(), S
      * @param serverParametersString      a String containing all needed parameters (as returned by Smart ad delivery)
      * to make the mediation ad call
      * @param clientParameters            additional client-side parameters (user specific, like location)
-     * @param interstitialAdapterListener the [SASMediationInterstitialAdapterListener] provided to
+     * @param adapterListener             the [SASMediationInterstitialAdapterListener] provided to
      * this [com.smartadserver.android.library.mediation.SASMediationAdapter] to notify Smart SDK of events occurring
      */
     override fun requestInterstitialAd(context: Context,
                                        serverParametersString: String,
                                        clientParameters: Map<String, Any>,
-                                       interstitialAdapterListener: SASMediationInterstitialAdapterListener) {
+                                       adapterListener: SASMediationInterstitialAdapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        val interstitialAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener)
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, interstitialAdapterListener)) {
+            return
+        }
+
+        // token of this ad request, cancelled on destroy
+        val cancellationToken = SASCancellationToken.create(interstitialAdapterListener).also { this.cancellationToken = it }
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, interstitialAdapterListener) { onDestroy() }
 
         // reset any previous leftover (?) interstitial
         mInterstitialAd = null
         if (context !is Activity) {
-            interstitialAdapterListener.adRequestFailed("Google interstitial requires the Context to be an Activity for display", false)
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(interstitialAdapterListener, "Google interstitial requires the Context to be an Activity for display")
             return
         }
         activityWeakReference = WeakReference(context)
         val gma = initGoogleMobileAds(context, serverParametersString)
         val adUnitID = getAdUnitID(serverParametersString)
-        if (GoogleMobileAds.ADMOB == gma) {
-            // create Google mobile ad request
-            val adRequest = AdRequest.Builder().build()
-            InterstitialAd.load(context, adUnitID, adRequest, createInterstitialAdLoadCallback(interstitialAdapterListener))
-        } else if (GoogleMobileAds.AD_MANAGER == gma) {
-            // create Google mobile ad request
-            val publisherAdRequest = AdManagerAdRequest.Builder().build()
-
-            // create Google mobile ads interstitial ad object
-            AdManagerInterstitialAd.load(context, adUnitID, publisherAdRequest, createInterstitialAdLoadCallback(interstitialAdapterListener))
+        if (adUnitID.isEmpty()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(interstitialAdapterListener, "The Google mobile ads adUnitID is not correctly set")
+            return
+        }
+        // request an interstitial ad, served right away if one is preloaded for this ad unit
+        val loadCallback = createInterstitialAdLoadCallback(adUnitID, interstitialAdapterListener, cancellationToken)
+        val isAdManager = GoogleMobileAds.AD_MANAGER == gma
+        this.adUnitID = adUnitID
+        this.isAdManager = isAdManager
+        this.loadCallback = loadCallback
+        loadWhenInitialized {
+            // wait for a free Google mobile ads load slot, higher priority formats first
+            SASLoadScheduler.getSharedInstance().schedule(NETWORK_NAME, interstitialAdapterListener) {
+                // the ad request may have been abandoned while the Google mobile ads SDK was initializing
+                if (!cancellationToken.isCancelled) {
+                    preloadCache.request(context, adUnitID, isAdManager, loadCallback)
+                }
+            }
         }
     }
 
-    private fun createInterstitialAdLoadCallback(interstitialAdapterListener: SASMediationInterstitialAdapterListener): InterstitialAdLoadCallback {
-        return object : InterstitialAdLoadCallback() {
-            override fun onAdLoaded(interstitialAd: InterstitialAd) {
-                Log.d(TAG, "Google mobile ads ad onAdLoaded for interstitial")
+    private fun createInterstitialAdLoadCallback(adUnitID: String, interstitialAdapterListener: SASMediationInterstitialAdapterListener, cancellationToken: SASCancellationToken): SASGoogleMobileAdsPreloadCache.Callback<InterstitialAd> {
+        return object : SASGoogleMobileAdsPreloadCache.Callback<InterstitialAd> {
+            override fun onAdLoaded(ad: InterstitialAd): Boolean {
+                SASAdapterLogger.d(TAG, "Google mobile ads ad onAdLoaded for interstitial")
+                if (cancellationToken.isCancelled) {
+                    // abandoned ad request, the ad goes back to the cache for the next request
+                    return false
+                }
+                val interstitialAd = ad
                 mInterstitialAd = interstitialAd
 
                 // Create fullscreen callback
                 interstitialAd.fullScreenContentCallback = object : FullScreenContentCallback() {
                     override fun onAdFailedToShowFullScreenContent(adError: AdError) {
                         // Called when fullscreen content failed to show.
-                        Log.d("TAG", "Google mobile ads onAdFailedToShowFullScreenContent : " + adError.message)
+                        SASAdapterLogger.d(TAG, "Google mobile ads onAdFailedToShowFullScreenContent : %s", adError.message)
                         interstitialAdapterListener.onInterstitialFailedToShow(adError.message)
                     }
 
                     override fun onAdShowedFullScreenContent() {
-                        Log.d(TAG, "Google mobile ads onAdShowedFullScreenContent for interstitial")
+                        SASAdapterLogger.d(TAG, "Google mobile ads onAdShowedFullScreenContent for interstitial")
                         interstitialAdapterListener.onInterstitialShown()
-                        onDestroy()
+                        mInterstitialAd = null
+
+                        // preload the next interstitial of this ad unit
+                        preloadCache.onAdShown(adUnitID, isAdManager)
                     }
 
                     override fun onAdDismissedFullScreenContent() {
-                        Log.d(TAG, "Google mobile ads onAdDismissedFullScreenContent for interstitial")
+                        SASAdapterLogger.d(TAG, "Google mobile ads onAdDismissedFullScreenContent for interstitial")
                         interstitialAdapterListener.onAdClosed()
                     }
 
                     override fun onAdImpression() {
-                        Log.d(TAG, "Google mobile ads onAdImpression for interstitial")
+                        SASAdapterLogger.d(TAG, "Google mobile ads onAdImpression for interstitial")
                     }
 
                     override fun onAdClicked() {
-                        Log.d(TAG, "Google mobile ads onAdClicked for interstitial")
+                        SASAdapterLogger.d(TAG, "Google mobile ads onAdClicked for interstitial")
                         interstitialAdapterListener.onAdClicked()
                     }
                 }
 
                 // notify Smart SDK of successful interstitial loading
                 interstitialAdapterListener.onInterstitialLoaded()
+                return true
             }
 
             override fun onAdFailedToLoad(loadAdError: LoadAdError) {
-                Log.d(TAG, "Google mobile ads onAdFailedToLoad for interstitial (error:$loadAdError)")
+                SASAdapterLogger.d(TAG, "Google mobile ads onAdFailedToLoad for interstitial (error:%s)", loadAdError)
                 val isNoAd = loadAdError.code == AdRequest.ERROR_CODE_NO_FILL
                 interstitialAdapterListener.adRequestFailed("Google mobile ads interstitial ad loading error $loadAdError", isNoAd)
             }
@@ -125,11 +170,28 @@ class SASGoogleMobileAdsInterstitialAdapter : SASGoogleMobileAdsAdapterBase(), S
     }
 
     override fun onDestroy() {
+        cancellationToken?.cancel()
         mInterstitialAd = null
+        adUnitID?.let { adUnitID -> loadCallback?.let { preloadCache.cancel(adUnitID, isAdManager, it) } }
     }
 
     companion object {
         // tag for logging purposes
         private val TAG = SASGoogleMobileAdsInterstitialAdapter::class.java.simpleName
+
+        // interstitial ads preloaded by ad unit
+        private val preloadCache = SASGoogleMobileAdsPreloadCache<InterstitialAd>("interstitial", SASAdFormat.INTERSTITIAL) { context, adUnitID, isAdManager, callback ->
+            val loadCallback = object : InterstitialAdLoadCallback() {
+                override fun onAdLoaded(interstitialAd: InterstitialAd) {
+                    callback.onAdLoaded(interstitialAd)
+                }
+                override fun onAdFailedToLoad(loadAdError: LoadAdError) = callback.onAdFailedToLoad(loadAdError)
+            }
+            if (isAdManager) {
+                AdManagerInterstitialAd.load(context, adUnitID, AdManagerAdRequest.Builder().build(), loadCallback)
+            } else {
+                InterstitialAd.load(context, adUnitID, AdRequest.Builder().build(), loadCallback)
+            }
+        }
     }
 }
\ No newline at end of file
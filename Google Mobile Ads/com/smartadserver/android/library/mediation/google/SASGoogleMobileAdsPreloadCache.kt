@@ -0,0 +1,207 @@
+package com.smartadserver.android.library.mediation.google
+
+import android.content.Context
+import android.os.SystemClock
+import com.google.android.gms.ads.LoadAdError
+import com.smartadserver.android.library.mediation.common.SASAdFormat
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
+import com.smartadserver.android.library.mediation.common.SASLoadScheduler
+import java.util.ArrayDeque
+
+/**
+ * Per ad unit cache of preloaded Google mobile ads fullscreen ads (interstitial or rewarded).
+ *
+ * Requests complete right away when a valid ad is cached, otherwise they wait for the loads in flight: concurrent
+ * requests of an ad unit share a single load, each load serving the first waiting request, the next ones being queued
+ * for the next load, and a failed load failing every waiting request.
+ * Cached ads are evicted once older than the Google one hour validity, and the cache is topped up to
+ * [SASGoogleMobileAdsAdapterBase.preloadedAdsPerAdUnit] ads as soon as an ad is shown, these preloads waiting for a
+ * free [SASLoadScheduler] load slot. Google SDK loads are never started while holding the cache lock.
+ *
+ * @param T the Google ad type ([com.google.android.gms.ads.interstitial.InterstitialAd] or [com.google.android.gms.ads.rewarded.RewardedAd])
+ * @param adTypeName the ad type name, for logging purposes
+ * @param adFormat the format of the cached ads, for load scheduling purposes
+ * @param loader the Google ad load call
+ */
+internal class SASGoogleMobileAdsPreloadCache<T : Any>(private val adTypeName: String, private val adFormat: SASAdFormat, private val loader: Loader<T>) {
+
+    /**
+     * Callback notified of the outcome of an ad request
+     */
+    interface Callback<T> {
+        /**
+         * @return false if the ad is not taken, the ad request being abandoned meanwhile, in which case it is served
+         * to the next waiting request or cached again
+         */
+        fun onAdLoaded(ad: T): Boolean
+        fun onAdFailedToLoad(loadAdError: LoadAdError)
+    }
+
+    /**
+     * Google ad load call, notifying the given callback of its outcome
+     */
+    fun interface Loader<T> {
+        fun load(context: Context, adUnitID: String, isAdManager: Boolean, callback: Callback<T>)
+    }
+
+    // a loaded ad and its load time
+    private class CachedAd<T>(val ad: T, val loadTime: Long)
+
+    // cache state of a single ad unit
+    private inner class AdUnitCache(val adUnitID: String, val isAdManager: Boolean, val context: Context) {
+        val cachedAds = ArrayDeque<CachedAd<T>>()
+        val waitingCallbacks = ArrayDeque<Callback<T>>()
+
+        // loads in flight or about to start
+        var loadingCount = 0
+
+        fun evictExpiredAds() {
+            val now = SystemClock.elapsedRealtime()
+            val iterator = cachedAds.iterator()
+            while (iterator.hasNext()) {
+                if (now - iterator.next().loadTime > AD_VALIDITY_MILLIS) {
+                    iterator.remove()
+                    SASAdapterLogger.d(TAG, "Google mobile ads cached %s expired for ad unit: %s", adTypeName, adUnitID)
+                }
+            }
+        }
+
+        /**
+         * Performs a load already counted in [loadingCount], out of the cache lock
+         */
+        fun load(onFinished: Runnable? = null) {
+            loader.load(context, adUnitID, isAdManager, object : Callback<T> {
+                override fun onAdLoaded(ad: T): Boolean {
+                    onFinished?.run()
+                    synchronized(this@SASGoogleMobileAdsPreloadCache) {
+                        loadingCount--
+                    }
+                    serve(CachedAd(ad, SystemClock.elapsedRealtime()))
+
+                    // the next waiting requests are queued for the next load
+                    val startNextLoad = synchronized(this@SASGoogleMobileAdsPreloadCache) {
+                        (waitingCallbacks.isNotEmpty() && loadingCount == 0).also { if (it) loadingCount++ }
+                    }
+                    if (startNextLoad) {
+                        load()
+                    }
+                    return true
+                }
+
+                override fun onAdFailedToLoad(loadAdError: LoadAdError) {
+                    onFinished?.run()
+                    // a failed load is not retried until the next request or show, to avoid hammering a no fill ad unit
+                    val failedCallbacks = synchronized(this@SASGoogleMobileAdsPreloadCache) {
+                        loadingCount--
+                        if (loadingCount == 0) {
+                            // no other load to wait for, the failure is shared by every waiting request
+                            ArrayList(waitingCallbacks).also { waitingCallbacks.clear() }
+                        } else {
+                            listOfNotNull(waitingCallbacks.pollFirst())
+                        }
+                    }
+                    failedCallbacks.forEach { it.onAdFailedToLoad(loadAdError) }
+                }
+            })
+        }
+
+        /**
+         * Serves the given ad to the first waiting request taking it, or caches it
+         */
+        fun serve(cachedAd: CachedAd<T>) {
+            while (true) {
+                val waitingCallback = synchronized(this@SASGoogleMobileAdsPreloadCache) {
+                    waitingCallbacks.pollFirst() ?: run {
+                        SASAdapterLogger.d(TAG, "Google mobile ads %s cached for ad unit: %s", adTypeName, adUnitID)
+                        // older ads are served first
+                        if (cachedAds.isNotEmpty() && cachedAd.loadTime < cachedAds.peekFirst()!!.loadTime) {
+                            cachedAds.addFirst(cachedAd)
+                        } else {
+                            cachedAds.addLast(cachedAd)
+                        }
+                        null
+                    }
+                } ?: return
+                if (waitingCallback.onAdLoaded(cachedAd.ad)) {
+                    return
+                }
+            }
+        }
+    }
+
+    // cache of each ad unit, by ad unit ID and Google mobile ads flavor
+    private val adUnitCaches = HashMap<String, AdUnitCache>()
+
+    /**
+     * Requests an ad for the given ad unit, served right away from the cache if a valid ad is available.
+     * Must be called once the Google mobile ads SDK is initialized.
+     */
+    fun request(context: Context, adUnitID: String, isAdManager: Boolean, callback: Callback<T>) {
+        var startLoad = false
+        val adUnitCache: AdUnitCache
+        val cachedAd = synchronized(this) {
+            adUnitCache = adUnitCaches.getOrPut(getCacheKey(adUnitID, isAdManager)) { AdUnitCache(adUnitID, isAdManager, context.applicationContext) }
+            adUnitCache.evictExpiredAds()
+            adUnitCache.cachedAds.pollFirst() ?: run {
+                adUnitCache.waitingCallbacks.addLast(callback)
+                // concurrent requests share the loads already in flight
+                if (adUnitCache.loadingCount == 0) {
+                    adUnitCache.loadingCount++
+                    startLoad = true
+                }
+                null
+            }
+        }
+
+        cachedAd?.let {
+            SASAdapterLogger.d(TAG, "Google mobile ads %s served from cache for ad unit: %s", adTypeName, adUnitID)
+            if (!callback.onAdLoaded(it.ad)) {
+                adUnitCache.serve(it)
+            }
+        }
+        if (startLoad) {
+            adUnitCache.load()
+        }
+    }
+
+    /**
+     * Stops notifying the given callback of a pending request. An ad loaded for it will be cached instead.
+     */
+    @Synchronized
+    fun cancel(adUnitID: String, isAdManager: Boolean, callback: Callback<T>) {
+        adUnitCaches[getCacheKey(adUnitID, isAdManager)]?.waitingCallbacks?.remove(callback)
+    }
+
+    /**
+     * Tops up the cache of the given ad unit once one of its ads is shown
+     */
+    fun onAdShown(adUnitID: String, isAdManager: Boolean) {
+        var loadCount = 0
+        val adUnitCache = synchronized(this) {
+            adUnitCaches[getCacheKey(adUnitID, isAdManager)]?.also { adUnitCache ->
+                adUnitCache.evictExpiredAds()
+                loadCount = SASGoogleMobileAdsAdapterBase.preloadedAdsPerAdUnit -
+                        (adUnitCache.cachedAds.size + adUnitCache.loadingCount - adUnitCache.waitingCallbacks.size)
+                if (loadCount > 0) {
+                    adUnitCache.loadingCount += loadCount
+                }
+            }
+        } ?: return
+
+        // preloads wait for a free load slot, after the ad requests
+        repeat(loadCount) {
+            SASLoadScheduler.getSharedInstance().scheduleBackground(SASGoogleMobileAdsAdapterBase.NETWORK_NAME, adFormat) { onFinished ->
+                adUnitCache.load(onFinished)
+            }
+        }
+    }
+
+    private fun getCacheKey(adUnitID: String, isAdManager: Boolean) = if (isAdManager) "$adUnitID/AdManager" else adUnitID
+
+    companion object {
+        private val TAG = SASGoogleMobileAdsPreloadCache::class.java.simpleName
+
+        // Google loaded fullscreen ads are valid for one hour
+        private const val AD_VALIDITY_MILLIS = 60 * 60 * 1000L
+    }
+}
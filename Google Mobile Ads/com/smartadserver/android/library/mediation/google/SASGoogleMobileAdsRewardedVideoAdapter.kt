@@ -2,7 +2,6 @@ package com.smartadserver.android.library.mediation.google
 
 import android.app.Activity
 import android.content.Context
-import android.util.Log
 import com.google.android.gms.ads.AdError
 import com.google.android.gms.ads.AdRequest
 import com.google.android.gms.ads.FullScreenContentCallback
@@ -12,6 +11,13 @@ import com.google.android.gms.ads.rewarded.RewardedAd
 import com.google.android.gms.ads.rewarded.RewardedAdLoadCallback
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapter
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener
+import com.smartadserver.android.library.mediation.common.SASAdFormat
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts
+import com.smartadserver.android.library.mediation.common.SASCancellationToken
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker
+import com.smartadserver.android.library.mediation.common.SASLoadScheduler
 import com.smartadserver.android.library.model.SASReward
 import com.smartadserver.android.library.util.SASUtil
 import java.lang.ref.WeakReference
@@ -27,46 +33,81 @@ class SASGoogleMobileAdsRewardedVideoAdapter : SASGoogleMobileAdsAdapterBase(),
     private lateinit var activityWeakReference: WeakReference<Activity>
     private lateinit var rewardedVideoAdapterListener: SASMediationRewardedVideoAdapterListener
 
+    // requested ad unit and Google mobile ads flavor, and the callback of its pending request if any
+    private var adUnitID: String? = null
+    private var isAdManager = false
+    private var loadCallback: SASGoogleMobileAdsPreloadCache.Callback<RewardedAd>? = null
+
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    private var cancellationToken: SASCancellationToken? = null
+
     /**
      * Requests a mediated rewarded video ad asynchronously.
      *
      * @param context                      The [Context] needed by the mediation SDK to make the ad request.
      * @param serverParametersString       a String containing all needed parameters (as returned by Smart ad delivery) to make the mediation ad call.
      * @param clientParameters             additional client-side parameters (user specific, like location).
-     * @param rewardedVideoAdapterListener the [SASMediationRewardedVideoAdapterListener] provided to this [com.smartadserver.android.library.mediation.SASMediationAdapter] to notify the Smart SDK of events
+     * @param adapterListener              the [SASMediationRewardedVideoAdapterListener] provided to this [com.smartadserver.android.library.mediation.SASMediationAdapter] to notify the Smart SDK of events
      */
     override fun requestRewardedVideoAd(context: Context,
                                         serverParametersString: String,
                                         clientParameters: Map<String, Any>,
-                                        rewardedVideoAdapterListener: SASMediationRewardedVideoAdapterListener) {
+                                        adapterListener: SASMediationRewardedVideoAdapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        val rewardedVideoAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener)
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, rewardedVideoAdapterListener)) {
+            return
+        }
+
+        // token of this ad request, cancelled on destroy
+        val cancellationToken = SASCancellationToken.create(rewardedVideoAdapterListener).also { this.cancellationToken = it }
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, rewardedVideoAdapterListener) { onDestroy() }
 
         // reset any previous leftover (?) rewarded ad
         mRewardedAd = null
         if (context !is Activity) {
-            rewardedVideoAdapterListener.adRequestFailed("Google rewarded requires the Context to be an Activity for display", false)
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(rewardedVideoAdapterListener, "Google rewarded requires the Context to be an Activity for display")
             return
         }
         activityWeakReference = WeakReference(context)
         this.rewardedVideoAdapterListener = rewardedVideoAdapterListener
         val gma = initGoogleMobileAds(context, serverParametersString)
         val adUnitID = getAdUnitID(serverParametersString)
-        if (GoogleMobileAds.ADMOB == gma) {
-            // create rewarded ad request
-            val adRequest = AdRequest.Builder().build()
-            // execute request
-            RewardedAd.load(context, adUnitID, adRequest, createRewardedAdLoadCallback(rewardedVideoAdapterListener))
-        } else if (GoogleMobileAds.AD_MANAGER == gma) {
-            // create rewarded publisher ad request
-            val adManagerAdRequest = AdManagerAdRequest.Builder().build()
-            // execute request
-            RewardedAd.load(context, adUnitID, adManagerAdRequest, createRewardedAdLoadCallback(rewardedVideoAdapterListener))
+        if (adUnitID.isEmpty()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(rewardedVideoAdapterListener, "The Google mobile ads adUnitID is not correctly set")
+            return
+        }
+        // request a rewarded ad, served right away if one is preloaded for this ad unit
+        val loadCallback = createRewardedAdLoadCallback(adUnitID, rewardedVideoAdapterListener, cancellationToken)
+        val isAdManager = GoogleMobileAds.AD_MANAGER == gma
+        this.adUnitID = adUnitID
+        this.isAdManager = isAdManager
+        this.loadCallback = loadCallback
+        loadWhenInitialized {
+            // wait for a free Google mobile ads load slot, higher priority formats first
+            SASLoadScheduler.getSharedInstance().schedule(NETWORK_NAME, rewardedVideoAdapterListener) {
+                // the ad request may have been abandoned while the Google mobile ads SDK was initializing
+                if (!cancellationToken.isCancelled) {
+                    preloadCache.request(context, adUnitID, isAdManager, loadCallback)
+                }
+            }
         }
     }
 
-    private fun createRewardedAdLoadCallback(rewardedVideoAdapterListener: SASMediationRewardedVideoAdapterListener): RewardedAdLoadCallback {
-        return object : RewardedAdLoadCallback() {
-            override fun onAdLoaded(rewardedAd: RewardedAd) {
-                Log.d(TAG, "Google mobile ads onRewardedVideoAdLoaded for rewarded video")
+    private fun createRewardedAdLoadCallback(adUnitID: String, rewardedVideoAdapterListener: SASMediationRewardedVideoAdapterListener, cancellationToken: SASCancellationToken): SASGoogleMobileAdsPreloadCache.Callback<RewardedAd> {
+        return object : SASGoogleMobileAdsPreloadCache.Callback<RewardedAd> {
+            override fun onAdLoaded(ad: RewardedAd): Boolean {
+                SASAdapterLogger.d(TAG, "Google mobile ads onRewardedVideoAdLoaded for rewarded video")
+                if (cancellationToken.isCancelled) {
+                    // abandoned ad request, the ad goes back to the cache for the next request
+                    return false
+                }
+                val rewardedAd = ad
                 mRewardedAd = rewardedAd
                 rewardedAd.fullScreenContentCallback = object : FullScreenContentCallback() {
                     override fun onAdFailedToShowFullScreenContent(adError: AdError) {
@@ -74,30 +115,34 @@ class SASGoogleMobileAdsRewardedVideoAdapter : SASGoogleMobileAdsAdapterBase(),
                     }
 
                     override fun onAdShowedFullScreenContent() {
-                        Log.d(TAG, "Google mobile ads onAdShowedFullScreenContent for rewarded")
+                        SASAdapterLogger.d(TAG, "Google mobile ads onAdShowedFullScreenContent for rewarded")
                         rewardedVideoAdapterListener.onRewardedVideoShown()
-                        onDestroy()
+                        mRewardedAd = null
+
+                        // preload the next rewarded ad of this ad unit
+                        preloadCache.onAdShown(adUnitID, isAdManager)
                     }
 
                     override fun onAdDismissedFullScreenContent() {
-                        Log.d(TAG, "Google mobile ads onAdDismissedFullScreenContent for rewarded")
+                        SASAdapterLogger.d(TAG, "Google mobile ads onAdDismissedFullScreenContent for rewarded")
                         rewardedVideoAdapterListener.onAdClosed()
                     }
 
                     override fun onAdImpression() {
-                        Log.d(TAG, "Google mobile ads onAdImpression for rewarded")
+                        SASAdapterLogger.d(TAG, "Google mobile ads onAdImpression for rewarded")
                     }
 
                     override fun onAdClicked() {
-                        Log.d(TAG, "Google mobile ads onAdClicked for rewarded")
+                        SASAdapterLogger.d(TAG, "Google mobile ads onAdClicked for rewarded")
                         rewardedVideoAdapterListener.onAdClicked()
                     }
                 }
                 rewardedVideoAdapterListener.onRewardedVideoLoaded()
+                return true
             }
 
             override fun onAdFailedToLoad(loadAdError: LoadAdError) {
-                Log.d(TAG, "Google mobile ads onAdFailedToLoad for rewarded (error:$loadAdError)")
+                SASAdapterLogger.d(TAG, "Google mobile ads onAdFailedToLoad for rewarded (error:%s)", loadAdError)
                 val isNoAd = loadAdError.code == AdRequest.ERROR_CODE_NO_FILL
                 rewardedVideoAdapterListener.adRequestFailed("Google mobile ads rewarded sad loading error $loadAdError", isNoAd)
             }
@@ -115,7 +160,7 @@ class SASGoogleMobileAdsRewardedVideoAdapter : SASGoogleMobileAdsAdapterBase(),
             activityWeakReference.get()?.let { activity ->
                 SASUtil.getMainLooperHandler().post {
                     rewardedAd.show(activity) { rewardItem ->
-                        Log.d(TAG, "Google mobile ads onUserEarnedReward for rewarded ad : label:" + rewardItem.type + " amount:" + rewardItem.amount)
+                        SASAdapterLogger.d(TAG, "Google mobile ads onUserEarnedReward for rewarded ad : label:%s amount:%s", rewardItem.type, rewardItem.amount)
 
                         // notify Smart SDK of earned reward
                         rewardedVideoAdapterListener.onReward(SASReward(rewardItem.type, rewardItem.amount.toDouble()))
@@ -126,11 +171,25 @@ class SASGoogleMobileAdsRewardedVideoAdapter : SASGoogleMobileAdsAdapterBase(),
     }
 
     override fun onDestroy() {
+        cancellationToken?.cancel()
         mRewardedAd = null
+        adUnitID?.let { adUnitID -> loadCallback?.let { preloadCache.cancel(adUnitID, isAdManager, it) } }
     }
 
     companion object {
         // tag for logging purposes
         private val TAG = SASGoogleMobileAdsRewardedVideoAdapter::class.java.simpleName
+
+        // rewarded ads preloaded by ad unit
+        private val preloadCache = SASGoogleMobileAdsPreloadCache<RewardedAd>("rewarded", SASAdFormat.REWARDED_VIDEO) { context, adUnitID, isAdManager, callback ->
+            val loadCallback = object : RewardedAdLoadCallback() {
+                override fun onAdLoaded(rewardedAd: RewardedAd) {
+                    callback.onAdLoaded(rewardedAd)
+                }
+                override fun onAdFailedToLoad(loadAdError: LoadAdError) = callback.onAdFailedToLoad(loadAdError)
+            }
+            val adRequest = if (isAdManager) AdManagerAdRequest.Builder().build() else AdRequest.Builder().build()
+            RewardedAd.load(context, adUnitID, adRequest, loadCallback)
+        }
     }
 }
\ No newline at end of file
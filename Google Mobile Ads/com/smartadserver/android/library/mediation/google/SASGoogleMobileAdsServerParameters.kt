@@ -0,0 +1,40 @@
+package com.smartadserver.android.library.mediation.google
+
+import com.smartadserver.android.library.mediation.common.SASServerParametersCache
+
+/**
+ * Typed Google mobile ads server parameters, parsed from the "appID|adUnitID[|adSizeIndex]" String sent by Smart ad delivery
+ */
+internal class SASGoogleMobileAdsServerParameters private constructor(serverParametersString: String) {
+    val appID: String
+    val adUnitID: String
+
+    // banner size index (only for banners), 0 by default
+    val adSizeIndex: Int
+
+    init {
+        // reason behind the '|' separator is because Google mobile ads placement already use '/'
+        val fields = SASServerParametersCache.split(serverParametersString, '|')
+        appID = fields[0]
+        adUnitID = SASServerParametersCache.getField(fields, 1, "")
+        adSizeIndex = SASServerParametersCache.getIntField(fields, 2, 0)
+    }
+
+    /**
+     * Whether the ad unit ID is correctly set
+     */
+    val isValid: Boolean
+        get() = adUnitID.isNotEmpty()
+
+    companion object {
+        // parsed server parameters, by raw String
+        private val cache = SASServerParametersCache<SASGoogleMobileAdsServerParameters>(16) {
+            SASGoogleMobileAdsServerParameters(it)
+        }
+
+        /**
+         * Returns the (cached) typed Google mobile ads server parameters for the given raw String
+         */
+        fun parse(serverParametersString: String) = cache.get(serverParametersString)
+    }
+}
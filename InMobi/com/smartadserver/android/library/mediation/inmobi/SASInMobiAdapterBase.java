@@ -1,9 +1,7 @@
 package com.smartadserver.android.library.mediation.inmobi;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.location.Location;
-import android.preference.PreferenceManager;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -11,6 +9,12 @@ import androidx.annotation.Nullable;
 
 import com.inmobi.sdk.InMobiSdk;
 import com.inmobi.sdk.SdkInitializationListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterInitCoordinator;
+import com.smartadserver.android.library.mediation.common.SASAdapterInitFuture;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASConsentManager;
+import com.smartadserver.android.library.mediation.common.SASConsentPropagator;
+import com.smartadserver.android.library.mediation.common.SASConsentSnapshot;
 import com.smartadserver.android.library.util.SASLibraryInfo;
 import com.smartadserver.android.library.util.location.SASLocationManager;
 
@@ -28,32 +32,71 @@ public class SASInMobiAdapterBase {
 
     private static final String TAG = "SASInMobiAdapterBase";
 
-    private static final String GDPR_APPLIES_KEY = "gdprapplies";
-
-    private static boolean initInMobiDone = false;
+    // network name used to register InMobi SDK initialization and to track ad requests
+    static final String NETWORK_NAME = "InMobi";
 
     // HashMap containing Smart AdServer custom parameters
     static HashMap<String, String> inMobiParametersMap;
 
+    // passes the user consent to InMobi, only when it changes
+    @NonNull
+    private static final SASConsentPropagator.ConsentHandler<SASConsentSnapshot> consentHandler = new SASConsentPropagator.ConsentHandler<SASConsentSnapshot>() {
+        @NonNull
+        @Override
+        public SASConsentSnapshot getNetworkConsent(@NonNull SASConsentSnapshot consentSnapshot) {
+            // InMobi consent depends on both the GDPR applies value and the consent status
+            return consentSnapshot;
+        }
+
+        @Override
+        public void pushConsent(@NonNull SASConsentSnapshot consentSnapshot) {
+            InMobiSdk.updateGDPRConsent(getJSONConsent(consentSnapshot));
+        }
+    };
+
+    // InMobi SDK initialization future, ad loads wait for it
+    @Nullable
+    private SASAdapterInitFuture initFuture;
+
     /**
-     * init InMobi SDK once
+     * init InMobi SDK once, and returns the initialization future
      */
-    protected static void initInMobiIfNecessary(@NonNull Context context, @NonNull String accountID, @NonNull JSONObject JSONConsent) {
-        if (!initInMobiDone) {
-            InMobiSdk.setLogLevel(InMobiSdk.LogLevel.DEBUG);
-            InMobiSdk.init(context, accountID, JSONConsent, new SdkInitializationListener() {
-                @Override
-                public void onInitializationComplete(@Nullable Error error) {
-                    Log.d(TAG, "InMobi onInitializationComplete" + (error != null ? " with error: " + error.getMessage() : ""));
-                }
-            });
-
-            inMobiParametersMap = new HashMap<>();
-            inMobiParametersMap.put("tp", "c_smartadserver");
-            inMobiParametersMap.put("tp-ver", SASLibraryInfo.getSharedInstance().getVersion());
-
-            initInMobiDone = true;
-        }
+    @NonNull
+    protected static SASAdapterInitFuture initInMobiIfNecessary(@NonNull final Context context, @NonNull final String accountID, @NonNull final SASConsentSnapshot consentSnapshot) {
+        return SASAdapterInitCoordinator.initIfNecessary(NETWORK_NAME, new SASAdapterInitCoordinator.Initializer() {
+            @Override
+            public void initialize(@NonNull final SASAdapterInitFuture initFuture) {
+                inMobiParametersMap = new HashMap<>();
+                inMobiParametersMap.put("tp", "c_smartadserver");
+                inMobiParametersMap.put("tp-ver", SASLibraryInfo.getSharedInstance().getVersion());
+
+                // InMobi logs follow the adapters log level
+                SASAdapterLogger.addLogLevelListener(new SASAdapterLogger.LogLevelListener() {
+                    @Override
+                    public void onLogLevelChanged(int logLevel) {
+                        if (logLevel <= Log.DEBUG) {
+                            InMobiSdk.setLogLevel(InMobiSdk.LogLevel.DEBUG);
+                        } else if (logLevel <= Log.ERROR) {
+                            InMobiSdk.setLogLevel(InMobiSdk.LogLevel.ERROR);
+                        } else {
+                            InMobiSdk.setLogLevel(InMobiSdk.LogLevel.NONE);
+                        }
+                    }
+                });
+
+                InMobiSdk.init(context, accountID, getJSONConsent(consentSnapshot), new SdkInitializationListener() {
+                    @Override
+                    public void onInitializationComplete(@Nullable Error error) {
+                        if (error != null) {
+                            SASAdapterLogger.d(TAG, "InMobi onInitializationComplete with error: %s", error.getMessage());
+                        } else {
+                            SASAdapterLogger.d(TAG, "InMobi onInitializationComplete");
+                        }
+                        initFuture.complete(error != null ? error.getMessage() : null);
+                    }
+                });
+            }
+        });
     }
 
     /**
@@ -61,30 +104,29 @@ public class SASInMobiAdapterBase {
      */
     @NonNull
     protected static JSONObject getJSONConsent(@NonNull Context context, @NonNull Map<String, Object> clientParameters) {
+        return getJSONConsent(SASConsentManager.getSharedInstance().getConsentSnapshot(context, clientParameters));
+    }
+
+    /**
+     * Returns a JSON object containing the GDPR info of the given consent snapshot as expected by InMobi
+     */
+    @NonNull
+    protected static JSONObject getJSONConsent(@NonNull SASConsentSnapshot consentSnapshot) {
         JSONObject JSONConsent = new JSONObject();
 
         try {
             // find if gdpr applies
             String GDPRApplies = ""; // unknown value by default
-            String value = (String)clientParameters.get(GDPR_APPLIES_KEY);
-            if (value != null) {
-                if ("true".equalsIgnoreCase(value)) {
-                    GDPRApplies = "1";
-                } else if ("false".equalsIgnoreCase(value)) {
-                    GDPRApplies = "0";
-                }
+            if (consentSnapshot.getGDPRApplies() != null) {
+                GDPRApplies = consentSnapshot.getGDPRApplies() ? "1" : "0";
             }
 
             // store value in JSON
             JSONConsent.put("gdpr", GDPRApplies);
 
             // Due to the fact that InMobi is not IAB compliant, it does not accept IAB Consent String, but only a
-            // binary consent status.
-            // Smart advises app developers to store the binary consent in the 'Smart_advertisingConsentStatus' key
-            // in NSUserDefault, therefore this adapter will retrieve it from this key.
-            // Adapt the code below if your app don't follow this convention.
-            SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(context);
-            final String smartConsentStatus = sharedPreferences.getString("Smart_advertisingConsentStatus", null);
+            // binary consent status (see SASConsentManager).
+            final String smartConsentStatus = consentSnapshot.getConsentStatus();
 
             if (smartConsentStatus != null) {
                 // we have an info
@@ -104,12 +146,16 @@ public class SASInMobiAdapterBase {
      */
     protected void configureAdRequest(@NonNull Context context, @NonNull String serverParameterString, @NonNull Map<String, Object> clientParameters) {
 
-        // get GDPR consent tailored for inMobi
-        JSONObject JSONConsent = getJSONConsent(context, clientParameters);
+        // get GDPR consent
+        SASConsentSnapshot consentSnapshot = SASConsentManager.getSharedInstance().getConsentSnapshot(context, clientParameters);
 
-        initInMobiIfNecessary(context, getAccountId(serverParameterString), JSONConsent);
+        initFuture = initInMobiIfNecessary(context, getAccountId(serverParameterString), consentSnapshot);
 
-        InMobiSdk.updateGDPRConsent(JSONConsent);
+        // InMobi logs follow the Smart SDK debug mode changes
+        SASAdapterLogger.refreshLogLevel();
+
+        // pass consent info to InMobi, if it changed
+        SASConsentPropagator.getSharedInstance().propagate(NETWORK_NAME, consentHandler, consentSnapshot);
 
         // pass geolocation if available
         Location location = SASLocationManager.getSharedInstance().getLocation();
@@ -118,12 +164,23 @@ public class SASInMobiAdapterBase {
         }
     }
 
+    /**
+     * Performs the given ad load once the InMobi SDK is initialized (or after a bounded wait)
+     */
+    protected void loadWhenInitialized(@NonNull Runnable loadRunnable) {
+        if (initFuture != null) {
+            initFuture.runWhenInitialized(loadRunnable, SASAdapterInitFuture.DEFAULT_MAX_WAIT_MILLIS);
+        } else {
+            loadRunnable.run();
+        }
+    }
+
     /**
      * Returns InMobi account ID from server parameters String
      */
     @NonNull
     protected String getAccountId(@NonNull String serverParameters) {
-        return serverParameters.split("/")[0];
+        return SASInMobiServerParameters.parse(serverParameters).getAccountID();
     }
 
     /**
@@ -132,13 +189,9 @@ public class SASInMobiAdapterBase {
     protected long getPlacementId(@NonNull String serverParameters) {
 
         // extract inMobi placement ID from server parameters
-        String[] inMobiParams = serverParameters.split("/");
-
-        long placementID = -1;
-        try {
-            placementID = Long.parseLong(inMobiParams[1]);
-        } catch (Exception e) {
-            Log.d(TAG, "InMobi Invalid Placement format");
+        long placementID = SASInMobiServerParameters.parse(serverParameters).getPlacementID();
+        if (placementID == -1) {
+            SASAdapterLogger.d(TAG, "InMobi Invalid Placement format");
         }
 
         return placementID;
@@ -5,7 +5,6 @@ import android.graphics.Color;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 import android.view.ViewGroup;
 
 import com.inmobi.ads.AdMetaInfo;
@@ -15,6 +14,13 @@ import com.inmobi.ads.listeners.BannerAdEventListener;
 import com.smartadserver.android.library.mediation.SASMediationAdapter;
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapter;
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASBannerViewPool;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
+import com.smartadserver.android.library.mediation.common.SASLoadScheduler;
 import com.smartadserver.android.library.util.SASUtil;
 
 
@@ -28,23 +34,53 @@ public class SASInMobiBannerAdapter extends SASInMobiAdapterBase implements SASM
 
     private static final String TAG = SASInMobiBannerAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     @Nullable
     InMobiBanner bannerAdView;
 
+    // banner view pool key (placement and size), and whether the banner view is loading an ad
+    @Nullable
+    private String poolKey;
+    private boolean loading = false;
+
     @Override
     public void requestBannerAd(@NonNull Context context,
                                 @NonNull String serverParameterString,
                                 @NonNull Map<String, Object> clientParameters,
-                                @NonNull final SASMediationBannerAdapterListener bannerAdapterListener) {
+                                @NonNull SASMediationBannerAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationBannerAdapterListener bannerAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParameterString, bannerAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        final SASCancellationToken cancellationToken = SASCancellationToken.create(bannerAdapterListener);
+        this.cancellationToken = cancellationToken;
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, bannerAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        if (!SASInMobiServerParameters.parse(serverParameterString).isValid()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(bannerAdapterListener, "The InMobi accountID and/or placementID is not correctly set");
+            return;
+        }
 
         configureAdRequest(context, serverParameterString, clientParameters);
 
         long placementID = getPlacementId(serverParameterString);
 
-        // Create inMobi banner view with appropriate size.
-        bannerAdView = new InMobiBanner(context, placementID);
-        bannerAdView.setAnimationType(InMobiBanner.AnimationType.ANIMATION_OFF);
-
         int width = 0;
         try {
             //noinspection ConstantConditions
@@ -57,12 +93,21 @@ public class SASInMobiBannerAdapter extends SASInMobiAdapterBase implements SASM
             height = Integer.parseInt((String)clientParameters.get(SASMediationAdapter.AD_VIEW_HEIGHT_KEY));
         } catch (Exception ignored) {}
 
-        ViewGroup.LayoutParams lParams = new ViewGroup.LayoutParams(width, height);
-        bannerAdView.setLayoutParams(lParams);
+        // reuse a detached banner view of the same placement and size if any
+        poolKey = placementID + "/" + width + "x" + height;
+        bannerAdView = SASBannerViewPool.getSharedInstance().acquire(NETWORK_NAME, context, poolKey, InMobiBanner.class);
+        if (bannerAdView == null) {
+            // Create inMobi banner view with appropriate size.
+            bannerAdView = new InMobiBanner(context, placementID);
+            bannerAdView.setAnimationType(InMobiBanner.AnimationType.ANIMATION_OFF);
+
+            ViewGroup.LayoutParams lParams = new ViewGroup.LayoutParams(width, height);
+            bannerAdView.setLayoutParams(lParams);
 
-        // debug color
-        if (SASUtil.debugModeEnabled) {
-            bannerAdView.setBackgroundColor(Color.CYAN);
+            // debug color
+            if (SASUtil.debugModeEnabled) {
+                bannerAdView.setBackgroundColor(Color.CYAN);
+            }
         }
 
         // create inmobi banner listener
@@ -70,14 +115,20 @@ public class SASInMobiBannerAdapter extends SASInMobiAdapterBase implements SASM
             @Override
             public void onAdLoadSucceeded(@NonNull InMobiBanner inMobiBanner, @NonNull AdMetaInfo adMetaInfo) {
                 super.onAdLoadSucceeded(inMobiBanner, adMetaInfo);
-                Log.d(TAG, "InMobi onAdLoadSucceeded for banner");
+                SASAdapterLogger.d(TAG, "InMobi onAdLoadSucceeded for banner");
+                loading = false;
+                if (cancellationToken.isCancelled()) {
+                    // abandoned ad request, the banner was already destroyed
+                    return;
+                }
                 bannerAdapterListener.onBannerLoaded(inMobiBanner);
             }
 
             @Override
             public void onAdLoadFailed(@NonNull InMobiBanner inMobiBanner, @NonNull InMobiAdRequestStatus inMobiAdRequestStatus) {
                 super.onAdLoadFailed(inMobiBanner, inMobiAdRequestStatus);
-                Log.d(TAG, "InMobi  onAdLoadFailed for banner");
+                SASAdapterLogger.d(TAG, "InMobi  onAdLoadFailed for banner");
+                loading = false;
                 boolean isNoAd = inMobiAdRequestStatus.getStatusCode() == InMobiAdRequestStatus.StatusCode.NO_FILL;
                 bannerAdapterListener.adRequestFailed(inMobiAdRequestStatus.getMessage() + "(" + inMobiAdRequestStatus.getStatusCode() + ")", isNoAd);
             }
@@ -85,58 +136,58 @@ public class SASInMobiBannerAdapter extends SASInMobiAdapterBase implements SASM
             @Override
             public void onAdFetchSuccessful(@NonNull InMobiBanner inMobiBanner, @NonNull AdMetaInfo adMetaInfo) {
                 super.onAdFetchSuccessful(inMobiBanner, adMetaInfo);
-                Log.d(TAG, "InMobi onAdFetchSuccessful for banner");
+                SASAdapterLogger.d(TAG, "InMobi onAdFetchSuccessful for banner");
             }
 
             @Override
             public void onAdFetchFailed(@NonNull InMobiBanner inMobiBanner, @NonNull InMobiAdRequestStatus inMobiAdRequestStatus) {
                 super.onAdFetchFailed(inMobiBanner, inMobiAdRequestStatus);
-                Log.d(TAG, "InMobi onAdFetchFailed for banner");
+                SASAdapterLogger.d(TAG, "InMobi onAdFetchFailed for banner");
             }
 
             @Override
             public void onAdDisplayed(@NonNull InMobiBanner inMobiBanner) {
                 super.onAdDisplayed(inMobiBanner);
-                Log.d(TAG, "InMobi onAdDisplayed for banner");
+                SASAdapterLogger.d(TAG, "InMobi onAdDisplayed for banner");
                 bannerAdapterListener.onAdFullScreen();
             }
 
             @Override
             public void onAdDismissed(@NonNull InMobiBanner inMobiBanner) {
                 super.onAdDismissed(inMobiBanner);
-                Log.d(TAG, "InMobi onAdDismissed for banner");
+                SASAdapterLogger.d(TAG, "InMobi onAdDismissed for banner");
                 bannerAdapterListener.onAdClosed();
             }
 
             @Override
             public void onUserLeftApplication(@NonNull InMobiBanner inMobiBanner) {
                 super.onUserLeftApplication(inMobiBanner);
-                Log.d(TAG, "InMobi onUserLeftApplication for banner");
+                SASAdapterLogger.d(TAG, "InMobi onUserLeftApplication for banner");
             }
 
             @Override
             public void onRewardsUnlocked(@NonNull InMobiBanner inMobiBanner, Map<Object, Object> map) {
                 super.onRewardsUnlocked(inMobiBanner, map);
-                Log.d(TAG, "InMobi onRewardsUnlocked for banner");
+                SASAdapterLogger.d(TAG, "InMobi onRewardsUnlocked for banner");
             }
 
             @Override
             public void onAdClicked(@NonNull InMobiBanner inMobiBanner, Map<Object, Object> map) {
                 super.onAdClicked(inMobiBanner, map);
-                Log.d(TAG, "InMobi onAdClicked for banner");
+                SASAdapterLogger.d(TAG, "InMobi onAdClicked for banner");
                 bannerAdapterListener.onAdClicked();
             }
 
             @Override
             public void onRequestPayloadCreated(byte[] bytes) {
                 super.onRequestPayloadCreated(bytes);
-                Log.d(TAG, "InMobi onRequestPayloadCreated for banner");
+                SASAdapterLogger.d(TAG, "InMobi onRequestPayloadCreated for banner");
             }
 
             @Override
             public void onRequestPayloadCreationFailed(@NonNull InMobiAdRequestStatus inMobiAdRequestStatus) {
                 super.onRequestPayloadCreationFailed(inMobiAdRequestStatus);
-                Log.d(TAG, "InMobi onRequestPayloadCreationFailed for banner");
+                SASAdapterLogger.d(TAG, "InMobi onRequestPayloadCreationFailed for banner");
             }
         };
 
@@ -147,14 +198,45 @@ public class SASInMobiBannerAdapter extends SASInMobiAdapterBase implements SASM
         // set request params
         bannerAdView.setExtras(inMobiParametersMap);
 
-        // perform ad request
-        bannerAdView.load();
+        // perform ad request once InMobi SDK is initialized
+        final InMobiBanner inMobiBanner = bannerAdView;
+        loadWhenInitialized(new Runnable() {
+            @Override
+            public void run() {
+                // wait for a free InMobi load slot, higher priority formats first
+                SASLoadScheduler.getSharedInstance().schedule(NETWORK_NAME, bannerAdapterListener, new Runnable() {
+                    @Override
+                    public void run() {
+                        // the ad request may have been abandoned while the InMobi SDK was initializing
+                        if (!cancellationToken.isCancelled()) {
+                            loading = true;
+                            inMobiBanner.load();
+                        }
+                    }
+                });
+            }
+        });
     }
 
     @Override
     public void onDestroy() {
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
         if (bannerAdView != null) {
-            bannerAdView.destroy();
+            if (poolKey != null && !loading) {
+                // keep the banner view for the next ad request of the same placement and size, it is destroyed once evicted
+                bannerAdView.setListener(new BannerAdEventListener() {});
+                SASBannerViewPool.getSharedInstance().release(NETWORK_NAME, poolKey, bannerAdView, new SASBannerViewPool.ViewDestroyer<InMobiBanner>() {
+                    @Override
+                    public void destroy(@NonNull InMobiBanner view) {
+                        view.destroy();
+                    }
+                });
+            } else {
+                bannerAdView.destroy();
+            }
+            bannerAdView = null;
         }
     }
 
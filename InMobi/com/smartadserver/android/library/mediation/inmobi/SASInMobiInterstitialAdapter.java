@@ -4,16 +4,21 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 
 import com.inmobi.ads.AdMetaInfo;
 import com.inmobi.ads.InMobiAdRequestStatus;
 import com.inmobi.ads.InMobiInterstitial;
 import com.inmobi.ads.listeners.InterstitialAdEventListener;
-import com.smartadserver.android.library.exception.SASAdDisplayException;
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapter;
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
-import com.smartadserver.android.library.util.SASUtil;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
+import com.smartadserver.android.library.mediation.common.SASLoadScheduler;
+import com.smartadserver.android.library.mediation.common.SASMainThreadTask;
+import com.smartadserver.android.library.mediation.common.SASRequestCoalescer;
 
 
 import java.util.Map;
@@ -25,14 +30,62 @@ public class SASInMobiInterstitialAdapter extends SASInMobiAdapterBase implement
 
     private static final String TAG = SASInMobiInterstitialAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     @Nullable
     private InMobiInterstitial inMobiInterstitial;
 
+    // load shared with the concurrent ad requests of the same placement, or placement of the load this request waits for
+    @Nullable
+    private SASRequestCoalescer.Load sharedLoad;
+    @Nullable
+    private String coalescedPlacementKey;
+
+    @Nullable
+    private SASMediationInterstitialAdapterListener interstitialAdapterListener;
+
     @Override
     public void requestInterstitialAd(@NonNull Context context,
                                       @NonNull String serverParametersString,
                                       @NonNull Map<String, Object> clientParameters,
-                                      @NonNull final SASMediationInterstitialAdapterListener interstitialAdapterListener) {
+                                      @NonNull SASMediationInterstitialAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationInterstitialAdapterListener interstitialAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, interstitialAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        final SASCancellationToken cancellationToken = SASCancellationToken.create(interstitialAdapterListener);
+        this.cancellationToken = cancellationToken;
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, interstitialAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        if (!SASInMobiServerParameters.parse(serverParametersString).isValid()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(interstitialAdapterListener, "The InMobi accountID and/or placementID is not correctly set");
+            return;
+        }
+
+        this.interstitialAdapterListener = interstitialAdapterListener;
+
+        // wait for the outcome of a concurrent ad request of the same placement, if any
+        final SASRequestCoalescer.Load sharedLoad = SASRequestCoalescer.getSharedInstance().join(NETWORK_NAME, serverParametersString, interstitialAdapterListener);
+        if (sharedLoad == null) {
+            coalescedPlacementKey = serverParametersString;
+            return;
+        }
+        this.sharedLoad = sharedLoad;
 
         configureAdRequest(context, serverParametersString, clientParameters);
 
@@ -43,148 +96,157 @@ public class SASInMobiInterstitialAdapter extends SASInMobiAdapterBase implement
             @Override
             public void onAdLoadSucceeded(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull AdMetaInfo adMetaInfo) {
                 super.onAdLoadSucceeded(inMobiInterstitial, adMetaInfo);
-                Log.d(TAG, "InMobi onAdLoadSucceeded for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onAdLoadSucceeded for interstitial");
+                if (cancellationToken.isCancelled()) {
+                    // abandoned ad request, the loaded ad was already released
+                    return;
+                }
                 interstitialAdapterListener.onInterstitialLoaded();
+                sharedLoad.onAdLoaded();
             }
 
             @Override
             public void onAdLoadFailed(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull InMobiAdRequestStatus inMobiAdRequestStatus) {
                 super.onAdLoadFailed(inMobiInterstitial, inMobiAdRequestStatus);
-                Log.d(TAG, "InMobi onAdLoadFailed for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onAdLoadFailed for interstitial");
                 boolean isNoFill = inMobiAdRequestStatus.getStatusCode() == InMobiAdRequestStatus.StatusCode.NO_FILL;
                 interstitialAdapterListener.adRequestFailed(inMobiAdRequestStatus.getMessage(), isNoFill);
+                sharedLoad.onAdRequestFailed(inMobiAdRequestStatus.getMessage(), isNoFill);
             }
 
             @Override
             public void onAdFetchSuccessful(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull AdMetaInfo adMetaInfo) {
                 super.onAdFetchSuccessful(inMobiInterstitial, adMetaInfo);
-                Log.d(TAG, "InMobi onAdFetchSuccessful for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onAdFetchSuccessful for interstitial");
             }
 
             @Override
             public void onAdFetchFailed(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull InMobiAdRequestStatus inMobiAdRequestStatus) {
                 super.onAdFetchFailed(inMobiInterstitial, inMobiAdRequestStatus);
-                Log.d(TAG, "InMobi onAdFetchFailed for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onAdFetchFailed for interstitial");
             }
 
             @Override
             public void onAdWillDisplay(@NonNull InMobiInterstitial inMobiInterstitial) {
                 super.onAdWillDisplay(inMobiInterstitial);
-                Log.d(TAG, "InMobi onAdWillDisplay for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onAdWillDisplay for interstitial");
             }
 
             @Override
             public void onAdDisplayed(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull AdMetaInfo adMetaInfo) {
                 super.onAdDisplayed(inMobiInterstitial, adMetaInfo);
-                Log.d(TAG, "InMobi onAdDisplayed for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onAdDisplayed for interstitial");
                 interstitialAdapterListener.onInterstitialShown();
             }
 
             @Override
             public void onAdDisplayFailed(@NonNull InMobiInterstitial inMobiInterstitial) {
                 super.onAdDisplayFailed(inMobiInterstitial);
-                Log.d(TAG, "InMobi onAdDisplayFailed for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onAdDisplayFailed for interstitial");
                 interstitialAdapterListener.onInterstitialFailedToShow("no reason available");
             }
 
             @Override
             public void onAdDismissed(@NonNull InMobiInterstitial inMobiInterstitial) {
                 super.onAdDismissed(inMobiInterstitial);
-                Log.d(TAG, "InMobi onAdDismissed for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onAdDismissed for interstitial");
                 interstitialAdapterListener.onAdClosed();
             }
 
             @Override
             public void onUserLeftApplication(@NonNull InMobiInterstitial inMobiInterstitial) {
                 super.onUserLeftApplication(inMobiInterstitial);
-                Log.d(TAG, "InMobi onUserLeftApplication for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onUserLeftApplication for interstitial");
             }
 
             @Override
             public void onRewardsUnlocked(@NonNull InMobiInterstitial inMobiInterstitial, Map<Object, Object> map) {
                 super.onRewardsUnlocked(inMobiInterstitial, map);
-                Log.d(TAG, "InMobi onRewardsUnlocked for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onRewardsUnlocked for interstitial");
             }
 
             @Override
             public void onAdClicked(@NonNull InMobiInterstitial inMobiInterstitial, Map<Object, Object> map) {
                 super.onAdClicked(inMobiInterstitial, map);
-                Log.d(TAG, "InMobi onAdClicked for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onAdClicked for interstitial");
                 interstitialAdapterListener.onAdClicked();
             }
 
             @Override
             public void onRequestPayloadCreated(byte[] bytes) {
                 super.onRequestPayloadCreated(bytes);
-                Log.d(TAG, "InMobi onRequestPayloadCreated for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onRequestPayloadCreated for interstitial");
             }
 
             @Override
             public void onRequestPayloadCreationFailed(@NonNull InMobiAdRequestStatus inMobiAdRequestStatus) {
                 super.onRequestPayloadCreationFailed(inMobiAdRequestStatus);
-                Log.d(TAG, "InMobi onRequestPayloadCreationFailed for interstitial");
+                SASAdapterLogger.d(TAG, "InMobi onRequestPayloadCreationFailed for interstitial");
             }
         };
 
 
-        inMobiInterstitial = new InMobiInterstitial(context, placementID, interstitialAdEventListener);
+        final InMobiInterstitial interstitial = new InMobiInterstitial(context, placementID, interstitialAdEventListener);
+        inMobiInterstitial = interstitial;
 
         // set request params
-        inMobiInterstitial.setExtras(inMobiParametersMap);
+        interstitial.setExtras(inMobiParametersMap);
 
-        // load interstitial
-        inMobiInterstitial.load();
+        // load interstitial once InMobi SDK is initialized
+        loadWhenInitialized(new Runnable() {
+            @Override
+            public void run() {
+                // wait for a free InMobi load slot, higher priority formats first
+                SASLoadScheduler.getSharedInstance().schedule(NETWORK_NAME, interstitialAdapterListener, new Runnable() {
+                    @Override
+                    public void run() {
+                        // the ad request may have been abandoned while the InMobi SDK was initializing
+                        if (!cancellationToken.isCancelled()) {
+                            interstitial.load();
+                        }
+                    }
+                });
+            }
+        });
     }
 
     @Override
     public void showInterstitial() throws Exception {
-
-        /*
-         * Methods of the InMobi's InMobiInterstitial
-         * must be called on the Main Thread or they throw an exception.
-         *
-         * So execute them from the Main thread, but wait for the outcome, should they throw
-         * an exception (which will be stored in exceptions array)
-         */
-
-        final SASAdDisplayException[] exceptions = new SASAdDisplayException[1];
-
-        Runnable runnable = new Runnable() {
+        // Methods of the InMobi's InMobiInterstitial must be called on the Main Thread or they throw an exception.
+        // Show without blocking the calling thread, failures are reported to the listener.
+        SASMainThreadTask.execute(new SASMainThreadTask.Task() {
             @Override
-            public void run() {
-                try {
-                    if (inMobiInterstitial != null && inMobiInterstitial.isReady()) {
-                        // regular interstitial case
-                        inMobiInterstitial.show();
-                    } else {
-                        throw new Exception("No InMobi interstitial ad loaded !");
-                    }
-                } catch (Exception e) {
-                    // catch potential Exception and create a SASAdDisplayException containing the message
-                    exceptions[0] = new SASAdDisplayException(e.getMessage());
+            public void run() throws Exception {
+                if (inMobiInterstitial != null && inMobiInterstitial.isReady()) {
+                    inMobiInterstitial.show();
+                } else {
+                    throw new Exception("No InMobi interstitial ad loaded !");
                 }
-
-                synchronized (this) {
-                    this.notify();
+            }
+        }, SASMainThreadTask.DEFAULT_TIMEOUT_MILLIS, new SASMainThreadTask.Listener() {
+            @Override
+            public void onTaskComplete(@Nullable String errorMessage) {
+                if (errorMessage != null && interstitialAdapterListener != null) {
+                    SASAdapterLogger.d(TAG, "InMobi show failed: %s", errorMessage);
+                    interstitialAdapterListener.onInterstitialFailedToShow(errorMessage);
                 }
             }
-        };
-
-        // synchronized block to wait runnable execution outcome
-        synchronized (runnable) {
-            SASUtil.getMainLooperHandler().post(runnable);
-            runnable.wait();
-        }
-
-        // if an exception was thrown, re-throw the exception
-        if (exceptions[0] != null) {
-            throw exceptions[0];
-        }
-
+        });
     }
 
     @Override
     public void onDestroy() {
-        // nothing to do here
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        // release the requests waiting for this one, or stop waiting for a concurrent one
+        if (sharedLoad != null) {
+            sharedLoad.onAbandoned();
+        }
+        if (coalescedPlacementKey != null && interstitialAdapterListener != null) {
+            SASRequestCoalescer.getSharedInstance().leave(NETWORK_NAME, coalescedPlacementKey, interstitialAdapterListener);
+        }
+        // InMobi interstitials can not be destroyed, release the reference so that they can be garbage collected
+        inMobiInterstitial = null;
     }
 }
@@ -4,17 +4,22 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 
 import com.inmobi.ads.AdMetaInfo;
 import com.inmobi.ads.InMobiAdRequestStatus;
 import com.inmobi.ads.InMobiInterstitial;
 import com.inmobi.ads.listeners.InterstitialAdEventListener;
-import com.smartadserver.android.library.exception.SASAdDisplayException;
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapter;
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
+import com.smartadserver.android.library.mediation.common.SASLoadScheduler;
+import com.smartadserver.android.library.mediation.common.SASMainThreadTask;
+import com.smartadserver.android.library.mediation.common.SASRequestCoalescer;
 import com.smartadserver.android.library.model.SASReward;
-import com.smartadserver.android.library.util.SASUtil;
 
 
 import java.util.ArrayList;
@@ -28,14 +33,62 @@ public class SASInMobiRewardedVideoAdapter extends SASInMobiAdapterBase implemen
 
     private static final String TAG = SASInMobiRewardedVideoAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     @Nullable
     private InMobiInterstitial inMobiInterstitial;
 
+    // load shared with the concurrent ad requests of the same placement, or placement of the load this request waits for
+    @Nullable
+    private SASRequestCoalescer.Load sharedLoad;
+    @Nullable
+    private String coalescedPlacementKey;
+
+    @Nullable
+    private SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener;
+
     @Override
     public void requestRewardedVideoAd(@NonNull Context context,
                                        @NonNull String serverParametersString,
                                        @NonNull Map<String, Object> clientParameters,
-                                       @NonNull final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener) {
+                                       @NonNull SASMediationRewardedVideoAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, rewardedVideoAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        final SASCancellationToken cancellationToken = SASCancellationToken.create(rewardedVideoAdapterListener);
+        this.cancellationToken = cancellationToken;
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, rewardedVideoAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        if (!SASInMobiServerParameters.parse(serverParametersString).isValid()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(rewardedVideoAdapterListener, "The InMobi accountID and/or placementID is not correctly set");
+            return;
+        }
+
+        this.rewardedVideoAdapterListener = rewardedVideoAdapterListener;
+
+        // wait for the outcome of a concurrent ad request of the same placement, if any
+        final SASRequestCoalescer.Load sharedLoad = SASRequestCoalescer.getSharedInstance().join(NETWORK_NAME, serverParametersString, rewardedVideoAdapterListener);
+        if (sharedLoad == null) {
+            coalescedPlacementKey = serverParametersString;
+            return;
+        }
+        this.sharedLoad = sharedLoad;
 
         configureAdRequest(context, serverParametersString, clientParameters);
 
@@ -50,55 +103,61 @@ public class SASInMobiRewardedVideoAdapter extends SASInMobiAdapterBase implemen
             @Override
             public void onAdLoadSucceeded(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull AdMetaInfo adMetaInfo) {
                 super.onAdLoadSucceeded(inMobiInterstitial, adMetaInfo);
-                Log.d(TAG, "InMobi onAdLoadSucceeded for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onAdLoadSucceeded for rewarded video");
+                if (cancellationToken.isCancelled()) {
+                    // abandoned ad request, the loaded ad was already released
+                    return;
+                }
                 rewardedVideoAdapterListener.onRewardedVideoLoaded();
+                sharedLoad.onAdLoaded();
             }
 
             @Override
             public void onAdLoadFailed(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull InMobiAdRequestStatus inMobiAdRequestStatus) {
                 super.onAdLoadFailed(inMobiInterstitial, inMobiAdRequestStatus);
-                Log.d(TAG, "InMobi onAdLoadFailed for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onAdLoadFailed for rewarded video");
 
                 boolean isNoFill = inMobiAdRequestStatus.getStatusCode() == InMobiAdRequestStatus.StatusCode.NO_FILL;
                 rewardedVideoAdapterListener.adRequestFailed(inMobiAdRequestStatus.getMessage(), isNoFill);
+                sharedLoad.onAdRequestFailed(inMobiAdRequestStatus.getMessage(), isNoFill);
             }
 
             @Override
             public void onAdFetchSuccessful(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull AdMetaInfo adMetaInfo) {
                 super.onAdFetchSuccessful(inMobiInterstitial, adMetaInfo);
-                Log.d(TAG, "InMobi onAdFetchSuccessful for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onAdFetchSuccessful for rewarded video");
             }
 
             @Override
             public void onAdFetchFailed(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull InMobiAdRequestStatus inMobiAdRequestStatus) {
                 super.onAdFetchFailed(inMobiInterstitial, inMobiAdRequestStatus);
-                Log.d(TAG, "InMobi onAdFetchFailed for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onAdFetchFailed for rewarded video");
             }
 
             @Override
             public void onAdWillDisplay(@NonNull InMobiInterstitial inMobiInterstitial) {
                 super.onAdWillDisplay(inMobiInterstitial);
-                Log.d(TAG, "InMobi onAdWillDisplay for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onAdWillDisplay for rewarded video");
             }
 
             @Override
             public void onAdDisplayed(@NonNull InMobiInterstitial inMobiInterstitial, @NonNull AdMetaInfo adMetaInfo) {
                 super.onAdDisplayed(inMobiInterstitial, adMetaInfo);
-                Log.d(TAG, "InMobi onAdDisplayed for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onAdDisplayed for rewarded video");
                 rewardedVideoAdapterListener.onRewardedVideoShown();
             }
 
             @Override
             public void onAdDisplayFailed(@NonNull InMobiInterstitial inMobiInterstitial) {
                 super.onAdDisplayFailed(inMobiInterstitial);
-                Log.d(TAG, "InMobi onAdDisplayFailed for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onAdDisplayFailed for rewarded video");
                 rewardedVideoAdapterListener.onRewardedVideoFailedToShow("no reason available");
             }
 
             @Override
             public void onAdDismissed(@NonNull InMobiInterstitial inMobiInterstitial) {
                 super.onAdDismissed(inMobiInterstitial);
-                Log.d(TAG, "InMobi onAdDismissed for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onAdDismissed for rewarded video");
 
                 // fire rewards
                 for (SASReward reward : rewards) {
@@ -112,13 +171,13 @@ public class SASInMobiRewardedVideoAdapter extends SASInMobiAdapterBase implemen
             @Override
             public void onUserLeftApplication(@NonNull InMobiInterstitial inMobiInterstitial) {
                 super.onUserLeftApplication(inMobiInterstitial);
-                Log.d(TAG, "InMobi onUserLeftApplication for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onUserLeftApplication for rewarded video");
             }
 
             @Override
             public void onRewardsUnlocked(@NonNull InMobiInterstitial inMobiInterstitial, Map<Object, Object> map) {
                 super.onRewardsUnlocked(inMobiInterstitial, map);
-                Log.d(TAG, "InMobi onRewardsUnlocked for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onRewardsUnlocked for rewarded video");
 
                 rewards = new ArrayList<>();
                 for (Object key : map.keySet()) {
@@ -126,7 +185,7 @@ public class SASInMobiRewardedVideoAdapter extends SASInMobiAdapterBase implemen
                     try {
                         rewards.add(new SASReward(key.toString(), Double.parseDouble(value)));
                     } catch (Exception e) {
-                        Log.d(TAG, "Unparsable reward for key: " + key + " and value: " + value);
+                        SASAdapterLogger.d(TAG, "Unparsable reward for key: %s and value: %s", key, value);
                     }
                 }
             }
@@ -134,82 +193,85 @@ public class SASInMobiRewardedVideoAdapter extends SASInMobiAdapterBase implemen
             @Override
             public void onAdClicked(@NonNull InMobiInterstitial inMobiInterstitial, Map<Object, Object> map) {
                 super.onAdClicked(inMobiInterstitial, map);
-                Log.d(TAG, "InMobi onAdClicked for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onAdClicked for rewarded video");
                 rewardedVideoAdapterListener.onAdClicked();
             }
 
             @Override
             public void onRequestPayloadCreated(byte[] bytes) {
                 super.onRequestPayloadCreated(bytes);
-                Log.d(TAG, "InMobi onRequestPayloadCreated for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onRequestPayloadCreated for rewarded video");
             }
 
             @Override
             public void onRequestPayloadCreationFailed(@NonNull InMobiAdRequestStatus inMobiAdRequestStatus) {
                 super.onRequestPayloadCreationFailed(inMobiAdRequestStatus);
-                Log.d(TAG, "InMobi onRequestPayloadCreationFailed for rewarded video");
+                SASAdapterLogger.d(TAG, "InMobi onRequestPayloadCreationFailed for rewarded video");
             }
         };
 
-        inMobiInterstitial = new InMobiInterstitial(context, placementID, interstitialAdEventListener);
+        final InMobiInterstitial interstitial = new InMobiInterstitial(context, placementID, interstitialAdEventListener);
+        inMobiInterstitial = interstitial;
 
         // set request params
-        inMobiInterstitial.setExtras(inMobiParametersMap);
+        interstitial.setExtras(inMobiParametersMap);
 
-        // load interstitial
-        inMobiInterstitial.load();
+        // load interstitial once InMobi SDK is initialized
+        loadWhenInitialized(new Runnable() {
+            @Override
+            public void run() {
+                // wait for a free InMobi load slot, higher priority formats first
+                SASLoadScheduler.getSharedInstance().schedule(NETWORK_NAME, rewardedVideoAdapterListener, new Runnable() {
+                    @Override
+                    public void run() {
+                        // the ad request may have been abandoned while the InMobi SDK was initializing
+                        if (!cancellationToken.isCancelled()) {
+                            interstitial.load();
+                        }
+                    }
+                });
+            }
+        });
 
     }
 
     @Override
     public void showRewardedVideoAd() throws Exception {
-        /*
-         * Methods of the InMobi's InMobiInterstitial
-         * must be called on the Main Thread or they throw an exception.
-         *
-         * So execute them from the Main thread, but wait for the outcome, should they throw
-         * an exception (which will be stored in exceptions array)
-         */
-
-        final SASAdDisplayException[] exceptions = new SASAdDisplayException[1];
-
-        Runnable runnable = new Runnable() {
+        // Methods of the InMobi's InMobiInterstitial must be called on the Main Thread or they throw an exception.
+        // Show without blocking the calling thread, failures are reported to the listener.
+        SASMainThreadTask.execute(new SASMainThreadTask.Task() {
             @Override
-            public void run() {
-                try {
-                    if (inMobiInterstitial != null && inMobiInterstitial.isReady()) {
-                        // regular interstitial case
-                        inMobiInterstitial.show();
-                    } else {
-                        throw new Exception("No InMobi interstitial ad loaded !");
-                    }
-                } catch (Exception e) {
-                    // catch potential Exception and create a SASAdDisplayException containing the message
-                    exceptions[0] = new SASAdDisplayException(e.getMessage());
+            public void run() throws Exception {
+                if (inMobiInterstitial != null && inMobiInterstitial.isReady()) {
+                    inMobiInterstitial.show();
+                } else {
+                    throw new Exception("No InMobi interstitial ad loaded !");
                 }
-
-                synchronized (this) {
-                    this.notify();
+            }
+        }, SASMainThreadTask.DEFAULT_TIMEOUT_MILLIS, new SASMainThreadTask.Listener() {
+            @Override
+            public void onTaskComplete(@Nullable String errorMessage) {
+                if (errorMessage != null && rewardedVideoAdapterListener != null) {
+                    SASAdapterLogger.d(TAG, "InMobi show failed: %s", errorMessage);
+                    rewardedVideoAdapterListener.onRewardedVideoFailedToShow(errorMessage);
                 }
             }
-        };
-
-        // synchronized block to wait runnable execution outcome
-        synchronized (runnable) {
-            SASUtil.getMainLooperHandler().post(runnable);
-            runnable.wait();
-        }
-
-        // if an exception was thrown, re-throw the exception
-        if (exceptions[0] != null) {
-            throw exceptions[0];
-        }
-
-
+        });
     }
 
     @Override
     public void onDestroy() {
-        // Nothing to do here
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        // release the requests waiting for this one, or stop waiting for a concurrent one
+        if (sharedLoad != null) {
+            sharedLoad.onAbandoned();
+        }
+        if (coalescedPlacementKey != null && rewardedVideoAdapterListener != null) {
+            SASRequestCoalescer.getSharedInstance().leave(NETWORK_NAME, coalescedPlacementKey, rewardedVideoAdapterListener);
+        }
+        // InMobi interstitials can not be destroyed, release the reference so that they can be garbage collected
+        inMobiInterstitial = null;
     }
 }
@@ -0,0 +1,68 @@
+package com.smartadserver.android.library.mediation.inmobi;
+
+import androidx.annotation.NonNull;
+
+import com.smartadserver.android.library.mediation.common.SASServerParametersCache;
+
+import java.util.List;
+
+/**
+ * Typed InMobi server parameters, parsed from the "accountID/placementID" String sent by Smart ad delivery
+ */
+class SASInMobiServerParameters {
+
+    // parsed server parameters, by raw String
+    @NonNull
+    private static final SASServerParametersCache<SASInMobiServerParameters> cache =
+            new SASServerParametersCache<>(16, new SASServerParametersCache.Parser<SASInMobiServerParameters>() {
+                @NonNull
+                @Override
+                public SASInMobiServerParameters parse(@NonNull String serverParametersString) {
+                    return new SASInMobiServerParameters(serverParametersString);
+                }
+            });
+
+    @NonNull
+    private final String accountID;
+
+    private final long placementID;
+
+    private SASInMobiServerParameters(@NonNull String serverParametersString) {
+        List<String> fields = SASServerParametersCache.split(serverParametersString, '/');
+        accountID = fields.get(0);
+
+        long placementID = -1;
+        try {
+            placementID = Long.parseLong(SASServerParametersCache.getField(fields, 1, "").trim());
+        } catch (NumberFormatException ignored) {
+        }
+        this.placementID = placementID;
+    }
+
+    /**
+     * Returns the (cached) typed InMobi server parameters for the given raw String
+     */
+    @NonNull
+    static SASInMobiServerParameters parse(@NonNull String serverParametersString) {
+        return cache.get(serverParametersString);
+    }
+
+    @NonNull
+    String getAccountID() {
+        return accountID;
+    }
+
+    /**
+     * Returns the InMobi placement ID, or -1 if invalid
+     */
+    long getPlacementID() {
+        return placementID;
+    }
+
+    /**
+     * Returns whether both account ID and placement ID are correctly set
+     */
+    boolean isValid() {
+        return accountID.length() > 0 && placementID != -1;
+    }
+}
@@ -1,12 +1,14 @@
 package com.smartadserver.android.library.mediation.ogury
 
 import android.content.Context
-import android.util.Log
 import com.ogury.core.OguryError
 import com.ogury.ed.OguryAdListener
 import com.ogury.sdk.Ogury
 import com.ogury.sdk.OguryConfiguration
 import com.smartadserver.android.library.mediation.SASMediationAdapterListener
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
+import com.smartadserver.android.library.mediation.common.SASCancellationToken
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker
 
 /**
  * Base class for Ogury formats adapters
@@ -15,52 +17,81 @@ abstract class SASOguryAdapterBase : OguryAdListener {
 
     companion object {
         private val TAG = SASOguryAdapterBase::class.java.simpleName
+
+        // network name used to track ad requests
+        internal const val NETWORK_NAME = "Ogury"
+
+        // asset key the Ogury SDK was last started with
+        private var startedAssetKey: String? = null
+
+        /**
+         * Starts the Ogury SDK, unless it was already started with the same asset key
+         */
+        @Synchronized
+        private fun startIfNecessary(context: Context, assetKey: String) {
+            if (assetKey != startedAssetKey) {
+                val builder = OguryConfiguration.Builder(context, assetKey)
+                Ogury.start(builder.build())
+                startedAssetKey = assetKey
+            }
+        }
     }
 
     protected var mediationAdapterListener: SASMediationAdapterListener? = null
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    protected var cancellationToken: SASCancellationToken? = null
+
     /**
      * Common configuration code for all formats
+     *
+     * @return false if the server parameters are malformed, in which case the ad request already failed
      */
     protected fun configureAdRequest(
         context: Context,
         serverParametersString: String,
         mediationAdapterListener: SASMediationAdapterListener
-    ) {
+    ): Boolean {
         this.mediationAdapterListener = mediationAdapterListener
 
-        // Init the Ogury SDK ad each call, the API KEY can be different at each call
-        val builder = OguryConfiguration.Builder(context, getAssetKey(serverParametersString))
-        Ogury.start(builder.build())
+        if (!SASOguryServerParameters.parse(serverParametersString).isValid) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(mediationAdapterListener, "The Ogury assetKey and/or adUnitID is not correctly set")
+            return false
+        }
+
+        // Start the Ogury SDK only when the asset key changes, the API KEY can be different at each call
+        startIfNecessary(context, getAssetKey(serverParametersString))
+        return true
     }
 
     /**
      * Utility method to get Ogury Asset Key from serverParametersString
      */
-    private fun getAssetKey(serverParametersString: String) = serverParametersString.split("|")[0]
+    private fun getAssetKey(serverParametersString: String) =
+        SASOguryServerParameters.parse(serverParametersString).assetKey
 
     /**
      * Utility method to get Ogury AdUnit ID from serverParametersString
      */
-    fun getAdUnitID(serverParametersString: String) = serverParametersString.split("|")
-        .getOrElse(1) { "" }
+    fun getAdUnitID(serverParametersString: String) =
+        SASOguryServerParameters.parse(serverParametersString).adUnitID
 
     override fun onAdDisplayed() {
-        Log.d(TAG, "Ogury listener onAdDisplayed")
+        SASAdapterLogger.d(TAG, "Ogury listener onAdDisplayed")
     }
 
     override fun onAdClicked() {
-        Log.d(TAG, "Ogury listener onAdClicked")
+        SASAdapterLogger.d(TAG, "Ogury listener onAdClicked")
         mediationAdapterListener?.onAdClicked()
     }
 
     override fun onAdClosed() {
-        Log.d(TAG, "Ogury listener onAdClosed")
+        SASAdapterLogger.d(TAG, "Ogury listener onAdClosed")
         mediationAdapterListener?.onAdClosed()
     }
 
     override fun onAdError(error: OguryError?) {
-        Log.d(TAG, "Ogury listener onAdError: $error")
+        SASAdapterLogger.d(TAG, "Ogury listener onAdError: %s", error)
 
         /**
          * From Ogury documentation :
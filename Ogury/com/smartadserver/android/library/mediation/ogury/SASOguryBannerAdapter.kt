@@ -1,12 +1,16 @@
 package com.smartadserver.android.library.mediation.ogury
 
 import android.content.Context
-import android.util.Log
 import com.ogury.ed.OguryBannerAdListener
 import com.ogury.ed.OguryBannerAdSize
 import com.ogury.ed.OguryBannerAdView
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapter
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapterListener
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts
+import com.smartadserver.android.library.mediation.common.SASCancellationToken
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker
 
 /**
  *  Mediation adapter class for Ogury banner ad format
@@ -24,12 +28,29 @@ class SASOguryBannerAdapter : SASOguryAdapterBase(), SASMediationBannerAdapter,
         context: Context,
         serverParametersString: String,
         clientParameters: MutableMap<String, Any>,
-        bannerAdapterListener: SASMediationBannerAdapterListener
+        adapterListener: SASMediationBannerAdapterListener
     ) {
-        Log.d(TAG, "SASOguryBannerAdapter adRequest")
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        val bannerAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener)
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, bannerAdapterListener)) {
+            return
+        }
+
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(bannerAdapterListener)
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, bannerAdapterListener) { onDestroy() }
+
+        SASAdapterLogger.d(TAG, "SASOguryBannerAdapter adRequest")
 
         // Common configuration
-        configureAdRequest(context, serverParametersString, bannerAdapterListener)
+        if (!configureAdRequest(context, serverParametersString, bannerAdapterListener)) {
+            return
+        }
 
         bannerAdView = OguryBannerAdView(context).apply {
             setListener(this@SASOguryBannerAdapter)
@@ -41,13 +62,17 @@ class SASOguryBannerAdapter : SASOguryAdapterBase(), SASMediationBannerAdapter,
     }
 
     private fun getBannerAdSize(serverParametersString: String) =
-        when (serverParametersString.split("|").getOrElse(2){"0"}) {
-            "1" -> OguryBannerAdSize.MPU_300x250
+        when (SASOguryServerParameters.parse(serverParametersString).bannerSizeIndex) {
+            1 -> OguryBannerAdSize.MPU_300x250
             else -> OguryBannerAdSize.SMALL_BANNER_320x50
         }
 
     override fun onAdLoaded() {
-        Log.d(TAG, "Ogury banner listener onAdLoaded")
+        SASAdapterLogger.d(TAG, "Ogury banner listener onAdLoaded")
+        if (cancellationToken?.isCancelled == true) {
+            // abandoned ad request
+            return
+        }
 
         bannerAdView?.let {
             (mediationAdapterListener as? SASMediationBannerAdapterListener)?.onBannerLoaded(it)
@@ -55,6 +80,7 @@ class SASOguryBannerAdapter : SASOguryAdapterBase(), SASMediationBannerAdapter,
     }
 
     override fun onDestroy() {
+        cancellationToken?.cancel()
         bannerAdView?.destroy()
         bannerAdView = null
     }
@@ -1,11 +1,15 @@
 package com.smartadserver.android.library.mediation.ogury
 
 import android.content.Context
-import android.util.Log
 import com.ogury.ed.OguryInterstitialAd
 import com.ogury.ed.OguryInterstitialAdListener
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapter
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts
+import com.smartadserver.android.library.mediation.common.SASCancellationToken
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker
 
 class SASOguryInterstitialAdapter : SASOguryAdapterBase(), SASMediationInterstitialAdapter,
     OguryInterstitialAdListener {
@@ -21,19 +25,36 @@ class SASOguryInterstitialAdapter : SASOguryAdapterBase(), SASMediationInterstit
      * @param serverParametersString      a String containing all needed parameters (as returned by Smart ad delivery)
      *                                    to make the mediation ad call
      * @param clientParameters            additional client-side parameters (user specific, like location)
-     * @param interstitialAdapterListener the {@link SASMediationInterstitialAdapterListener} provided to
+     * @param adapterListener             the {@link SASMediationInterstitialAdapterListener} provided to
      *                                    this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
      */
     override fun requestInterstitialAd(
         context: Context,
         serverParametersString: String,
         clientParameters: MutableMap<String, Any>,
-        interstitialAdapterListener: SASMediationInterstitialAdapterListener
+        adapterListener: SASMediationInterstitialAdapterListener
     ) {
-        Log.d(TAG, "SASOguryInterstitialAdapter adRequest")
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        val interstitialAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener)
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, interstitialAdapterListener)) {
+            return
+        }
+
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(interstitialAdapterListener)
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, interstitialAdapterListener) { onDestroy() }
+
+        SASAdapterLogger.d(TAG, "SASOguryInterstitialAdapter adRequest")
 
         // Common configuration
-        configureAdRequest(context, serverParametersString, interstitialAdapterListener)
+        if (!configureAdRequest(context, serverParametersString, interstitialAdapterListener)) {
+            return
+        }
 
         // Instantiate the Presage interstitial
         oguryInterstitial = OguryInterstitialAd(context, getAdUnitID(serverParametersString)).apply {
@@ -43,7 +64,11 @@ class SASOguryInterstitialAdapter : SASOguryAdapterBase(), SASMediationInterstit
     }
 
     override fun onAdLoaded() {
-        Log.d(TAG, "Ogury interstitial onAdLoaded")
+        SASAdapterLogger.d(TAG, "Ogury interstitial onAdLoaded")
+        if (cancellationToken?.isCancelled == true) {
+            // abandoned ad request
+            return
+        }
         (mediationAdapterListener as? SASMediationInterstitialAdapterListener)?.onInterstitialLoaded()
     }
 
@@ -61,6 +86,9 @@ class SASOguryInterstitialAdapter : SASOguryAdapterBase(), SASMediationInterstit
     }
 
     override fun onDestroy() {
+        cancellationToken?.cancel()
+        // the Ogury SDK can not abort a load, stop listening to it instead
+        oguryInterstitial?.setListener(null)
         oguryInterstitial = null
     }
 
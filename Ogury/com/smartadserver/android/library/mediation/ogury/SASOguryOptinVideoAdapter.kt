@@ -1,12 +1,16 @@
 package com.smartadserver.android.library.mediation.ogury
 
 import android.content.Context
-import android.util.Log
 import com.ogury.ed.OguryOptinVideoAd
 import com.ogury.ed.OguryOptinVideoAdListener
 import com.ogury.ed.OguryReward
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapter
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts
+import com.smartadserver.android.library.mediation.common.SASCancellationToken
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker
 import com.smartadserver.android.library.model.SASReward
 
 class SASOguryOptinVideoAdapter : SASOguryAdapterBase(), SASMediationRewardedVideoAdapter,
@@ -23,19 +27,36 @@ class SASOguryOptinVideoAdapter : SASOguryAdapterBase(), SASMediationRewardedVid
      * @param serverParametersString      a String containing all needed parameters (as returned by Smart ad delivery)
      *                                    to make the mediation ad call
      * @param clientParameters            additional client-side parameters (user specific, like location)
-     * @param rewardedVideoAdapterListener the {@link SASMediationRewardedVideoAdapterListener} provided to
+     * @param adapterListener              the {@link SASMediationRewardedVideoAdapterListener} provided to
      *                                    this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
      */
     override fun requestRewardedVideoAd(
         context: Context,
         serverParametersString: String,
         clientParameters: MutableMap<String, Any>,
-        rewardedVideoAdapterListener: SASMediationRewardedVideoAdapterListener
+        adapterListener: SASMediationRewardedVideoAdapterListener
     ) {
-        Log.d(TAG, "SASOguryOptinVideoAdapter adRequest")
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        val rewardedVideoAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener)
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, rewardedVideoAdapterListener)) {
+            return
+        }
+
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(rewardedVideoAdapterListener)
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, rewardedVideoAdapterListener) { onDestroy() }
+
+        SASAdapterLogger.d(TAG, "SASOguryOptinVideoAdapter adRequest")
 
         // Common configuration
-        configureAdRequest(context, serverParametersString, rewardedVideoAdapterListener)
+        if (!configureAdRequest(context, serverParametersString, rewardedVideoAdapterListener)) {
+            return
+        }
 
         // Instantiate the optin interstitial
         optinVideoAd = OguryOptinVideoAd(context, getAdUnitID(serverParametersString)).apply {
@@ -53,7 +74,11 @@ class SASOguryOptinVideoAdapter : SASOguryAdapterBase(), SASMediationRewardedVid
     }
 
     override fun onAdLoaded() {
-        Log.d(TAG, "Ogury optin video onAdLoaded")
+        SASAdapterLogger.d(TAG, "Ogury optin video onAdLoaded")
+        if (cancellationToken?.isCancelled == true) {
+            // abandoned ad request
+            return
+        }
         (mediationAdapterListener as? SASMediationRewardedVideoAdapterListener)?.onRewardedVideoLoaded()
     }
 
@@ -63,7 +88,7 @@ class SASOguryOptinVideoAdapter : SASOguryAdapterBase(), SASMediationRewardedVid
     }
 
     override fun onAdRewarded(reward: OguryReward?) {
-        Log.d(TAG, "OguryOptinVideoAdListener onAdRewarded")
+        SASAdapterLogger.d(TAG, "OguryOptinVideoAdListener onAdRewarded")
 
         // Notify Smart SDK of earned reward, if reward is numerical
         reward?.let { oguryReward ->
@@ -76,6 +101,9 @@ class SASOguryOptinVideoAdapter : SASOguryAdapterBase(), SASMediationRewardedVid
     }
 
     override fun onDestroy() {
+        cancellationToken?.cancel()
+        // the Ogury SDK can not abort a load, stop listening to it instead
+        optinVideoAd?.setListener(null)
         optinVideoAd = null
     }
 
@@ -0,0 +1,48 @@
+package com.smartadserver.android.library.mediation.ogury
+
+import com.smartadserver.android.library.mediation.common.SASServerParametersCache
+
+/**
+ * Typed Ogury server parameters, parsed from the "assetKey|adUnitID[|...]" String sent by Smart ad delivery.
+ * Banners add a size index as third field, thumbnails add max width, max height, left and top margins.
+ */
+internal class SASOguryServerParameters private constructor(serverParametersString: String) {
+    val assetKey: String
+    val adUnitID: String
+
+    // banner size index (only for banners), 0 by default
+    val bannerSizeIndex: Int
+
+    // max width, max height, left margin and top margin (only for thumbnails), all 0 by default
+    val thumbnailSizeParameters: Array<Int>
+
+    init {
+        val fields = SASServerParametersCache.split(serverParametersString, '|')
+        assetKey = fields[0]
+        adUnitID = SASServerParametersCache.getField(fields, 1, "")
+        bannerSizeIndex = SASServerParametersCache.getIntField(fields, 2, 0)
+        thumbnailSizeParameters = if (fields.size >= 6) {
+            Array(4) { SASServerParametersCache.getIntField(fields, it + 2, 0) }
+        } else {
+            arrayOf(0, 0, 0, 0)
+        }
+    }
+
+    /**
+     * Whether both asset key and ad unit ID are correctly set
+     */
+    val isValid: Boolean
+        get() = assetKey.isNotEmpty() && adUnitID.isNotEmpty()
+
+    companion object {
+        // parsed server parameters, by raw String
+        private val cache = SASServerParametersCache<SASOguryServerParameters>(16) {
+            SASOguryServerParameters(it)
+        }
+
+        /**
+         * Returns the (cached) typed Ogury server parameters for the given raw String
+         */
+        fun parse(serverParametersString: String) = cache.get(serverParametersString)
+    }
+}
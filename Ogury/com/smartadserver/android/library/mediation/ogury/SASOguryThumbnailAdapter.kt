@@ -2,12 +2,16 @@ package com.smartadserver.android.library.mediation.ogury
 
 import android.app.Activity
 import android.content.Context
-import android.util.Log
 import android.widget.FrameLayout
 import com.ogury.ed.OguryThumbnailAd
 import com.ogury.ed.OguryThumbnailAdListener
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapter
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapterListener
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts
+import com.smartadserver.android.library.mediation.common.SASCancellationToken
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker
 
 /**
  * Mediation adapter class for Ogury Thumbnail format
@@ -27,12 +31,29 @@ class SASOguryThumbnailAdapter : SASOguryAdapterBase(), SASMediationBannerAdapte
         context: Context,
         serverParametersString: String,
         clientParameters: MutableMap<String, Any>,
-        bannerAdapterListener: SASMediationBannerAdapterListener
+        adapterListener: SASMediationBannerAdapterListener
     ) {
-        Log.d(TAG, "SASOguryThumbnailAdapter adRequest")
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        val bannerAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener)
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, bannerAdapterListener)) {
+            return
+        }
+
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(bannerAdapterListener)
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, bannerAdapterListener) { onDestroy() }
+
+        SASAdapterLogger.d(TAG, "SASOguryThumbnailAdapter adRequest")
 
         // Common configuration
-        configureAdRequest(context, serverParametersString, bannerAdapterListener)
+        if (!configureAdRequest(context, serverParametersString, bannerAdapterListener)) {
+            return
+        }
 
         // Loading the thumbnail
         thumbnailAd = OguryThumbnailAd(context, getAdUnitID(serverParametersString)).apply {
@@ -61,29 +82,25 @@ class SASOguryThumbnailAdapter : SASOguryAdapterBase(), SASMediationBannerAdapte
     }
 
     private fun getThumbnailAdSize(serverParametersString: String) =
-        serverParametersString.split("|")
-            .let { parameters ->
-                if (parameters.count() >= 6) {
-                    arrayOf(
-                        parameters[2].toInt(),
-                        parameters[3].toInt(),
-                        parameters[4].toInt(),
-                        parameters[5].toInt()
-                    )
-                } else {
-                    arrayOf(0, 0, 0, 0)
-                }
-            }
+        SASOguryServerParameters.parse(serverParametersString).thumbnailSizeParameters
 
     override fun onAdLoaded() {
-        Log.d(TAG, "Ogury thumbnail onAdLoaded")
+        SASAdapterLogger.d(TAG, "Ogury thumbnail onAdLoaded")
+        if (cancellationToken?.isCancelled == true) {
+            // abandoned ad request
+            return
+        }
         dummyBanner?.let {
             (mediationAdapterListener as? SASMediationBannerAdapterListener)?.onBannerLoaded(it)
         }
     }
 
     override fun onDestroy() {
+        cancellationToken?.cancel()
+        // the Ogury SDK can not abort a load, stop listening to it instead
+        thumbnailAd?.setListener(null)
         thumbnailAd = null
+        dummyBanner = null
     }
 
 }
\ No newline at end of file
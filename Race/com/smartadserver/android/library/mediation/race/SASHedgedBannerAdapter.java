@@ -0,0 +1,13 @@
+package com.smartadserver.android.library.mediation.race;
+
+/**
+ * Mediation adapter class hedging a primary banner adapter with backup ones, each started only when the
+ * previous one is slower than usual, the first fill being served
+ */
+public class SASHedgedBannerAdapter extends SASRaceBannerAdapter {
+
+    @Override
+    protected boolean isHedged() {
+        return true;
+    }
+}
@@ -0,0 +1,527 @@
+package com.smartadserver.android.library.mediation.race;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationAdapter;
+import com.smartadserver.android.library.mediation.SASMediationAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdFormat;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetricsSnapshot;
+import com.smartadserver.android.library.mediation.common.SASAdapterRequestTracker;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.util.SASUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Race mediation adapter base class: fans one ad request out to several child adapters and serves
+ * the first fill, or the highest priority fill within the race latency window, destroying the losers.
+ * <p>
+ * Hedged adapters only start the next child adapter once the previous one neither loaded nor failed within
+ * a percentile of its recorded latency, serving the first fill.
+ */
+public abstract class SASRaceAdapterBase<A extends SASMediationAdapter> implements SASMediationAdapter {
+
+    // tag for logging purposes
+    private static final String TAG = SASRaceAdapterBase.class.getSimpleName();
+
+    // network names of race and hedged ad requests, for metrics purposes
+    static final String NETWORK_NAME = "Race";
+    static final String HEDGE_NETWORK_NAME = "Hedge";
+
+    // completed ad requests of a child adapter needed before its latency history drives the hedging delay
+    private static final int MIN_HEDGE_HISTORY = 20;
+
+    /**
+     * Load state of a child adapter
+     */
+    private enum ChildState {
+        WAITING, PENDING, LOADED, FAILED
+    }
+
+    // child adapters, by decreasing priority, their load states and request trackers
+    @NonNull
+    private final List<A> children = new ArrayList<>();
+    @NonNull
+    private ChildState[] childStates = new ChildState[0];
+    @NonNull
+    private SASAdapterRequestTracker[] childTrackers = new SASAdapterRequestTracker[0];
+
+    // parameters of the ad request, passed to the child adapters when they start
+    @Nullable
+    private Context context;
+    @NonNull
+    private final List<String> childServerParameters = new ArrayList<>();
+    @Nullable
+    private Map<String, Object> clientParameters;
+    @NonNull
+    private SASAdFormat adFormat = SASAdFormat.INTERSTITIAL;
+    @Nullable
+    private SASRaceServerParameters serverParameters;
+
+    // listener of the race ad request
+    @Nullable
+    private SASMediationAdapterListener raceListener;
+
+    // cancelled on destroy, so that the children callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
+    // latency window, and its pending timer if any
+    private long windowMillis;
+    private boolean windowElapsed;
+    @Nullable
+    private Runnable windowRunnable;
+
+    // pending start of the next hedged child adapter, if any, guarded by this adapter lock like the window timer
+    @Nullable
+    private Runnable hedgeRunnable;
+
+    // failure details, and whether every child failed with no fill
+    @NonNull
+    private final StringBuilder failureMessages = new StringBuilder();
+    private boolean allNoFill = true;
+
+    // index of the winning child, -1 while the race is not decided
+    private int winnerIndex = -1;
+    private boolean finished;
+
+    /**
+     * Returns whether the child adapters are hedged (started one after another) rather than raced (all started at once)
+     */
+    protected boolean isHedged() {
+        return false;
+    }
+
+    /**
+     * Returns the network name of the ad requests of this adapter, for metrics purposes
+     */
+    @NonNull
+    protected String getNetworkName() {
+        return isHedged() ? HEDGE_NETWORK_NAME : NETWORK_NAME;
+    }
+
+    /**
+     * Starts the race: instantiates every child adapter set in the server parameters and requests them by priority
+     *
+     * @param adapterType the mediation adapter interface of the requested format
+     */
+    protected void startRace(@NonNull Context context,
+                             @NonNull String serverParametersString,
+                             @NonNull Map<String, Object> clientParameters,
+                             @NonNull Class<A> adapterType,
+                             @NonNull SASAdFormat adFormat,
+                             @NonNull SASMediationAdapterListener raceListener) {
+
+        SASRaceServerParameters serverParameters = SASRaceServerParameters.parse(serverParametersString);
+        if (!serverParameters.isValid()) {
+            raceListener.adRequestFailed("The race adapters are not correctly set", false);
+            return;
+        }
+
+        // instantiate the child adapters, skipping the ones that are not available in this application
+        List<A> children = new ArrayList<>();
+        List<String> childServerParameters = new ArrayList<>();
+        for (SASRaceServerParameters.Child child : serverParameters.getChildren()) {
+            A adapter = instantiate(child.getClassName(), adapterType);
+            if (adapter != null) {
+                children.add(adapter);
+                childServerParameters.add(child.getServerParametersString());
+            }
+        }
+        if (children.isEmpty()) {
+            raceListener.adRequestFailed("None of the race adapters is available", false);
+            return;
+        }
+
+        synchronized (this) {
+            this.context = context;
+            this.clientParameters = clientParameters;
+            this.adFormat = adFormat;
+            this.serverParameters = serverParameters;
+            this.raceListener = raceListener;
+            this.cancellationToken = SASCancellationToken.create(raceListener);
+            // a hedged ad request serves the first fill
+            this.windowMillis = isHedged() ? 0 : serverParameters.getWindowMillis();
+            this.children.addAll(children);
+            this.childServerParameters.addAll(childServerParameters);
+            this.childStates = new ChildState[children.size()];
+            this.childTrackers = new SASAdapterRequestTracker[children.size()];
+            for (int i = 0; i < childStates.length; i++) {
+                childStates[i] = ChildState.WAITING;
+            }
+        }
+
+        if (isHedged()) {
+            SASAdapterLogger.d(TAG, "Hedging of %s adapters", children.size());
+            startChild(0);
+        } else {
+            SASAdapterLogger.d(TAG, "Race of %s adapters, window %sms", children.size(), windowMillis);
+            for (int i = 0; i < children.size(); i++) {
+                startChild(i);
+            }
+        }
+    }
+
+    @Nullable
+    private A instantiate(@NonNull String className, @NonNull Class<A> adapterType) {
+        try {
+            Class<?> adapterClass = Class.forName(className);
+            if (!adapterType.isAssignableFrom(adapterClass)) {
+                SASAdapterLogger.d(TAG, "Race adapter %s is not a %s, skipped", className, adapterType.getSimpleName());
+                return null;
+            }
+            return adapterType.cast(adapterClass.getDeclaredConstructor().newInstance());
+        } catch (Exception e) {
+            SASAdapterLogger.d(TAG, "Race adapter %s can not be instantiated (%s), skipped", className, e);
+            return null;
+        }
+    }
+
+    private void startChild(final int childIndex) {
+        A child;
+        Context context;
+        Map<String, Object> clientParameters;
+        synchronized (this) {
+            // a child may answer synchronously, no need to request the next ones once the race is decided
+            if (finished || childStates[childIndex] != ChildState.WAITING || this.context == null || this.clientParameters == null) {
+                return;
+            }
+            childStates[childIndex] = ChildState.PENDING;
+            child = children.get(childIndex);
+            childTrackers[childIndex] = SASAdapterMetrics.getSharedInstance().startRequest(getHistoryName(childIndex), adFormat);
+            context = this.context;
+            clientParameters = this.clientParameters;
+        }
+
+        try {
+            requestChildAd(child, context, childServerParameters.get(childIndex), clientParameters, childIndex);
+        } catch (Exception e) {
+            onChildFailed(childIndex, "Race adapter " + child.getClass().getSimpleName() + " threw " + e, false);
+        }
+
+        if (isHedged() && childIndex + 1 < children.size()) {
+            // start the next child if this one is slower than usual
+            Runnable hedgeRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    startChild(childIndex + 1);
+                }
+            };
+            long hedgeDelayMillis = getHedgeDelayMillis(childIndex);
+            synchronized (this) {
+                if (finished || childStates[childIndex + 1] != ChildState.WAITING) {
+                    return;
+                }
+                this.hedgeRunnable = hedgeRunnable;
+            }
+            SASAdapterLogger.d(TAG, "Hedging %s after %sms", children.get(childIndex + 1).getClass().getSimpleName(), hedgeDelayMillis);
+            SASUtil.getMainLooperHandler().postDelayed(hedgeRunnable, hedgeDelayMillis);
+        }
+    }
+
+    // metrics network name of the given child adapter, its latency history driving the hedging delay
+    @NonNull
+    private String getHistoryName(int childIndex) {
+        return getNetworkName() + "/" + children.get(childIndex).getClass().getSimpleName();
+    }
+
+    // returns the configured percentile of the child adapter latency, or the configured delay while its history is too short
+    private long getHedgeDelayMillis(int childIndex) {
+        SASRaceServerParameters serverParameters = this.serverParameters;
+        if (serverParameters == null) {
+            return SASRaceServerParameters.DEFAULT_HEDGE_DELAY_MILLIS;
+        }
+        String historyName = getHistoryName(childIndex);
+        SASAdapterMetricsSnapshot history = SASAdapterMetrics.getSharedInstance().getSnapshot(historyName, adFormat);
+        long completedCount = history.getFillCount() + history.getNoFillCount() + history.getErrorCount();
+        if (completedCount < MIN_HEDGE_HISTORY) {
+            return serverParameters.getHedgeDelayMillis();
+        }
+        return SASAdapterMetrics.getSharedInstance().getLatencyPercentileMillis(historyName, adFormat, serverParameters.getHedgePercentile());
+    }
+
+    /**
+     * Requests an ad to the given child adapter, reporting its outcome with {@link #onChildLoaded(int)} and
+     * {@link #onChildFailed(int, String, boolean)}
+     */
+    protected abstract void requestChildAd(@NonNull A adapter,
+                                           @NonNull Context context,
+                                           @NonNull String serverParametersString,
+                                           @NonNull Map<String, Object> clientParameters,
+                                           int childIndex);
+
+    /**
+     * Notifies the race listener that the given child adapter won the race
+     */
+    protected abstract void onRaceWon(int childIndex);
+
+    /**
+     * To be called when the given child adapter loaded an ad
+     */
+    protected void onChildLoaded(int childIndex) {
+        Runnable startWindowRunnable = null;
+        int winner;
+        synchronized (this) {
+            if (finished || childStates[childIndex] != ChildState.PENDING) {
+                return;
+            }
+            childStates[childIndex] = ChildState.LOADED;
+            childTrackers[childIndex].onAdLoaded();
+            winner = pickWinner();
+            if (winner >= 0) {
+                finish(winner);
+            } else if (windowRunnable == null) {
+                // first fill, wait a bit for higher priority adapters still loading
+                windowRunnable = new Runnable() {
+                    @Override
+                    public void run() {
+                        onWindowElapsed();
+                    }
+                };
+                startWindowRunnable = windowRunnable;
+            }
+        }
+        if (winner >= 0) {
+            concludeWon(winner);
+        } else if (startWindowRunnable != null) {
+            SASUtil.getMainLooperHandler().postDelayed(startWindowRunnable, windowMillis);
+        }
+    }
+
+    /**
+     * To be called when the given child adapter failed to load an ad
+     */
+    protected void onChildFailed(int childIndex, @NonNull String errorMessage, boolean isNoAd) {
+        int winner;
+        boolean allFailed;
+        int nextChildIndex = -1;
+        Runnable cancelledHedgeRunnable = null;
+        synchronized (this) {
+            if (finished || childStates[childIndex] != ChildState.PENDING) {
+                return;
+            }
+            childStates[childIndex] = ChildState.FAILED;
+            childTrackers[childIndex].onAdRequestFailed(isNoAd);
+            if (failureMessages.length() > 0) {
+                failureMessages.append(", ");
+            }
+            failureMessages.append(children.get(childIndex).getClass().getSimpleName()).append(": ").append(errorMessage);
+            allNoFill &= isNoAd;
+            winner = pickWinner();
+            allFailed = winner < 0 && !hasChild(ChildState.PENDING) && !hasChild(ChildState.WAITING) && !hasChild(ChildState.LOADED);
+            if (winner >= 0 || allFailed) {
+                finish(winner);
+            } else if (!hasChild(ChildState.PENDING)) {
+                // no hedged child left loading, start the next one right away
+                nextChildIndex = indexOf(ChildState.WAITING);
+                cancelledHedgeRunnable = hedgeRunnable;
+                hedgeRunnable = null;
+            }
+        }
+        if (winner >= 0) {
+            concludeWon(winner);
+        } else if (allFailed) {
+            concludeFailed();
+        } else if (nextChildIndex >= 0) {
+            if (cancelledHedgeRunnable != null) {
+                SASUtil.getMainLooperHandler().removeCallbacks(cancelledHedgeRunnable);
+            }
+            startChild(nextChildIndex);
+        }
+    }
+
+    private void onWindowElapsed() {
+        int winner;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            windowElapsed = true;
+            winner = pickWinner();
+            if (winner < 0) {
+                return;
+            }
+            finish(winner);
+        }
+        concludeWon(winner);
+    }
+
+    // returns the highest priority loaded child that can win now, -1 if none
+    private int pickWinner() {
+        boolean firstFillWins = windowMillis == 0 || windowElapsed;
+        for (int i = 0; i < childStates.length; i++) {
+            if (childStates[i] == ChildState.LOADED) {
+                return i;
+            }
+            if (childStates[i] == ChildState.PENDING && !firstFillWins) {
+                // a higher priority child may still fill
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private boolean hasChild(@NonNull ChildState state) {
+        return indexOf(state) >= 0;
+    }
+
+    private int indexOf(@NonNull ChildState state) {
+        for (int i = 0; i < childStates.length; i++) {
+            if (childStates[i] == state) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void finish(int winner) {
+        finished = true;
+        winnerIndex = winner;
+        // the children still loading are abandoned, their elapsed time being recorded as a lower bound of their latency
+        // so that the hedging delays are not computed from the fast requests only
+        for (int i = 0; i < childStates.length; i++) {
+            if (childStates[i] == ChildState.PENDING) {
+                childTrackers[i].onAdRequestCancelled(true);
+            }
+        }
+    }
+
+    private void cancelTimers() {
+        Runnable windowRunnable;
+        Runnable hedgeRunnable;
+        synchronized (this) {
+            windowRunnable = this.windowRunnable;
+            hedgeRunnable = this.hedgeRunnable;
+            this.hedgeRunnable = null;
+        }
+        if (windowRunnable != null) {
+            SASUtil.getMainLooperHandler().removeCallbacks(windowRunnable);
+        }
+        if (hedgeRunnable != null) {
+            SASUtil.getMainLooperHandler().removeCallbacks(hedgeRunnable);
+        }
+    }
+
+    private void concludeWon(int winner) {
+        cancelTimers();
+        SASAdapterLogger.d(TAG, "Race won by %s", children.get(winner).getClass().getSimpleName());
+
+        // the losers will never be shown, release them
+        for (int i = 0; i < children.size(); i++) {
+            if (i != winner) {
+                destroyChild(children.get(i));
+            }
+        }
+        onRaceWon(winner);
+    }
+
+    private void concludeFailed() {
+        cancelTimers();
+        for (A child : children) {
+            destroyChild(child);
+        }
+        SASMediationAdapterListener raceListener = this.raceListener;
+        if (raceListener != null) {
+            raceListener.adRequestFailed("All race adapters failed (" + failureMessages + ")", allNoFill);
+        }
+    }
+
+    private void destroyChild(@NonNull final A child) {
+        SASUtil.getMainLooperHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                child.onDestroy();
+            }
+        });
+    }
+
+    /**
+     * Returns whether the given child adapter won the race, in which case its callbacks are forwarded
+     */
+    protected synchronized boolean isWinner(int childIndex) {
+        return winnerIndex == childIndex && (cancellationToken == null || !cancellationToken.isCancelled());
+    }
+
+    /**
+     * Returns the child adapter which won the race, if any
+     */
+    @Nullable
+    protected synchronized A getWinner() {
+        return winnerIndex >= 0 ? children.get(winnerIndex) : null;
+    }
+
+    @Override
+    public void onDestroy() {
+        List<A> children = new ArrayList<>();
+        synchronized (this) {
+            if (cancellationToken != null) {
+                cancellationToken.cancel();
+            }
+            if (winnerIndex >= 0) {
+                // the losers are already destroyed
+                children.add(this.children.get(winnerIndex));
+            } else if (!finished) {
+                children.addAll(this.children);
+                finish(-1);
+            }
+            finished = true;
+            context = null;
+        }
+        cancelTimers();
+        for (A child : children) {
+            child.onDestroy();
+        }
+    }
+
+    /**
+     * Child adapter listener forwarding the common callbacks of the race winner
+     */
+    protected class ChildListener implements SASMediationAdapterListener {
+
+        protected final int childIndex;
+
+        protected ChildListener(int childIndex) {
+            this.childIndex = childIndex;
+        }
+
+        @Override
+        public void adRequestFailed(String errorMessage, boolean isNoAd) {
+            onChildFailed(childIndex, errorMessage != null ? errorMessage : "", isNoAd);
+        }
+
+        @Override
+        public void onAdClicked() {
+            if (isWinner(childIndex) && raceListener != null) {
+                raceListener.onAdClicked();
+            }
+        }
+
+        @Override
+        public void onAdFullScreen() {
+            if (isWinner(childIndex) && raceListener != null) {
+                raceListener.onAdFullScreen();
+            }
+        }
+
+        @Override
+        public void onAdClosed() {
+            if (isWinner(childIndex) && raceListener != null) {
+                raceListener.onAdClosed();
+            }
+        }
+
+        @Override
+        public void onAdLeftApplication() {
+            if (isWinner(childIndex) && raceListener != null) {
+                raceListener.onAdLeftApplication();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartadserver.android.library.mediation.race;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationBannerAdapter;
+import com.smartadserver.android.library.mediation.SASMediationBannerAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdFormat;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mediation adapter class racing several banner adapters
+ */
+public class SASRaceBannerAdapter extends SASRaceAdapterBase<SASMediationBannerAdapter> implements SASMediationBannerAdapter {
+
+    @Nullable
+    private SASMediationBannerAdapterListener bannerAdapterListener;
+
+    // loaded banner views, by child index
+    @NonNull
+    private final Map<Integer, View> bannerViews = new ConcurrentHashMap<>();
+
+    /**
+     * @param context                     The {@link Context} needed by the mediation SDK to make the ad request.
+     * @param serverParametersString      a String containing all needed parameters (as returned by Smart ad delivery) to make the mediation ad call.
+     * @param clientParameters            additional client-side parameters (user specific, like location).
+     * @param adapterListener             the {@link SASMediationBannerAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify the Smart SDK of events
+     */
+    @Override
+    public void requestBannerAd(@NonNull Context context,
+                                @NonNull String serverParametersString,
+                                @NonNull Map<String, Object> clientParameters,
+                                @NonNull SASMediationBannerAdapterListener adapterListener) {
+
+        // track the race (or hedging) latency and outcome, only the first terminal callback is forwarded
+        bannerAdapterListener = SASAdapterMetrics.getSharedInstance().track(getNetworkName(), adapterListener);
+
+        startRace(context, serverParametersString, clientParameters, SASMediationBannerAdapter.class, SASAdFormat.BANNER, bannerAdapterListener);
+    }
+
+    @Override
+    protected void requestChildAd(@NonNull SASMediationBannerAdapter adapter,
+                                  @NonNull Context context,
+                                  @NonNull String serverParametersString,
+                                  @NonNull Map<String, Object> clientParameters,
+                                  int childIndex) {
+        adapter.requestBannerAd(context, serverParametersString, clientParameters, new BannerChildListener(childIndex));
+    }
+
+    @Override
+    protected void onRaceWon(int childIndex) {
+        View bannerView = bannerViews.get(childIndex);
+        // the losers views are released with their adapters
+        bannerViews.clear();
+        if (bannerAdapterListener != null) {
+            bannerAdapterListener.onBannerLoaded(bannerView);
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        bannerViews.clear();
+    }
+
+    /**
+     * Banner child adapter listener
+     */
+    private class BannerChildListener extends ChildListener implements SASMediationBannerAdapterListener {
+
+        BannerChildListener(int childIndex) {
+            super(childIndex);
+        }
+
+        @Override
+        public void onBannerLoaded(View bannerView) {
+            if (bannerView == null) {
+                adRequestFailed("Race banner adapter loaded no view", false);
+                return;
+            }
+            bannerViews.put(childIndex, bannerView);
+            onChildLoaded(childIndex);
+        }
+    }
+}
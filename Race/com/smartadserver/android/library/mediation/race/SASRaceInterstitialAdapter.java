@@ -0,0 +1,98 @@
+package com.smartadserver.android.library.mediation.race;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapter;
+import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdFormat;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+
+import java.util.Map;
+
+/**
+ * Mediation adapter class racing several interstitial adapters
+ */
+public class SASRaceInterstitialAdapter extends SASRaceAdapterBase<SASMediationInterstitialAdapter> implements SASMediationInterstitialAdapter {
+
+    @Nullable
+    private SASMediationInterstitialAdapterListener interstitialAdapterListener;
+
+    /**
+     * Requests a mediated interstitial ad asynchronously
+     *
+     * @param context                     the {@link android.content.Context} needed by the mediation SDK to make the ad request
+     * @param serverParametersString      a String containing all needed parameters (as returned by Smart ad delivery)
+     *                                    to make the mediation ad call
+     * @param clientParameters            additional client-side parameters (user specific, like location)
+     * @param adapterListener             the {@link SASMediationInterstitialAdapterListener} provided to
+     *                                    this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
+     */
+    @Override
+    public void requestInterstitialAd(@NonNull Context context,
+                                      @NonNull String serverParametersString,
+                                      @NonNull Map<String, Object> clientParameters,
+                                      @NonNull SASMediationInterstitialAdapterListener adapterListener) {
+
+        // track the race (or hedging) latency and outcome, only the first terminal callback is forwarded
+        interstitialAdapterListener = SASAdapterMetrics.getSharedInstance().track(getNetworkName(), adapterListener);
+
+        startRace(context, serverParametersString, clientParameters, SASMediationInterstitialAdapter.class, SASAdFormat.INTERSTITIAL, interstitialAdapterListener);
+    }
+
+    @Override
+    protected void requestChildAd(@NonNull SASMediationInterstitialAdapter adapter,
+                                  @NonNull Context context,
+                                  @NonNull String serverParametersString,
+                                  @NonNull Map<String, Object> clientParameters,
+                                  int childIndex) {
+        adapter.requestInterstitialAd(context, serverParametersString, clientParameters, new InterstitialChildListener(childIndex));
+    }
+
+    @Override
+    protected void onRaceWon(int childIndex) {
+        if (interstitialAdapterListener != null) {
+            interstitialAdapterListener.onInterstitialLoaded();
+        }
+    }
+
+    @Override
+    public void showInterstitial() throws Exception {
+        SASMediationInterstitialAdapter winner = getWinner();
+        if (winner == null) {
+            throw new Exception("No race interstitial ad loaded !");
+        }
+        winner.showInterstitial();
+    }
+
+    /**
+     * Interstitial child adapter listener
+     */
+    private class InterstitialChildListener extends ChildListener implements SASMediationInterstitialAdapterListener {
+
+        InterstitialChildListener(int childIndex) {
+            super(childIndex);
+        }
+
+        @Override
+        public void onInterstitialLoaded() {
+            onChildLoaded(childIndex);
+        }
+
+        @Override
+        public void onInterstitialShown() {
+            if (isWinner(childIndex) && interstitialAdapterListener != null) {
+                interstitialAdapterListener.onInterstitialShown();
+            }
+        }
+
+        @Override
+        public void onInterstitialFailedToShow(String errorMessage) {
+            if (isWinner(childIndex) && interstitialAdapterListener != null) {
+                interstitialAdapterListener.onInterstitialFailedToShow(errorMessage);
+            }
+        }
+    }
+}
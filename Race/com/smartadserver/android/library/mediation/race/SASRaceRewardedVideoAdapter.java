@@ -0,0 +1,104 @@
+package com.smartadserver.android.library.mediation.race;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapter;
+import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdFormat;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.model.SASReward;
+
+import java.util.Map;
+
+/**
+ * Mediation adapter class racing several rewarded video adapters
+ */
+public class SASRaceRewardedVideoAdapter extends SASRaceAdapterBase<SASMediationRewardedVideoAdapter> implements SASMediationRewardedVideoAdapter {
+
+    @Nullable
+    private SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener;
+
+    /**
+     * Requests a mediated rewarded video ad asynchronously.
+     *
+     * @param context                      The {@link Context} needed by the mediation SDK to make the ad request.
+     * @param serverParametersString       a String containing all needed parameters (as returned by Smart ad delivery) to make the mediation ad call.
+     * @param clientParameters             additional client-side parameters (user specific, like location).
+     * @param adapterListener              the {@link SASMediationRewardedVideoAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify the Smart SDK of events
+     */
+    @Override
+    public void requestRewardedVideoAd(@NonNull Context context,
+                                       @NonNull String serverParametersString,
+                                       @NonNull Map<String, Object> clientParameters,
+                                       @NonNull SASMediationRewardedVideoAdapterListener adapterListener) {
+
+        // track the race (or hedging) latency and outcome, only the first terminal callback is forwarded
+        rewardedVideoAdapterListener = SASAdapterMetrics.getSharedInstance().track(getNetworkName(), adapterListener);
+
+        startRace(context, serverParametersString, clientParameters, SASMediationRewardedVideoAdapter.class, SASAdFormat.REWARDED_VIDEO, rewardedVideoAdapterListener);
+    }
+
+    @Override
+    protected void requestChildAd(@NonNull SASMediationRewardedVideoAdapter adapter,
+                                  @NonNull Context context,
+                                  @NonNull String serverParametersString,
+                                  @NonNull Map<String, Object> clientParameters,
+                                  int childIndex) {
+        adapter.requestRewardedVideoAd(context, serverParametersString, clientParameters, new RewardedVideoChildListener(childIndex));
+    }
+
+    @Override
+    protected void onRaceWon(int childIndex) {
+        if (rewardedVideoAdapterListener != null) {
+            rewardedVideoAdapterListener.onRewardedVideoLoaded();
+        }
+    }
+
+    @Override
+    public void showRewardedVideoAd() throws Exception {
+        SASMediationRewardedVideoAdapter winner = getWinner();
+        if (winner == null) {
+            throw new Exception("No race rewarded video ad loaded !");
+        }
+        winner.showRewardedVideoAd();
+    }
+
+    /**
+     * Rewarded video child adapter listener
+     */
+    private class RewardedVideoChildListener extends ChildListener implements SASMediationRewardedVideoAdapterListener {
+
+        RewardedVideoChildListener(int childIndex) {
+            super(childIndex);
+        }
+
+        @Override
+        public void onRewardedVideoLoaded() {
+            onChildLoaded(childIndex);
+        }
+
+        @Override
+        public void onRewardedVideoShown() {
+            if (isWinner(childIndex) && rewardedVideoAdapterListener != null) {
+                rewardedVideoAdapterListener.onRewardedVideoShown();
+            }
+        }
+
+        @Override
+        public void onRewardedVideoFailedToShow(String errorMessage) {
+            if (isWinner(childIndex) && rewardedVideoAdapterListener != null) {
+                rewardedVideoAdapterListener.onRewardedVideoFailedToShow(errorMessage);
+            }
+        }
+
+        @Override
+        public void onReward(SASReward reward) {
+            if (isWinner(childIndex) && rewardedVideoAdapterListener != null) {
+                rewardedVideoAdapterListener.onReward(reward);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.smartadserver.android.library.mediation.race;
+
+import androidx.annotation.NonNull;
+
+import com.smartadserver.android.library.mediation.common.SASServerParametersCache;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Typed race server parameters, parsed from the JSON String sent by Smart ad delivery, for instance:
+ * {"window":300,"adapters":[{"class":"com.smartadserver.android.library.mediation.inmobi.SASInMobiInterstitialAdapter","parameters":"accountID/placementID"}, ...]}
+ * Adapters are listed by decreasing priority. Hedged adapters also accept a "delay" (ms) before starting the next
+ * adapter, used until enough latency history is recorded, and the "percentile" (between 1 and 100) of that history.
+ */
+class SASRaceServerParameters {
+
+    /**
+     * Child adapter of a race
+     */
+    static class Child {
+
+        @NonNull
+        private final String className;
+
+        @NonNull
+        private final String serverParametersString;
+
+        Child(@NonNull String className, @NonNull String serverParametersString) {
+            this.className = className;
+            this.serverParametersString = serverParametersString;
+        }
+
+        /**
+         * Returns the fully qualified class name of the child adapter
+         */
+        @NonNull
+        String getClassName() {
+            return className;
+        }
+
+        /**
+         * Returns the server parameters String passed to the child adapter
+         */
+        @NonNull
+        String getServerParametersString() {
+            return serverParametersString;
+        }
+    }
+
+    // parsed server parameters, by raw String
+    @NonNull
+    private static final SASServerParametersCache<SASRaceServerParameters> cache =
+            new SASServerParametersCache<>(16, new SASServerParametersCache.Parser<SASRaceServerParameters>() {
+                @NonNull
+                @Override
+                public SASRaceServerParameters parse(@NonNull String serverParametersString) {
+                    return new SASRaceServerParameters(serverParametersString);
+                }
+            });
+
+    // default delay before a hedged adapter starts the next child adapter, in milliseconds
+    static final long DEFAULT_HEDGE_DELAY_MILLIS = 1000;
+
+    // default latency percentile of the hedging delay
+    static final int DEFAULT_HEDGE_PERCENTILE = 90;
+
+    private final long windowMillis;
+
+    private final long hedgeDelayMillis;
+
+    private final int hedgePercentile;
+
+    @NonNull
+    private final List<Child> children;
+
+    private SASRaceServerParameters(@NonNull String serverParametersString) {
+        long windowMillis = 0;
+        long hedgeDelayMillis = DEFAULT_HEDGE_DELAY_MILLIS;
+        int hedgePercentile = DEFAULT_HEDGE_PERCENTILE;
+        List<Child> children = new ArrayList<>();
+        try {
+            JSONObject json = new JSONObject(serverParametersString);
+            windowMillis = Math.max(0, json.optLong("window", 0));
+            hedgeDelayMillis = Math.max(0, json.optLong("delay", DEFAULT_HEDGE_DELAY_MILLIS));
+            hedgePercentile = json.optInt("percentile", DEFAULT_HEDGE_PERCENTILE);
+            JSONArray adapters = json.optJSONArray("adapters");
+            if (adapters != null) {
+                for (int i = 0; i < adapters.length(); i++) {
+                    JSONObject adapter = adapters.optJSONObject(i);
+                    String className = adapter != null ? adapter.optString("class", "") : "";
+                    if (className.length() > 0) {
+                        children.add(new Child(className, adapter.optString("parameters", "")));
+                    }
+                }
+            }
+        } catch (JSONException ignored) {
+            // malformed parameters, no child adapter
+        }
+        this.windowMillis = windowMillis;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.hedgePercentile = hedgePercentile;
+        this.children = Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Returns the (cached) typed race server parameters for the given raw String
+     */
+    @NonNull
+    static SASRaceServerParameters parse(@NonNull String serverParametersString) {
+        return cache.get(serverParametersString);
+    }
+
+    /**
+     * Returns how long a fill waits for higher priority adapters still loading, 0 to serve the first fill
+     */
+    long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Returns the delay before a hedged adapter starts the next child adapter, while its latency history is too short
+     */
+    long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    /**
+     * Returns the latency percentile of a child adapter after which a hedged adapter starts the next one
+     */
+    int getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    /**
+     * Returns the child adapters, by decreasing priority
+     */
+    @NonNull
+    List<Child> getChildren() {
+        return children;
+    }
+
+    /**
+     * Returns whether at least one child adapter is set
+     */
+    boolean isValid() {
+        return !children.isEmpty() && hedgePercentile > 0 && hedgePercentile <= 100;
+    }
+}
@@ -0,0 +1,240 @@
+package com.smartadserver.android.library.mediation.tapjoy;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.tapjoy.TJConnectListener;
+import com.tapjoy.Tapjoy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide Tapjoy connection state machine shared by all Tapjoy adapters.
+ * The Tapjoy SDK is connected once: requests arriving while connecting are queued and released on connection, and
+ * a failed connection is retried with an exponential backoff instead of at every ad call.
+ */
+class SASTapjoyConnectionManager {
+
+    static private final String TAG = SASTapjoyConnectionManager.class.getSimpleName();
+
+    // network name used to track ad requests
+    static final String NETWORK_NAME = "Tapjoy";
+
+    // delay before the first connection retry after a failure, doubled at each consecutive failure
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 5000;
+
+    // maximum delay between two connection retries
+    private static final long MAX_RETRY_DELAY_MILLIS = 5 * 60 * 1000;
+
+    /**
+     * Tapjoy connection states
+     */
+    enum State {
+        DISCONNECTED, CONNECTING, CONNECTED, FAILED
+    }
+
+    /**
+     * Listener notified of the Tapjoy connection outcome
+     */
+    interface ConnectionListener {
+
+        /**
+         * Called when the Tapjoy SDK is connected
+         */
+        void onConnected();
+
+        /**
+         * Called when the Tapjoy SDK failed to connect, or is backing off after a failed connection
+         */
+        void onConnectionFailed(@NonNull String errorMessage);
+    }
+
+    @Nullable
+    private static SASTapjoyConnectionManager sharedInstance;
+
+    @NonNull
+    private State state = State.DISCONNECTED;
+
+    // SDK key of the latest ad request
+    @Nullable
+    private String SDKKey;
+
+    // application context used to reconnect when the SDK key changed while connecting
+    @Nullable
+    private Context applicationContext;
+
+    private int consecutiveFailureCount = 0;
+
+    // elapsed realtime before which no connection retry is attempted
+    private long nextRetryTime = 0;
+
+    // listeners of ad requests waiting for the connection in progress
+    @NonNull
+    private final List<ConnectionListener> pendingListeners = new ArrayList<>();
+
+    private SASTapjoyConnectionManager() {
+        // Tapjoy debug logs follow the adapters log level
+        SASAdapterLogger.addLogLevelListener(new SASAdapterLogger.LogLevelListener() {
+            @Override
+            public void onLogLevelChanged(int logLevel) {
+                Tapjoy.setDebugEnabled(logLevel <= Log.DEBUG);
+            }
+        });
+    }
+
+    @NonNull
+    static synchronized SASTapjoyConnectionManager getSharedInstance() {
+        if (sharedInstance == null) {
+            sharedInstance = new SASTapjoyConnectionManager();
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Returns the current Tapjoy connection state
+     */
+    @NonNull
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Makes sure the Tapjoy SDK is connected with the given SDK key before notifying the given listener.
+     *
+     * @param context  the {@link Context} used to connect the Tapjoy SDK
+     * @param SDKKey   the Tapjoy SDK key
+     * @param listener the {@link ConnectionListener} to notify of the connection outcome
+     */
+    void connect(@NonNull Context context, @NonNull String SDKKey, @NonNull ConnectionListener listener) {
+        // Tapjoy debug logs follow the Smart SDK debug mode changes
+        SASAdapterLogger.refreshLogLevel();
+
+        boolean connected = false;
+        boolean startConnection = false;
+        boolean failFast = false;
+        long retryDelay = 0;
+
+        synchronized (this) {
+            applicationContext = context.getApplicationContext();
+            if (!SDKKey.equals(this.SDKKey)) {
+                // new SDK key, the connection state of the previous one does not apply. A connection in progress is
+                // restarted with the new key once it completes
+                if (state != State.CONNECTING) {
+                    state = State.DISCONNECTED;
+                }
+                consecutiveFailureCount = 0;
+                this.SDKKey = SDKKey;
+            }
+
+            if (state == State.CONNECTED && !Tapjoy.isConnected()) {
+                state = State.DISCONNECTED;
+            }
+
+            if (state == State.FAILED) {
+                retryDelay = nextRetryTime - SystemClock.elapsedRealtime();
+                if (retryDelay <= 0) {
+                    state = State.DISCONNECTED;
+                }
+            }
+
+            switch (state) {
+                case CONNECTED:
+                    connected = true;
+                    break;
+                case CONNECTING:
+                    pendingListeners.add(listener);
+                    break;
+                case DISCONNECTED:
+                    pendingListeners.add(listener);
+                    state = State.CONNECTING;
+                    startConnection = true;
+                    break;
+                case FAILED:
+                    // backing off, fail fast
+                    failFast = true;
+                    break;
+            }
+        }
+
+        if (connected) {
+            listener.onConnected();
+        } else if (startConnection) {
+            startConnection(context.getApplicationContext(), SDKKey);
+        } else if (failFast) {
+            listener.onConnectionFailed("The Tapjoy SDK failed to connect, next attempt in " + retryDelay + "ms");
+        }
+    }
+
+    private void startConnection(@NonNull Context applicationContext, @NonNull final String SDKKey) {
+        SASAdapterLogger.d(TAG, "Tapjoy connect");
+        Tapjoy.connect(applicationContext, SDKKey, null, new TJConnectListener() {
+            @Override
+            public void onConnectSuccess() {
+                SASAdapterLogger.d(TAG, "Tapjoy onConnectSuccess");
+                onConnectionOutcome(SDKKey, true);
+            }
+
+            @Override
+            public void onConnectFailure() {
+                SASAdapterLogger.d(TAG, "Tapjoy onConnectFailure");
+                onConnectionOutcome(SDKKey, false);
+            }
+        });
+    }
+
+    /**
+     * Stops notifying the given listener of the connection in progress, for instance once its ad request timed out
+     */
+    synchronized void cancel(@NonNull ConnectionListener listener) {
+        pendingListeners.remove(listener);
+    }
+
+    // called with the SDK key of the completed connection, which is not the latest one if it changed while connecting
+    private void onConnectionOutcome(@NonNull String connectedSDKKey, boolean success) {
+        List<ConnectionListener> listeners = new ArrayList<>();
+        boolean reconnect = false;
+        String SDKKey;
+        Context applicationContext;
+        synchronized (this) {
+            SDKKey = this.SDKKey;
+            applicationContext = this.applicationContext;
+            if (SDKKey != null && applicationContext != null && !SDKKey.equals(connectedSDKKey)) {
+                // the outcome does not apply to the new SDK key: connect again with it below, the pending ad requests
+                // keep waiting while the state stays CONNECTING
+                SASAdapterLogger.d(TAG, "Tapjoy SDK key changed while connecting");
+                reconnect = true;
+            } else {
+                if (success) {
+                    state = State.CONNECTED;
+                    consecutiveFailureCount = 0;
+                } else {
+                    state = State.FAILED;
+                    consecutiveFailureCount++;
+                    long retryDelay = INITIAL_RETRY_DELAY_MILLIS << Math.min(consecutiveFailureCount - 1, 16);
+                    nextRetryTime = SystemClock.elapsedRealtime() + Math.min(retryDelay, MAX_RETRY_DELAY_MILLIS);
+                }
+                listeners.addAll(pendingListeners);
+                pendingListeners.clear();
+            }
+        }
+
+        if (reconnect) {
+            startConnection(applicationContext, SDKKey);
+            return;
+        }
+
+        for (ConnectionListener listener : listeners) {
+            if (success) {
+                listener.onConnected();
+            } else {
+                listener.onConnectionFailed("The Tapjoy SDK failed to connect");
+            }
+        }
+    }
+}
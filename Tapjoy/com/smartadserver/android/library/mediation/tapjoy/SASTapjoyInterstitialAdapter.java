@@ -4,19 +4,20 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapter;
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 
 import com.tapjoy.TJActionRequest;
-import com.tapjoy.TJConnectListener;
 import com.tapjoy.TJError;
 import com.tapjoy.TJPlacement;
 import com.tapjoy.TJPlacementListener;
-import com.tapjoy.TJPlacementManager;
 import com.tapjoy.TJPlacementVideoListener;
-import com.tapjoy.Tapjoy;
 
 import java.util.Map;
 
@@ -27,40 +28,74 @@ public class SASTapjoyInterstitialAdapter implements SASMediationInterstitialAda
 
     static private final String TAG = SASTapjoyInterstitialAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     @Nullable
     private TJPlacement tjPlacement;
 
+    // cache entry of the placement, released on destroy so that it can be reused by the next request
+    @Nullable
+    private SASTapjoyPlacementCache.CachedPlacement cachedPlacement;
+
+    // listener waiting for the Tapjoy connection, cancelled on destroy
+    @Nullable
+    private SASTapjoyConnectionManager.ConnectionListener connectionListener;
+
     /**
      * @param context                     the {@link android.content.Context} needed by the mediation SDK to make the ad request
      * @param serverParametersString      a String containing all needed parameters (as returned by Smart ad delivery)
      *                                    to make the mediation ad call
      * @param clientParameters            additional client-side parameters (user specific, like location)
-     * @param interstitialAdapterListener the {@link SASMediationInterstitialAdapterListener} provided to
+     * @param adapterListener             the {@link SASMediationInterstitialAdapterListener} provided to
      *                                    this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
      */
     @Override
     public void requestInterstitialAd(@NonNull final Context context,
                                       @NonNull String serverParametersString,
                                       @NonNull Map<String, Object> clientParameters,
-                                      @NonNull final SASMediationInterstitialAdapterListener interstitialAdapterListener) {
-        Log.d(TAG, "SASTapjoyInterstitialAdapter adRequest");
+                                      @NonNull SASMediationInterstitialAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationInterstitialAdapterListener interstitialAdapterListener = SASAdapterMetrics.getSharedInstance().track(SASTapjoyConnectionManager.NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(SASTapjoyConnectionManager.NETWORK_NAME, serverParametersString, interstitialAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        final SASCancellationToken cancellationToken = SASCancellationToken.create(interstitialAdapterListener);
+        this.cancellationToken = cancellationToken;
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(SASTapjoyConnectionManager.NETWORK_NAME, interstitialAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        SASAdapterLogger.d(TAG, "SASTapjoyInterstitialAdapter adRequest");
 
         // Retrieve placement info -- Here serverParametersString is "SDKKey/placementName"
-        String[] placementInfo = serverParametersString.split("/");
+        SASTapjoyServerParameters serverParameters = SASTapjoyServerParameters.parse(serverParametersString);
 
         // Check that the placement info are correctly set
-        if (placementInfo.length != 2 || placementInfo[0].length() == 0 || placementInfo[1].length() == 0) {
-            interstitialAdapterListener.adRequestFailed("The Tapjoy SDKKey and/or placementName is not correctly set", false);
+        if (!serverParameters.isValid()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(interstitialAdapterListener, "The Tapjoy SDKKey and/or placementName is not correctly set");
+            return;
         }
 
-        String SDKKey = placementInfo[0];
-        final String placementName = placementInfo[1];
+        String SDKKey = serverParameters.getSDKKey();
+        final String placementName = serverParameters.getPlacementName();
 
         // Instantiate the Tapjoy Placement Listener
         final TJPlacementListener placementListener = new TJPlacementListener() {
             @Override
             public void onRequestSuccess(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onRequestSuccess");
+                SASAdapterLogger.d(TAG, "placementListener onRequestSuccess");
                 // check if the content is available. If not, we have a no ad.
                 if (!tjPlacement.isContentAvailable()) {
                     interstitialAdapterListener.adRequestFailed("Request succeed but content is not available (noad)", true);
@@ -69,41 +104,41 @@ public class SASTapjoyInterstitialAdapter implements SASMediationInterstitialAda
 
             @Override
             public void onRequestFailure(TJPlacement tjPlacement, TJError tjError) {
-                Log.d(TAG, "placementListener onRequestFailure");
+                SASAdapterLogger.d(TAG, "placementListener onRequestFailure");
                 interstitialAdapterListener.adRequestFailed(tjError.message, false);
             }
 
             @Override
             public void onContentReady(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onContentReady");
+                SASAdapterLogger.d(TAG, "placementListener onContentReady");
                 interstitialAdapterListener.onInterstitialLoaded();
             }
 
             @Override
             public void onContentShow(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onContentShow");
+                SASAdapterLogger.d(TAG, "placementListener onContentShow");
                 // call the listener only when the video start to avoid counting pixel if the video have an error and does not start
             }
 
             @Override
             public void onContentDismiss(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onContentDismiss");
+                SASAdapterLogger.d(TAG, "placementListener onContentDismiss");
                 interstitialAdapterListener.onAdClosed();
             }
 
             @Override
             public void onPurchaseRequest(TJPlacement tjPlacement, TJActionRequest tjActionRequest, String s) {
-                Log.d(TAG, "placementListener onPurchaseRequest");
+                SASAdapterLogger.d(TAG, "placementListener onPurchaseRequest");
             }
 
             @Override
             public void onRewardRequest(TJPlacement tjPlacement, TJActionRequest tjActionRequest, String s, int i) {
-                Log.d(TAG, "placementListener onRewardRequest");
+                SASAdapterLogger.d(TAG, "placementListener onRewardRequest");
             }
 
             @Override
             public void onClick(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onClick");
+                SASAdapterLogger.d(TAG, "placementListener onClick");
                 interstitialAdapterListener.onAdClicked();
             }
         };
@@ -112,39 +147,51 @@ public class SASTapjoyInterstitialAdapter implements SASMediationInterstitialAda
         final TJPlacementVideoListener placementVideoListener = new TJPlacementVideoListener() {
             @Override
             public void onVideoStart(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementVideoListener onVideoStart");
+                SASAdapterLogger.d(TAG, "placementVideoListener onVideoStart");
                 interstitialAdapterListener.onInterstitialShown();
             }
 
             @Override
             public void onVideoError(TJPlacement tjPlacement, String s) {
-                Log.d(TAG, "placementVideoListener onVideoError");
+                SASAdapterLogger.d(TAG, "placementVideoListener onVideoError");
                 interstitialAdapterListener.onInterstitialFailedToShow(s);
             }
 
             @Override
             public void onVideoComplete(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementVideoListener onVideoComplete");
+                SASAdapterLogger.d(TAG, "placementVideoListener onVideoComplete");
             }
         };
 
-        // Configure the Tapjoy SDK for this call
-        Tapjoy.connect(context, SDKKey, null, new TJConnectListener() {
+        // Connect the Tapjoy SDK if needed, placement is created right away when already connected
+        connectionListener = new SASTapjoyConnectionManager.ConnectionListener() {
             @Override
-            public void onConnectSuccess() {
-                Log.d(TAG, "Tapjoy onConnectSuccess");
-                tjPlacement = TJPlacementManager.createPlacement(context, placementName, false, placementListener);
-                tjPlacement.setVideoListener(placementVideoListener);
-
-                tjPlacement.requestContent();
+            public void onConnected() {
+                SASAdapterLogger.d(TAG, "Tapjoy connected");
+                if (cancellationToken.isCancelled()) {
+                    // abandoned ad request, acquiring a placement now would never release it
+                    return;
+                }
+                // reuse the cached placement for this placement name if possible, its content may already be loaded
+                cachedPlacement = SASTapjoyPlacementCache.getSharedInstance().acquire(context, placementName, placementListener, placementVideoListener);
+                tjPlacement = cachedPlacement.getPlacement();
+
+                if (cachedPlacement.isContentReady()) {
+                    SASAdapterLogger.d(TAG, "Tapjoy placement content already ready");
+                    interstitialAdapterListener.onInterstitialLoaded();
+                } else if (!tjPlacement.isContentAvailable()) {
+                    tjPlacement.requestContent();
+                }
+                // otherwise content is available but not ready yet, onContentReady will be called
             }
 
             @Override
-            public void onConnectFailure() {
-                Log.d(TAG, "Tapjoy onConnectFailure");
-                interstitialAdapterListener.adRequestFailed("The Tapjor SDK failed to connect", false);
+            public void onConnectionFailed(@NonNull String errorMessage) {
+                SASAdapterLogger.d(TAG, "Tapjoy connection failed");
+                interstitialAdapterListener.adRequestFailed(errorMessage, false);
             }
-        });
+        };
+        SASTapjoyConnectionManager.getSharedInstance().connect(context, SDKKey, connectionListener);
     }
 
     @Override
@@ -156,6 +203,17 @@ public class SASTapjoyInterstitialAdapter implements SASMediationInterstitialAda
 
     @Override
     public void onDestroy() {
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        if (connectionListener != null) {
+            SASTapjoyConnectionManager.getSharedInstance().cancel(connectionListener);
+            connectionListener = null;
+        }
+        if (cachedPlacement != null) {
+            SASTapjoyPlacementCache.getSharedInstance().release(cachedPlacement);
+            cachedPlacement = null;
+        }
         tjPlacement = null;
     }
 }
@@ -0,0 +1,234 @@
+package com.smartadserver.android.library.mediation.tapjoy;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.tapjoy.TJActionRequest;
+import com.tapjoy.TJError;
+import com.tapjoy.TJPlacement;
+import com.tapjoy.TJPlacementListener;
+import com.tapjoy.TJPlacementManager;
+import com.tapjoy.TJPlacementVideoListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of Tapjoy placements, by placement name, shared by all Tapjoy adapters.
+ * A placement is created once and reused by the following requests for the same placement name, so that content
+ * loaded for a destroyed adapter can be served right away to the next one. Placement callbacks are rerouted to the
+ * listeners of the adapter currently using the placement.
+ */
+class SASTapjoyPlacementCache {
+
+    static private final String TAG = SASTapjoyPlacementCache.class.getSimpleName();
+
+    /**
+     * A Tapjoy placement and the swappable listeners its callbacks are forwarded to
+     */
+    static class CachedPlacement implements TJPlacementListener, TJPlacementVideoListener {
+
+        @NonNull
+        private final TJPlacement placement;
+
+        // listeners of the adapter currently using the placement, null if unused
+        @Nullable
+        private TJPlacementListener delegate;
+
+        @Nullable
+        private TJPlacementVideoListener videoDelegate;
+
+        CachedPlacement(@NonNull Context context, @NonNull String placementName) {
+            placement = TJPlacementManager.createPlacement(context, placementName, false, this);
+            placement.setVideoListener(this);
+        }
+
+        @NonNull
+        TJPlacement getPlacement() {
+            return placement;
+        }
+
+        /**
+         * Returns whether the placement content is loaded and can be shown right away
+         */
+        boolean isContentReady() {
+            return placement.isContentAvailable() && placement.isContentReady();
+        }
+
+        /**
+         * Returns whether the placement is used by an adapter
+         */
+        synchronized boolean isInUse() {
+            return delegate != null;
+        }
+
+        synchronized void setDelegates(@Nullable TJPlacementListener delegate, @Nullable TJPlacementVideoListener videoDelegate) {
+            this.delegate = delegate;
+            this.videoDelegate = videoDelegate;
+        }
+
+        @Nullable
+        private synchronized TJPlacementListener getDelegate() {
+            return delegate;
+        }
+
+        @Nullable
+        private synchronized TJPlacementVideoListener getVideoDelegate() {
+            return videoDelegate;
+        }
+
+        /***** TJPlacementListener interface **********/
+
+        @Override
+        public void onRequestSuccess(TJPlacement tjPlacement) {
+            TJPlacementListener delegate = getDelegate();
+            if (delegate != null) {
+                delegate.onRequestSuccess(tjPlacement);
+            }
+        }
+
+        @Override
+        public void onRequestFailure(TJPlacement tjPlacement, TJError tjError) {
+            TJPlacementListener delegate = getDelegate();
+            if (delegate != null) {
+                delegate.onRequestFailure(tjPlacement, tjError);
+            }
+        }
+
+        @Override
+        public void onContentReady(TJPlacement tjPlacement) {
+            TJPlacementListener delegate = getDelegate();
+            if (delegate != null) {
+                delegate.onContentReady(tjPlacement);
+            } else {
+                SASAdapterLogger.d(TAG, "Tapjoy content ready for unused placement: %s", tjPlacement.getName());
+            }
+        }
+
+        @Override
+        public void onContentShow(TJPlacement tjPlacement) {
+            TJPlacementListener delegate = getDelegate();
+            if (delegate != null) {
+                delegate.onContentShow(tjPlacement);
+            }
+        }
+
+        @Override
+        public void onContentDismiss(TJPlacement tjPlacement) {
+            TJPlacementListener delegate = getDelegate();
+            if (delegate != null) {
+                delegate.onContentDismiss(tjPlacement);
+            }
+        }
+
+        @Override
+        public void onPurchaseRequest(TJPlacement tjPlacement, TJActionRequest tjActionRequest, String s) {
+            TJPlacementListener delegate = getDelegate();
+            if (delegate != null) {
+                delegate.onPurchaseRequest(tjPlacement, tjActionRequest, s);
+            }
+        }
+
+        @Override
+        public void onRewardRequest(TJPlacement tjPlacement, TJActionRequest tjActionRequest, String s, int i) {
+            TJPlacementListener delegate = getDelegate();
+            if (delegate != null) {
+                delegate.onRewardRequest(tjPlacement, tjActionRequest, s, i);
+            }
+        }
+
+        @Override
+        public void onClick(TJPlacement tjPlacement) {
+            TJPlacementListener delegate = getDelegate();
+            if (delegate != null) {
+                delegate.onClick(tjPlacement);
+            }
+        }
+
+        /***** TJPlacementVideoListener interface **********/
+
+        @Override
+        public void onVideoStart(TJPlacement tjPlacement) {
+            TJPlacementVideoListener videoDelegate = getVideoDelegate();
+            if (videoDelegate != null) {
+                videoDelegate.onVideoStart(tjPlacement);
+            }
+        }
+
+        @Override
+        public void onVideoError(TJPlacement tjPlacement, String s) {
+            TJPlacementVideoListener videoDelegate = getVideoDelegate();
+            if (videoDelegate != null) {
+                videoDelegate.onVideoError(tjPlacement, s);
+            }
+        }
+
+        @Override
+        public void onVideoComplete(TJPlacement tjPlacement) {
+            TJPlacementVideoListener videoDelegate = getVideoDelegate();
+            if (videoDelegate != null) {
+                videoDelegate.onVideoComplete(tjPlacement);
+            }
+        }
+    }
+
+    @Nullable
+    private static SASTapjoyPlacementCache sharedInstance;
+
+    // reusable placements, by placement name
+    @NonNull
+    private final Map<String, CachedPlacement> cachedPlacements = new HashMap<>();
+
+    @NonNull
+    static synchronized SASTapjoyPlacementCache getSharedInstance() {
+        if (sharedInstance == null) {
+            sharedInstance = new SASTapjoyPlacementCache();
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Returns a placement for the given placement name, now forwarding its callbacks to the given listeners.
+     * The cached placement is returned if not used by another adapter, otherwise a new one is created.
+     *
+     * @param context       the context used to create the placement if needed
+     * @param placementName the Tapjoy placement name
+     * @param listener      the placement listener of the requesting adapter
+     * @param videoListener the placement video listener of the requesting adapter
+     */
+    @NonNull
+    synchronized CachedPlacement acquire(@NonNull Context context, @NonNull String placementName,
+                                         @NonNull TJPlacementListener listener, @NonNull TJPlacementVideoListener videoListener) {
+        CachedPlacement cachedPlacement = cachedPlacements.get(placementName);
+        if (cachedPlacement == null || cachedPlacement.isInUse()) {
+            // placements outlive adapters, do not keep a reference on the adapter context
+            cachedPlacement = new CachedPlacement(context.getApplicationContext(), placementName);
+            if (!cachedPlacements.containsKey(placementName)) {
+                cachedPlacements.put(placementName, cachedPlacement);
+            }
+        } else {
+            SASAdapterLogger.d(TAG, "Tapjoy reusing placement: %s%s", placementName, cachedPlacement.isContentReady() ? " (content ready)" : "");
+        }
+
+        cachedPlacement.setDelegates(listener, videoListener);
+        return cachedPlacement;
+    }
+
+    /**
+     * Releases a placement once its adapter is destroyed. Its callbacks are not forwarded anymore, and it is kept for
+     * the next request of the same placement name unless another placement is already cached for it.
+     */
+    synchronized void release(@NonNull CachedPlacement cachedPlacement) {
+        cachedPlacement.setDelegates(null, null);
+
+        String placementName = cachedPlacement.getPlacement().getName();
+        CachedPlacement currentPlacement = cachedPlacements.get(placementName);
+        if (currentPlacement == null || (currentPlacement != cachedPlacement && currentPlacement.isInUse() && cachedPlacement.isContentReady())) {
+            // keep the placement with ready content rather than the one in use
+            cachedPlacements.put(placementName, cachedPlacement);
+        }
+    }
+}
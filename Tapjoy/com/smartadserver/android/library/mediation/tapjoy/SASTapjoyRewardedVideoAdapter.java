@@ -4,19 +4,20 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import android.util.Log;
 
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapter;
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 
 import com.tapjoy.TJActionRequest;
-import com.tapjoy.TJConnectListener;
 import com.tapjoy.TJError;
 import com.tapjoy.TJPlacement;
 import com.tapjoy.TJPlacementListener;
-import com.tapjoy.TJPlacementManager;
 import com.tapjoy.TJPlacementVideoListener;
-import com.tapjoy.Tapjoy;
 
 import java.util.Map;
 
@@ -27,40 +28,74 @@ public class SASTapjoyRewardedVideoAdapter implements SASMediationRewardedVideoA
 
     static private final String TAG = SASTapjoyRewardedVideoAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     @Nullable
     private TJPlacement tjPlacement;
 
+    // cache entry of the placement, released on destroy so that it can be reused by the next request
+    @Nullable
+    private SASTapjoyPlacementCache.CachedPlacement cachedPlacement;
+
+    // listener waiting for the Tapjoy connection, cancelled on destroy
+    @Nullable
+    private SASTapjoyConnectionManager.ConnectionListener connectionListener;
+
     private boolean needReward = false;
 
     /**
      * @param context                      The {@link Context} needed by the mediation SDK to make the ad request.
      * @param serverParametersString       a String containing all needed parameters (as returned by Smart ad delivery) to make the mediation ad call.
      * @param clientParameters             additional client-side parameters (user specific, like location).
-     * @param rewardedVideoAdapterListener the {@link SASMediationRewardedVideoAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify the Smart SDK of events
+     * @param adapterListener              the {@link SASMediationRewardedVideoAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify the Smart SDK of events
      */
     @Override
     public void requestRewardedVideoAd(@NonNull final Context context,
                                        @NonNull String serverParametersString,
                                        @NonNull Map<String, Object> clientParameters,
-                                       @NonNull final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener) {
-        Log.d(TAG, "SASTapjoyInterstitialAdapter adRequest");
+                                       @NonNull SASMediationRewardedVideoAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener = SASAdapterMetrics.getSharedInstance().track(SASTapjoyConnectionManager.NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(SASTapjoyConnectionManager.NETWORK_NAME, serverParametersString, rewardedVideoAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        final SASCancellationToken cancellationToken = SASCancellationToken.create(rewardedVideoAdapterListener);
+        this.cancellationToken = cancellationToken;
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(SASTapjoyConnectionManager.NETWORK_NAME, rewardedVideoAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        SASAdapterLogger.d(TAG, "SASTapjoyInterstitialAdapter adRequest");
 
         // Retrieve placement info -- Here serverParametersString is "SDKKey/placementName"
-        String[] placementInfo = serverParametersString.split("/");
+        SASTapjoyServerParameters serverParameters = SASTapjoyServerParameters.parse(serverParametersString);
 
         // Check that the placement info are correctly set
-        if (placementInfo.length != 2 || placementInfo[0].length() == 0 || placementInfo[1].length() == 0) {
-            rewardedVideoAdapterListener.adRequestFailed("The Tapjoy SDKKey and/or placementName is not correctly set", false);
+        if (!serverParameters.isValid()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(rewardedVideoAdapterListener, "The Tapjoy SDKKey and/or placementName is not correctly set");
+            return;
         }
 
-        String SDKKey = placementInfo[0];
-        final String placementName = placementInfo[1];
+        String SDKKey = serverParameters.getSDKKey();
+        final String placementName = serverParameters.getPlacementName();
 
         // Instantiate the Tapjoy Placement Listener
         final TJPlacementListener placementListener = new TJPlacementListener() {
             @Override
             public void onRequestSuccess(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onRequestSuccess");
+                SASAdapterLogger.d(TAG, "placementListener onRequestSuccess");
                 // check if the content is available. If not, we have a no ad.
                 if (!tjPlacement.isContentAvailable()) {
                     rewardedVideoAdapterListener.adRequestFailed("Request succeed but content is not available (noad)", true);
@@ -69,25 +104,25 @@ public class SASTapjoyRewardedVideoAdapter implements SASMediationRewardedVideoA
 
             @Override
             public void onRequestFailure(TJPlacement tjPlacement, TJError tjError) {
-                Log.d(TAG, "placementListener onRequestFailure");
+                SASAdapterLogger.d(TAG, "placementListener onRequestFailure");
                 rewardedVideoAdapterListener.adRequestFailed(tjError.message, false);
             }
 
             @Override
             public void onContentReady(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onContentReady");
+                SASAdapterLogger.d(TAG, "placementListener onContentReady");
                 rewardedVideoAdapterListener.onRewardedVideoLoaded();
             }
 
             @Override
             public void onContentShow(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onContentShow");
+                SASAdapterLogger.d(TAG, "placementListener onContentShow");
                 // call the listener only when the video start to avoid counting pixel if the video have an error and does not start
             }
 
             @Override
             public void onContentDismiss(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onContentDismiss");
+                SASAdapterLogger.d(TAG, "placementListener onContentDismiss");
                 rewardedVideoAdapterListener.onAdClosed();
 
                 if (needReward) {
@@ -97,17 +132,17 @@ public class SASTapjoyRewardedVideoAdapter implements SASMediationRewardedVideoA
 
             @Override
             public void onPurchaseRequest(TJPlacement tjPlacement, TJActionRequest tjActionRequest, String s) {
-                Log.d(TAG, "placementListener onPurchaseRequest");
+                SASAdapterLogger.d(TAG, "placementListener onPurchaseRequest");
             }
 
             @Override
             public void onRewardRequest(TJPlacement tjPlacement, TJActionRequest tjActionRequest, String s, int i) {
-                Log.d(TAG, "placementListener onRewardRequest");
+                SASAdapterLogger.d(TAG, "placementListener onRewardRequest");
             }
 
             @Override
             public void onClick(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementListener onClick");
+                SASAdapterLogger.d(TAG, "placementListener onClick");
                 rewardedVideoAdapterListener.onAdClicked();
             }
         };
@@ -116,42 +151,54 @@ public class SASTapjoyRewardedVideoAdapter implements SASMediationRewardedVideoA
         final TJPlacementVideoListener placementVideoListener = new TJPlacementVideoListener() {
             @Override
             public void onVideoStart(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementVideoListener onVideoStart");
+                SASAdapterLogger.d(TAG, "placementVideoListener onVideoStart");
                 rewardedVideoAdapterListener.onRewardedVideoShown();
             }
 
             @Override
             public void onVideoError(TJPlacement tjPlacement, String s) {
-                Log.d(TAG, "placementVideoListener onVideoError");
+                SASAdapterLogger.d(TAG, "placementVideoListener onVideoError");
                 rewardedVideoAdapterListener.onRewardedVideoFailedToShow(s);
             }
 
             @Override
             public void onVideoComplete(TJPlacement tjPlacement) {
-                Log.d(TAG, "placementVideoListener onVideoComplete");
+                SASAdapterLogger.d(TAG, "placementVideoListener onVideoComplete");
 
                 // Store that the user needs a reward
                 needReward = true;
             }
         };
 
-        // Configure the Tapjoy SDK for this call
-        Tapjoy.connect(context, SDKKey, null, new TJConnectListener() {
+        // Connect the Tapjoy SDK if needed, placement is created right away when already connected
+        connectionListener = new SASTapjoyConnectionManager.ConnectionListener() {
             @Override
-            public void onConnectSuccess() {
-                Log.d(TAG, "Tapjoy onConnectSuccess");
-                tjPlacement = TJPlacementManager.createPlacement(context, placementName, false, placementListener);
-                tjPlacement.setVideoListener(placementVideoListener);
-
-                tjPlacement.requestContent();
+            public void onConnected() {
+                SASAdapterLogger.d(TAG, "Tapjoy connected");
+                if (cancellationToken.isCancelled()) {
+                    // abandoned ad request, acquiring a placement now would never release it
+                    return;
+                }
+                // reuse the cached placement for this placement name if possible, its content may already be loaded
+                cachedPlacement = SASTapjoyPlacementCache.getSharedInstance().acquire(context, placementName, placementListener, placementVideoListener);
+                tjPlacement = cachedPlacement.getPlacement();
+
+                if (cachedPlacement.isContentReady()) {
+                    SASAdapterLogger.d(TAG, "Tapjoy placement content already ready");
+                    rewardedVideoAdapterListener.onRewardedVideoLoaded();
+                } else if (!tjPlacement.isContentAvailable()) {
+                    tjPlacement.requestContent();
+                }
+                // otherwise content is available but not ready yet, onContentReady will be called
             }
 
             @Override
-            public void onConnectFailure() {
-                Log.d(TAG, "Tapjoy onConnectFailure");
-                rewardedVideoAdapterListener.adRequestFailed("The Tapjor SDK failed to connect", false);
+            public void onConnectionFailed(@NonNull String errorMessage) {
+                SASAdapterLogger.d(TAG, "Tapjoy connection failed");
+                rewardedVideoAdapterListener.adRequestFailed(errorMessage, false);
             }
-        });
+        };
+        SASTapjoyConnectionManager.getSharedInstance().connect(context, SDKKey, connectionListener);
     }
 
     @Override
@@ -163,6 +210,17 @@ public class SASTapjoyRewardedVideoAdapter implements SASMediationRewardedVideoA
 
     @Override
     public void onDestroy() {
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        if (connectionListener != null) {
+            SASTapjoyConnectionManager.getSharedInstance().cancel(connectionListener);
+            connectionListener = null;
+        }
+        if (cachedPlacement != null) {
+            SASTapjoyPlacementCache.getSharedInstance().release(cachedPlacement);
+            cachedPlacement = null;
+        }
         tjPlacement = null;
     }
 }
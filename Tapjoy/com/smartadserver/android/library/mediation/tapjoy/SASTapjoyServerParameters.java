@@ -0,0 +1,64 @@
+package com.smartadserver.android.library.mediation.tapjoy;
+
+import androidx.annotation.NonNull;
+
+import com.smartadserver.android.library.mediation.common.SASServerParametersCache;
+
+import java.util.List;
+
+/**
+ * Typed Tapjoy server parameters, parsed from the "SDKKey/placementName" String sent by Smart ad delivery
+ */
+class SASTapjoyServerParameters {
+
+    // parsed server parameters, by raw String
+    @NonNull
+    private static final SASServerParametersCache<SASTapjoyServerParameters> cache =
+            new SASServerParametersCache<>(16, new SASServerParametersCache.Parser<SASTapjoyServerParameters>() {
+                @NonNull
+                @Override
+                public SASTapjoyServerParameters parse(@NonNull String serverParametersString) {
+                    return new SASTapjoyServerParameters(serverParametersString);
+                }
+            });
+
+    @NonNull
+    private final String SDKKey;
+
+    @NonNull
+    private final String placementName;
+
+    private final boolean valid;
+
+    private SASTapjoyServerParameters(@NonNull String serverParametersString) {
+        List<String> fields = SASServerParametersCache.split(serverParametersString, '/');
+        SDKKey = fields.get(0);
+        placementName = SASServerParametersCache.getField(fields, 1, "");
+        valid = fields.size() == 2 && SDKKey.length() > 0 && placementName.length() > 0;
+    }
+
+    /**
+     * Returns the (cached) typed Tapjoy server parameters for the given raw String
+     */
+    @NonNull
+    static SASTapjoyServerParameters parse(@NonNull String serverParametersString) {
+        return cache.get(serverParametersString);
+    }
+
+    @NonNull
+    String getSDKKey() {
+        return SDKKey;
+    }
+
+    @NonNull
+    String getPlacementName() {
+        return placementName;
+    }
+
+    /**
+     * Returns whether both SDK key and placement name are correctly set
+     */
+    boolean isValid() {
+        return valid;
+    }
+}
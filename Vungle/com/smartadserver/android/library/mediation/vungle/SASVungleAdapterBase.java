@@ -1,14 +1,17 @@
 package com.smartadserver.android.library.mediation.vungle;
 
 import android.content.Context;
-import android.content.SharedPreferences;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.preference.PreferenceManager;
 
 import com.smartadserver.android.library.mediation.SASMediationAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
+import com.smartadserver.android.library.mediation.common.SASConsentManager;
+import com.smartadserver.android.library.mediation.common.SASConsentPropagator;
+import com.smartadserver.android.library.mediation.common.SASConsentSnapshot;
+import com.smartadserver.android.library.mediation.common.SASLoadScheduler;
 import com.vungle.warren.InitCallback;
 import com.vungle.warren.LoadAdCallback;
 import com.vungle.warren.PlayAdCallback;
@@ -17,8 +20,6 @@ import com.vungle.warren.error.VungleException;
 
 import java.util.Map;
 
-import static com.smartadserver.android.library.mediation.SASMediationAdapter.GDPR_APPLIES_KEY;
-
 /**
  * Mediation adapter base class for Vungle adapters
  */
@@ -26,6 +27,28 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
 
     static private final String TAG = SASVungleAdapterBase.class.getSimpleName();
 
+    // network name used to register Vungle consent propagation and to track ad requests
+    static final String NETWORK_NAME = "Vungle";
+
+    // passes the user consent to Vungle, only when it changes
+    @NonNull
+    static private final SASConsentPropagator.ConsentHandler<Vungle.Consent> consentHandler = new SASConsentPropagator.ConsentHandler<Vungle.Consent>() {
+        @Nullable
+        @Override
+        public Vungle.Consent getNetworkConsent(@NonNull SASConsentSnapshot consentSnapshot) {
+            // only pass consent if Smart determined GDPR applies and the consent status is available
+            if (consentSnapshot.getGDPRApplies() == null || consentSnapshot.isGDPRNotApplicable() || consentSnapshot.getConsentStatus() == null) {
+                return null;
+            }
+            return consentSnapshot.hasUserConsent() ? Vungle.Consent.OPTED_IN : Vungle.Consent.OPTED_OUT;
+        }
+
+        @Override
+        public void pushConsent(@NonNull Vungle.Consent consent) {
+            Vungle.updateConsentStatus(consent, "REPLACE_WITH_YOUR_CONSENT_POLICY_VERSION");
+        }
+    };
+
     // common parameters for most of the formats
     @NonNull
     protected String applicationID = "";
@@ -34,10 +57,7 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
     protected String placementID = "";
 
     @Nullable
-    private String GDPRApplies = null;
-
-    @Nullable
-    private String consentStatus = null;
+    private SASConsentSnapshot consentSnapshot = null;
 
     @Nullable
     protected SASMediationAdapterListener mediationAdapterListener;
@@ -47,6 +67,16 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
     // only for banners
     protected int bannerSizeIndex = 0;
 
+    /**
+     * Runs the given Vungle load once Vungle has a free load slot, higher priority formats first, see {@link SASLoadScheduler}
+     */
+    void scheduleLoad(@NonNull Runnable load) {
+        SASMediationAdapterListener mediationAdapterListener = this.mediationAdapterListener;
+        if (mediationAdapterListener != null) {
+            SASLoadScheduler.getSharedInstance().schedule(NETWORK_NAME, mediationAdapterListener, load);
+        }
+    }
+
     /**
      * Perform some initializations common to all formats.
      *  @param context                   The {@link Context} needed by the mediation SDK to make the ad request.
@@ -63,40 +93,30 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
         adLoaded = false;
 
         // Retrieve placement info -- Here the serverParametersString is composed as "applicationID/placementID"
-        String[] placementInfo = serverParametersString.split("/");
+        SASVungleServerParameters serverParameters = SASVungleServerParameters.parse(serverParametersString);
 
         // Check all placement info are correctly set
-        if (placementInfo.length < 2) {
-            mediationAdapterListener.adRequestFailed("The Vungle applicationID and/or placementID is not correctly set.", false);
+        if (!serverParameters.isValid()) {
+            SASCircuitBreaker.getSharedInstance().failMisconfiguredRequest(mediationAdapterListener, "The Vungle applicationID and/or placementID is not correctly set.");
+            return;
         }
 
         this.mediationAdapterListener = mediationAdapterListener;
 
         // extract IDs
-        applicationID = placementInfo[0];
-        placementID = placementInfo[1];
-
-        // Try to extract Banner size index from template
-        try {
-            if (placementInfo.length >= 3) {
-                bannerSizeIndex = Integer.parseInt(placementInfo[2]);
-            }
-        } catch (NumberFormatException ignored) {}
+        applicationID = serverParameters.getApplicationID();
+        placementID = serverParameters.getPlacementID();
 
+        // Extract Banner size index from template
+        bannerSizeIndex = serverParameters.getBannerSizeIndex();
 
-        // GDPR related
-        GDPRApplies = (String) clientParameters.get(GDPR_APPLIES_KEY);
 
-        // Due to the fact that Vungle is not IAB compliant, it does not accept IAB Consent String, but only a
-        // binary consent status.
-        // Smart advises app developers to store the binary consent in the 'Smart_advertisingConsentStatus' key
-        // in NSUserDefault, therefore this adapter will retrieve it from this key.
-        // Adapt the code below if your app don't follow this convention.
-        SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(context);
-        consentStatus = sharedPreferences.getString("Smart_advertisingConsentStatus", null);
+        // GDPR related. Due to the fact that Vungle is not IAB compliant, it does not accept IAB Consent String, but only a
+        // binary consent status (see SASConsentManager).
+        consentSnapshot = SASConsentManager.getSharedInstance().getConsentSnapshot(context, clientParameters);
 
-        //Need to init Vungle at every requestAd call, as the placement id can be different
-        Vungle.init(applicationID, context.getApplicationContext(), this);
+        // init Vungle once per application ID, requests go straight to ad loading when already initialized
+        SASVungleSessionManager.getSharedInstance().initIfNecessary(context, applicationID, this);
 
     }
 
@@ -104,7 +124,7 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
 
     @Override
     public void onAdLoad(@Nullable String id) {
-        Log.d(TAG, "Vungle LoadAdCallback onAdLoad");
+        SASAdapterLogger.d(TAG, "Vungle LoadAdCallback onAdLoad");
         this.adLoaded = true;
     }
 
@@ -112,22 +132,22 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
 
     @Override
     public void creativeId(String creativeId) {
-        Log.d(TAG, "Vungle PlayAdCallback creativeId: " + creativeId);
+        SASAdapterLogger.d(TAG, "Vungle PlayAdCallback creativeId: %s", creativeId);
     }
 
     @Override
     public void onAdStart(@Nullable String s) {
-        Log.d(TAG, "Vungle PlayAdCallback onAdStart");
+        SASAdapterLogger.d(TAG, "Vungle PlayAdCallback onAdStart");
     }
 
     @Override
     public void onAdEnd(@Nullable String s, boolean completed, boolean isClicked) {
-        Log.d(TAG, "Vungle PlayAdCallback deprecated onAdEnd");
+        SASAdapterLogger.d(TAG, "Vungle PlayAdCallback deprecated onAdEnd");
     }
 
     @Override
     public void onAdEnd(@Nullable String id) {
-        Log.d(TAG, "Vungle PlayAdCallback onAdEnd id:" + id);
+        SASAdapterLogger.d(TAG, "Vungle PlayAdCallback onAdEnd id:%s", id);
         if (mediationAdapterListener != null) {
             mediationAdapterListener.onAdClosed();
         }
@@ -135,7 +155,7 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
 
     @Override
     public void onAdClick(@Nullable String id) {
-        Log.d(TAG, "Vungle PlayAdCallback onAdClick id:" + id);
+        SASAdapterLogger.d(TAG, "Vungle PlayAdCallback onAdClick id:%s", id);
         if (mediationAdapterListener != null) {
             mediationAdapterListener.onAdClicked();
         }
@@ -143,12 +163,12 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
 
     @Override
     public void onAdRewarded(@Nullable String id) {
-        Log.d(TAG, "Vungle PlayAdCallback onAdRewarded called id:" + id);
+        SASAdapterLogger.d(TAG, "Vungle PlayAdCallback onAdRewarded called id:%s", id);
     }
 
     @Override
     public void onAdLeftApplication(@Nullable String id) {
-        Log.d(TAG, "Vungle PlayAdCallback onAdLeftApplication id:" + id);
+        SASAdapterLogger.d(TAG, "Vungle PlayAdCallback onAdLeftApplication id:%s", id);
         if (mediationAdapterListener != null) {
             mediationAdapterListener.onAdLeftApplication();
         }
@@ -157,7 +177,7 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
     @Override
     public void onError(@Nullable String s, @Nullable VungleException exception) {
         if (!adLoaded) {
-            Log.d(TAG, "Vungle LoadAdCallback onError");
+            SASAdapterLogger.d(TAG, "Vungle LoadAdCallback onError");
             // check if the error is due to a no ad.
             boolean isNoAd = (exception != null && exception.getExceptionCode() == VungleException.NO_SERVE);
             String message = "";
@@ -168,39 +188,29 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
                 mediationAdapterListener.adRequestFailed(message, isNoAd);
             }
         } else {
-            Log.d(TAG, "Vungle PlayAdCallback onError");
+            SASAdapterLogger.d(TAG, "Vungle PlayAdCallback onError");
         }
     }
 
     @Override
     public void onAdViewed(String placementId) {
-        Log.d(TAG, "Vungle onAdViewed");
+        SASAdapterLogger.d(TAG, "Vungle onAdViewed");
     }
 
     /***** InitCallback interface **********/
     @Override
     public void onSuccess() {
-        Log.d(TAG, "Vungle InitCallback onSuccess");
-
-        // handle GDPR
-        if (GDPRApplies != null) {
-            // Smart determined GDPR applies or not
-            if (!("false".equalsIgnoreCase(GDPRApplies))) {
-                // get GDPR consent status
-                if (consentStatus != null) {
-                    if (consentStatus.equals("1")) {
-                        Vungle.updateConsentStatus(Vungle.Consent.OPTED_IN, "REPLACE_WITH_YOUR_CONSENT_POLICY_VERSION");
-                    } else {
-                        Vungle.updateConsentStatus(Vungle.Consent.OPTED_OUT, "REPLACE_WITH_YOUR_CONSENT_POLICY_VERSION");
-                    }
-                }
-            }
+        SASAdapterLogger.d(TAG, "Vungle InitCallback onSuccess");
+
+        // handle GDPR, consent is only passed to Vungle when it changed
+        if (consentSnapshot != null) {
+            SASConsentPropagator.getSharedInstance().propagate(NETWORK_NAME, consentHandler, consentSnapshot);
         }
     }
 
     @Override
     public void onError(@Nullable VungleException exception) {
-        Log.d(TAG, "Vungle InitCallback onError");
+        SASAdapterLogger.d(TAG, "Vungle InitCallback onError");
         String message = "";
         if (exception != null && exception.getLocalizedMessage() != null) {
             message = exception.getLocalizedMessage();
@@ -212,7 +222,7 @@ public class SASVungleAdapterBase implements LoadAdCallback, PlayAdCallback, Ini
 
     @Override
     public void onAutoCacheAdAvailable(@Nullable String placementId) {
-        Log.d(TAG, "Vungle InitCallback onAutoCacheAdAvailable: placementId:" + placementId );
+        SASAdapterLogger.d(TAG, "Vungle InitCallback onAutoCacheAdAvailable: placementId:%s", placementId);
     }
 
 }
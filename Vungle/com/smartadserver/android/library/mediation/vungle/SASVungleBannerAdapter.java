@@ -1,13 +1,17 @@
 package com.smartadserver.android.library.mediation.vungle;
 
 import android.content.Context;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapter;
 import com.smartadserver.android.library.mediation.SASMediationBannerAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 import com.vungle.warren.AdConfig;
 import com.vungle.warren.Banners;
 import com.vungle.warren.VungleBanner;
@@ -21,6 +25,10 @@ public class SASVungleBannerAdapter extends SASVungleAdapterBase implements SASM
 
     static private final String TAG = SASVungleBannerAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     @Nullable
     private VungleBanner vungleBanner = null;
 
@@ -33,18 +41,42 @@ public class SASVungleBannerAdapter extends SASVungleAdapterBase implements SASM
      * @param context                the {@link Context} needed by the mediation SDK to make the ad request
      * @param serverParametersString a String containing all needed parameters (as returned by Smart ad delivery) to make the mediation ad call
      * @param clientParameters       additional client-side parameters (user specific, like location)
-     * @param bannerAdapterListener  the {@link SASMediationBannerAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
+     * @param adapterListener        the {@link SASMediationBannerAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
      */
     @Override
     public void requestBannerAd(@NonNull Context context,
                                 @NonNull String serverParametersString,
                                 @NonNull Map<String, Object> clientParameters,
-                                @NonNull final SASMediationBannerAdapterListener bannerAdapterListener) {
-        Log.d(TAG, "SASVungleBannerAdapter requestAd");
+                                @NonNull SASMediationBannerAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationBannerAdapterListener bannerAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, bannerAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(bannerAdapterListener);
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, bannerAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        SASAdapterLogger.d(TAG, "SASVungleBannerAdapter requestAd");
 
         configureAdapter(context, serverParametersString, clientParameters, bannerAdapterListener);
+    }
 
-        // init banner ad size
+    /**
+     * Inits banner ad size from the banner size index parsed by configureAdapter
+     */
+    private void initBannerAdSize() {
         switch (bannerSizeIndex) {
             case 1:
                 bannerAdSize = AdConfig.AdSize.BANNER_SHORT;
@@ -55,15 +87,15 @@ public class SASVungleBannerAdapter extends SASVungleAdapterBase implements SASM
             default:
                 bannerAdSize = AdConfig.AdSize.BANNER;
         }
-
     }
 
     @Override
     public void onAdLoad(@Nullable String id) {
         super.onAdLoad(id);
-        if (Banners.canPlayAd(placementID, bannerAdSize)) {
+        // no banner is created for a destroyed adapter, for instance once its ad request timed out
+        if (mediationAdapterListener != null && Banners.canPlayAd(placementID, bannerAdSize)) {
             vungleBanner = Banners.getBanner(placementID, bannerAdSize, this);
-            if (vungleBanner != null && mediationAdapterListener != null) {
+            if (vungleBanner != null) {
                 ((SASMediationBannerAdapterListener) mediationAdapterListener).onBannerLoaded(vungleBanner);
             }
         }
@@ -75,13 +107,25 @@ public class SASVungleBannerAdapter extends SASVungleAdapterBase implements SASM
     @Override
     public void onSuccess() {
         super.onSuccess();
-        Banners.loadBanner(placementID, bannerAdSize, this);
+        // onSuccess can be called synchronously from configureAdapter when Vungle is already initialized
+        initBannerAdSize();
+        scheduleLoad(new Runnable() {
+            @Override
+            public void run() {
+                Banners.loadBanner(placementID, bannerAdSize, SASVungleBannerAdapter.this);
+            }
+        });
     }
 
     @Override
     public void onDestroy() {
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+        mediationAdapterListener = null;
         if (vungleBanner != null) {
             vungleBanner.destroyAd();
+            vungleBanner = null;
         }
     }
 }
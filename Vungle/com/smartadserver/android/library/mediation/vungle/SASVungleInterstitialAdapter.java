@@ -1,13 +1,17 @@
 package com.smartadserver.android.library.mediation.vungle;
 
 import android.content.Context;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapter;
 import com.smartadserver.android.library.mediation.SASMediationInterstitialAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 import com.vungle.warren.AdConfig;
 import com.vungle.warren.Vungle;
 import com.vungle.warren.error.VungleException;
@@ -21,6 +25,10 @@ public class SASVungleInterstitialAdapter extends SASVungleAdapterBase implement
 
     static private final String TAG = SASVungleInterstitialAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     private boolean interstitialShown = false;
 
 
@@ -30,14 +38,34 @@ public class SASVungleInterstitialAdapter extends SASVungleAdapterBase implement
      * @param context                     the {@link android.content.Context} needed by the mediation SDK to make the ad request
      * @param serverParametersString      a String containing all needed parameters (as returned by Smart ad delivery) to make the mediation ad call
      * @param clientParameters            additional client-side parameters (user specific, like location)
-     * @param interstitialAdapterListener the {@link SASMediationInterstitialAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
+     * @param adapterListener             the {@link SASMediationInterstitialAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify Smart SDK of events occurring
      */
     @Override
     public void requestInterstitialAd(@NonNull Context context,
                                       @NonNull String serverParametersString,
                                       @NonNull Map<String, Object> clientParameters,
-                                      @NonNull final SASMediationInterstitialAdapterListener interstitialAdapterListener) {
-        Log.d(TAG, "SASVungleInterstitialAdapter requestAd");
+                                      @NonNull SASMediationInterstitialAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationInterstitialAdapterListener interstitialAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, interstitialAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(interstitialAdapterListener);
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, interstitialAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        SASAdapterLogger.d(TAG, "SASVungleInterstitialAdapter requestAd");
 
         // reset interstitial show status to false
         interstitialShown = false;
@@ -68,7 +96,12 @@ public class SASVungleInterstitialAdapter extends SASVungleAdapterBase implement
     @Override
     public void onSuccess() {
         super.onSuccess();
-        Vungle.loadAd(placementID, this);
+        scheduleLoad(new Runnable() {
+            @Override
+            public void run() {
+                Vungle.loadAd(placementID, SASVungleInterstitialAdapter.this);
+            }
+        });
     }
 
     @Override
@@ -97,5 +130,8 @@ public class SASVungleInterstitialAdapter extends SASVungleAdapterBase implement
 
     @Override
     public void onDestroy() {
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
     }
 }
@@ -1,13 +1,17 @@
 package com.smartadserver.android.library.mediation.vungle;
 
 import android.content.Context;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapter;
 import com.smartadserver.android.library.mediation.SASMediationRewardedVideoAdapterListener;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+import com.smartadserver.android.library.mediation.common.SASAdapterMetrics;
+import com.smartadserver.android.library.mediation.common.SASAdapterTimeouts;
+import com.smartadserver.android.library.mediation.common.SASCancellationToken;
+import com.smartadserver.android.library.mediation.common.SASCircuitBreaker;
 import com.vungle.warren.AdConfig;
 import com.vungle.warren.Vungle;
 import com.vungle.warren.error.VungleException;
@@ -21,6 +25,10 @@ public class SASVungleRewardedVideoAdapter extends SASVungleAdapterBase implemen
 
     static private final String TAG = SASVungleRewardedVideoAdapter.class.getSimpleName();
 
+    // cancelled on destroy, so that the SDK callbacks of an abandoned ad request are ignored
+    @Nullable
+    private SASCancellationToken cancellationToken;
+
     private boolean rewardedVideoShown = false;
 
     /**
@@ -29,14 +37,34 @@ public class SASVungleRewardedVideoAdapter extends SASVungleAdapterBase implemen
      * @param context                      The {@link Context} needed by the mediation SDK to make the ad request.
      * @param serverParametersString       a String containing all needed parameters (as returned by Smart ad delivery)
      * @param clientParameters             additional client-side parameters (user specific, like location).
-     * @param rewardedVideoAdapterListener the {@link SASMediationRewardedVideoAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify the Smart SDK of events
+     * @param adapterListener              the {@link SASMediationRewardedVideoAdapterListener} provided to this {@link com.smartadserver.android.library.mediation.SASMediationAdapter} to notify the Smart SDK of events
      */
     @Override
     public void requestRewardedVideoAd(@NonNull Context context,
                                        @NonNull String serverParametersString,
                                        @NonNull Map<String, Object> clientParameters,
-                                       @NonNull final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener) {
-        Log.d(TAG, "SASVungleRewardedVideoAdapter requestAd");
+                                       @NonNull SASMediationRewardedVideoAdapterListener adapterListener) {
+
+        // track the ad request latency and outcome, only the first terminal callback is forwarded
+        final SASMediationRewardedVideoAdapterListener rewardedVideoAdapterListener = SASAdapterMetrics.getSharedInstance().track(NETWORK_NAME, adapterListener);
+
+        // fail fast while this placement keeps failing
+        if (SASCircuitBreaker.getSharedInstance().rejectRequest(NETWORK_NAME, serverParametersString, rewardedVideoAdapterListener)) {
+            return;
+        }
+
+        // token of this ad request, cancelled on destroy
+        cancellationToken = SASCancellationToken.create(rewardedVideoAdapterListener);
+
+        // fail the ad request if it does not load in time, tearing down the pending SDK objects
+        SASAdapterTimeouts.getSharedInstance().start(NETWORK_NAME, rewardedVideoAdapterListener, new SASAdapterTimeouts.TimeoutListener() {
+            @Override
+            public void onTimeout() {
+                onDestroy();
+            }
+        });
+
+        SASAdapterLogger.d(TAG, "SASVungleRewardedVideoAdapter requestAd");
 
         // reset rewarded video show status to false
         rewardedVideoShown = false;
@@ -67,7 +95,12 @@ public class SASVungleRewardedVideoAdapter extends SASVungleAdapterBase implemen
     @Override
     public void onSuccess() {
         super.onSuccess();
-        Vungle.loadAd(placementID, this);
+        scheduleLoad(new Runnable() {
+            @Override
+            public void run() {
+                Vungle.loadAd(placementID, SASVungleRewardedVideoAdapter.this);
+            }
+        });
     }
 
     @Override
@@ -105,5 +138,8 @@ public class SASVungleRewardedVideoAdapter extends SASVungleAdapterBase implemen
 
     @Override
     public void onDestroy() {
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
     }
 }
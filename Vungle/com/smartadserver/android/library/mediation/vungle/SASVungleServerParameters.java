@@ -0,0 +1,71 @@
+package com.smartadserver.android.library.mediation.vungle;
+
+import androidx.annotation.NonNull;
+
+import com.smartadserver.android.library.mediation.common.SASServerParametersCache;
+
+import java.util.List;
+
+/**
+ * Typed Vungle server parameters, parsed from the "applicationID/placementID[/bannerSizeIndex]" String sent by Smart ad delivery
+ */
+class SASVungleServerParameters {
+
+    // parsed server parameters, by raw String
+    @NonNull
+    private static final SASServerParametersCache<SASVungleServerParameters> cache =
+            new SASServerParametersCache<>(16, new SASServerParametersCache.Parser<SASVungleServerParameters>() {
+                @NonNull
+                @Override
+                public SASVungleServerParameters parse(@NonNull String serverParametersString) {
+                    return new SASVungleServerParameters(serverParametersString);
+                }
+            });
+
+    @NonNull
+    private final String applicationID;
+
+    @NonNull
+    private final String placementID;
+
+    private final int bannerSizeIndex;
+
+    private SASVungleServerParameters(@NonNull String serverParametersString) {
+        List<String> fields = SASServerParametersCache.split(serverParametersString, '/');
+        applicationID = fields.get(0);
+        placementID = SASServerParametersCache.getField(fields, 1, "");
+        bannerSizeIndex = SASServerParametersCache.getIntField(fields, 2, 0);
+    }
+
+    /**
+     * Returns the (cached) typed Vungle server parameters for the given raw String
+     */
+    @NonNull
+    static SASVungleServerParameters parse(@NonNull String serverParametersString) {
+        return cache.get(serverParametersString);
+    }
+
+    @NonNull
+    String getApplicationID() {
+        return applicationID;
+    }
+
+    @NonNull
+    String getPlacementID() {
+        return placementID;
+    }
+
+    /**
+     * Returns the banner size index (only for banners), 0 by default
+     */
+    int getBannerSizeIndex() {
+        return bannerSizeIndex;
+    }
+
+    /**
+     * Returns whether both application ID and placement ID are correctly set
+     */
+    boolean isValid() {
+        return applicationID.length() > 0 && placementID.length() > 0;
+    }
+}
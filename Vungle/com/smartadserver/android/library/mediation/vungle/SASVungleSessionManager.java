@@ -0,0 +1,148 @@
+package com.smartadserver.android.library.mediation.vungle;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.vungle.warren.InitCallback;
+import com.vungle.warren.Vungle;
+import com.vungle.warren.error.VungleException;
+import com.smartadserver.android.library.mediation.common.SASAdapterLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide Vungle SDK session shared by all Vungle adapters.
+ * The Vungle SDK is initialized once per application ID, so that subsequent ad requests can go straight to ad loading.
+ * Vungle SDK 6 resolves placements when loading ads, a new placement does not require a re-initialization.
+ */
+class SASVungleSessionManager implements InitCallback {
+
+    static private final String TAG = SASVungleSessionManager.class.getSimpleName();
+
+    @Nullable
+    private static SASVungleSessionManager sharedInstance;
+
+    // application context used for controlled re-initializations
+    @Nullable
+    private Context applicationContext;
+
+    // application ID of the latest ad request
+    @Nullable
+    private String currentApplicationID;
+
+    // application ID of the initialization in progress, if any
+    @Nullable
+    private String initializingApplicationID;
+
+    // application ID of the latest successful initialization
+    @Nullable
+    private String initializedApplicationID;
+
+    // init callbacks of ad requests waiting for the initialization in progress
+    @NonNull
+    private final List<InitCallback> pendingCallbacks = new ArrayList<>();
+
+    @NonNull
+    static synchronized SASVungleSessionManager getSharedInstance() {
+        if (sharedInstance == null) {
+            sharedInstance = new SASVungleSessionManager();
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Makes sure the Vungle SDK is initialized for the given application ID before notifying the given callback.
+     * If the SDK is already initialized for this application ID, the callback is notified immediately. Otherwise,
+     * it is notified once the (single) initialization in progress completes.
+     *
+     * @param context       the {@link Context} used to initialize the Vungle SDK
+     * @param applicationID the Vungle application ID
+     * @param callback      the {@link InitCallback} to notify of the initialization outcome
+     */
+    void initIfNecessary(@NonNull Context context,
+                         @NonNull String applicationID,
+                         @NonNull InitCallback callback) {
+        boolean initialized = false;
+        boolean startInit = false;
+
+        synchronized (this) {
+            applicationContext = context.getApplicationContext();
+
+            currentApplicationID = applicationID;
+
+            if (initializingApplicationID == null && applicationID.equals(initializedApplicationID) && Vungle.isInitialized()) {
+                initialized = true;
+            } else {
+                pendingCallbacks.add(callback);
+                if (initializingApplicationID == null) {
+                    initializingApplicationID = applicationID;
+                    startInit = true;
+                }
+            }
+        }
+
+        if (initialized) {
+            callback.onSuccess();
+        } else if (startInit) {
+            SASAdapterLogger.d(TAG, "Vungle init for application ID: %s", applicationID);
+            Vungle.init(applicationID, applicationContext, this);
+        }
+    }
+
+    /***** InitCallback interface **********/
+
+    @Override
+    public void onSuccess() {
+        SASAdapterLogger.d(TAG, "Vungle InitCallback onSuccess");
+
+        List<InitCallback> callbacks = null;
+        String reinitApplicationID = null;
+
+        synchronized (this) {
+            initializedApplicationID = initializingApplicationID;
+            initializingApplicationID = null;
+
+            if (currentApplicationID != null && !currentApplicationID.equals(initializedApplicationID)) {
+                // the application ID changed during the initialization: perform a single controlled re-init
+                initializingApplicationID = currentApplicationID;
+                reinitApplicationID = currentApplicationID;
+            } else {
+                callbacks = new ArrayList<>(pendingCallbacks);
+                pendingCallbacks.clear();
+            }
+        }
+
+        if (reinitApplicationID != null) {
+            SASAdapterLogger.d(TAG, "Vungle re-init for application ID: %s", reinitApplicationID);
+            Vungle.init(reinitApplicationID, applicationContext, this);
+        } else {
+            for (InitCallback callback : callbacks) {
+                callback.onSuccess();
+            }
+        }
+    }
+
+    @Override
+    public void onError(@Nullable VungleException exception) {
+        SASAdapterLogger.d(TAG, "Vungle InitCallback onError");
+
+        List<InitCallback> callbacks;
+        synchronized (this) {
+            initializingApplicationID = null;
+            callbacks = new ArrayList<>(pendingCallbacks);
+            pendingCallbacks.clear();
+        }
+
+        for (InitCallback callback : callbacks) {
+            callback.onError(exception);
+        }
+    }
+
+    @Override
+    public void onAutoCacheAdAvailable(@Nullable String placementId) {
+        SASAdapterLogger.d(TAG, "Vungle InitCallback onAutoCacheAdAvailable: placementId:%s", placementId);
+    }
+}